@@ -0,0 +1,4 @@
+package org.apache.ivy.core.cache.generated;
+public class CachedModuleDescriptorBenchmark_jmhType extends CachedModuleDescriptorBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.ivy.core.generated;
+public class IvyPatternHelperBenchmark_jmhType extends IvyPatternHelperBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.ivy.core.resolve.generated;
+public class ResolveBenchmark_ColdCache_jmhType extends ResolveBenchmark_ColdCache_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.ivy.core.resolve.generated;
+public class ResolveBenchmark_Repository_jmhType extends ResolveBenchmark_Repository_jmhType_B3 {
+}
+
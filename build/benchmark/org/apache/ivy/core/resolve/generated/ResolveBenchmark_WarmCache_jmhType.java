@@ -0,0 +1,4 @@
+package org.apache.ivy.core.resolve.generated;
+public class ResolveBenchmark_WarmCache_jmhType extends ResolveBenchmark_WarmCache_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.ivy.core.retrieve.generated;
+public class RetrieveBenchmark_jmhType extends RetrieveBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.ivy.plugins.latest.generated;
+public class LatestRevisionStrategyBenchmark_jmhType extends LatestRevisionStrategyBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.ivy.plugins.parser.generated;
+public class ModuleDescriptorParserBenchmark_jmhType extends ModuleDescriptorParserBenchmark_jmhType_B3 {
+}
+
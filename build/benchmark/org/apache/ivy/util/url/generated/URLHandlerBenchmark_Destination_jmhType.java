@@ -0,0 +1,4 @@
+package org.apache.ivy.util.url.generated;
+public class URLHandlerBenchmark_Destination_jmhType extends URLHandlerBenchmark_Destination_jmhType_B3 {
+}
+
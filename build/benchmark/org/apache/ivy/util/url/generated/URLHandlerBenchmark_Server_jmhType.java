@@ -0,0 +1,4 @@
+package org.apache.ivy.util.url.generated;
+public class URLHandlerBenchmark_Server_jmhType extends URLHandlerBenchmark_Server_jmhType_B3 {
+}
+
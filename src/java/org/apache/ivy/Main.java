@@ -20,6 +20,7 @@ package org.apache.ivy;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -32,6 +33,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
 
 import org.apache.ivy.core.cache.ResolutionCacheManager;
@@ -60,7 +62,6 @@ import org.apache.ivy.util.cli.OptionBuilder;
 import org.apache.ivy.util.cli.ParseException;
 import org.apache.ivy.util.filter.FilterHelper;
 import org.apache.ivy.util.url.CredentialsStore;
-import org.apache.ivy.util.url.TimeoutConstrainedURLHandler;
 import org.apache.ivy.util.url.URLHandlerDispatcher;
 import org.apache.ivy.util.url.URLHandlerRegistry;
 
@@ -206,6 +207,17 @@ public final class Main {
                             .description("extra classpath to use when launching process").create())
 
 
+                .addCategory("daemon options")
+                .addOption(
+                    new OptionBuilder("daemon").arg("port")
+                            .description("start a resolve daemon listening on the given local port")
+                            .create())
+                .addOption(
+                    new OptionBuilder("useDaemon").arg("port")
+                            .description("delegate the resolve, retrieve and cache path to the "
+                                    + "daemon listening on the given local port, if any")
+                            .create())
+
                 .addCategory("message options")
                 .addOption(
                     new OptionBuilder("debug").description("set message level to debug").create())
@@ -279,10 +291,46 @@ public final class Main {
             return null;
         }
 
+        if (line.hasOption("daemon")) {
+            runDaemon(getPort(line, "daemon"));
+            return null;
+        }
+        if (isCli && line.hasOption("useDaemon") && ResolveDaemon.canServe(line)) {
+            int exitCode = ResolveDaemon.delegate(getPort(line, "useDaemon"),
+                ResolveDaemon.getDefaultTokenDir(), new File(System.getProperty("user.dir")),
+                ResolveDaemon.getCommandLineProperties(), args, System.out, System.err);
+            if (exitCode != ResolveDaemon.NOT_RUNNING) {
+                if (exitCode != 0) {
+                    System.exit(exitCode);
+                }
+                return null;
+            }
+            // no daemon running, resolve in this JVM
+        }
+
         return run(line, isCli);
     }
 
-    @SuppressWarnings("deprecation")
+    private static void runDaemon(int port) throws IOException {
+        final ResolveDaemon daemon = new ResolveDaemon(port, ResolveDaemon.getDefaultTokenDir());
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            public void run() {
+                daemon.close();
+            }
+        });
+        System.out.println("Ivy resolve daemon listening on port " + daemon.getPort());
+        daemon.serve();
+    }
+
+    private static int getPort(CommandLine line, String option) throws ParseException {
+        String port = line.getOptionValue(option);
+        try {
+            return Integer.parseInt(port);
+        } catch (NumberFormatException e) {
+            throw new ParseException("invalid port for -" + option + ": " + port);
+        }
+    }
+
     private static ResolveReport run(CommandLine line, boolean isCli) throws Exception {
         if (line.hasOption("version")) {
             System.out.println("Apache Ivy " + Ivy.getIvyVersion() + " - " + Ivy.getIvyDate()
@@ -290,26 +338,42 @@ public final class Main {
             return null;
         }
 
-        boolean validate = !line.hasOption("novalidate");
-
         Ivy ivy = Ivy.newInstance();
         initMessage(line, ivy);
-        IvySettings settings = initSettings(line, ivy);
+        initSettings(line, ivy, null, System.getProperties());
         ivy.pushContext();
 
-        File cache = new File(settings.substitute(line.getOptionValue("cache", settings
-                .getDefaultCache().getAbsolutePath())));
+        ResolveReport report = execute(line, ivy, null, System.out, isCli);
 
-        if (line.hasOption("cache")) {
-            // override default cache path with user supplied cache path
-            settings.setDefaultCache(cache);
-        }
+        ivy.getLoggerEngine().popLogger();
+        ivy.popContext();
 
-        if (!cache.exists()) {
-            cache.mkdirs();
-        } else if (!cache.isDirectory()) {
-            error(cache + " is not a directory");
-        }
+        return report;
+    }
+
+    /**
+     * Does the work asked by the command line with an Ivy instance whose settings have been
+     * initialized with {@link #initSettings(CommandLine, Ivy, File, Map)}.
+     *
+     * @param line
+     *            the command line
+     * @param ivy
+     *            the Ivy instance to use, whose context has been pushed
+     * @param baseDir
+     *            the directory against which the relative paths of the command line are resolved,
+     *            <code>null</code> for the current directory
+     * @param out
+     *            where to print the output which isn't logged
+     * @param isCli
+     *            true to exit the JVM when the resolve fails
+     * @return the resolve report
+     * @throws Exception
+     *             if something goes wrong
+     */
+    @SuppressWarnings("deprecation")
+    static ResolveReport execute(CommandLine line, Ivy ivy, File baseDir, PrintStream out,
+            boolean isCli) throws Exception {
+        IvySettings settings = ivy.getSettings();
 
         String[] confs;
         if (line.hasOption("confs")) {
@@ -335,7 +399,7 @@ public final class Main {
             XmlModuleDescriptorWriter.write(md, ivyfile);
             confs = new String[] {"default"};
         } else {
-            ivyfile = new File(settings.substitute(line.getOptionValue("ivy", "ivy.xml")));
+            ivyfile = getFile(baseDir, settings.substitute(line.getOptionValue("ivy", "ivy.xml")));
             if (!ivyfile.exists()) {
                 error("ivy file not found: " + ivyfile);
             } else if (ivyfile.isDirectory()) {
@@ -343,9 +407,23 @@ public final class Main {
             }
         }
 
-        if (line.hasOption("useOrigin")) {
-            ivy.getSettings().useDeprecatedUseOrigin();
+        try {
+            return execute(line, ivy, baseDir, out, isCli, ivyfile, confs);
+        } finally {
+            if (line.hasOption("dependency")) {
+                // a daemon serves many requests, the file must not wait for the JVM to exit
+                ivyfile.delete();
+            }
         }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static ResolveReport execute(CommandLine line, Ivy ivy, File baseDir, PrintStream out,
+            boolean isCli, File ivyfile, String[] confs) throws Exception {
+        boolean validate = !line.hasOption("novalidate");
+        IvySettings settings = ivy.getSettings();
+        File cache = settings.getDefaultCache();
+
         ResolveOptions resolveOptions = new ResolveOptions()
                 .setConfs(confs)
                 .setValidate(validate)
@@ -379,11 +457,13 @@ public final class Main {
             confs = md.getConfigurationsNames();
         }
         if (line.hasOption("retrieve")) {
-            String retrievePattern = settings.substitute(line.getOptionValue("retrieve"));
+            String retrievePattern = getPattern(baseDir,
+                settings.substitute(line.getOptionValue("retrieve")));
             if (!retrievePattern.contains("[")) {
                 retrievePattern += "/lib/[conf]/[artifact].[ext]";
             }
-            String ivyPattern = settings.substitute(line.getOptionValue("ivypattern"));
+            String ivyPattern = getPattern(baseDir,
+                settings.substitute(line.getOptionValue("ivypattern")));
             ivy.retrieve(
                 md.getModuleRevisionId(),
                 new RetrieveOptions()
@@ -400,7 +480,7 @@ public final class Main {
         }
         if (line.hasOption("cachepath")) {
             outputCachePath(ivy, cache, md, confs,
-                line.getOptionValue("cachepath", "ivycachepath.txt"));
+                getFile(baseDir, line.getOptionValue("cachepath", "ivycachepath.txt")), out);
         }
 
         if (line.hasOption("revision")) {
@@ -451,8 +531,6 @@ public final class Main {
             // invoke with given main class and merged params
             invoke(ivy, cache, md, confs, fileList, line.getOptionValue("main"), params);
         }
-        ivy.getLoggerEngine().popLogger();
-        ivy.popContext();
 
         return report;
     }
@@ -490,13 +568,29 @@ public final class Main {
         return fileList;
     }
 
-    private static IvySettings initSettings(CommandLine line, Ivy ivy)
-            throws java.text.ParseException, IOException, ParseException {
+    /**
+     * Configures the settings of the given Ivy instance with the settings options of the command
+     * line.
+     *
+     * @param line
+     *            the command line
+     * @param ivy
+     *            the Ivy instance to configure
+     * @param baseDir
+     *            the directory against which the relative paths of the command line are resolved,
+     *            <code>null</code> for the current directory
+     * @param properties
+     *            the system properties to use as Ivy variables
+     * @return the settings of the Ivy instance
+     */
+    @SuppressWarnings("deprecation")
+    static IvySettings initSettings(CommandLine line, Ivy ivy, File baseDir,
+            Map<?, ?> properties) throws java.text.ParseException, IOException, ParseException {
         IvySettings settings = ivy.getSettings();
-        settings.addAllVariables(System.getProperties());
+        settings.addAllVariables(properties);
         if (line.hasOption("properties")) {
-            settings.addAllVariables(new PropertiesFile(new File(line.getOptionValue("properties")),
-                    "additional properties"));
+            settings.addAllVariables(new PropertiesFile(getFile(baseDir,
+                line.getOptionValue("properties")), "additional properties"));
         }
         if (line.hasOption("m2compatible")) {
             settings.setVariable("ivy.default.configuration.m2compatible", "true");
@@ -515,7 +609,7 @@ public final class Main {
         if ("".equals(settingsPath)) {
             ivy.configureDefault();
         } else {
-            File conffile = new File(settingsPath);
+            File conffile = getFile(baseDir, settingsPath);
             if (!conffile.exists()) {
                 error("ivy configuration file not found: " + conffile);
             } else if (conffile.isDirectory()) {
@@ -523,25 +617,59 @@ public final class Main {
             }
             ivy.configure(conffile);
         }
+
+        File cache = getFile(baseDir, settings.substitute(line.getOptionValue("cache", settings
+                .getDefaultCache().getAbsolutePath())));
+
+        if (line.hasOption("cache")) {
+            // override default cache path with user supplied cache path
+            settings.setDefaultCache(cache);
+        }
+
+        if (!cache.exists()) {
+            cache.mkdirs();
+        } else if (!cache.isDirectory()) {
+            error(cache + " is not a directory");
+        }
+
+        if (line.hasOption("useOrigin")) {
+            settings.useDeprecatedUseOrigin();
+        }
         return settings;
     }
 
-    private static void initMessage(CommandLine line, Ivy ivy) {
+    /**
+     * Returns the given path resolved against the given base directory, if any.
+     */
+    static File getFile(File baseDir, String path) {
+        File file = new File(path);
+        return baseDir == null || file.isAbsolute() ? file : new File(baseDir, path);
+    }
+
+    private static String getPattern(File baseDir, String pattern) {
+        return pattern == null ? null : getFile(baseDir, pattern).getPath();
+    }
+
+    static int getMessageLevel(CommandLine line) {
         if (line.hasOption("debug")) {
-            ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_DEBUG));
+            return Message.MSG_DEBUG;
         } else if (line.hasOption("verbose")) {
-            ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_VERBOSE));
+            return Message.MSG_VERBOSE;
         } else if (line.hasOption("warn")) {
-            ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_WARN));
+            return Message.MSG_WARN;
         } else if (line.hasOption("error")) {
-            ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_ERR));
+            return Message.MSG_ERR;
         } else {
-            ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_INFO));
+            return Message.MSG_INFO;
         }
     }
 
+    private static void initMessage(CommandLine line, Ivy ivy) {
+        ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(getMessageLevel(line)));
+    }
+
     private static void outputCachePath(Ivy ivy, File cache, ModuleDescriptor md, String[] confs,
-            String outFile) {
+            File outFile, PrintStream out) {
         try {
             StringBuilder buf = new StringBuilder();
             Collection<ArtifactDownloadReport> all = new LinkedHashSet<>();
@@ -567,7 +695,7 @@ public final class Main {
                 writer.println(buf);
             }
             writer.close();
-            System.out.println("cachepath output to " + outFile);
+            out.println("cachepath output to " + outFile);
 
         } catch (Exception ex) {
             throw new RuntimeException("impossible to build ivy cache path: " + ex.getMessage(), ex);
@@ -636,9 +764,8 @@ public final class Main {
         CredentialsStore.INSTANCE.addCredentials(realm, host, username, passwd);
 
         URLHandlerDispatcher dispatcher = new URLHandlerDispatcher();
-        TimeoutConstrainedURLHandler httpHandler = URLHandlerRegistry.getHttp();
-        dispatcher.setDownloader("http", httpHandler);
-        dispatcher.setDownloader("https", httpHandler);
+        dispatcher.setDownloader("http", URLHandlerRegistry.getHttp("http"));
+        dispatcher.setDownloader("https", URLHandlerRegistry.getHttp("https"));
         URLHandlerRegistry.setDefault(dispatcher);
     }
 
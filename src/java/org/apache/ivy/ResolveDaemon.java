@@ -0,0 +1,578 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ivy.core.resolve.ResolveProcessException;
+import org.apache.ivy.util.AbstractMessageLogger;
+import org.apache.ivy.util.HexEncoder;
+import org.apache.ivy.util.MessageLogger;
+import org.apache.ivy.util.StringUtils;
+import org.apache.ivy.util.cli.CommandLine;
+import org.apache.ivy.util.cli.ParseException;
+
+/**
+ * A long running resolve daemon, serving the resolve, retrieve and cache path requests of the
+ * command line clients, so that they don't pay for the settings parsing and the warm up of a new
+ * JVM each time.
+ * <p>
+ * The daemon keeps an Ivy instance per settings, which are configured the first time they are
+ * used and again when one of the settings or properties files they were loaded from changes. The
+ * system properties set on the command line of a client are sent with its request, and used as
+ * Ivy variables by the instance configured for them, so that two clients setting different
+ * properties don't share an instance. The requests are served concurrently, except the ones
+ * using the same Ivy instance which are served one after the other.
+ * </p>
+ * <p>
+ * The daemon only listens on the loopback interface. It writes a random token in a file only
+ * readable by its user, and only serves the clients which send it back.
+ * </p>
+ */
+final class ResolveDaemon {
+
+    /**
+     * The exit code returned by {@link #delegate} when no daemon is listening on the port.
+     */
+    static final int NOT_RUNNING = -1;
+
+    private static final int CONNECT_TIMEOUT = 1000;
+
+    private static final int TOKEN_LENGTH = 16;
+
+    private static final List<String> UNSUPPORTED_OPTIONS = Arrays.asList("daemon", "version",
+        "deliverto", "revision", "publish", "makepom", "realm", "host", "username", "passwd",
+        "main", "args", "cp");
+
+    private static final byte OUT = 'o';
+
+    private static final byte RAW_OUT = 'r';
+
+    private static final byte ERR = 'e';
+
+    private static final byte EXIT = 'x';
+
+    private final ServerSocket serverSocket;
+
+    private final File tokenFile;
+
+    private final byte[] token;
+
+    private final ExecutorService executor;
+
+    // the instances being configured or configured, by settings options
+    private final ConcurrentMap<String, FutureTask<WarmIvy>> instances = new ConcurrentHashMap<>();
+
+    ResolveDaemon(int port, File tokenDir) throws IOException {
+        serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        byte[] random = new byte[TOKEN_LENGTH];
+        new SecureRandom().nextBytes(random);
+        token = HexEncoder.encode(random).getBytes(StandardCharsets.UTF_8);
+        tokenFile = new File(tokenDir, serverSocket.getLocalPort() + ".token");
+        writeToken();
+        executor = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "ivy-daemon-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    static File getDefaultTokenDir() {
+        return new File(System.getProperty("user.home"), ".ivy2/daemon");
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Serves the requests until the daemon is closed.
+     */
+    void serve() {
+        while (!serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("resolve daemon: impossible to accept a connection: " + e);
+                }
+                continue;
+            }
+            executor.execute(new Runnable() {
+                public void run() {
+                    handle(socket);
+                }
+            });
+        }
+    }
+
+    void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // ignored
+        }
+        executor.shutdownNow();
+        tokenFile.delete();
+    }
+
+    /**
+     * Tells whether the daemon can do what the command line asks: resolving, retrieving and
+     * outputting cache paths.
+     */
+    static boolean canServe(CommandLine line) {
+        for (String option : UNSUPPORTED_OPTIONS) {
+            if (line.hasOption(option)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the system properties set with <code>-D</code> on the command line of this JVM,
+     * with their current value.
+     */
+    static Map<String, String> getCommandLineProperties() {
+        Map<String, String> properties = new TreeMap<>();
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (!arg.startsWith("-D")) {
+                continue;
+            }
+            int equals = arg.indexOf('=');
+            String name = equals == -1 ? arg.substring(2) : arg.substring(2, equals);
+            String value = System.getProperty(name);
+            if (value != null) {
+                properties.put(name, value);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Sends the command line arguments and system properties to the daemon listening on the given
+     * port, printing its output until it is done.
+     *
+     * @return the exit code of the request, or {@link #NOT_RUNNING} if no daemon is listening on
+     *         the port
+     */
+    static int delegate(int port, File tokenDir, File baseDir, Map<String, String> properties,
+            String[] args, PrintStream out, PrintStream err) {
+        File tokenFile = new File(tokenDir, port + ".token");
+        if (!tokenFile.isFile()) {
+            return NOT_RUNNING;
+        }
+        try (Socket socket = new Socket()) {
+            try {
+                socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                    CONNECT_TIMEOUT);
+            } catch (ConnectException | SocketTimeoutException e) {
+                // the token file of a daemon which has been killed
+                return NOT_RUNNING;
+            }
+            DataOutputStream request = new DataOutputStream(new BufferedOutputStream(
+                    socket.getOutputStream()));
+            request.write(Files.readAllBytes(tokenFile.toPath()));
+            writeString(request, baseDir.getAbsolutePath());
+            request.writeInt(properties.size());
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                writeString(request, property.getKey());
+                writeString(request, property.getValue());
+            }
+            request.writeInt(args.length);
+            for (String arg : args) {
+                writeString(request, arg);
+            }
+            request.flush();
+
+            DataInputStream response = new DataInputStream(new BufferedInputStream(
+                    socket.getInputStream()));
+            while (true) {
+                int kind = response.read();
+                switch (kind) {
+                    case OUT:
+                        out.println(readString(response));
+                        break;
+                    case RAW_OUT:
+                        out.print(readString(response));
+                        out.flush();
+                        break;
+                    case ERR:
+                        err.println(readString(response));
+                        break;
+                    case EXIT:
+                        return response.readInt();
+                    default:
+                        throw new EOFException("connection closed by the daemon");
+                }
+            }
+        } catch (IOException e) {
+            err.println("resolve daemon request failed: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private void writeToken() throws IOException {
+        tokenFile.getParentFile().mkdirs();
+        tokenFile.delete();
+        tokenFile.createNewFile();
+        // only readable by the user running the daemon
+        tokenFile.setReadable(false, false);
+        tokenFile.setWritable(false, false);
+        tokenFile.setReadable(true, true);
+        tokenFile.setWritable(true, true);
+        try (OutputStream out = new FileOutputStream(tokenFile)) {
+            out.write(token);
+        }
+        tokenFile.deleteOnExit();
+    }
+
+    private void handle(Socket socket) {
+        try (Socket s = socket) {
+            DataInputStream request = new DataInputStream(new BufferedInputStream(
+                    s.getInputStream()));
+            byte[] clientToken = new byte[token.length];
+            request.readFully(clientToken);
+            if (!MessageDigest.isEqual(token, clientToken)) {
+                return;
+            }
+            File baseDir = new File(readString(request));
+            Map<String, String> properties = new TreeMap<>();
+            for (int i = request.readInt(); i > 0; i--) {
+                properties.put(readString(request), readString(request));
+            }
+            String[] args = new String[request.readInt()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = readString(request);
+            }
+
+            Client client = new Client(new DataOutputStream(new BufferedOutputStream(
+                    s.getOutputStream())));
+            client.exit(execute(args, baseDir, properties, client));
+        } catch (SocketException | EOFException e) {
+            // the client has gone
+        } catch (IOException e) {
+            System.err.println("resolve daemon: request failed: " + e);
+        }
+    }
+
+    private int execute(String[] args, File baseDir, Map<String, String> properties,
+            Client client) {
+        CommandLine line;
+        try {
+            line = Main.getParser().parse(args);
+        } catch (ParseException e) {
+            client.send(ERR, e.getMessage());
+            return 1;
+        }
+        if (!canServe(line)) {
+            client.send(ERR, "the resolve daemon only serves resolve, retrieve and cachepath "
+                    + "requests");
+            return 1;
+        }
+
+        MessageLogger logger = new ClientLogger(client, Main.getMessageLevel(line));
+        try {
+            Ivy ivy = getIvy(line, baseDir, properties, logger);
+            synchronized (ivy) {
+                ivy.getLoggerEngine().pushLogger(logger);
+                ivy.pushContext();
+                try {
+                    ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    PrintStream out = new PrintStream(output, true, "UTF-8");
+                    Main.execute(line, ivy, baseDir, out, false);
+                    if (output.size() > 0) {
+                        client.send(RAW_OUT, output.toString("UTF-8"));
+                    }
+                    return 0;
+                } finally {
+                    ivy.popContext();
+                    ivy.getLoggerEngine().popLogger();
+                }
+            }
+        } catch (ResolveProcessException e) {
+            // the problems have already been logged
+            return 1;
+        } catch (ParseException e) {
+            client.send(ERR, e.getMessage());
+            return 1;
+        } catch (Exception e) {
+            client.send(ERR, StringUtils.getStackTrace(e));
+            return 1;
+        }
+    }
+
+    /**
+     * Returns the Ivy instance configured with the settings options and system properties of the
+     * command line, configuring a new one if there is none yet or if the settings have changed.
+     * <p>
+     * An instance is configured by the first request needing it, the other requests with the same
+     * settings options and properties waiting for it, while the other requests go on.
+     * </p>
+     */
+    private Ivy getIvy(final CommandLine line, final File baseDir,
+            final Map<String, String> properties, final MessageLogger logger) throws Exception {
+        String settingsPath = line.getOptionValue("settings", line.getOptionValue("conf", ""));
+        final File settingsFile = "".equals(settingsPath) ? null : Main.getFile(baseDir,
+            settingsPath);
+        final File propertiesFile = line.hasOption("properties") ? Main.getFile(baseDir,
+            line.getOptionValue("properties")) : null;
+        String cache = line.hasOption("cache") ? Main.getFile(baseDir,
+            line.getOptionValue("cache")).getAbsolutePath() : null;
+        String key = getPath(settingsFile) + "|" + getPath(propertiesFile) + "|" + cache + "|"
+                + line.hasOption("m2compatible") + "|" + line.hasOption("useOrigin") + "|"
+                + properties;
+
+        while (true) {
+            FutureTask<WarmIvy> task = instances.get(key);
+            FutureTask<WarmIvy> newTask = null;
+            if (task == null || (task.isDone() && isStale(task))) {
+                newTask = new FutureTask<>(new Callable<WarmIvy>() {
+                    public WarmIvy call() throws Exception {
+                        return configure(line, baseDir, properties, logger, settingsFile,
+                            propertiesFile);
+                    }
+                });
+                boolean published = task == null ? instances.putIfAbsent(key, newTask) == null
+                        : instances.replace(key, task, newTask);
+                if (!published) {
+                    // another request is configuring it
+                    continue;
+                }
+                task = newTask;
+                task.run();
+            }
+            try {
+                return task.get().ivy;
+            } catch (ExecutionException e) {
+                instances.remove(key, task);
+                if (task != newTask) {
+                    // the instance another request was configuring, which failed
+                    continue;
+                }
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw (Error) cause;
+            }
+        }
+    }
+
+    private static boolean isStale(FutureTask<WarmIvy> task) {
+        try {
+            WarmIvy warm = task.get();
+            return !warm.stamp.equals(getStamp(warm.files));
+        } catch (InterruptedException | ExecutionException e) {
+            return true;
+        }
+    }
+
+    private static WarmIvy configure(CommandLine line, File baseDir,
+            Map<String, String> properties, MessageLogger logger, File settingsFile,
+            File propertiesFile) throws Exception {
+        List<File> files = new ArrayList<>();
+        if (settingsFile != null) {
+            files.add(settingsFile);
+        }
+        if (propertiesFile != null) {
+            files.add(propertiesFile);
+        }
+        // stamped before the loading, so that a change made meanwhile isn't missed
+        String stamp = getStamp(files);
+
+        // the properties of the client override the ones of the daemon
+        Map<Object, Object> variables = new HashMap<>(System.getProperties());
+        variables.putAll(properties);
+
+        Ivy ivy = Ivy.newInstance();
+        ivy.getLoggerEngine().pushLogger(logger);
+        try {
+            Main.initSettings(line, ivy, baseDir, variables);
+        } finally {
+            ivy.getLoggerEngine().popLogger();
+        }
+
+        // the files included by the settings
+        for (URL url : ivy.getSettings().getLoadedURLs()) {
+            if ("file".equals(url.getProtocol())) {
+                try {
+                    File file = new File(url.toURI());
+                    if (!files.contains(file)) {
+                        files.add(file);
+                        stamp += getStamp(file);
+                    }
+                } catch (URISyntaxException e) {
+                    // not a file which can be checked
+                }
+            }
+        }
+        return new WarmIvy(ivy, files, stamp);
+    }
+
+    private static String getPath(File file) {
+        return file == null ? null : file.getAbsolutePath();
+    }
+
+    private static String getStamp(List<File> files) {
+        StringBuilder stamp = new StringBuilder();
+        for (File file : files) {
+            stamp.append(getStamp(file));
+        }
+        return stamp.toString();
+    }
+
+    private static String getStamp(File file) {
+        return file.lastModified() + ":" + file.length() + "|";
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class WarmIvy {
+        private final Ivy ivy;
+
+        // the settings and properties files the instance was configured from
+        private final List<File> files;
+
+        private final String stamp;
+
+        private WarmIvy(Ivy ivy, List<File> files, String stamp) {
+            this.ivy = ivy;
+            this.files = files;
+            this.stamp = stamp;
+        }
+    }
+
+    /**
+     * The connection to a client, to which the output of its request is sent.
+     */
+    private static final class Client {
+        private final DataOutputStream out;
+
+        private boolean gone;
+
+        private Client(DataOutputStream out) {
+            this.out = out;
+        }
+
+        synchronized void send(byte kind, String msg) {
+            if (gone) {
+                return;
+            }
+            try {
+                out.write(kind);
+                writeString(out, msg);
+                out.flush();
+            } catch (IOException e) {
+                gone = true;
+            }
+        }
+
+        synchronized void exit(int exitCode) throws IOException {
+            out.write(EXIT);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+
+    /**
+     * Logs the messages of a request to its client, as the command line does.
+     */
+    private static final class ClientLogger extends AbstractMessageLogger {
+        private final Client client;
+
+        private final int level;
+
+        private ClientLogger(Client client, int level) {
+            this.client = client;
+            this.level = level;
+        }
+
+        public void log(String msg, int level) {
+            if (level <= this.level) {
+                client.send(OUT, msg);
+            }
+        }
+
+        public void rawlog(String msg, int level) {
+            log(msg, level);
+        }
+
+        public void doProgress() {
+            client.send(RAW_OUT, ".");
+        }
+
+        public void doEndProgress(String msg) {
+            client.send(OUT, msg);
+        }
+    }
+}
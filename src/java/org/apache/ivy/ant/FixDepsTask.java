@@ -71,7 +71,7 @@ public class FixDepsTask extends IvyPostResolveTask {
                     + "' already exist and is a folder");
         }
 
-        ResolveReport report = getResolvedReport();
+        ResolveReport report = getResolvedReportWithDependencyGraph();
 
         List<ModuleId> midToKeep = new ArrayList<>();
         for (Keep keep : keeps) {
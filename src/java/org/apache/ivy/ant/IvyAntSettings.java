@@ -30,7 +30,6 @@ import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.core.settings.IvyVariableContainer;
 import org.apache.ivy.util.Message;
 import org.apache.ivy.util.url.CredentialsStore;
-import org.apache.ivy.util.url.TimeoutConstrainedURLHandler;
 import org.apache.ivy.util.url.URLHandlerDispatcher;
 import org.apache.ivy.util.url.URLHandlerRegistry;
 import org.apache.tools.ant.BuildException;
@@ -380,9 +379,8 @@ public class IvyAntSettings extends DataType {
         CredentialsStore.INSTANCE.addCredentials(getRealm(), getHost(), getUsername(), getPasswd());
 
         URLHandlerDispatcher dispatcher = new URLHandlerDispatcher();
-        TimeoutConstrainedURLHandler httpHandler = URLHandlerRegistry.getHttp();
-        dispatcher.setDownloader("http", httpHandler);
-        dispatcher.setDownloader("https", httpHandler);
+        dispatcher.setDownloader("http", URLHandlerRegistry.getHttp("http"));
+        dispatcher.setDownloader("https", URLHandlerRegistry.getHttp("https"));
         URLHandlerRegistry.setDefault(dispatcher);
     }
 
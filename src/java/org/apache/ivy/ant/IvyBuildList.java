@@ -18,6 +18,8 @@
 package org.apache.ivy.ant;
 
 import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -34,6 +36,9 @@ import org.apache.ivy.core.IvyPatternHelper;
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleId;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.MultiModuleResolver;
+import org.apache.ivy.core.resolve.ResolveOptions;
 import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.core.sort.SortOptions;
 import org.apache.ivy.plugins.matcher.MapMatcher;
@@ -151,6 +156,12 @@ public class IvyBuildList extends IvyTask {
 
     private String restartFrom = "*";
 
+    private boolean resolve = false;
+
+    private String resolveConf = "*";
+
+    private int resolveThreads = Runtime.getRuntime().availableProcessors();
+
     public void addFileset(FileSet buildFiles) {
         buildFileSets.add(buildFiles);
     }
@@ -342,6 +353,46 @@ public class IvyBuildList extends IvyTask {
 
         getProject().addReference(getReference(), path);
         getProject().setProperty("ivy.sorted.modules", order.toString());
+
+        if (resolve) {
+            resolveModules(ivy, settings, sortedModules);
+        }
+    }
+
+    /**
+     * Resolves the modules of the build list, concurrently when they don't depend on each other,
+     * and keeps the report of each one under its default resolve id.
+     */
+    private void resolveModules(Ivy ivy, IvySettings settings, List<ModuleDescriptor> modules) {
+        Map<ModuleDescriptor, List<ModuleDescriptor>> dependencies = ivy.getSortEngine()
+                .getSortedDependencies(modules, SortOptions.SILENT);
+        ResolveOptions options = new ResolveOptions().setConfs(splitConfs(resolveConf))
+                .setValidate(doValidate(settings));
+        Map<ModuleDescriptor, ResolveReport> reports;
+        try {
+            reports = new MultiModuleResolver(ivy.getResolveEngine(), resolveThreads).resolve(
+                dependencies, options);
+        } catch (ParseException | IOException e) {
+            throw new BuildException("impossible to resolve the build list: " + e, e);
+        }
+
+        StringBuilder failed = new StringBuilder();
+        for (ResolveReport report : reports.values()) {
+            setResolved(report, report.getResolveId(), false);
+            if (report.hasError()) {
+                if (failed.length() > 0) {
+                    failed.append(", ");
+                }
+                failed.append(report.getModuleDescriptor().getModuleRevisionId().getModuleId());
+            }
+        }
+        if (failed.length() > 0) {
+            if (haltOnError) {
+                throw new BuildException("resolve failed for " + failed
+                        + " - see output for details");
+            }
+            Message.warn("resolve failed for " + failed);
+        }
     }
 
     private Set<MapMatcher> convert(List<BuildListModule> modulesList, String modulesString, IvySettings settings) {
@@ -664,4 +715,28 @@ public class IvyBuildList extends IvyTask {
         this.restartFrom = restartFrom;
     }
 
+    public boolean isResolve() {
+        return resolve;
+    }
+
+    public void setResolve(boolean resolve) {
+        this.resolve = resolve;
+    }
+
+    public String getResolveConf() {
+        return resolveConf;
+    }
+
+    public void setResolveConf(String resolveConf) {
+        this.resolveConf = resolveConf;
+    }
+
+    public int getResolveThreads() {
+        return resolveThreads;
+    }
+
+    public void setResolveThreads(int resolveThreads) {
+        this.resolveThreads = resolveThreads;
+    }
+
 }
@@ -17,6 +17,9 @@
  */
 package org.apache.ivy.ant;
 
+import java.io.IOException;
+
+import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
 import org.apache.ivy.core.cache.RepositoryCacheManager;
 import org.apache.ivy.core.settings.IvySettings;
 import org.apache.tools.ant.BuildException;
@@ -33,6 +36,8 @@ public class IvyCleanCache extends IvyTask {
 
     private String cache = ALL;
 
+    private boolean blobs = false;
+
     public String getCache() {
         return cache;
     }
@@ -63,6 +68,22 @@ public class IvyCleanCache extends IvyTask {
         this.resolution = resolution;
     }
 
+    public boolean isBlobs() {
+        return blobs;
+    }
+
+    /**
+     * Sets whether the blobs no longer used by any cache should be deleted from the blob stores of
+     * the repository caches, once the caches to clean have been cleaned.
+     *
+     * @param blobs
+     *            <code>true</code> if the unused blobs should be deleted, <code>false</code>
+     *            otherwise.
+     */
+    public void setBlobs(boolean blobs) {
+        this.blobs = blobs;
+    }
+
     public void doExecute() throws BuildException {
         IvySettings settings = getIvyInstance().getSettings();
         if (isResolution()) {
@@ -80,5 +101,18 @@ public class IvyCleanCache extends IvyTask {
                 cache.clean();
             }
         }
+        if (isBlobs()) {
+            for (RepositoryCacheManager cache : settings.getRepositoryCacheManagers()) {
+                if (cache instanceof DefaultRepositoryCacheManager) {
+                    try {
+                        int deleted = ((DefaultRepositoryCacheManager) cache).collectUnusedBlobs();
+                        log("deleted " + deleted + " unused blobs of " + cache.getName());
+                    } catch (IOException e) {
+                        throw new BuildException("impossible to collect the unused blobs of "
+                                + cache.getName() + ": " + e, e);
+                    }
+                }
+            }
+        }
     }
 }
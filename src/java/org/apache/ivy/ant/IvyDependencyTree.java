@@ -39,7 +39,7 @@ public class IvyDependencyTree extends IvyPostResolveTask {
 
     public void doExecute() throws BuildException {
         prepareAndCheck();
-        ResolveReport report = getResolvedReport();
+        ResolveReport report = getResolvedReportWithDependencyGraph();
         if (report == null) {
             throw new BuildException("No resolution report was available to run the post-resolve task. Make sure resolve was done before this task");
         }
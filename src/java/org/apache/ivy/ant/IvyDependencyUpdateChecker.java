@@ -47,7 +47,8 @@ public class IvyDependencyUpdateChecker extends IvyPostResolveTask {
     public void doExecute() throws BuildException {
         prepareAndCheck();
 
-        ModuleDescriptor originalModuleDescriptor = getResolvedReport().getModuleDescriptor();
+        ResolveReport originalReport = getResolvedReportWithDependencyGraph();
+        ModuleDescriptor originalModuleDescriptor = originalReport.getModuleDescriptor();
         // clone module descriptor
         DefaultModuleDescriptor latestModuleDescriptor = new DefaultModuleDescriptor(
                 originalModuleDescriptor.getModuleRevisionId(),
@@ -69,16 +70,18 @@ public class IvyDependencyUpdateChecker extends IvyPostResolveTask {
         resolveOptions.setLog(getLog());
         resolveOptions.setConfs(splitToArray(getConf()));
         resolveOptions.setCheckIfChanged(checkIfChanged);
+        // the dependencies of both reports are compared
+        resolveOptions.setUseResolveSnapshot(false);
 
         ResolveReport latestReport;
         try {
             latestReport = getIvyInstance().getResolveEngine().resolve(latestModuleDescriptor,
                 resolveOptions);
 
-            displayDependencyUpdates(getResolvedReport(), latestReport);
+            displayDependencyUpdates(originalReport, latestReport);
             if (showTransitive) {
-                displayNewDependencyOnLatest(getResolvedReport(), latestReport);
-                displayMissingDependencyOnLatest(getResolvedReport(), latestReport);
+                displayNewDependencyOnLatest(originalReport, latestReport);
+                displayMissingDependencyOnLatest(originalReport, latestReport);
             }
 
         } catch (ParseException | IOException e) {
@@ -18,6 +18,8 @@
 package org.apache.ivy.ant;
 
 import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -328,6 +330,34 @@ public abstract class IvyPostResolveTask extends IvyTask {
                 : getModule(), resolveId);
     }
 
+    /**
+     * Returns the report of the resolve, with its dependency graph. A report restored from a
+     * resolve snapshot doesn't give it: the module is then resolved again, without using the
+     * snapshot.
+     *
+     * @return the report, <code>null</code> if no resolve has been done
+     */
+    protected ResolveReport getResolvedReportWithDependencyGraph() {
+        ResolveReport report = getResolvedReport();
+        if (report == null || report.hasDependencyGraph()) {
+            return report;
+        }
+        ModuleDescriptor md = report.getModuleDescriptor();
+        Message.verbose("resolving " + md.getModuleRevisionId()
+                + " again: the dependency graph is not kept in resolve snapshots");
+        ResolveOptions options = ((ResolveOptions) new ResolveOptions().setLog(getLog()))
+                .setConfs(report.getConfigurations()).setValidate(doValidate(getSettings()))
+                .setTransitive(isTransitive()).setResolveMode(getResolveMode())
+                .setResolveId(report.getResolveId()).setUseResolveSnapshot(false);
+        try {
+            report = getIvyInstance().getResolveEngine().resolve(md, options);
+        } catch (ParseException | IOException e) {
+            throw new BuildException("impossible to resolve dependencies:\n\t" + e, e);
+        }
+        setResolved(report, resolveId, isKeep());
+        return report;
+    }
+
     public String getType() {
         return type;
     }
@@ -54,6 +54,10 @@ public class IvyRetrieve extends IvyPostResolveTask {
 
     private boolean symlinkmass = false;
 
+    private boolean hardlink = false;
+
+    private boolean incremental = false;
+
     private String overwriteMode = RetrieveOptions.OVERWRITEMODE_NEWER;
 
     private String pathId = null;
@@ -104,6 +108,8 @@ public class IvyRetrieve extends IvyPostResolveTask {
                     .setDestIvyPattern(ivypattern).setArtifactFilter(artifactFilter)
                     .setSync(sync).setOverwriteMode(getOverwriteMode())
                     .setUseOrigin(isUseOrigin()).setMakeSymlinks(symlink)
+                    .setMakeHardlinks(hardlink)
+                    .setIncremental(incremental)
                     .setResolveId(getResolveId())
                     .setMapper(mapper == null ? null : new MapperAdapter(mapper));
             // only set this if the user has explicitly enabled this deprecated option
@@ -172,6 +178,15 @@ public class IvyRetrieve extends IvyPostResolveTask {
         this.symlink = symlink;
     }
 
+    /**
+     * Option to create hard links instead of copying.
+     *
+     * @param hardlink boolean
+     */
+    public void setHardlink(boolean hardlink) {
+        this.hardlink = hardlink;
+    }
+
     /**
      * Option to create symlinks in one mass action, instead of separately.
      *
@@ -183,6 +198,20 @@ public class IvyRetrieve extends IvyPostResolveTask {
         this.symlinkmass = symlinkmass;
     }
 
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Option to keep a manifest of the retrieved files, so that only the files which have changed
+     * since the previous retrieve are checked and copied.
+     *
+     * @param incremental boolean
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
     public void setOverwriteMode(String overwriteMode) {
         if (!OVERWRITEMODE_VALUES.contains(overwriteMode)) {
             throw new IllegalArgumentException("invalid overwriteMode value '" + overwriteMode
@@ -55,6 +55,8 @@ public class IvyContext {
 
     private DependencyDescriptor dd;
 
+    private MessageLogger messageLogger;
+
     public IvyContext() {
     }
 
@@ -65,6 +67,7 @@ public class IvyContext {
         operatingThread = ctx.operatingThread;
         resolveData = ctx.resolveData;
         dd = ctx.dd;
+        messageLogger = ctx.messageLogger;
     }
 
     public static IvyContext getContext() {
@@ -347,6 +350,9 @@ public class IvyContext {
     }
 
     public MessageLogger getMessageLogger() {
+        if (messageLogger != null) {
+            return messageLogger;
+        }
         // calling getIvy() instead of peekIvy() is not possible here: it will initialize a default
         // Ivy instance, with default settings, but settings themselves may log messages and lead to
         // a call to this method. So we use the current Ivy instance if any, or the default Ivy
@@ -363,6 +369,17 @@ public class IvyContext {
         }
     }
 
+    /**
+     * Sets the logger to use in this context, and in the contexts copied from it, in place of the
+     * logger of the current Ivy instance.
+     *
+     * @param messageLogger
+     *            the logger to use, <code>null</code> to use the logger of the current Ivy instance
+     */
+    public void setMessageLogger(MessageLogger messageLogger) {
+        this.messageLogger = messageLogger;
+    }
+
     public EventManager getEventManager() {
         return getIvy().getEventManager();
     }
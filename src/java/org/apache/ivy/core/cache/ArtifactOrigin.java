@@ -17,6 +17,10 @@
  */
 package org.apache.ivy.core.cache;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.util.Checks;
 
@@ -69,6 +73,12 @@ public class ArtifactOrigin {
 
     private boolean exists = true;
 
+    private String etag;
+
+    private Long lastModified;
+
+    private final Map<String, String> checksums = new LinkedHashMap<>();
+
     /**
      * Create a new instance
      *
@@ -141,9 +151,63 @@ public class ArtifactOrigin {
         this.exists = exists;
     }
 
+    /**
+     * The entity tag of the resource when it was downloaded, used to revalidate the cached copy.
+     * May be <code>null</code> if the repository didn't provide it.
+     *
+     * @return the entity tag
+     */
+    public String getETag() {
+        return etag;
+    }
+
+    public void setETag(String etag) {
+        this.etag = etag;
+    }
+
+    /**
+     * The last modified timestamp of the resource when it was downloaded, used to revalidate the
+     * cached copy. May be <code>null</code> if the repository didn't provide it.
+     *
+     * @return Long timestamp
+     */
+    public Long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Returns the checksum of the downloaded artifact computed with the given algorithm, if it has
+     * been computed while downloading it.
+     *
+     * @param algorithm
+     *            the checksum algorithm
+     * @return the checksum as an hexadecimal string, <code>null</code> if unknown
+     */
+    public String getChecksum(String algorithm) {
+        return checksums.get(algorithm);
+    }
+
+    public Map<String, String> getChecksums() {
+        return Collections.unmodifiableMap(checksums);
+    }
+
+    public void setChecksum(String algorithm, String checksum) {
+        checksums.put(algorithm, checksum);
+    }
+
+    public void setChecksums(Map<String, String> checksums) {
+        this.checksums.clear();
+        this.checksums.putAll(checksums);
+    }
+
     public String toString() {
         return "ArtifactOrigin { isLocal=" + isLocal + ", location=" + location + ", lastChecked="
-                + lastChecked + ", exists=" + exists + "}";
+                + lastChecked + ", exists=" + exists
+                + (etag == null ? "" : ", etag=" + etag) + "}";
     }
 
     public boolean equals(Object o) {
@@ -0,0 +1,676 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.apache.ivy.core.module.descriptor.AbstractIncludeExcludeRule;
+import org.apache.ivy.core.module.descriptor.Artifact;
+import org.apache.ivy.core.module.descriptor.Configuration;
+import org.apache.ivy.core.module.descriptor.Configuration.Visibility;
+import org.apache.ivy.core.module.descriptor.DefaultArtifact;
+import org.apache.ivy.core.module.descriptor.DefaultDependencyArtifactDescriptor;
+import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
+import org.apache.ivy.core.module.descriptor.DefaultExcludeRule;
+import org.apache.ivy.core.module.descriptor.DefaultIncludeRule;
+import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
+import org.apache.ivy.core.module.descriptor.DependencyArtifactDescriptor;
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
+import org.apache.ivy.core.module.descriptor.ExcludeRule;
+import org.apache.ivy.core.module.descriptor.ExtraInfoHolder;
+import org.apache.ivy.core.module.descriptor.IncludeRule;
+import org.apache.ivy.core.module.descriptor.License;
+import org.apache.ivy.core.module.descriptor.MDArtifact;
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.module.id.ArtifactId;
+import org.apache.ivy.core.module.id.ModuleId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.matcher.PatternMatcher;
+import org.apache.ivy.plugins.parser.ModuleDescriptorParser;
+import org.apache.ivy.plugins.repository.url.URLResource;
+import org.apache.ivy.util.Message;
+
+/**
+ * Stores the module descriptors parsed from the Ivy files of a cache in a compact binary file
+ * next to them, so that they can be loaded again without parsing the Ivy files.
+ * <p>
+ * The binary file starts with a header giving the version of the format, the length and the last
+ * modification date of the Ivy file it has been made from, and a checksum of its content. It is
+ * ignored when it doesn't match the Ivy file anymore or when it is corrupted, the Ivy file being
+ * parsed instead.
+ * </p>
+ * <p>
+ * Only the module descriptors which don't depend on the settings can be stored: the parse of the
+ * Ivy file must not have substituted any variable, nor used namespaces, conflict managers or
+ * inheritance. The caller checks this with a {@link ParserSettingsMonitor}, this class only checks
+ * the content of the module descriptor.
+ * </p>
+ */
+final class BinaryModuleDescriptorStore {
+
+    private static final int MAGIC = 0x49564d44; // "IVMD"
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String SUFFIX = ".bin";
+
+    private BinaryModuleDescriptorStore() {
+    }
+
+    /**
+     * @param ivyFile
+     *            an Ivy file of the cache
+     * @return the binary file of the module descriptor of the given Ivy file
+     */
+    static File getBinaryFile(File ivyFile) {
+        return new File(ivyFile.getParentFile(), ivyFile.getName() + SUFFIX);
+    }
+
+    /**
+     * Loads the module descriptor of the given Ivy file from its binary file.
+     *
+     * @param ivyFile
+     *            the Ivy file
+     * @param parser
+     *            the parser the module descriptor is reported to be parsed with
+     * @param settings
+     *            the settings used to get the pattern matchers
+     * @param validate
+     *            true if the Ivy file is required to have been validated
+     * @return the module descriptor, or null if the binary file is missing, stale or corrupted
+     */
+    static ModuleDescriptor load(File ivyFile, ModuleDescriptorParser parser,
+            IvySettings settings, boolean validate) {
+        File binaryFile = getBinaryFile(ivyFile);
+        if (!binaryFile.exists()) {
+            return null;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(binaryFile.toPath());
+            DataInputStream header = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (header.readInt() != MAGIC || header.readInt() != FORMAT_VERSION
+                    || header.readLong() != ivyFile.length()
+                    || header.readLong() != ivyFile.lastModified()
+                    || !header.readBoolean() && validate
+                    || !equals(readNullableUTF(header), settings.getDefaultBranch())) {
+                Message.debug("stale binary module descriptor: " + binaryFile);
+                return null;
+            }
+            long checksum = header.readLong();
+            int length = header.readInt();
+            int offset = bytes.length - header.available();
+            if (length != bytes.length - offset || checksum(bytes, offset, length) != checksum) {
+                Message.debug("corrupted binary module descriptor: " + binaryFile);
+                return null;
+            }
+            return new DescriptorInput(new DataInputStream(new ByteArrayInputStream(bytes, offset,
+                    length)), settings).readModuleDescriptor(parser, ivyFile);
+        } catch (IOException | RuntimeException e) {
+            Message.debug("impossible to load binary module descriptor " + binaryFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the module descriptor parsed from the given Ivy file in a binary file. Nothing is
+     * stored if the module descriptor uses features not supported by the binary format.
+     *
+     * @param ivyFile
+     *            the Ivy file
+     * @param md
+     *            the module descriptor parsed from the Ivy file
+     * @param settings
+     *            the settings the Ivy file has been parsed with
+     * @param validated
+     *            true if the Ivy file has been validated when parsed
+     */
+    static void store(File ivyFile, ModuleDescriptor md, IvySettings settings,
+            boolean validated) {
+        File binaryFile = getBinaryFile(ivyFile);
+        File tmp = null;
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            DescriptorOutput out = new DescriptorOutput(new DataOutputStream(payload));
+            out.writeModuleDescriptor(md);
+            byte[] bytes = payload.toByteArray();
+
+            // written in a temporary file first, so that other threads and processes never
+            // see it partially written
+            tmp = File.createTempFile(binaryFile.getName(), ".part", binaryFile.getParentFile());
+            try (DataOutputStream file = new DataOutputStream(new FileOutputStream(tmp))) {
+                file.writeInt(MAGIC);
+                file.writeInt(FORMAT_VERSION);
+                file.writeLong(ivyFile.length());
+                file.writeLong(ivyFile.lastModified());
+                file.writeBoolean(validated);
+                writeNullableUTF(file, settings.getDefaultBranch());
+                file.writeLong(checksum(bytes, 0, bytes.length));
+                file.writeInt(bytes.length);
+                file.write(bytes);
+            }
+            if (!tmp.renameTo(binaryFile)) {
+                binaryFile.delete();
+                if (!tmp.renameTo(binaryFile)) {
+                    throw new IOException("impossible to rename " + tmp + " to " + binaryFile);
+                }
+            }
+            tmp = null;
+        } catch (UnsupportedDescriptorException e) {
+            Message.debug("binary module descriptor not stored for " + ivyFile + ": "
+                    + e.getMessage());
+        } catch (IOException e) {
+            Message.debug("impossible to store binary module descriptor " + binaryFile, e);
+        } finally {
+            if (tmp != null) {
+                tmp.delete();
+            }
+        }
+    }
+
+    /**
+     * Deletes the binary file of the given Ivy file, if any.
+     *
+     * @param ivyFile
+     *            the Ivy file
+     */
+    static void delete(File ivyFile) {
+        File binaryFile = getBinaryFile(ivyFile);
+        if (binaryFile.exists() && !binaryFile.delete()) {
+            Message.debug("impossible to delete binary module descriptor " + binaryFile);
+        }
+    }
+
+    private static long checksum(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return crc.getValue();
+    }
+
+    private static boolean equals(Object o1, Object o2) {
+        return o1 == null ? o2 == null : o1.equals(o2);
+    }
+
+    private static void writeNullableUTF(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            out.writeUTF(s);
+        }
+    }
+
+    private static String readNullableUTF(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static final class UnsupportedDescriptorException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedDescriptorException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Writes a module descriptor. Each distinct string is written once, and then referenced by its
+     * index.
+     */
+    private static final class DescriptorOutput {
+
+        private final DataOutputStream out;
+
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        DescriptorOutput(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writeModuleDescriptor(ModuleDescriptor md) throws IOException {
+            if (md.getClass() != DefaultModuleDescriptor.class) {
+                throw new UnsupportedDescriptorException(md.getClass().getName());
+            }
+            DefaultModuleDescriptor dmd = (DefaultModuleDescriptor) md;
+            if (dmd.getNamespace() != null) {
+                throw new UnsupportedDescriptorException("namespace");
+            }
+            if (dmd.getInheritedDescriptors().length > 0) {
+                throw new UnsupportedDescriptorException("inheritance");
+            }
+            if (!dmd.getAllDependencyDescriptorMediators().getAllRules().isEmpty()) {
+                throw new UnsupportedDescriptorException("dependency mediators");
+            }
+
+            out.writeLong(dmd.getLastModified());
+            writeModuleRevisionId(dmd.getModuleRevisionId());
+            writeModuleRevisionId(dmd.getResolvedModuleRevisionId());
+            writeString(dmd.getStatus());
+            writeDate(dmd.getPublicationDate());
+            writeDate(dmd.getResolvedPublicationDate());
+            out.writeBoolean(dmd.isDefault());
+            out.writeInt(dmd.getLicenses().length);
+            for (License license : dmd.getLicenses()) {
+                writeString(license.getName());
+                writeString(license.getUrl());
+            }
+            writeString(dmd.getHomePage());
+            writeString(dmd.getDescription());
+            writeString(dmd.getDefaultConf());
+            writeString(dmd.getDefaultConfMapping());
+            out.writeBoolean(dmd.isMappingOverride());
+            writeMap(dmd.getExtraAttributesNamespaces());
+            out.writeInt(dmd.getExtraInfos().size());
+            for (ExtraInfoHolder extraInfo : dmd.getExtraInfos()) {
+                writeExtraInfo(extraInfo);
+            }
+
+            out.writeInt(dmd.getConfigurations().length);
+            for (Configuration conf : dmd.getConfigurations()) {
+                if (conf.getClass() != Configuration.class || conf.getSourceModule() != null) {
+                    throw new UnsupportedDescriptorException("configuration " + conf);
+                }
+                writeString(conf.getName());
+                writeString(conf.getVisibility().toString());
+                writeString(conf.getDescription());
+                writeStrings(conf.getExtends());
+                out.writeBoolean(conf.isTransitive());
+                writeString(conf.getDeprecated());
+                writeMap(conf.getQualifiedExtraAttributes());
+            }
+
+            writeArtifacts(dmd);
+
+            out.writeInt(dmd.getDependencies().length);
+            for (DependencyDescriptor dd : dmd.getDependencies()) {
+                writeDependency(dmd, dd);
+            }
+
+            writeExcludeRules(dmd.getAllExcludeRules());
+        }
+
+        /**
+         * Writes the artifacts in the order they have been added, each with the configurations it
+         * has been added to. The artifacts of each configuration must then be in the same order as
+         * the artifacts of the module, so that they can be added back one artifact after the other.
+         */
+        private void writeArtifacts(DefaultModuleDescriptor md) throws IOException {
+            Artifact[] artifacts = md.getAllArtifacts();
+            List<List<String>> artifactConfs = new ArrayList<>();
+            for (Artifact artifact : artifacts) {
+                if (artifact.getClass() != MDArtifact.class || artifact.isMetadata()) {
+                    throw new UnsupportedDescriptorException("artifact " + artifact);
+                }
+                artifactConfs.add(new ArrayList<String>());
+            }
+            List<Artifact> all = Arrays.asList(artifacts);
+            for (String conf : md.getConfigurationsNames()) {
+                int previous = -1;
+                for (Artifact artifact : md.getArtifacts(conf)) {
+                    int index = all.indexOf(artifact);
+                    if (index <= previous || !Arrays.equals(artifact.getConfigurations(),
+                        artifacts[index].getConfigurations())) {
+                        throw new UnsupportedDescriptorException("artifacts of " + conf);
+                    }
+                    artifactConfs.get(index).add(conf);
+                    previous = index;
+                }
+            }
+            out.writeInt(artifacts.length);
+            for (int i = 0; i < artifacts.length; i++) {
+                Artifact artifact = artifacts[i];
+                writeString(artifact.getName());
+                writeString(artifact.getType());
+                writeString(artifact.getExt());
+                writeString(artifact.getUrl() == null ? null : artifact.getUrl().toExternalForm());
+                writeMap(artifact.getQualifiedExtraAttributes());
+                writeStrings(artifact.getConfigurations());
+                writeStrings(artifactConfs.get(i).toArray(new String[0]));
+            }
+        }
+
+        private void writeDependency(ModuleDescriptor md, DependencyDescriptor dd)
+                throws IOException {
+            if (dd.getClass() != DefaultDependencyDescriptor.class || dd.getNamespace() != null
+                    || !md.getModuleRevisionId().equals(dd.getSourceModule())
+                    || !md.getResolvedModuleRevisionId().equals(dd.getParentRevisionId())) {
+                throw new UnsupportedDescriptorException("dependency " + dd);
+            }
+            DefaultDependencyDescriptor ddd = (DefaultDependencyDescriptor) dd;
+            writeModuleRevisionId(ddd.getDependencyRevisionId());
+            writeModuleRevisionId(ddd.getDynamicConstraintDependencyRevisionId());
+            out.writeBoolean(ddd.isForce());
+            out.writeBoolean(ddd.isChanging());
+            out.writeBoolean(ddd.isTransitive());
+            out.writeInt(ddd.getModuleConfigurations().length);
+            for (String conf : ddd.getModuleConfigurations()) {
+                writeString(conf);
+                writeStrings(ddd.getDeclaredDependencyConfigurations(conf));
+            }
+
+            out.writeInt(ddd.getAllDependencyArtifacts().length);
+            for (DependencyArtifactDescriptor dad : ddd.getAllDependencyArtifacts()) {
+                if (dad.getClass() != DefaultDependencyArtifactDescriptor.class) {
+                    throw new UnsupportedDescriptorException("dependency artifact " + dad);
+                }
+                writeString(dad.getName());
+                writeString(dad.getType());
+                writeString(dad.getExt());
+                writeString(dad.getUrl() == null ? null : dad.getUrl().toExternalForm());
+                writeMap(dad.getQualifiedExtraAttributes());
+                writeStrings(dad.getConfigurations());
+            }
+            IncludeRule[] includeRules = ddd.getAllIncludeRules();
+            out.writeInt(includeRules.length);
+            for (IncludeRule rule : includeRules) {
+                if (rule.getClass() != DefaultIncludeRule.class) {
+                    throw new UnsupportedDescriptorException("include rule " + rule);
+                }
+                writeRule((AbstractIncludeExcludeRule) rule);
+            }
+            writeExcludeRules(ddd.getAllExcludeRules());
+        }
+
+        private void writeExcludeRules(ExcludeRule[] rules) throws IOException {
+            out.writeInt(rules.length);
+            for (ExcludeRule rule : rules) {
+                if (rule.getClass() != DefaultExcludeRule.class) {
+                    throw new UnsupportedDescriptorException("exclude rule " + rule);
+                }
+                writeRule((AbstractIncludeExcludeRule) rule);
+            }
+        }
+
+        private void writeRule(AbstractIncludeExcludeRule rule) throws IOException {
+            ArtifactId id = rule.getId();
+            writeString(id.getModuleId().getOrganisation());
+            writeString(id.getModuleId().getName());
+            writeString(id.getName());
+            writeString(id.getType());
+            writeString(id.getExt());
+            writeString(rule.getMatcher().getName());
+            writeMap(rule.getQualifiedExtraAttributes());
+            writeStrings(rule.getConfigurations());
+        }
+
+        private void writeExtraInfo(ExtraInfoHolder extraInfo) throws IOException {
+            writeString(extraInfo.getName());
+            writeMap(extraInfo.getAttributes());
+            writeString(extraInfo.getContent());
+            out.writeInt(extraInfo.getNestedExtraInfoHolder().size());
+            for (ExtraInfoHolder nested : extraInfo.getNestedExtraInfoHolder()) {
+                writeExtraInfo(nested);
+            }
+        }
+
+        private void writeModuleRevisionId(ModuleRevisionId mrid) throws IOException {
+            writeString(mrid.getOrganisation());
+            writeString(mrid.getName());
+            writeString(mrid.getBranch());
+            writeString(mrid.getRevision());
+            writeMap(mrid.getQualifiedExtraAttributes());
+        }
+
+        private void writeDate(Date date) throws IOException {
+            out.writeBoolean(date != null);
+            if (date != null) {
+                out.writeLong(date.getTime());
+            }
+        }
+
+        private void writeMap(Map<String, String> map) throws IOException {
+            out.writeInt(map.size());
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                writeString(entry.getKey());
+                writeString(entry.getValue());
+            }
+        }
+
+        private void writeStrings(String[] strings) throws IOException {
+            out.writeInt(strings.length);
+            for (String s : strings) {
+                writeString(s);
+            }
+        }
+
+        private void writeString(String s) throws IOException {
+            if (s == null) {
+                out.writeInt(-1);
+                return;
+            }
+            Integer index = strings.get(s);
+            if (index != null) {
+                out.writeInt(index);
+            } else {
+                out.writeInt(strings.size());
+                out.writeUTF(s);
+                strings.put(s, strings.size());
+            }
+        }
+    }
+
+    /**
+     * Reads a module descriptor written by {@link DescriptorOutput}.
+     */
+    private static final class DescriptorInput {
+
+        private final DataInputStream in;
+
+        private final IvySettings settings;
+
+        private final List<String> strings = new ArrayList<>();
+
+        DescriptorInput(DataInputStream in, IvySettings settings) {
+            this.in = in;
+            this.settings = settings;
+        }
+
+        ModuleDescriptor readModuleDescriptor(ModuleDescriptorParser parser, File ivyFile)
+                throws IOException {
+            DefaultModuleDescriptor md = new DefaultModuleDescriptor(parser, new URLResource(
+                    ivyFile.toURI().toURL()));
+            md.setLastModified(in.readLong());
+            md.setModuleRevisionId(readModuleRevisionId());
+            md.setResolvedModuleRevisionId(readModuleRevisionId());
+            md.setStatus(readString());
+            md.setPublicationDate(readDate());
+            md.setResolvedPublicationDate(readDate());
+            md.setDefault(in.readBoolean());
+            for (int i = in.readInt(); i > 0; i--) {
+                md.addLicense(new License(readString(), readString()));
+            }
+            md.setHomePage(readString());
+            md.setDescription(readString());
+            md.setDefaultConf(readString());
+            md.setDefaultConfMapping(readString());
+            md.setMappingOverride(in.readBoolean());
+            for (Map.Entry<String, String> ns : readMap().entrySet()) {
+                md.addExtraAttributeNamespace(ns.getKey(), ns.getValue());
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                md.addExtraInfo(readExtraInfo());
+            }
+
+            for (int i = in.readInt(); i > 0; i--) {
+                Configuration conf = new Configuration(readString(),
+                        Visibility.getVisibility(readString()), readString(), readStrings(),
+                        in.readBoolean(), readString());
+                for (Map.Entry<String, String> att : readMap().entrySet()) {
+                    conf.setExtraAttribute(att.getKey(), att.getValue());
+                }
+                md.addConfiguration(conf);
+            }
+
+            for (int i = in.readInt(); i > 0; i--) {
+                String name = readString();
+                String type = readString();
+                String ext = readString();
+                URL url = readURL();
+                Map<String, String> extraAttributes = readMap();
+                MDArtifact artifact = new MDArtifact(md, name, type, ext, url,
+                        extraAttributes.isEmpty() ? null : extraAttributes);
+                for (String conf : readStrings()) {
+                    artifact.addConfiguration(conf);
+                }
+                for (String conf : readStrings()) {
+                    md.addArtifact(conf, artifact);
+                }
+            }
+
+            for (int i = in.readInt(); i > 0; i--) {
+                md.addDependency(readDependency(md));
+            }
+
+            for (int i = in.readInt(); i > 0; i--) {
+                DefaultExcludeRule rule = new DefaultExcludeRule(readArtifactId(), readMatcher(),
+                        readMap());
+                for (String conf : readStrings()) {
+                    rule.addConfiguration(conf);
+                }
+                md.addExcludeRule(rule);
+            }
+
+            md.setModuleArtifact(DefaultArtifact.newIvyArtifact(md.getResolvedModuleRevisionId(),
+                md.getPublicationDate()));
+            return md;
+        }
+
+        private DependencyDescriptor readDependency(ModuleDescriptor md) throws IOException {
+            DefaultDependencyDescriptor dd = new DefaultDependencyDescriptor(md,
+                    readModuleRevisionId(), readModuleRevisionId(), in.readBoolean(),
+                    in.readBoolean(), in.readBoolean());
+            for (int i = in.readInt(); i > 0; i--) {
+                String conf = readString();
+                for (String depConf : readStrings()) {
+                    dd.addDependencyConfiguration(conf, depConf);
+                }
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                DefaultDependencyArtifactDescriptor dad = new DefaultDependencyArtifactDescriptor(
+                        dd, readString(), readString(), readString(), readURL(), readMap());
+                for (String conf : readStrings()) {
+                    dad.addConfiguration(conf);
+                    dd.addDependencyArtifact(conf, dad);
+                }
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                DefaultIncludeRule rule = new DefaultIncludeRule(readArtifactId(), readMatcher(),
+                        readMap());
+                for (String conf : readStrings()) {
+                    rule.addConfiguration(conf);
+                    dd.addIncludeRule(conf, rule);
+                }
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                DefaultExcludeRule rule = new DefaultExcludeRule(readArtifactId(), readMatcher(),
+                        readMap());
+                for (String conf : readStrings()) {
+                    rule.addConfiguration(conf);
+                    dd.addExcludeRule(conf, rule);
+                }
+            }
+            return dd;
+        }
+
+        private ArtifactId readArtifactId() throws IOException {
+            return new ArtifactId(ModuleId.newInstance(readString(), readString()), readString(),
+                    readString(), readString());
+        }
+
+        private PatternMatcher readMatcher() throws IOException {
+            String name = readString();
+            PatternMatcher matcher = settings.getMatcher(name);
+            if (matcher == null) {
+                throw new IOException("unknown matcher " + name);
+            }
+            return matcher;
+        }
+
+        private ExtraInfoHolder readExtraInfo() throws IOException {
+            ExtraInfoHolder extraInfo = new ExtraInfoHolder();
+            extraInfo.setName(readString());
+            extraInfo.getAttributes().putAll(readMap());
+            extraInfo.setContent(readString());
+            for (int i = in.readInt(); i > 0; i--) {
+                extraInfo.getNestedExtraInfoHolder().add(readExtraInfo());
+            }
+            return extraInfo;
+        }
+
+        private ModuleRevisionId readModuleRevisionId() throws IOException {
+            return ModuleRevisionId.newInstance(readString(), readString(), readString(),
+                readString(), readMap(), false);
+        }
+
+        private Date readDate() throws IOException {
+            return in.readBoolean() ? new Date(in.readLong()) : null;
+        }
+
+        private URL readURL() throws IOException {
+            String url = readString();
+            return url == null ? null : new URL(url);
+        }
+
+        private Map<String, String> readMap() throws IOException {
+            int size = in.readInt();
+            if (size == 0) {
+                return Collections.emptyMap();
+            }
+            Map<String, String> map = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                map.put(readString(), readString());
+            }
+            return map;
+        }
+
+        private String[] readStrings() throws IOException {
+            String[] array = new String[in.readInt()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = readString();
+            }
+            return array;
+        }
+
+        private String readString() throws IOException {
+            int index = in.readInt();
+            if (index == -1) {
+                return null;
+            }
+            if (index == strings.size()) {
+                String s = in.readUTF();
+                strings.add(s);
+                return s;
+            }
+            return strings.get(index);
+        }
+    }
+}
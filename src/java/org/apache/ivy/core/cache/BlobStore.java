@@ -0,0 +1,149 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.apache.ivy.util.Message;
+
+/**
+ * A content-addressed store of the files of repository caches: each distinct content is stored
+ * once, in a blob named after its SHA-256 digest, and the files of the caches with this content
+ * are hard links to the blob.
+ * <p>
+ * The blobs are only linked, never written to, so the files of the caches must not be modified in
+ * place: they are replaced when downloaded again. The blobs to which no file is linked anymore are
+ * removed by {@link #collectUnusedBlobs()}, which relies on the number of links of the files and
+ * is thus only available on filesystems exposing it.
+ * </p>
+ */
+final class BlobStore {
+    static final String ALGORITHM = "SHA-256";
+
+    private final File dir;
+
+    BlobStore(File dir) {
+        this.dir = dir;
+    }
+
+    File getDir() {
+        return dir;
+    }
+
+    File getBlob(String digest) {
+        return new File(dir, digest.substring(0, 2) + File.separator + digest.substring(2));
+    }
+
+    /**
+     * Links the given file to the blob having the same content, storing the file as a new blob if
+     * there is none yet.
+     *
+     * @param file
+     *            the file of a cache to store
+     * @param digest
+     *            the {@link #ALGORITHM} digest of the file, as an hexadecimal string
+     * @return <code>true</code> if the file is linked to a blob, <code>false</code> if it has been
+     *         left untouched, because hard links can't be used between the file and the store
+     * @throws IOException
+     *             if the file can't be replaced by a link to the blob
+     */
+    boolean store(File file, String digest) throws IOException {
+        File blob = getBlob(digest);
+        Path blobPath = blob.toPath();
+        Path filePath = file.toPath();
+        blob.getParentFile().mkdirs();
+        try {
+            Files.createLink(blobPath, filePath);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            // the same content is already stored, the file is replaced by a link to it
+        } catch (IOException | UnsupportedOperationException e) {
+            Message.verbose("\tunable to store " + file + " in " + dir + ": " + e);
+            return false;
+        }
+        if (Files.isSameFile(blobPath, filePath)) {
+            return true;
+        }
+        if (blob.length() != file.length()) {
+            Message.warn("corrupted blob " + blob + ": it should be removed");
+            return false;
+        }
+        long lastModified = file.lastModified();
+        File link = new File(file.getParentFile(), file.getName() + ".blob");
+        try {
+            Files.deleteIfExists(link.toPath());
+            Files.createLink(link.toPath(), blobPath);
+            Files.move(link.toPath(), filePath, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UnsupportedOperationException e) {
+            // the blob may have been collected in the meantime
+            Message.verbose("\tunable to link " + file + " to " + blob + ": " + e);
+            Files.deleteIfExists(link.toPath());
+            return false;
+        }
+        // the links share their modification date, which must not get older than the download
+        if (blob.lastModified() < lastModified) {
+            blob.setLastModified(lastModified);
+        }
+        return true;
+    }
+
+    /**
+     * Deletes the blobs to which no file is linked anymore.
+     *
+     * @return the number of deleted blobs
+     * @throws IOException
+     *             if the number of links of the blobs can't be read
+     */
+    int collectUnusedBlobs() throws IOException {
+        int deleted = 0;
+        File[] subdirs = dir.listFiles();
+        if (subdirs == null) {
+            return 0;
+        }
+        for (File subdir : subdirs) {
+            File[] blobs = subdir.listFiles();
+            if (blobs == null) {
+                continue;
+            }
+            for (File blob : blobs) {
+                if (getLinkCount(blob.toPath()) <= 1 && blob.delete()) {
+                    Message.verbose("\tdeleted unused blob " + blob);
+                    deleted++;
+                }
+            }
+            // only deleted when empty
+            subdir.delete();
+        }
+        return deleted;
+    }
+
+    private static int getLinkCount(Path path) throws IOException {
+        try {
+            return (Integer) Files.getAttribute(path, "unix:nlink");
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            throw new IOException("the number of links of " + path
+                    + " is not available on this filesystem", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.cache;
+
+import java.io.File;
+import java.util.Properties;
+
+/**
+ * Stores the per module metadata of a repository cache: the resolvers used, the origin of the
+ * artifacts and the revisions resolved for dynamic revisions.
+ * <p>
+ * Each set of metadata is identified by the data file in which
+ * {@link DefaultRepositoryCacheManager} would store it as a properties file. Implementations are
+ * free to store it there or somewhere else.
+ * </p>
+ *
+ * @see PropertiesFileMetadataStore
+ * @see IndexedMetadataStore
+ */
+public interface CacheMetadataStore {
+
+    /**
+     * Returns the name of this store, as used in the settings to select it.
+     *
+     * @return the name of this store
+     */
+    String getName();
+
+    /**
+     * Loads the metadata identified by the given data file.
+     *
+     * @param dataFile
+     *            the data file identifying the metadata
+     * @return the stored metadata, empty if nothing has been stored yet. Never <code>null</code>.
+     */
+    Properties load(File dataFile);
+
+    /**
+     * Stores the metadata identified by the given data file, replacing any previously stored one.
+     *
+     * @param dataFile
+     *            the data file identifying the metadata
+     * @param data
+     *            the metadata to store
+     * @param description
+     *            a short description of the metadata, which may be stored with it
+     */
+    void store(File dataFile, Properties data, String description);
+}
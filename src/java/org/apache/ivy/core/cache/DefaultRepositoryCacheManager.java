@@ -33,6 +33,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -64,6 +65,7 @@ import org.apache.ivy.plugins.parser.ModuleDescriptorParserRegistry;
 import org.apache.ivy.plugins.parser.ParserSettings;
 import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorParser;
 import org.apache.ivy.plugins.repository.ArtifactResourceResolver;
+import org.apache.ivy.plugins.repository.ConditionalResource;
 import org.apache.ivy.plugins.repository.LocalizableResource;
 import org.apache.ivy.plugins.repository.Repository;
 import org.apache.ivy.plugins.repository.Resource;
@@ -72,13 +74,15 @@ import org.apache.ivy.plugins.repository.ResourceHelper;
 import org.apache.ivy.plugins.resolver.AbstractResolver;
 import org.apache.ivy.plugins.resolver.DependencyResolver;
 import org.apache.ivy.plugins.resolver.util.ResolvedResource;
+import org.apache.ivy.util.ChecksumHelper;
 import org.apache.ivy.util.Checks;
 import org.apache.ivy.util.FileUtil;
 import org.apache.ivy.util.HexEncoder;
 import org.apache.ivy.util.Message;
-import org.apache.ivy.util.PropertiesFile;
+import org.apache.ivy.util.TransferDigests;
 
 import static org.apache.ivy.util.StringUtils.isNullOrEmpty;
+import static org.apache.ivy.util.StringUtils.splitToArray;
 
 public class DefaultRepositoryCacheManager implements RepositoryCacheManager, IvySettingsAware {
     private static final String DEFAULT_ARTIFACT_PATTERN = "[organisation]/[module](/[branch])/[type]s/[artifact]-[revision](-[classifier])(.[ext])";
@@ -114,6 +118,10 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
 
     private String lockStrategyName;
 
+    private CacheMetadataStore metadataStore;
+
+    private String metadataStoreName;
+
     private String changingPattern;
 
     private String changingMatcherName = PatternMatcher.EXACT_OR_REGEXP;
@@ -122,11 +130,25 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
 
     private Boolean useOrigin;
 
+    private boolean useBinaryDescriptors;
+
+    private boolean useBlobStore;
+
+    private File blobStoreDir;
+
+    private BlobStore blobStore;
+
     private ModuleRules<Long> ttlRules = new ModuleRules<>();
 
     private Long defaultTTL = null;
 
-    private ModuleDescriptorMemoryCache memoryModuleDescrCache;
+    private long notFoundTTL = 0;
+
+    private volatile ModuleDescriptorMemoryCache memoryModuleDescrCache;
+
+    private int memorySize = DEFAULT_MEMORY_CACHE_SIZE;
+
+    private int memoryBudget;
 
     private PackagingManager packagingManager = new PackagingManager();
 
@@ -220,6 +242,24 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         this.defaultTTL = parseDuration(defaultTTL);
     }
 
+    /**
+     * Returns how long resources found missing in a repository are remembered as missing, so
+     * that resolvers don't ask the repository for them again. 0 if they are not remembered.
+     *
+     * @return long
+     */
+    public long getNotFoundTTL() {
+        return notFoundTTL;
+    }
+
+    public void setNotFoundTTL(long notFoundTTL) {
+        this.notFoundTTL = notFoundTTL;
+    }
+
+    public void setNotFoundTTL(String notFoundTTL) {
+        this.notFoundTTL = parseDuration(notFoundTTL);
+    }
+
     public String getDataFilePattern() {
         return dataFilePattern;
     }
@@ -276,14 +316,35 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
     }
 
     public void setMemorySize(int size) {
-        memoryModuleDescrCache = new ModuleDescriptorMemoryCache(size);
+        memorySize = size;
+        memoryModuleDescrCache = null;
+    }
+
+    /**
+     * Limits the memory used by the parsed module descriptors kept in memory, as estimated from
+     * their size.
+     *
+     * @param megabytes
+     *            the maximum memory to use, in megabytes, 0 for no limit
+     */
+    public void setMemoryBudget(int megabytes) {
+        memoryBudget = megabytes;
+        memoryModuleDescrCache = null;
     }
 
     public ModuleDescriptorMemoryCache getMemoryCache() {
-        if (memoryModuleDescrCache == null) {
-            memoryModuleDescrCache = new ModuleDescriptorMemoryCache(DEFAULT_MEMORY_CACHE_SIZE);
+        ModuleDescriptorMemoryCache cache = memoryModuleDescrCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = memoryModuleDescrCache;
+                if (cache == null) {
+                    cache = new ModuleDescriptorMemoryCache(memorySize,
+                            memoryBudget * 1024L * 1024L);
+                    memoryModuleDescrCache = cache;
+                }
+            }
         }
-        return memoryModuleDescrCache;
+        return cache;
     }
 
     private static final Pattern DURATION_PATTERN = Pattern
@@ -360,6 +421,83 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         useOrigin = b;
     }
 
+    /**
+     * True if the module descriptors parsed from the cached Ivy files should be stored in a
+     * binary file next to them, so that they can be loaded later without parsing the Ivy files.
+     *
+     * @return boolean
+     */
+    public boolean isUseBinaryDescriptors() {
+        return useBinaryDescriptors;
+    }
+
+    public void setUseBinaryDescriptors(boolean b) {
+        useBinaryDescriptors = b;
+    }
+
+    /**
+     * True if the downloaded artifacts should be stored once per content in a blob store, the
+     * artifacts of this cache being hard links to the blobs.
+     *
+     * @return boolean
+     */
+    public boolean isUseBlobStore() {
+        return useBlobStore || blobStoreDir != null;
+    }
+
+    public void setUseBlobStore(boolean b) {
+        useBlobStore = b;
+    }
+
+    /**
+     * Returns the directory of the blob store, which can be shared by several caches of the same
+     * filesystem. Defaults to the <code>.blobs</code> directory of the cache.
+     *
+     * @return File
+     */
+    public File getBlobStoreDir() {
+        if (blobStoreDir == null) {
+            return new File(getBasedir(), ".blobs");
+        }
+        return blobStoreDir;
+    }
+
+    public void setBlobStoreDir(File blobStoreDir) {
+        this.blobStoreDir = blobStoreDir;
+    }
+
+    private synchronized BlobStore getBlobStore() {
+        if (blobStore == null) {
+            blobStore = new BlobStore(getBlobStoreDir());
+        }
+        return blobStore;
+    }
+
+    private void storeBlob(File archiveFile, TransferDigests digests) {
+        try {
+            getBlobStore().store(archiveFile,
+                digests.getDigest(BlobStore.ALGORITHM, archiveFile));
+        } catch (IOException e) {
+            // the artifact is still in the cache, only not shared
+            Message.verbose("\tunable to store " + archiveFile + " in the blob store: " + e);
+        }
+    }
+
+    /**
+     * Deletes the blobs of the blob store of this cache to which no artifact is linked anymore,
+     * for instance once the caches sharing the blob store have been cleaned.
+     *
+     * @return the number of deleted blobs
+     * @throws IOException
+     *             if the filesystem doesn't tell the number of links to a file
+     */
+    public int collectUnusedBlobs() throws IOException {
+        if (!isUseBlobStore()) {
+            return 0;
+        }
+        return getBlobStore().collectUnusedBlobs();
+    }
+
     /**
      * Returns a File object pointing to where the artifact can be found on the local file system.
      * This is usually in the cache, but it can be directly in the repository if it is local and if
@@ -434,7 +572,7 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
      */
     private void saveResolver(ModuleDescriptor md, String name) {
         // should always be called with a lock on module metadata artifact
-        PropertiesFile cdf = getCachedDataFile(md);
+        CachedDataFile cdf = getCachedDataFile(md);
         cdf.setProperty("resolver", name);
         cdf.save();
     }
@@ -458,7 +596,7 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
             return;
         }
         try {
-            PropertiesFile cdf = getCachedDataFile(md);
+            CachedDataFile cdf = getCachedDataFile(md);
             cdf.setProperty("resolver", metadataResolverName);
             cdf.setProperty("artifact.resolver", artifactResolverName);
             cdf.save();
@@ -469,19 +607,19 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
 
     private String getSavedResolverName(ModuleDescriptor md) {
         // should always be called with a lock on module metadata artifact
-        PropertiesFile cdf = getCachedDataFile(md);
+        CachedDataFile cdf = getCachedDataFile(md);
         return cdf.getProperty("resolver");
     }
 
     private String getSavedArtResolverName(ModuleDescriptor md) {
         // should always be called with a lock on module metadata artifact
-        PropertiesFile cdf = getCachedDataFile(md);
+        CachedDataFile cdf = getCachedDataFile(md);
         return cdf.getProperty("artifact.resolver");
     }
 
     void saveArtifactOrigin(Artifact artifact, ArtifactOrigin origin) {
         // should always be called with a lock on module metadata artifact
-        PropertiesFile cdf = getCachedDataFile(artifact.getModuleRevisionId());
+        CachedDataFile cdf = getCachedDataFile(artifact.getModuleRevisionId());
         cdf.setProperty(getIsLocalKey(artifact), String.valueOf(origin.isLocal()));
         cdf.setProperty(getLocationKey(artifact), origin.getLocation());
         cdf.setProperty(getOriginalKey(artifact), getPrefixKey(origin.getArtifact()));
@@ -489,16 +627,41 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
             cdf.setProperty(getLastCheckedKey(artifact), origin.getLastChecked().toString());
         }
         cdf.setProperty(getExistsKey(artifact), Boolean.toString(origin.isExists()));
+        if (origin.getETag() != null) {
+            cdf.setProperty(getETagKey(artifact), origin.getETag());
+        } else {
+            cdf.remove(getETagKey(artifact));
+        }
+        if (origin.getLastModified() != null) {
+            cdf.setProperty(getLastModifiedKey(artifact), origin.getLastModified().toString());
+        } else {
+            cdf.remove(getLastModifiedKey(artifact));
+        }
+        if (origin.getChecksums().isEmpty()) {
+            cdf.remove(getChecksumsKey(artifact));
+        } else {
+            StringBuilder checksums = new StringBuilder();
+            for (Map.Entry<String, String> checksum : origin.getChecksums().entrySet()) {
+                if (checksums.length() > 0) {
+                    checksums.append(',');
+                }
+                checksums.append(checksum.getKey()).append(':').append(checksum.getValue());
+            }
+            cdf.setProperty(getChecksumsKey(artifact), checksums.toString());
+        }
         cdf.save();
     }
 
     private void removeSavedArtifactOrigin(Artifact artifact) {
         // should always be called with a lock on module metadata artifact
-        PropertiesFile cdf = getCachedDataFile(artifact.getModuleRevisionId());
+        CachedDataFile cdf = getCachedDataFile(artifact.getModuleRevisionId());
         cdf.remove(getLocationKey(artifact));
         cdf.remove(getIsLocalKey(artifact));
         cdf.remove(getLastCheckedKey(artifact));
         cdf.remove(getOriginalKey(artifact));
+        cdf.remove(getETagKey(artifact));
+        cdf.remove(getLastModifiedKey(artifact));
+        cdf.remove(getChecksumsKey(artifact));
         cdf.save();
     }
 
@@ -512,12 +675,15 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
             return ArtifactOrigin.unknown(artifact);
         }
         try {
-            PropertiesFile cdf = getCachedDataFile(artifact.getModuleRevisionId());
+            CachedDataFile cdf = getCachedDataFile(artifact.getModuleRevisionId());
             String location = cdf.getProperty(getLocationKey(artifact));
             String local = cdf.getProperty(getIsLocalKey(artifact));
             String lastChecked = cdf.getProperty(getLastCheckedKey(artifact));
             String exists = cdf.getProperty(getExistsKey(artifact));
             String original = cdf.getProperty(getOriginalKey(artifact));
+            String etag = cdf.getProperty(getETagKey(artifact));
+            String lastModified = cdf.getProperty(getLastModifiedKey(artifact));
+            String checksums = cdf.getProperty(getChecksumsKey(artifact));
 
             boolean isLocal = Boolean.valueOf(local);
 
@@ -600,6 +766,19 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
             if (exists != null) {
                 origin.setExist(Boolean.valueOf(exists));
             }
+            origin.setETag(etag);
+            if (lastModified != null) {
+                origin.setLastModified(Long.valueOf(lastModified));
+            }
+            if (checksums != null) {
+                for (String checksum : checksums.split(",")) {
+                    int index = checksum.indexOf(':');
+                    if (index > 0) {
+                        origin.setChecksum(checksum.substring(0, index),
+                            checksum.substring(index + 1));
+                    }
+                }
+            }
 
             return origin;
         } finally {
@@ -676,12 +855,45 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         return getPrefixKey(artifact) + ".original";
     }
 
-    private PropertiesFile getCachedDataFile(ModuleDescriptor md) {
+    /**
+     * Returns the key used to identify the entity tag of the downloaded artifact.
+     *
+     * @param artifact
+     *            the artifact to generate the key from. Cannot be null.
+     * @return the key to be used to reference the artifact's entity tag.
+     */
+    private String getETagKey(Artifact artifact) {
+        return getPrefixKey(artifact) + ".etag";
+    }
+
+    /**
+     * Returns the key used to identify the last modified date of the downloaded artifact.
+     *
+     * @param artifact
+     *            the artifact to generate the key from. Cannot be null.
+     * @return the key to be used to reference the artifact's last modified date.
+     */
+    private String getLastModifiedKey(Artifact artifact) {
+        return getPrefixKey(artifact) + ".lastmodified";
+    }
+
+    /**
+     * Returns the key used to identify the checksums computed while downloading the artifact.
+     *
+     * @param artifact
+     *            the artifact to generate the key from. Cannot be null.
+     * @return the key to be used to reference the artifact's checksums.
+     */
+    private String getChecksumsKey(Artifact artifact) {
+        return getPrefixKey(artifact) + ".checksums";
+    }
+
+    private CachedDataFile getCachedDataFile(ModuleDescriptor md) {
         return getCachedDataFile(md.getResolvedModuleRevisionId());
     }
 
-    private PropertiesFile getCachedDataFile(ModuleRevisionId mRevId) {
-        return new PropertiesFile(new File(getRepositoryCacheRoot(), IvyPatternHelper.substitute(
+    private CachedDataFile getCachedDataFile(ModuleRevisionId mRevId) {
+        return new CachedDataFile(new File(getRepositoryCacheRoot(), IvyPatternHelper.substitute(
             getDataFilePattern(), mRevId)), "ivy cached data file for " + mRevId);
     }
 
@@ -689,9 +901,9 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
      * A resolver-specific ivydata file, only used for caching dynamic revisions, e.g.
      * integration-repo.
      */
-    private PropertiesFile getCachedDataFile(String resolverName, ModuleRevisionId mRevId) {
+    private CachedDataFile getCachedDataFile(String resolverName, ModuleRevisionId mRevId) {
         // we append ".${resolverName} onto the end of the regular ivydata location
-        return new PropertiesFile(new File(getRepositoryCacheRoot(),
+        return new CachedDataFile(new File(getRepositoryCacheRoot(),
                 IvyPatternHelper.substitute(getDataFilePattern(), mRevId) + "." + resolverName),
                 "ivy cached data file for " + mRevId);
     }
@@ -842,10 +1054,48 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         }
     }
 
+    /**
+     * Loads the module descriptors of the cached Ivy files from their binary file when it is up to
+     * date, and parses the Ivy files otherwise, storing the binary file for the next time.
+     */
+    private class BinaryModuleDescriptorProvider implements ModuleDescriptorProvider {
+
+        private final ModuleDescriptorParser mdParser;
+
+        public BinaryModuleDescriptorProvider(ModuleDescriptorParser mdParser) {
+            this.mdParser = mdParser;
+        }
+
+        public ModuleDescriptor provideModule(ParserSettings ivySettings, File ivyFile,
+                boolean validate) throws ParseException, IOException {
+            ModuleDescriptor md = BinaryModuleDescriptorStore.load(ivyFile, mdParser, settings,
+                validate);
+            if (md != null) {
+                return md;
+            }
+            ParserSettingsMonitor monitor = new ParserSettingsMonitor(settings);
+            md = mdParser.parseDescriptor(monitor.getMonitoredSettings(), ivyFile.toURI().toURL(),
+                validate);
+            if (monitor.isSettingsIndependent()) {
+                BinaryModuleDescriptorStore.store(ivyFile, md, settings, validate);
+            } else {
+                Message.debug("binary module descriptor not stored for " + ivyFile
+                        + ": it depends on the settings");
+            }
+            monitor.endMonitoring();
+            return md;
+        }
+    }
+
     private ModuleDescriptor getMdFromCache(ModuleDescriptorParser mdParser,
             CacheMetadataOptions options, File ivyFile) throws ParseException, IOException {
         ModuleDescriptorMemoryCache cache = getMemoryCache();
-        ModuleDescriptorProvider mdProvider = new MyModuleDescriptorProvider(mdParser, settings);
+        ModuleDescriptorProvider mdProvider;
+        if (isUseBinaryDescriptors() && mdParser == XmlModuleDescriptorParser.getInstance()) {
+            mdProvider = new BinaryModuleDescriptorProvider(mdParser);
+        } else {
+            mdProvider = new MyModuleDescriptorProvider(mdParser, settings);
+        }
         return cache.get(ivyFile, settings, options.isValidate(), mdProvider);
     }
 
@@ -873,7 +1123,7 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                 return null;
             }
             // If a resolver is asking for its specific dynamic revision, avoid looking at a different one
-            PropertiesFile cachedResolvedRevision;
+            CachedDataFile cachedResolvedRevision;
             if (expectedResolver != null) {
                 cachedResolvedRevision = getCachedDataFile(expectedResolver, mrid);
             } else {
@@ -906,6 +1156,57 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         }
     }
 
+    /**
+     * Returns until when the metadata of the given module can be found in this cache without
+     * checking the repository, following the rules of
+     * {@link #findModuleInCache(DependencyDescriptor, ModuleRevisionId, CacheMetadataOptions, String)}.
+     *
+     * @param dd
+     *            the dependency descriptor asking for the module
+     * @param requestedRevisionId
+     *            the requested module revision id
+     * @param options
+     *            the options used to look up the module in cache
+     * @param expectedResolver
+     *            the name of the resolver which looks up the module, or <code>null</code>
+     * @return the time in milliseconds until which the cache can be used, 0 if the repository
+     *         must always be checked, {@link Long#MAX_VALUE} if the cache doesn't expire
+     */
+    public long getMetadataExpiration(DependencyDescriptor dd,
+            ModuleRevisionId requestedRevisionId, CacheMetadataOptions options,
+            String expectedResolver) {
+        if (options.isForce() || isCheckmodified(dd, requestedRevisionId, options)
+                || !options.isUseCacheOnly() && isChanging(dd, requestedRevisionId, options)) {
+            return 0;
+        }
+        if (!settings.getVersionMatcher().isDynamic(requestedRevisionId)
+                || !options.isCheckTTL()) {
+            return Long.MAX_VALUE;
+        }
+        if (!lockMetadataArtifact(requestedRevisionId)) {
+            Message.error("impossible to acquire lock for " + requestedRevisionId);
+            return 0;
+        }
+        try {
+            CachedDataFile cachedResolvedRevision;
+            if (expectedResolver != null) {
+                cachedResolvedRevision = getCachedDataFile(expectedResolver, requestedRevisionId);
+            } else {
+                cachedResolvedRevision = getCachedDataFile(requestedRevisionId);
+            }
+            String resolvedTime = cachedResolvedRevision.getProperty("resolved.time");
+            if (cachedResolvedRevision.getProperty("resolved.revision") == null
+                    || resolvedTime == null) {
+                return 0;
+            }
+            long expiration = Long.parseLong(resolvedTime) + getTTL(requestedRevisionId);
+            // negative expiration means that Long.MAX_VALUE has been exceeded
+            return expiration < 0 ? Long.MAX_VALUE : expiration;
+        } finally {
+            unlockMetadataArtifact(requestedRevisionId);
+        }
+    }
+
     @Deprecated
     public void saveResolvedRevision(ModuleRevisionId mrid, String revision) {
         saveResolvedRevision(null, mrid, revision);
@@ -917,7 +1218,7 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
             return;
         }
         try {
-            PropertiesFile cachedResolvedRevision;
+            CachedDataFile cachedResolvedRevision;
             if (resolverName == null) {
                 cachedResolvedRevision = getCachedDataFile(mrid);
             } else {
@@ -935,6 +1236,83 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         }
     }
 
+    /**
+     * Checks if a resource of a module revision has been found missing by the given resolver less
+     * than {@link #getNotFoundTTL()} ago. Resources are never considered missing when the options
+     * ask to check the repository again (force or checkmodified).
+     *
+     * @param resolverName
+     *            the name of the resolver which looked for the resource
+     * @param mrid
+     *            the module revision the resource belongs to
+     * @param resource
+     *            the name of the resource in the repository of the resolver
+     * @param options
+     *            the options of the current lookup
+     * @return <code>true</code> if the resource is known to be missing
+     */
+    public boolean isNotFound(String resolverName, ModuleRevisionId mrid, String resource,
+            CacheMetadataOptions options) {
+        if (getNotFoundTTL() <= 0 || options.isForce()
+                || isCheckmodified(null, mrid, options)) {
+            return false;
+        }
+        if (!lockMetadataArtifact(mrid)) {
+            Message.error("impossible to acquire lock for " + mrid);
+            return false;
+        }
+        try {
+            String notFoundTime = getCachedDataFile(mrid).getProperty(
+                getNotFoundKey(resolverName, resource));
+            return notFoundTime != null
+                    && System.currentTimeMillis() - Long.parseLong(notFoundTime) < getNotFoundTTL();
+        } catch (NumberFormatException e) {
+            return false;
+        } finally {
+            unlockMetadataArtifact(mrid);
+        }
+    }
+
+    /**
+     * Records if a resource of a module revision has been found by the given resolver, so that
+     * missing ones are not looked for again until {@link #getNotFoundTTL()} has elapsed.
+     *
+     * @param resolverName
+     *            the name of the resolver which looked for the resource
+     * @param mrid
+     *            the module revision the resource belongs to
+     * @param resource
+     *            the name of the resource in the repository of the resolver
+     * @param found
+     *            <code>false</code> if the resource is missing
+     */
+    public void saveNotFound(String resolverName, ModuleRevisionId mrid, String resource,
+            boolean found) {
+        if (getNotFoundTTL() <= 0) {
+            return;
+        }
+        if (!lockMetadataArtifact(mrid)) {
+            Message.error("impossible to acquire lock for " + mrid);
+            return;
+        }
+        try {
+            CachedDataFile cdf = getCachedDataFile(mrid);
+            String key = getNotFoundKey(resolverName, resource);
+            if (!found) {
+                cdf.setProperty(key, String.valueOf(System.currentTimeMillis()));
+                cdf.save();
+            } else if (cdf.remove(key) != null) {
+                cdf.save();
+            }
+        } finally {
+            unlockMetadataArtifact(mrid);
+        }
+    }
+
+    private String getNotFoundKey(String resolverName, String resource) {
+        return "notfound." + resolverName + "." + resource;
+    }
+
     public long getTTL(ModuleRevisionId mrid) {
         Long ttl = ttlRules.getRule(mrid);
         return ttl == null ? getDefaultTTL() : ttl;
@@ -968,6 +1346,32 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         this.lockStrategyName = lockStrategyName;
     }
 
+    public CacheMetadataStore getMetadataStore() {
+        if (metadataStore == null) {
+            String storeName = metadataStoreName;
+            if (storeName == null && settings != null) {
+                storeName = settings.getDefaultCacheMetadataStore();
+            }
+            if (storeName == null || PropertiesFileMetadataStore.NAME.equals(storeName)) {
+                metadataStore = new PropertiesFileMetadataStore();
+            } else if (IndexedMetadataStore.NAME.equals(storeName)) {
+                metadataStore = IndexedMetadataStore.getInstance(getRepositoryCacheRoot());
+            } else {
+                throw new IllegalStateException("unknown metadata store '" + storeName
+                        + "'. It is set as metadata store in " + this);
+            }
+        }
+        return metadataStore;
+    }
+
+    public void setMetadataStore(CacheMetadataStore metadataStore) {
+        this.metadataStore = metadataStore;
+    }
+
+    public void setMetadataStore(String metadataStoreName) {
+        this.metadataStoreName = metadataStoreName;
+    }
+
     public ArtifactDownloadReport download(Artifact artifact,
             ArtifactResourceResolver resourceResolver, ResourceDownloader resourceDownloader,
             CacheDownloadOptions options) {
@@ -1031,8 +1435,24 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                                 listener.startArtifactDownload(this, artifactRef, artifact, origin);
                             }
 
-                            resourceDownloader.download(artifact, artifactRes, archiveFile);
+                            // the digests computed while downloading are kept with the origin
+                            TransferDigests digests = new TransferDigests();
+                            boolean useBlobStore = isUseBlobStore() && !artifact.isMetadata();
+                            if (useBlobStore) {
+                                digests.addAlgorithm(BlobStore.ALGORITHM);
+                            }
+                            digests.install();
+                            try {
+                                resourceDownloader.download(artifact, artifactRes, archiveFile);
+                            } finally {
+                                digests.uninstall();
+                            }
+                            origin.setChecksums(digests.getTransferredDigests(archiveFile));
+                            if (useBlobStore) {
+                                storeBlob(archiveFile, digests);
+                            }
                             adr.setSize(archiveFile.length());
+                            setValidators(origin, artifactRes);
                             saveArtifactOrigin(artifact, origin);
                             adr.setDownloadTimeMillis(System.currentTimeMillis() - start);
                             adr.setDownloadStatus(DownloadStatus.SUCCESSFUL);
@@ -1149,14 +1569,27 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                             archiveFile.delete();
                         }
                         File part = new File(archiveFile.getAbsolutePath() + ".part");
-                        repository.get(resource.getName(), part);
+                        // the digests computed while downloading are kept with the origin, to
+                        // revalidate the cached copy with the checksum files of the resource
+                        TransferDigests digests = new TransferDigests();
+                        for (String algorithm : getChecksumAlgorithms()) {
+                            digests.addAlgorithm(algorithm);
+                        }
+                        digests.install();
+                        try {
+                            repository.get(resource.getName(), part);
+                        } finally {
+                            digests.uninstall();
+                        }
                         if (!part.renameTo(archiveFile)) {
                             throw new IOException(
                                     "impossible to move part file to definitive one: " + part
                                             + " -> " + archiveFile);
                         }
 
+                        origin.setChecksums(digests.getTransferredDigests(archiveFile));
                         adr.setSize(archiveFile.length());
+                        setValidators(origin, resource);
                         saveArtifactOrigin(artifact, origin);
                         adr.setDownloadTimeMillis(System.currentTimeMillis() - start);
                         adr.setDownloadStatus(DownloadStatus.SUCCESSFUL);
@@ -1209,6 +1642,10 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
      */
     private boolean checkCacheUptodate(File archiveFile, Resource resource,
             ArtifactOrigin savedOrigin, ArtifactOrigin origin, long ttl) {
+        // the validators still describe the cached copy unless it is downloaded again
+        origin.setETag(savedOrigin.getETag());
+        origin.setLastModified(savedOrigin.getLastModified());
+        origin.setChecksums(savedOrigin.getChecksums());
         long time = System.currentTimeMillis();
         if (savedOrigin.getLastChecked() != null
                 && (time - savedOrigin.getLastChecked()) < ttl) {
@@ -1220,10 +1657,116 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
             return false;
         }
         origin.setLastChecked(time);
+        Boolean modified = isModified(resource, savedOrigin);
+        if (modified == null) {
+            modified = isChecksumModified(resource, savedOrigin);
+        }
+        if (modified != null) {
+            return !modified;
+        }
         // check if the local resource is up to date regarding the remote one
         return archiveFile.lastModified() >= resource.getLastModified();
     }
 
+    /**
+     * Revalidates the cached copy of a resource with the checksums saved in its origin, which have
+     * been computed while downloading it: they are compared with the checksum files of the
+     * resource, so neither the resource nor the cached copy has to be read.
+     *
+     * @param resource
+     *            the remote resource to check
+     * @param savedOrigin
+     *            the saved origin of the cached copy
+     * @return <code>true</code> if the resource has been modified, <code>false</code> if it has
+     *         not, <code>null</code> if no checksum can be compared
+     */
+    private Boolean isChecksumModified(Resource resource, ArtifactOrigin savedOrigin) {
+        for (Map.Entry<String, String> checksum : savedOrigin.getChecksums().entrySet()) {
+            String algorithm = checksum.getKey();
+            File csFile = null;
+            try {
+                Resource csRes = resource.clone(resource.getName() + "." + algorithm);
+                if (!csRes.exists()) {
+                    continue;
+                }
+                csFile = File.createTempFile("ivytmp", algorithm);
+                FileUtil.copy(csRes.openStream(), csFile, null);
+            } catch (IOException e) {
+                Message.debug("impossible to get the " + algorithm + " of " + resource + ": "
+                        + e.getMessage());
+                if (csFile != null) {
+                    csFile.delete();
+                }
+                continue;
+            }
+            try {
+                ChecksumHelper.check(checksum.getValue(), csFile, algorithm);
+                return false;
+            } catch (IOException e) {
+                Message.verbose(resource + " has changed: " + e.getMessage());
+                return true;
+            } finally {
+                csFile.delete();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the checksum algorithms of the settings, used to compute the checksums of the
+     * repository resources while downloading them.
+     */
+    private String[] getChecksumAlgorithms() {
+        String csDef = settings == null ? null : settings.getVariable("ivy.checksums");
+        if (csDef == null) {
+            return new String[0];
+        }
+        List<String> algorithms = new ArrayList<>();
+        for (String algorithm : splitToArray(csDef)) {
+            if (!algorithm.isEmpty() && !"none".equals(algorithm)) {
+                algorithms.add(algorithm);
+            }
+        }
+        return algorithms.toArray(new String[algorithms.size()]);
+    }
+
+    /**
+     * Revalidates the cached copy of a resource with the validators saved in its origin. When the
+     * resource has been modified, its new content may be fetched at the same time.
+     *
+     * @param resource
+     *            the remote resource to check
+     * @param savedOrigin
+     *            the saved origin of the cached copy
+     * @return <code>true</code> if the resource has been modified, <code>false</code> if it has
+     *         not, <code>null</code> if it can't be revalidated
+     */
+    private Boolean isModified(Resource resource, ArtifactOrigin savedOrigin) {
+        if (!(resource instanceof ConditionalResource) || resource.isLocal()
+                || savedOrigin.getETag() == null && savedOrigin.getLastModified() == null) {
+            return null;
+        }
+        try {
+            return ((ConditionalResource) resource).fetchIfModified(savedOrigin.getETag(),
+                savedOrigin.getLastModified() == null ? 0 : savedOrigin.getLastModified());
+        } catch (IOException e) {
+            Message.debug("impossible to revalidate " + resource + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Saves in the origin the validators of the downloaded resource, so that the cached copy can
+     * be revalidated later.
+     */
+    private void setValidators(ArtifactOrigin origin, Resource resource) {
+        if (resource instanceof ConditionalResource && !resource.isLocal()) {
+            origin.setETag(((ConditionalResource) resource).getETag());
+            long lastModified = resource.getLastModified();
+            origin.setLastModified(lastModified > 0 ? lastModified : null);
+        }
+    }
+
     public void originalToCachedModuleDescriptor(DependencyResolver resolver,
                                                  ResolvedResource originalMetadataRef, Artifact requestedMetadataArtifact,
                                                  ResolvedModuleRevision rmr, ModuleDescriptorWriter writer) {
@@ -1239,6 +1782,7 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         try {
             File originalFileInCache = getArchiveFileInCache(originalMetadataArtifact);
             writer.write(originalMetadataRef, md, originalFileInCache, mdFileInCache);
+            BinaryModuleDescriptorStore.delete(mdFileInCache);
 
             getMemoryCache().putInCache(mdFileInCache, new ParserSettingsMonitor(settings), true,
                 md);
@@ -1315,9 +1859,21 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                         rmr.getReport().setSearched(true);
                         return rmr;
                     }
+                    // a single conditional request when the validators of the cached copy are
+                    // known, which fetches the new content if the descriptor has been modified
+                    Boolean modified = rmr.getDescriptor().isDefault() ? null : isModified(
+                        mdRef.getResource(),
+                        getSavedArtifactOrigin(getOriginalMetadataArtifact(moduleArtifact)));
+                    if (Boolean.FALSE.equals(modified)) {
+                        Message.verbose("\t" + getName() + ": revision in cache (not modified): "
+                                + mrid);
+                        rmr.getReport().setSearched(true);
+                        return rmr;
+                    }
                     long repLastModified = mdRef.getLastModified();
                     long cacheLastModified = rmr.getDescriptor().getLastModified();
-                    if (!rmr.getDescriptor().isDefault() && repLastModified <= cacheLastModified) {
+                    if (modified == null && !rmr.getDescriptor().isDefault()
+                            && repLastModified <= cacheLastModified) {
                         Message.verbose("\t" + getName() + ": revision in cache (not updated): "
                                 + mrid);
                         rmr.getReport().setSearched(true);
@@ -1425,8 +1981,9 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                 return null;
             }
         } finally {
-            unlockMetadataArtifact(mrid);
+            // the backup must be removed before another thread can make its own one
             backupDownloader.cleanUp();
+            unlockMetadataArtifact(mrid);
         }
 
     }
@@ -1520,6 +2077,9 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
     }
 
     public void clean() {
+        if (metadataStore instanceof IndexedMetadataStore) {
+            ((IndexedMetadataStore) metadataStore).close();
+        }
         FileUtil.forceDelete(getBasedir());
     }
 
@@ -1528,8 +2088,35 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         Message.debug("\t\tivyPattern: " + getIvyPattern());
         Message.debug("\t\tartifactPattern: " + getArtifactPattern());
         Message.debug("\t\tlockingStrategy: " + getLockStrategy().getName());
+        Message.debug("\t\tmetadataStore: " + getMetadataStore().getName());
+        Message.debug("\t\tmemoryCache: " + getMemoryCache());
+        Message.debug("\t\tnotFoundTTL: " + getNotFoundTTL());
         Message.debug("\t\tchangingPattern: " + getChangingPattern());
         Message.debug("\t\tchangingMatcher: " + getChangingMatcherName());
+        if (isUseBlobStore()) {
+            Message.debug("\t\tblobStoreDir: " + getBlobStoreDir());
+        }
+    }
+
+    /**
+     * The metadata of a module revision, loaded from and saved to the metadata store of this cache.
+     */
+    @SuppressWarnings("serial")
+    private final class CachedDataFile extends Properties {
+
+        private final File file;
+
+        private final String description;
+
+        private CachedDataFile(File file, String description) {
+            this.file = file;
+            this.description = description;
+            putAll(getMetadataStore().load(file));
+        }
+
+        public void save() {
+            getMetadataStore().store(file, this, description);
+        }
     }
 
     /**
@@ -142,6 +142,10 @@ public class DefaultResolutionCacheManager implements ResolutionCacheManager, Iv
         });
     }
 
+    public File getResolveSnapshotInCache(String resolveId) {
+        return new File(getResolutionCacheRoot(), resolveId + "-snapshot.properties");
+    }
+
     public ModuleDescriptor getResolvedModuleDescriptor(ModuleRevisionId mrid)
             throws ParseException, IOException {
         File ivyFile = getResolvedIvyFileInCache(mrid);
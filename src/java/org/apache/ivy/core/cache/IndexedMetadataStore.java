@@ -0,0 +1,509 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.cache;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.ivy.util.Message;
+import org.apache.ivy.util.PropertiesFile;
+
+/**
+ * A {@link CacheMetadataStore} keeping all the metadata of a repository cache in a single file,
+ * named {@value #FILE_NAME} and located at the root of the cache, instead of one properties file
+ * per module revision.
+ * <p>
+ * The file starts with a header giving its generation and the end of its valid content, followed
+ * by records appended each time some metadata is stored. The position of the last record of each
+ * set of metadata is kept in an in memory index, which is updated from the new records found at
+ * the end of the file when another process has written to it. When most of the file is made of
+ * overwritten records, the live records are copied to a new file with the next generation, which
+ * atomically replaces the store. The replaced file is then marked as obsolete, so that the other
+ * processes which have it open switch to the new one. An interrupted compaction leaves the store
+ * untouched.
+ * </p>
+ * <p>
+ * Reads are done under a shared file lock and writes under an exclusive one, so the file can be
+ * used by several processes. Within a JVM, a single instance is used per cache root, see
+ * {@link #getInstance(File)}.
+ * </p>
+ * <p>
+ * Metadata found in a properties file of the {@link PropertiesFileMetadataStore} and not yet in
+ * this store is imported when it is first loaded, and the properties file is then deleted.
+ * </p>
+ */
+public final class IndexedMetadataStore implements CacheMetadataStore {
+
+    public static final String NAME = "indexed";
+
+    public static final String FILE_NAME = "ivydata.db";
+
+    private static final int MAGIC = 0x49564442; // IVDB
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 24;
+
+    private static final int END_POSITION = 16;
+
+    private static final long COMPACTION_THRESHOLD = 1024 * 1024;
+
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The end written in the header of a store which has been replaced by a compacted one.
+     */
+    private static final long OBSOLETE = -1;
+
+    private static final Map<File, IndexedMetadataStore> STORES = new HashMap<>();
+
+    /**
+     * Returns the store of the repository cache located in the given directory.
+     *
+     * @param root
+     *            the root directory of the repository cache
+     * @return the store of this cache, shared by all the users of this cache in this JVM
+     */
+    public static IndexedMetadataStore getInstance(File root) {
+        File dir;
+        try {
+            dir = root.getCanonicalFile();
+        } catch (IOException e) {
+            dir = root.getAbsoluteFile();
+        }
+        synchronized (STORES) {
+            IndexedMetadataStore store = STORES.get(dir);
+            if (store == null) {
+                store = new IndexedMetadataStore(dir);
+                STORES.put(dir, store);
+            }
+            return store;
+        }
+    }
+
+    private final File root;
+
+    private final String rootPath;
+
+    private final File file;
+
+    private RandomAccessFile raf;
+
+    private FileChannel channel;
+
+    /**
+     * The position and the length of the last record of each key
+     */
+    private final Map<String, long[]> index = new HashMap<>();
+
+    private long generation = -1;
+
+    private long indexedEnd = HEADER_SIZE;
+
+    private long liveSize;
+
+    // false once a compaction failed, the file being probably open by another process on a
+    // system not allowing to replace it
+    private boolean compactable = true;
+
+    private IndexedMetadataStore(File root) {
+        this.root = root;
+        this.rootPath = root.getPath() + File.separator;
+        this.file = new File(root, FILE_NAME);
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized Properties load(File dataFile) {
+        String key = getKey(dataFile);
+        if (channel != null || file.exists()) {
+            try {
+                FileLock lock = lock(true);
+                try {
+                    refresh();
+                    Properties data = read(key);
+                    if (data != null) {
+                        return data;
+                    }
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                Message.warn("impossible to read " + key + " from " + file, e);
+            }
+        }
+        if (!dataFile.exists()) {
+            return new Properties();
+        }
+        Properties data = new PropertiesFile(dataFile, null);
+        if (write(key, data)) {
+            Message.debug("imported " + dataFile + " into " + file);
+            dataFile.delete();
+        }
+        return data;
+    }
+
+    public synchronized void store(File dataFile, Properties data, String description) {
+        write(getKey(dataFile), data);
+    }
+
+    /**
+     * Releases the file used by this store. It will be opened again if the store is used later.
+     */
+    public synchronized void close() {
+        closeFile();
+        compactable = true;
+    }
+
+    private void closeFile() {
+        if (raf != null) {
+            try {
+                raf.close();
+            } catch (IOException e) {
+                // ignored
+            }
+        }
+        raf = null;
+        channel = null;
+        reset(-1);
+    }
+
+    /**
+     * Returns the number of sets of metadata found in this store the last time it was read.
+     *
+     * @return the number of indexed sets of metadata
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    private String getKey(File dataFile) {
+        String path = dataFile.getAbsolutePath();
+        if (!path.startsWith(rootPath)) {
+            try {
+                path = dataFile.getCanonicalPath();
+            } catch (IOException e) {
+                return path;
+            }
+        }
+        if (path.startsWith(rootPath)) {
+            path = path.substring(rootPath.length());
+        }
+        return path.replace(File.separatorChar, '/');
+    }
+
+    private void open() throws IOException {
+        if (channel == null) {
+            root.mkdirs();
+            raf = new RandomAccessFile(file, "rw");
+            channel = raf.getChannel();
+        }
+    }
+
+    /**
+     * Locks the store file, opening it first if needed, or opening it again if it has been
+     * replaced by a compacted one.
+     */
+    private FileLock lock(boolean shared) throws IOException {
+        while (true) {
+            open();
+            FileLock lock = channel.lock(0, Long.MAX_VALUE, shared);
+            if (!isObsolete()) {
+                return lock;
+            }
+            lock.release();
+            closeFile();
+        }
+    }
+
+    private boolean isObsolete() throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer end = ByteBuffer.allocate(8);
+        readFully(end, END_POSITION);
+        end.flip();
+        return end.getLong() == OBSOLETE;
+    }
+
+    private boolean write(String key, Properties data) {
+        try {
+            byte[] record = encode(key, data);
+            FileLock lock = lock(false);
+            try {
+                refresh();
+                if (generation == -1) {
+                    // new store: the generation only has to differ from the one of a deleted store
+                    generation = System.currentTimeMillis();
+                    writeHeader(generation, HEADER_SIZE);
+                }
+                long position = indexedEnd;
+                writeFully(ByteBuffer.wrap(record), position);
+                // the record becomes visible only once it has been fully written
+                writeEnd(position + record.length);
+                indexedEnd = position + record.length;
+                put(key, position, record.length);
+                if (compactable && indexedEnd > COMPACTION_THRESHOLD
+                        && liveSize * 2 < indexedEnd) {
+                    compact();
+                }
+            } finally {
+                lock.release();
+            }
+            return true;
+        } catch (IOException e) {
+            Message.warn("impossible to write " + key + " to " + file, e);
+            return false;
+        }
+    }
+
+    /**
+     * Updates the index with the records written since it was last updated, or rebuilds it if
+     * the store has been compacted. Must be called with a lock on the file.
+     */
+    private void refresh() throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            reset(-1);
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+            throw new IOException("unsupported metadata store format in " + file);
+        }
+        long fileGeneration = header.getLong();
+        long end = header.getLong();
+        if (fileGeneration != generation || end < indexedEnd) {
+            reset(fileGeneration);
+        }
+        if (end > indexedEnd) {
+            scan(end);
+        }
+    }
+
+    private void reset(long newGeneration) {
+        index.clear();
+        generation = newGeneration;
+        indexedEnd = HEADER_SIZE;
+        liveSize = 0;
+    }
+
+    private void scan(long end) throws IOException {
+        // only the keys are needed to build the index: the values are skipped. The file isn't
+        // mapped, a mapped file can't be replaced on Windows until the mapping is garbage
+        // collected, which would make the compactions fail
+        channel.position(indexedEnd);
+        // not closed, it would close the channel
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(channel), SCAN_BUFFER_SIZE));
+        long position = indexedEnd;
+        while (end - position >= 8) {
+            int length = in.readInt();
+            int keyLength = in.readInt();
+            if (length < 8 || length > end - position - 4 || keyLength < 0
+                    || keyLength > length - 8) {
+                // a record which has not been fully written: it will be overwritten
+                Message.verbose("ignoring corrupted record at " + position + " in " + file);
+                break;
+            }
+            byte[] key = new byte[keyLength];
+            in.readFully(key);
+            put(new String(key, StandardCharsets.UTF_8), position, length + 4);
+            int valueLength = length - 4 - keyLength;
+            if (in.skipBytes(valueLength) != valueLength) {
+                throw new EOFException("truncated record at " + position + " in " + file);
+            }
+            position += length + 4;
+        }
+        indexedEnd = position;
+    }
+
+    private void put(String key, long position, long length) {
+        long[] previous = index.put(key, new long[] {position, length});
+        if (previous != null) {
+            liveSize -= previous[1];
+        }
+        liveSize += length;
+    }
+
+    private Properties read(String key) throws IOException {
+        long[] entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) entry[1]);
+        readFully(buffer, entry[0]);
+        buffer.flip();
+        buffer.getInt();
+        readString(buffer);
+        Properties data = new Properties();
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            data.setProperty(readString(buffer), readString(buffer));
+        }
+        return data;
+    }
+
+    /**
+     * Copies the live records to a new file, which then replaces the store file. Must be called
+     * with an exclusive lock on the file.
+     */
+    private void compact() {
+        File compacted = new File(root, FILE_NAME + ".tmp");
+        long position = HEADER_SIZE;
+        try {
+            List<long[]> entries = new ArrayList<>(index.values());
+            // copies the records in the order of their position, to read the file sequentially
+            Collections.sort(entries, new Comparator<long[]>() {
+                public int compare(long[] entry1, long[] entry2) {
+                    return Long.compare(entry1[0], entry2[0]);
+                }
+            });
+            try (RandomAccessFile out = new RandomAccessFile(compacted, "rw")) {
+                out.setLength(0);
+                FileChannel outChannel = out.getChannel();
+                for (long[] entry : entries) {
+                    ByteBuffer buffer = ByteBuffer.allocate((int) entry[1]);
+                    readFully(buffer, entry[0]);
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        outChannel.write(buffer, position + buffer.position());
+                    }
+                    position += entry[1];
+                }
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(generation + 1)
+                        .putLong(position);
+                header.flip();
+                while (header.hasRemaining()) {
+                    outChannel.write(header, header.position());
+                }
+                outChannel.force(true);
+            }
+            Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Message.verbose("impossible to compact " + file + ": " + e.getMessage());
+            compacted.delete();
+            compactable = false;
+            return;
+        }
+        Message.verbose("compacted " + file + " from " + indexedEnd + " to " + position
+                + " bytes");
+        try {
+            // the processes using the replaced file, this one included, will open the new one
+            writeEnd(OBSOLETE);
+        } catch (IOException e) {
+            Message.warn("impossible to mark " + file + " as replaced: " + e.getMessage());
+        }
+    }
+
+    private void writeHeader(long fileGeneration, long end) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(fileGeneration).putLong(end);
+        header.flip();
+        writeFully(header, 0);
+    }
+
+    private void writeEnd(long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putLong(end);
+        buffer.flip();
+        writeFully(buffer, END_POSITION);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("unexpected end of " + file);
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, start + buffer.position());
+        }
+    }
+
+    /**
+     * Encodes a record: its length, the key, then the number of properties followed by their
+     * keys and values, each string being preceded by the length of its UTF-8 encoding.
+     */
+    private static byte[] encode(String key, Properties data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        writeString(out, key);
+        List<String> names = new ArrayList<>(data.stringPropertyNames());
+        out.writeInt(names.size());
+        for (String name : names) {
+            writeString(out, name);
+            writeString(out, data.getProperty(name));
+        }
+        out.flush();
+        byte[] record = bytes.toByteArray();
+        ByteBuffer.wrap(record).putInt(record.length - 4);
+        return record;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] encoded = new byte[buffer.getInt()];
+        buffer.get(encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return NAME + "[" + file + "]";
+    }
+}
@@ -26,18 +26,47 @@ import java.io.IOException;
 import java.text.ParseException;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Cache ModuleDescriptors so that when the same module is used twice (in multi-module build for
  * instance), it is parsed only once. This cache is has a limited size, and keep the most recently
  * used entries. The entry in the cache are invalidated if there is a change to one variable used in
  * the module descriptor.
+ * <p>
+ * The cache is split in segments, each one with its own lock and its own share of the limits, so
+ * that concurrent resolves don't contend on a single lock. Besides the number of entries, the
+ * cache can be limited by the estimated memory used by the cached module descriptors. When
+ * several threads ask for the same module descriptor which is not in cache, it is parsed only
+ * once.
+ * </p>
  */
 class ModuleDescriptorMemoryCache {
 
+    private static final int MAX_SEGMENTS = 16;
+
+    /**
+     * Minimum number of entries of a segment: below it, evicting the least recently used entry
+     * of a segment rather than of the whole cache would make the cache less effective.
+     */
+    private static final int MIN_SEGMENT_SIZE = 16;
+
     private final int maxSize;
 
-    private final LinkedHashMap<File, CacheEntry> valueMap;
+    private final long maxWeight;
+
+    private final Segment[] segments;
+
+    private final ConcurrentMap<File, Loading> loadings = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
 
     /**
      * Create a cache of the given size
@@ -45,8 +74,30 @@ class ModuleDescriptorMemoryCache {
      * @param size int
      */
     public ModuleDescriptorMemoryCache(int size) {
+        this(size, 0);
+    }
+
+    /**
+     * Create a cache of the given size, limited to the given estimated memory.
+     *
+     * @param size
+     *            the maximum number of module descriptors to keep
+     * @param maxWeight
+     *            the maximum estimated memory used by the cached module descriptors, in bytes, 0
+     *            for no limit
+     */
+    public ModuleDescriptorMemoryCache(int size, long maxWeight) {
         this.maxSize = size;
-        this.valueMap = new LinkedHashMap<>(size);
+        this.maxWeight = maxWeight;
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && segmentCount * 2 * MIN_SEGMENT_SIZE <= size) {
+            segmentCount *= 2;
+        }
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment((size + segmentCount - 1) / segmentCount, maxWeight
+                    / segmentCount);
+        }
     }
 
     public ModuleDescriptor get(File ivyFile, ParserSettings ivySettings, boolean validated,
@@ -54,7 +105,32 @@ class ModuleDescriptorMemoryCache {
 
         ModuleDescriptor descriptor = getFromCache(ivyFile, ivySettings, validated);
         if (descriptor == null) {
-            descriptor = getStale(ivyFile, ivySettings, validated, mdProvider);
+            if (maxSize <= 0) {
+                return getStale(ivyFile, ivySettings, validated, mdProvider);
+            }
+            Loading loading = new Loading();
+            Loading current = loadings.putIfAbsent(ivyFile, loading);
+            if (current == null) {
+                try {
+                    return getStale(ivyFile, ivySettings, validated, mdProvider);
+                } finally {
+                    loadings.remove(ivyFile, loading);
+                    loading.done.countDown();
+                }
+            }
+            if (current.thread != Thread.currentThread()) {
+                // another thread is parsing the same file: use its result if it suits us
+                try {
+                    current.done.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt(); // reset interrupt status
+                    throw new RuntimeException("operation interrupted");
+                }
+                descriptor = getFromCache(ivyFile, ivySettings, validated);
+            }
+            if (descriptor == null) {
+                descriptor = getStale(ivyFile, ivySettings, validated, mdProvider);
+            }
         }
         return descriptor;
     }
@@ -76,23 +152,24 @@ class ModuleDescriptorMemoryCache {
             // cache is disabled
             return null;
         }
-        synchronized (valueMap) {
-            CacheEntry entry = valueMap.get(ivyFile);
+        Segment segment = segmentFor(ivyFile);
+        synchronized (segment) {
+            CacheEntry entry = segment.get(ivyFile);
             if (entry != null) {
                 if (entry.isStale(ivyFile, validated, ivySettings)) {
                     Message.debug("Entry is found in the ModuleDescriptorCache but entry should be "
                             + "reevaluated : " + ivyFile);
-                    valueMap.remove(ivyFile);
+                    segment.remove(ivyFile);
+                    missCount.incrementAndGet();
                     return null;
                 } else {
-                    // Move the entry at the end of the list
-                    valueMap.remove(ivyFile);
-                    valueMap.put(ivyFile, entry);
                     Message.debug("Entry is found in the ModuleDescriptorCache : " + ivyFile);
+                    hitCount.incrementAndGet();
                     return entry.md;
                 }
             } else {
                 Message.debug("No entry is found in the ModuleDescriptorCache : " + ivyFile);
+                missCount.incrementAndGet();
                 return null;
             }
         }
@@ -100,21 +177,137 @@ class ModuleDescriptorMemoryCache {
 
     void putInCache(File url, ParserSettingsMonitor ivySettingsMonitor, boolean validated,
             ModuleDescriptor descriptor) {
-        if (maxSize <= 0) {
+        if (maxSize <= 0 || descriptor == null) {
             // cache is disabled
             return;
         }
-        synchronized (valueMap) {
-            if (valueMap.size() >= maxSize) {
+        Segment segment = segmentFor(url);
+        CacheEntry entry = new CacheEntry(descriptor, validated, ivySettingsMonitor,
+                estimateWeight(url, descriptor));
+        synchronized (segment) {
+            segment.remove(url);
+            if (segment.maxWeight > 0 && entry.weight > segment.maxWeight) {
+                Message.debug("ModuleDescriptorCache too small for " + url);
+                return;
+            }
+            segment.put(url, entry);
+            segment.weight += entry.weight;
+            Iterator<CacheEntry> it = segment.values().iterator();
+            while (segment.size() > segment.maxSize || segment.maxWeight > 0
+                    && segment.weight > segment.maxWeight) {
                 Message.debug("ModuleDescriptorCache is full, remove one entry");
-                Iterator<CacheEntry> it = valueMap.values().iterator();
-                it.next();
+                segment.weight -= it.next().weight;
                 it.remove();
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of module descriptors in this cache.
+     *
+     * @return the number of cached module descriptors
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the estimated memory used by the module descriptors in this cache.
+     *
+     * @return the estimated size of the cached module descriptors, in bytes
+     */
+    public long getWeight() {
+        long weight = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                weight += segment.weight;
+            }
+        }
+        return weight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ModuleDescriptorMemoryCache[size=" + size() + ", weight=" + getWeight()
+                + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions="
+                + getEvictionCount() + "]";
+    }
+
+    private Segment segmentFor(File ivyFile) {
+        int hash = ivyFile.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (segments.length - 1)];
+    }
+
+    /**
+     * Estimates the memory retained by a parsed module descriptor, from the size of the file it
+     * has been parsed from and the number of its main elements.
+     */
+    static long estimateWeight(File ivyFile, ModuleDescriptor md) {
+        return 1024 + 2 * ivyFile.length() + 128L * md.getConfigurations().length + 512L
+                * md.getDependencies().length + 256L * md.getAllArtifacts().length;
+    }
+
+    /**
+     * A part of the cache, holding its entries from the least recently used to the most recently
+     * used. Must be used with a lock on it.
+     */
+    @SuppressWarnings("serial")
+    private static final class Segment extends LinkedHashMap<File, CacheEntry> {
+        private final int maxSize;
+
+        private final long maxWeight;
+
+        private long weight;
+
+        Segment(int maxSize, long maxWeight) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+            this.maxWeight = maxWeight;
+        }
+
+        @Override
+        public CacheEntry remove(Object key) {
+            CacheEntry entry = super.remove(key);
+            if (entry != null) {
+                weight -= entry.weight;
             }
-            valueMap.put(url, new CacheEntry(descriptor, validated, ivySettingsMonitor));
+            return entry;
         }
     }
 
+    /**
+     * A module descriptor being parsed by a thread.
+     */
+    private static final class Loading {
+        private final Thread thread = Thread.currentThread();
+
+        private final CountDownLatch done = new CountDownLatch(1);
+    }
+
     private static class CacheEntry {
         private final ModuleDescriptor md;
 
@@ -122,11 +315,14 @@ class ModuleDescriptorMemoryCache {
 
         private final ParserSettingsMonitor parserSettingsMonitor;
 
+        private final long weight;
+
         CacheEntry(ModuleDescriptor md, boolean validated,
-                ParserSettingsMonitor parserSettingsMonitor) {
+                ParserSettingsMonitor parserSettingsMonitor, long weight) {
             this.md = md;
             this.validated = validated;
             this.parserSettingsMonitor = parserSettingsMonitor;
+            this.weight = weight;
         }
 
         boolean isStale(File ivyFile, boolean validated, ParserSettings newParserSettings) {
@@ -51,6 +51,8 @@ class ParserSettingsMonitor {
 
     private final Map<String, String> substitutes;
 
+    private boolean settingsUsed;
+
     public ParserSettingsMonitor(ParserSettings settings) {
         this.delegatedSettings = settings;
         this.substitutes = new HashMap<>();
@@ -88,9 +90,19 @@ class ParserSettingsMonitor {
         return false;
     }
 
+    /**
+     * @return true if nothing but the matchers was taken from the settings: no variable was
+     *         substituted, and no resolver, namespace, conflict manager, status or default branch
+     *         was used.
+     */
+    public boolean isSettingsIndependent() {
+        return !settingsUsed && substitutes.isEmpty();
+    }
+
     private ParserSettings monitoredSettings = new ParserSettings() {
 
         public ConflictManager getConflictManager(String name) {
+            settingsUsed = true;
             return delegatedSettings.getConflictManager(name);
         }
 
@@ -99,34 +111,42 @@ class ParserSettingsMonitor {
         }
 
         public Namespace getNamespace(String namespace) {
+            settingsUsed = true;
             return delegatedSettings.getNamespace(namespace);
         }
 
         public RelativeUrlResolver getRelativeUrlResolver() {
+            settingsUsed = true;
             return delegatedSettings.getRelativeUrlResolver();
         }
 
         public ResolutionCacheManager getResolutionCacheManager() {
+            settingsUsed = true;
             return delegatedSettings.getResolutionCacheManager();
         }
 
         public DependencyResolver getResolver(ModuleRevisionId mRevId) {
+            settingsUsed = true;
             return delegatedSettings.getResolver(mRevId);
         }
 
         public StatusManager getStatusManager() {
+            settingsUsed = true;
             return delegatedSettings.getStatusManager();
         }
 
         public File resolveFile(String filename) {
+            settingsUsed = true;
             return delegatedSettings.resolveFile(filename);
         }
 
         public String getDefaultBranch(ModuleId moduleId) {
+            settingsUsed = true;
             return delegatedSettings.getDefaultBranch(moduleId);
         }
 
         public Namespace getContextNamespace() {
+            settingsUsed = true;
             return delegatedSettings.getContextNamespace();
         }
 
@@ -147,11 +167,13 @@ class ParserSettingsMonitor {
         }
 
         public String getVariable(String value) {
+            settingsUsed = true;
             return delegatedSettings.getVariable(value);
         }
 
         @Override
         public TimeoutConstraint getTimeoutConstraint(final String name) {
+            settingsUsed = true;
             return delegatedSettings.getTimeoutConstraint(name);
         }
     };
@@ -0,0 +1,59 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.cache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.apache.ivy.util.Message;
+import org.apache.ivy.util.PropertiesFile;
+
+/**
+ * The default {@link CacheMetadataStore}, storing each set of metadata in its own properties file.
+ */
+public class PropertiesFileMetadataStore implements CacheMetadataStore {
+
+    public static final String NAME = "properties";
+
+    public String getName() {
+        return NAME;
+    }
+
+    public Properties load(File dataFile) {
+        return new PropertiesFile(dataFile, null);
+    }
+
+    public void store(File dataFile, Properties data, String description) {
+        File parent = dataFile.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        try (FileOutputStream out = new FileOutputStream(dataFile)) {
+            data.store(out, description);
+        } catch (IOException ex) {
+            Message.warn("exception occurred while writing properties file " + dataFile, ex);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return NAME;
+    }
+}
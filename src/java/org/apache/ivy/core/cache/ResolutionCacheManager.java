@@ -36,6 +36,15 @@ public interface ResolutionCacheManager {
 
     File[] getConfigurationResolveReportsInCache(final String resolveId);
 
+    /**
+     * Returns the file in which the snapshot of the resolve with the given id is stored.
+     *
+     * @param resolveId
+     *            the id of the resolve
+     * @return the snapshot file, which may not exist
+     */
+    File getResolveSnapshotInCache(String resolveId);
+
     ModuleDescriptor getResolvedModuleDescriptor(ModuleRevisionId mrid) throws ParseException,
             IOException;
 
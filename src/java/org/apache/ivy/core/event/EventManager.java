@@ -17,7 +17,9 @@
  */
 package org.apache.ivy.core.event;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import javax.swing.event.EventListenerList;
 
@@ -29,6 +31,9 @@ public class EventManager implements TransferListener {
 
     private EventListenerList listeners = new EventListenerList();
 
+    // the events fired by the threads deferring them
+    private final ThreadLocal<List<IvyEvent>> deferredEvents = new ThreadLocal<>();
+
     public void addIvyListener(IvyListener listener) {
         listeners.add(IvyListener.class, listener);
     }
@@ -66,6 +71,36 @@ public class EventManager implements TransferListener {
     }
 
     public void fireIvyEvent(IvyEvent evt) {
+        List<IvyEvent> deferred = deferredEvents.get();
+        if (deferred != null) {
+            deferred.add(evt);
+            return;
+        }
+        notifyIvyListeners(evt);
+    }
+
+    /**
+     * Makes the Ivy events fired by the current thread be kept instead of being sent to the
+     * listeners, until {@link #stopDeferringIvyEvents()} is called. The transfer events aren't
+     * deferred.
+     */
+    public void startDeferringIvyEvents() {
+        deferredEvents.set(new ArrayList<IvyEvent>());
+    }
+
+    /**
+     * Stops deferring the Ivy events fired by the current thread.
+     *
+     * @return the events fired by the current thread since it started deferring them, in the
+     *         order they were fired, which can then be fired by another thread
+     */
+    public List<IvyEvent> stopDeferringIvyEvents() {
+        List<IvyEvent> deferred = deferredEvents.get();
+        deferredEvents.remove();
+        return deferred;
+    }
+
+    private void notifyIvyListeners(IvyEvent evt) {
         Object[] listeners = this.listeners.getListenerList();
         for (int i = listeners.length - 2; i >= 0; i -= 2) {
             if (listeners[i] == IvyListener.class) {
@@ -97,7 +132,8 @@ public class EventManager implements TransferListener {
 
     public void transferProgress(TransferEvent evt) {
         fireTransferEvent(evt);
-        fireIvyEvent(evt);
+        // the repositories reuse their transfer events, which can't be kept for later
+        notifyIvyListeners(evt);
     }
 
 }
@@ -34,6 +34,7 @@ public class EndResolveEvent extends ResolveEvent {
         addAttribute("resolve-duration", String.valueOf(report.getResolveTime()));
         addAttribute("download-duration", String.valueOf(report.getDownloadTime()));
         addAttribute("download-size", String.valueOf(report.getDownloadSize()));
+        addAttribute("avoided-requests", String.valueOf(report.getAvoidedRequests()));
     }
 
     public ResolveReport getReport() {
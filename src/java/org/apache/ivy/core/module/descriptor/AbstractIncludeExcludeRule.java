@@ -19,6 +19,7 @@ package org.apache.ivy.core.module.descriptor;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 
 import org.apache.ivy.core.IvyPatternHelper;
@@ -85,6 +86,14 @@ public abstract class AbstractIncludeExcludeRule extends UnmodifiableExtendableI
         return confs.toArray(new String[confs.size()]);
     }
 
+    /**
+     * @return a read only view of the configurations of this rule, which shows the configurations
+     *         added later
+     */
+    Collection<String> getConfigurationsView() {
+        return Collections.unmodifiableCollection(confs);
+    }
+
     public PatternMatcher getMatcher() {
         return patternMatcher;
     }
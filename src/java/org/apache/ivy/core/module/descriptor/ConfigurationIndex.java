@@ -0,0 +1,194 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.module.descriptor;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The configurations of a module descriptor, numbered in their declaration order, so that sets of
+ * configurations can be represented as bit sets.
+ * <p>
+ * An index is immutable: the index of a module descriptor is built again when configurations are
+ * added to it.
+ * </p>
+ * <p>
+ * When it is built from the configurations themselves, the index also gives the configurations
+ * each of them extends, transitively, so that a configuration can be added with the ones it
+ * extends to a set in one bit operation.
+ * </p>
+ */
+public final class ConfigurationIndex {
+    private static final String[] NO_NAMES = new String[0];
+
+    private final String[] names;
+
+    private final Map<String, Integer> indexes;
+
+    // the names of the configurations extended by each configuration, null if not known
+    private final String[][] extendsNames;
+
+    // built on demand, see getExtended
+    private volatile Extended[] extended;
+
+    /**
+     * @param names
+     *            the names of the configurations to index
+     */
+    public ConfigurationIndex(String[] names) {
+        this(names, null);
+    }
+
+    /**
+     * @param confs
+     *            the configurations to index
+     */
+    public ConfigurationIndex(Configuration[] confs) {
+        this(getNames(confs), getExtendsNames(confs));
+    }
+
+    private ConfigurationIndex(String[] names, String[][] extendsNames) {
+        this.names = names.clone();
+        this.extendsNames = extendsNames;
+        this.indexes = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            indexes.put(names[i], i);
+        }
+    }
+
+    private static String[] getNames(Configuration[] confs) {
+        String[] names = new String[confs.length];
+        for (int i = 0; i < confs.length; i++) {
+            names[i] = confs[i].getName();
+        }
+        return names;
+    }
+
+    private static String[][] getExtendsNames(Configuration[] confs) {
+        String[][] extendsNames = new String[confs.length][];
+        for (int i = 0; i < confs.length; i++) {
+            extendsNames[i] = confs[i].getExtends();
+        }
+        return extendsNames;
+    }
+
+    /**
+     * Returns the index of the configurations of the given module descriptor.
+     *
+     * @param md
+     *            the module descriptor
+     * @return the index of its configurations
+     */
+    public static ConfigurationIndex of(ModuleDescriptor md) {
+        if (md instanceof DefaultModuleDescriptor) {
+            return ((DefaultModuleDescriptor) md).getConfigurationIndex();
+        }
+        return new ConfigurationIndex(md.getConfigurations());
+    }
+
+    /**
+     * @param name
+     *            the name of a configuration
+     * @return the index of the configuration, -1 if it is not indexed
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the configurations extended by a configuration, transitively, the configuration
+     * itself comprised.
+     *
+     * @param index
+     *            the index of the configuration
+     * @return a bit set of the indexes of the configurations, which must not be modified
+     */
+    public BitSet getExtended(int index) {
+        return getExtendedData()[index].indexes;
+    }
+
+    /**
+     * Returns the names of the configurations extended by a configuration, transitively, which
+     * are not in this index. They are usually none, the descriptors extending unknown
+     * configurations being rejected when they are checked.
+     *
+     * @param index
+     *            the index of the configuration
+     * @return the names of the extended configurations which are not indexed
+     */
+    public String[] getExtendedUnknown(int index) {
+        return getExtendedData()[index].unknown;
+    }
+
+    private Extended[] getExtendedData() {
+        Extended[] result = extended;
+        if (result == null) {
+            // computed by every thread asking for it at the same time, the result being the same
+            result = new Extended[names.length];
+            for (int i = 0; i < names.length; i++) {
+                BitSet indexes = new BitSet(names.length);
+                List<String> unknown = new ArrayList<>();
+                addExtended(i, indexes, unknown);
+                result[i] = new Extended(indexes, unknown.isEmpty() ? NO_NAMES
+                        : unknown.toArray(new String[unknown.size()]));
+            }
+            extended = result;
+        }
+        return result;
+    }
+
+    private void addExtended(int index, BitSet indexes, List<String> unknown) {
+        indexes.set(index);
+        if (extendsNames == null) {
+            return;
+        }
+        for (String ext : extendsNames[index]) {
+            int i = indexOf(ext);
+            if (i < 0) {
+                if (!unknown.contains(ext)) {
+                    unknown.add(ext);
+                }
+            } else if (!indexes.get(i)) {
+                addExtended(i, indexes, unknown);
+            }
+        }
+    }
+
+    private static final class Extended {
+        private final BitSet indexes;
+
+        private final String[] unknown;
+
+        private Extended(BitSet indexes, String[] unknown) {
+            this.indexes = indexes;
+            this.unknown = unknown;
+        }
+    }
+}
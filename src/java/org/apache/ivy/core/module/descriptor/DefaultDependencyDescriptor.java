@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -33,7 +34,6 @@ import java.util.regex.Pattern;
 import org.apache.ivy.core.module.id.ArtifactId;
 import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
-import org.apache.ivy.plugins.matcher.MatcherHelper;
 import org.apache.ivy.plugins.namespace.NameSpaceHelper;
 import org.apache.ivy.plugins.namespace.Namespace;
 import org.apache.ivy.plugins.namespace.NamespaceTransformer;
@@ -145,6 +145,9 @@ public class DefaultDependencyDescriptor implements DependencyDescriptor {
     // initialized on demand only for memory consumption reasons
     private Map<String, Collection<ExcludeRule>> excludeRules;
 
+    // built on demand from excludeRules
+    private volatile ExcludeRuleIndex excludeRuleIndex;
+
     /**
      * Used to indicate that this revision must be used in case of conflicts, independently of
      * conflicts manager
@@ -245,6 +248,20 @@ public class DefaultDependencyDescriptor implements DependencyDescriptor {
         return getDependencyConfigurations(moduleConfiguration, moduleConfiguration);
     }
 
+    /**
+     * Returns the dependency configurations mapped to the given module configuration as they have
+     * been added, without interpreting the fallbacks, the conditions nor the configuration
+     * intersections.
+     *
+     * @param moduleConfiguration String
+     * @return String[]
+     */
+    public String[] getDeclaredDependencyConfigurations(String moduleConfiguration) {
+        List<String> confsList = confs.get(moduleConfiguration);
+        return confsList == null ? new String[0]
+                : confsList.toArray(new String[confsList.size()]);
+    }
+
     /**
      * Return the dependency configurations mapped to the given moduleConfiguration, actually
      * resolved because of the given requestedConfiguration
@@ -585,6 +602,7 @@ public class DefaultDependencyDescriptor implements DependencyDescriptor {
 
     public void addExcludeRule(String masterConf, ExcludeRule rule) {
         addObjectToConfiguration(masterConf, rule, getExcludeRules());
+        excludeRuleIndex = null;
     }
 
     private <T> void addObjectToConfiguration(String callerConf, T toAdd,
@@ -606,16 +624,43 @@ public class DefaultDependencyDescriptor implements DependencyDescriptor {
      * @return boolean
      */
     public boolean doesExclude(String[] moduleConfigurations, ArtifactId artifactId) {
+        if (!canExclude()) {
+            return false;
+        }
         if (namespace != null) {
             artifactId = NameSpaceHelper
                     .transform(artifactId, namespace.getFromSystemTransformer());
         }
-        for (ExcludeRule rule : getExcludeRules(moduleConfigurations)) {
-            if (MatcherHelper.matches(rule.getMatcher(), rule.getId(), artifactId)) {
-                return true;
+        return getExcludeRuleIndex().excludes(moduleConfigurations, artifactId);
+    }
+
+    private ExcludeRuleIndex getExcludeRuleIndex() {
+        ExcludeRuleIndex index = excludeRuleIndex;
+        if (index == null) {
+            // the configurations of each rule, null for the rules of the * master configuration
+            // which apply in all configurations. Rules are only equal by id, so they are told
+            // apart by identity to keep their own matcher
+            Map<ExcludeRule, Set<String>> rules = new IdentityHashMap<>();
+            for (Map.Entry<String, Collection<ExcludeRule>> entry : excludeRules.entrySet()) {
+                String masterConf = entry.getKey();
+                for (ExcludeRule rule : entry.getValue()) {
+                    Set<String> confs = rules.get(rule);
+                    if ("*".equals(masterConf)) {
+                        rules.put(rule, null);
+                    } else if (confs != null) {
+                        confs.add(masterConf);
+                    } else if (!rules.containsKey(rule)) {
+                        rules.put(rule, new HashSet<>(Collections.singleton(masterConf)));
+                    }
+                }
+            }
+            index = new ExcludeRuleIndex();
+            for (Map.Entry<ExcludeRule, Set<String>> entry : rules.entrySet()) {
+                index.add(entry.getKey(), entry.getValue());
             }
+            excludeRuleIndex = index;
         }
-        return false;
+        return index;
     }
 
     /**
@@ -698,6 +743,7 @@ public class DefaultDependencyDescriptor implements DependencyDescriptor {
 
     private void setExcludeRules(Map<String, Collection<ExcludeRule>> excludeRules) {
         this.excludeRules = excludeRules;
+        excludeRuleIndex = null;
     }
 
     private Map<String, Collection<ExcludeRule>> getExcludeRules() {
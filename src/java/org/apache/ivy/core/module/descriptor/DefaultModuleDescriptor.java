@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -41,7 +42,6 @@ import org.apache.ivy.core.module.id.ModuleRules;
 import org.apache.ivy.core.module.status.StatusManager;
 import org.apache.ivy.plugins.conflict.ConflictManager;
 import org.apache.ivy.plugins.matcher.MapMatcher;
-import org.apache.ivy.plugins.matcher.MatcherHelper;
 import org.apache.ivy.plugins.matcher.PatternMatcher;
 import org.apache.ivy.plugins.namespace.NameSpaceHelper;
 import org.apache.ivy.plugins.namespace.Namespace;
@@ -213,6 +213,9 @@ public class DefaultModuleDescriptor implements ModuleDescriptor {
 
     private Map<String, Configuration> configurations = new LinkedHashMap<>();
 
+    // built on demand from configurations
+    private volatile ConfigurationIndex configurationIndex;
+
     private Map<String, Collection<Artifact>> artifactsByConf = new HashMap<>();
 
     private Collection<Artifact> artifacts = new LinkedHashSet<>();
@@ -248,6 +251,9 @@ public class DefaultModuleDescriptor implements ModuleDescriptor {
 
     private List<ExcludeRule> excludeRules = new ArrayList<>();
 
+    // built on demand from excludeRules
+    private volatile ExcludeRuleIndex excludeRuleIndex;
+
     private Artifact metadataArtifact;
 
     private List<ExtendsDescriptor> inheritedDescriptors = new ArrayList<>();
@@ -359,6 +365,16 @@ public class DefaultModuleDescriptor implements ModuleDescriptor {
 
     public void addConfiguration(Configuration conf) {
         configurations.put(conf.getName(), conf);
+        configurationIndex = null;
+    }
+
+    ConfigurationIndex getConfigurationIndex() {
+        ConfigurationIndex index = configurationIndex;
+        if (index == null) {
+            index = new ConfigurationIndex(getConfigurations());
+            configurationIndex = index;
+        }
+        return index;
     }
 
     /**
@@ -760,6 +776,7 @@ public class DefaultModuleDescriptor implements ModuleDescriptor {
 
     public void addExcludeRule(ExcludeRule rule) {
         excludeRules.add(rule);
+        excludeRuleIndex = null;
     }
 
     public boolean canExclude() {
@@ -775,16 +792,30 @@ public class DefaultModuleDescriptor implements ModuleDescriptor {
      * @return boolean
      */
     public boolean doesExclude(String[] moduleConfigurations, ArtifactId artifactId) {
+        if (excludeRules.isEmpty()) {
+            return false;
+        }
         if (namespace != null) {
             artifactId = NameSpaceHelper
                     .transform(artifactId, namespace.getFromSystemTransformer());
         }
-        for (ExcludeRule rule : getExcludeRules(moduleConfigurations)) {
-            if (MatcherHelper.matches(rule.getMatcher(), rule.getId(), artifactId)) {
-                return true;
+        return getExcludeRuleIndex().excludes(moduleConfigurations, artifactId);
+    }
+
+    private ExcludeRuleIndex getExcludeRuleIndex() {
+        ExcludeRuleIndex index = excludeRuleIndex;
+        if (index == null) {
+            index = new ExcludeRuleIndex();
+            for (ExcludeRule rule : excludeRules) {
+                // the configurations of other rules are read once, the index isn't told when
+                // they change
+                index.add(rule, rule instanceof AbstractIncludeExcludeRule
+                        ? ((AbstractIncludeExcludeRule) rule).getConfigurationsView()
+                        : new HashSet<>(Arrays.asList(rule.getConfigurations())));
             }
+            excludeRuleIndex = index;
         }
-        return false;
+        return index;
     }
 
     public ExcludeRule[] getAllExcludeRules() {
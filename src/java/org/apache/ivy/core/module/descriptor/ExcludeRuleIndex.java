@@ -0,0 +1,155 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.module.descriptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ivy.core.module.id.ArtifactId;
+import org.apache.ivy.core.module.id.ModuleId;
+import org.apache.ivy.plugins.matcher.Matcher;
+import org.apache.ivy.plugins.matcher.PatternMatcher;
+
+/**
+ * The exclude rules of a descriptor, indexed so that the rules which may exclude an artifact are
+ * found without evaluating all of them.
+ * <p>
+ * The rules whose organisation and module are exact expressions are found by module id, those
+ * with only an exact organisation or an exact module by organisation or module name. Only the
+ * remaining rules are evaluated against every artifact. The matchers of the rules are created
+ * once, when the index is built.
+ * </p>
+ */
+final class ExcludeRuleIndex {
+    private final Map<ModuleId, List<Entry>> byModuleId = new HashMap<>();
+
+    private final Map<String, List<Entry>> byOrganisation = new HashMap<>();
+
+    private final Map<String, List<Entry>> byModuleName = new HashMap<>();
+
+    private final List<Entry> others = new ArrayList<>();
+
+    /**
+     * Adds a rule to the index.
+     *
+     * @param rule
+     *            the rule to add
+     * @param confs
+     *            the configurations in which the rule applies, <code>null</code> if it applies in
+     *            all of them. The collection is not copied: a live view of the configurations of
+     *            the rule keeps the index up to date when configurations are added to it
+     */
+    void add(ExcludeRule rule, Collection<String> confs) {
+        Entry entry = new Entry(rule, confs);
+        ModuleId mid = rule.getId().getModuleId();
+        if (entry.organisation.isExact() && entry.module.isExact()) {
+            put(byModuleId, mid, entry);
+        } else if (entry.organisation.isExact()) {
+            put(byOrganisation, mid.getOrganisation(), entry);
+        } else if (entry.module.isExact()) {
+            put(byModuleName, mid.getName(), entry);
+        } else {
+            others.add(entry);
+        }
+    }
+
+    private static <K> void put(Map<K, List<Entry>> map, K key, Entry entry) {
+        List<Entry> entries = map.get(key);
+        if (entries == null) {
+            entries = new ArrayList<>();
+            map.put(key, entries);
+        }
+        entries.add(entry);
+    }
+
+    /**
+     * @param moduleConfs
+     *            the configurations in which the artifact is used
+     * @param artifactId
+     *            the artifact to check, in the namespace of the rules
+     * @return <code>true</code> if a rule applying in one of the configurations matches the
+     *         artifact
+     */
+    boolean excludes(String[] moduleConfs, ArtifactId artifactId) {
+        ModuleId mid = artifactId.getModuleId();
+        return excludes(byModuleId.get(mid), moduleConfs, artifactId)
+                || excludes(byOrganisation.get(mid.getOrganisation()), moduleConfs, artifactId)
+                || excludes(byModuleName.get(mid.getName()), moduleConfs, artifactId)
+                || excludes(others, moduleConfs, artifactId);
+    }
+
+    private static boolean excludes(List<Entry> entries, String[] moduleConfs,
+            ArtifactId artifactId) {
+        if (entries == null) {
+            return false;
+        }
+        for (Entry entry : entries) {
+            if (entry.appliesTo(moduleConfs) && entry.matches(artifactId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Entry {
+        private final Collection<String> confs;
+
+        private final Matcher organisation;
+
+        private final Matcher module;
+
+        private final Matcher name;
+
+        private final Matcher ext;
+
+        private final Matcher type;
+
+        private Entry(ExcludeRule rule, Collection<String> confs) {
+            this.confs = confs;
+            PatternMatcher matcher = rule.getMatcher();
+            ArtifactId id = rule.getId();
+            organisation = matcher.getMatcher(id.getModuleId().getOrganisation());
+            module = matcher.getMatcher(id.getModuleId().getName());
+            name = matcher.getMatcher(id.getName());
+            ext = matcher.getMatcher(id.getExt());
+            type = matcher.getMatcher(id.getType());
+        }
+
+        private boolean appliesTo(String[] moduleConfs) {
+            if (confs == null) {
+                return true;
+            }
+            for (String conf : moduleConfs) {
+                if (confs.contains(conf)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matches(ArtifactId artifactId) {
+            return organisation.matches(artifactId.getModuleId().getOrganisation())
+                    && module.matches(artifactId.getModuleId().getName())
+                    && name.matches(artifactId.getName()) && ext.matches(artifactId.getExt())
+                    && type.matches(artifactId.getType());
+        }
+    }
+}
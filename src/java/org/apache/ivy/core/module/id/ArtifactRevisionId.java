@@ -20,6 +20,7 @@ package org.apache.ivy.core.module.id;
 import java.util.Map;
 
 import org.apache.ivy.core.IvyPatternHelper;
+import org.apache.ivy.util.WeakInterner;
 import org.apache.ivy.util.extendable.UnmodifiableExtendableItem;
 
 /**
@@ -28,6 +29,8 @@ import org.apache.ivy.util.extendable.UnmodifiableExtendableItem;
  * @see <a href="package-summary.html">org.apache.ivy.core.module.id</a>
  */
 public class ArtifactRevisionId extends UnmodifiableExtendableItem {
+    private static final WeakInterner<ArtifactRevisionId> CACHE = new WeakInterner<>();
+
     public static ArtifactRevisionId newInstance(ModuleRevisionId mrid, String name, String type,
             String ext) {
         return newInstance(mrid, name, type, ext, null);
@@ -35,8 +38,33 @@ public class ArtifactRevisionId extends UnmodifiableExtendableItem {
 
     public static ArtifactRevisionId newInstance(ModuleRevisionId mrid, String name, String type,
             String ext, Map<String, String> extraAttributes) {
-        return new ArtifactRevisionId(new ArtifactId(mrid.getModuleId(), name, type, ext), mrid,
-                extraAttributes);
+        return intern(new ArtifactRevisionId(new ArtifactId(mrid.getModuleId(), name, type, ext),
+                mrid, extraAttributes));
+    }
+
+    /**
+     * Returns an intern instance of the given ArtifactRevisionId if any, or put the given
+     * ArtifactRevisionId in a cache of intern instances and returns it.
+     * <p>
+     * When using static newInstance methods, this method is already called.
+     * </p>
+     *
+     * @param artifactRevisionId
+     *            the artifact revision id to intern
+     * @return an interned ArtifactRevisionId
+     */
+    public static ArtifactRevisionId intern(ArtifactRevisionId artifactRevisionId) {
+        return CACHE.intern(artifactRevisionId);
+    }
+
+    /**
+     * Returns the number of intern instances of ArtifactRevisionId currently kept in memory.
+     *
+     * @return the number of intern instances
+     * @see #intern(ArtifactRevisionId)
+     */
+    public static int getInternedCount() {
+        return CACHE.size();
     }
 
     private ArtifactId artifactId;
@@ -68,6 +68,8 @@ public class ResolveReport {
 
     private long downloadSize;
 
+    private int avoidedRequests;
+
     public ResolveReport(ModuleDescriptor md) {
         this(md, ResolveOptions.getDefaultResolveId(md));
     }
@@ -89,6 +91,23 @@ public class ResolveReport {
         return confReports.keySet().toArray(new String[confReports.size()]);
     }
 
+    /**
+     * Indicates if this report gives the dependency graph of the resolve, as IvyNode instances. A
+     * report restored from a resolve snapshot doesn't: it only gives the resolved modules and their
+     * artifacts.
+     *
+     * @return boolean
+     * @see ResolveOptions#setUseResolveSnapshot(boolean)
+     */
+    public boolean hasDependencyGraph() {
+        for (ConfigurationResolveReport report : confReports.values()) {
+            if (report instanceof SnapshotConfigurationResolveReport) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public boolean hasError() {
         for (ConfigurationResolveReport report : confReports.values()) {
             if (report.hasError()) {
@@ -249,6 +268,7 @@ public class ResolveReport {
      * @return The list of all dependencies.
      */
     public List<IvyNode> getDependencies() {
+        // empty if the report doesn't give the dependency graph
         return dependencies;
     }
 
@@ -259,6 +279,15 @@ public class ResolveReport {
      * @return The list of all artifacts.
      */
     public List<Artifact> getArtifacts() {
+        if (!hasDependencyGraph()) {
+            Set<Artifact> all = new LinkedHashSet<>();
+            for (ConfigurationResolveReport report : confReports.values()) {
+                for (ArtifactDownloadReport adr : report.getAllArtifactsReports()) {
+                    all.add(adr.getArtifact());
+                }
+            }
+            return new ArrayList<>(all);
+        }
         return artifacts;
     }
 
@@ -268,6 +297,13 @@ public class ResolveReport {
      * @return a list of ModuleId
      */
     public List<ModuleId> getModuleIds() {
+        if (!hasDependencyGraph()) {
+            Set<ModuleId> all = new LinkedHashSet<>();
+            for (ConfigurationResolveReport report : confReports.values()) {
+                all.addAll(report.getModuleIds());
+            }
+            return new ArrayList<>(all);
+        }
         List<ModuleId> ret = new ArrayList<>();
         List<IvyNode> sortedDependencies = new ArrayList<>(dependencies);
         for (IvyNode dependency : sortedDependencies) {
@@ -316,6 +352,20 @@ public class ResolveReport {
         return resolveId;
     }
 
+    public void setAvoidedRequests(int avoidedRequests) {
+        this.avoidedRequests = avoidedRequests;
+    }
+
+    /**
+     * The number of requests to repositories avoided because the repository caches knew that the
+     * requested resources were not found.
+     *
+     * @return The number of avoided requests.
+     */
+    public int getAvoidedRequests() {
+        return avoidedRequests;
+    }
+
     /**
      * Get every configuration which extends the specified one. The returned list also includes the
      * specified one.
@@ -359,6 +409,11 @@ public class ResolveReport {
     }
 
     public ModuleDescriptor toFixedModuleDescriptor(IvySettings settings, List<ModuleId> midToKeep) {
+        if (!hasDependencyGraph()) {
+            throw new IllegalStateException("the report of " + md.getModuleRevisionId()
+                    + " has been restored from a resolve snapshot, which doesn't give the"
+                    + " dependency graph: resolve without using the snapshot");
+        }
         DefaultModuleDescriptor fixedmd = new DefaultModuleDescriptor(md.getModuleRevisionId(),
                 md.getStatus(), new Date());
 
@@ -0,0 +1,130 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.report;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.resolve.ResolveEngine;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.plugins.report.XmlReportParser;
+
+/**
+ * A configuration report restored from the report stored in the resolution cache by a previous
+ * resolve, used when the snapshot of this resolve is reused.
+ * <p>
+ * It gives access to the resolved module revisions and to their artifacts, which are all in the
+ * cache, but not to the dependency graph: no IvyNode is available. The callers needing the graph
+ * check {@link ResolveReport#hasDependencyGraph()}, and resolve again with
+ * {@link ResolveOptions#setUseResolveSnapshot(boolean)} if needed.
+ * </p>
+ */
+public class SnapshotConfigurationResolveReport extends ConfigurationResolveReport {
+
+    private final Map<ModuleRevisionId, List<ArtifactDownloadReport>> artifactReports = new LinkedHashMap<>();
+
+    public SnapshotConfigurationResolveReport(ResolveEngine resolveEngine, ModuleDescriptor md,
+            String conf, Date date, ResolveOptions options, XmlReportParser parser) {
+        super(resolveEngine, md, conf, date, options);
+        for (ModuleRevisionId mrid : parser.getDependencyRevisionIds()) {
+            artifactReports.put(mrid, new ArrayList<ArtifactDownloadReport>());
+        }
+        for (ArtifactDownloadReport adr : parser.getArtifactReports()) {
+            if (adr.getDownloadStatus() == DownloadStatus.SUCCESSFUL) {
+                // downloaded by the resolve which stored the snapshot, now in cache
+                adr.setDownloadStatus(DownloadStatus.NO);
+            }
+            List<ArtifactDownloadReport> reports = artifactReports.get(adr.getArtifact()
+                    .getModuleRevisionId());
+            if (reports != null) {
+                reports.add(adr);
+            }
+        }
+    }
+
+    @Override
+    public void checkIfChanged() {
+        // the snapshot is only used when nothing has changed
+    }
+
+    @Override
+    public boolean hasChanged() {
+        return false;
+    }
+
+    @Override
+    public Set<ModuleRevisionId> getModuleRevisionIds() {
+        return new LinkedHashSet<>(artifactReports.keySet());
+    }
+
+    @Override
+    public ArtifactDownloadReport[] getDownloadReports(ModuleRevisionId mrid) {
+        List<ArtifactDownloadReport> reports = artifactReports.get(mrid);
+        if (reports == null) {
+            return new ArtifactDownloadReport[0];
+        }
+        return reports.toArray(new ArtifactDownloadReport[reports.size()]);
+    }
+
+    @Override
+    public List<ModuleId> getModuleIds() {
+        Set<ModuleId> mids = new LinkedHashSet<>();
+        for (ModuleRevisionId mrid : artifactReports.keySet()) {
+            mids.add(mrid.getModuleId());
+        }
+        return new ArrayList<>(mids);
+    }
+
+    @Override
+    public int getArtifactsNumber() {
+        int total = 0;
+        for (Collection<ArtifactDownloadReport> reports : artifactReports.values()) {
+            total += reports.size();
+        }
+        return total;
+    }
+
+    @Override
+    public ArtifactDownloadReport[] getArtifactsReports(DownloadStatus downloadStatus,
+            boolean withEvicted) {
+        // evicted modules are not part of the stored report
+        Collection<ArtifactDownloadReport> all = new LinkedHashSet<>();
+        for (Collection<ArtifactDownloadReport> reports : artifactReports.values()) {
+            for (ArtifactDownloadReport report : reports) {
+                if (downloadStatus == null || report.getDownloadStatus() == downloadStatus) {
+                    all.add(report);
+                }
+            }
+        }
+        return all.toArray(new ArtifactDownloadReport[all.size()]);
+    }
+
+    @Override
+    public int getNodesNumber() {
+        return artifactReports.size();
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.resolve;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.ivy.core.module.descriptor.ConfigurationIndex;
+
+/**
+ * A set of configuration names of a module, stored as a bit set over the
+ * {@link ConfigurationIndex} of the module.
+ * <p>
+ * The names which are not indexed, such as the configurations of a module whose descriptor is not
+ * loaded yet, or special names like <code>*</code>, are kept aside in a regular set. Once the
+ * descriptor is loaded, {@link #setIndex(ConfigurationIndex)} moves them to the bit set. The
+ * indexed names are iterated in the declaration order of the configurations, before the other
+ * ones.
+ * </p>
+ */
+final class ConfigurationSet extends AbstractSet<String> {
+    private ConfigurationIndex index;
+
+    private final BitSet bits = new BitSet();
+
+    // created on demand only, most names being indexed
+    private Set<String> others;
+
+    ConfigurationSet(ConfigurationIndex index) {
+        this.index = index;
+    }
+
+    ConfigurationSet(ConfigurationIndex index, Collection<String> names) {
+        this(index);
+        addAll(names);
+    }
+
+    /**
+     * Sets the index of the configurations, moving the names it indexes to the bit set.
+     *
+     * @param index
+     *            the new index of the configurations
+     */
+    void setIndex(ConfigurationIndex index) {
+        if (this.index == index) {
+            return;
+        }
+        List<String> names = new ArrayList<>(this);
+        this.index = index;
+        bits.clear();
+        others = null;
+        addAll(names);
+    }
+
+    private int indexOf(Object name) {
+        return index == null || !(name instanceof String) ? -1 : index.indexOf((String) name);
+    }
+
+    private boolean hasSameIndex(Collection<?> c) {
+        return c instanceof ConfigurationSet && ((ConfigurationSet) c).index == index;
+    }
+
+    @Override
+    public boolean contains(Object name) {
+        int i = indexOf(name);
+        if (i >= 0) {
+            return bits.get(i);
+        }
+        return others != null && others.contains(name);
+    }
+
+    @Override
+    public boolean add(String name) {
+        int i = indexOf(name);
+        if (i >= 0) {
+            if (bits.get(i)) {
+                return false;
+            }
+            bits.set(i);
+            return true;
+        }
+        if (others == null) {
+            others = new LinkedHashSet<>();
+        }
+        return others.add(name);
+    }
+
+    @Override
+    public boolean remove(Object name) {
+        int i = indexOf(name);
+        if (i >= 0) {
+            if (!bits.get(i)) {
+                return false;
+            }
+            bits.clear(i);
+            return true;
+        }
+        return others != null && others.remove(name);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends String> c) {
+        if (!hasSameIndex(c)) {
+            return super.addAll(c);
+        }
+        ConfigurationSet set = (ConfigurationSet) c;
+        int size = size();
+        bits.or(set.bits);
+        if (set.others != null) {
+            for (String name : set.others) {
+                add(name);
+            }
+        }
+        return size != size();
+    }
+
+    /**
+     * Adds the given configurations and the ones they extend, transitively.
+     *
+     * @param extendsIndex
+     *            the index of the module giving the configurations extended, <code>null</code> if
+     *            its descriptor is not loaded yet, in which case the names are added alone
+     * @param names
+     *            the names of the configurations to add
+     */
+    void addAllExtended(ConfigurationIndex extendsIndex, Collection<String> names) {
+        if (extendsIndex == null) {
+            addAll(names);
+        } else if (names instanceof ConfigurationSet
+                && ((ConfigurationSet) names).index == extendsIndex) {
+            ConfigurationSet set = (ConfigurationSet) names;
+            for (int i = set.bits.nextSetBit(0); i >= 0; i = set.bits.nextSetBit(i + 1)) {
+                addExtended(extendsIndex, i);
+            }
+            if (set.others != null) {
+                addAll(set.others);
+            }
+        } else {
+            for (String name : names) {
+                int i = extendsIndex.indexOf(name);
+                if (i >= 0) {
+                    addExtended(extendsIndex, i);
+                } else {
+                    add(name);
+                }
+            }
+        }
+    }
+
+    private void addExtended(ConfigurationIndex extendsIndex, int i) {
+        BitSet extended = extendsIndex.getExtended(i);
+        if (extendsIndex == index) {
+            bits.or(extended);
+        } else {
+            for (int j = extended.nextSetBit(0); j >= 0; j = extended.nextSetBit(j + 1)) {
+                add(extendsIndex.getName(j));
+            }
+        }
+        for (String name : extendsIndex.getExtendedUnknown(i)) {
+            add(name);
+        }
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (!hasSameIndex(c)) {
+            boolean modified = false;
+            for (Object name : c) {
+                modified |= remove(name);
+            }
+            return modified;
+        }
+        ConfigurationSet set = (ConfigurationSet) c;
+        int size = size();
+        bits.andNot(set.bits);
+        if (others != null && set.others != null) {
+            others.removeAll(set.others);
+        }
+        return size != size();
+    }
+
+    @Override
+    public void clear() {
+        bits.clear();
+        others = null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bits.isEmpty() && (others == null || others.isEmpty());
+    }
+
+    @Override
+    public int size() {
+        return bits.cardinality() + (others == null ? 0 : others.size());
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        // iterates over a snapshot, the removals being done on the set
+        List<String> names = new ArrayList<>(size());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            names.add(index.getName(i));
+        }
+        if (others != null) {
+            names.addAll(others);
+        }
+        final Iterator<String> it = names.iterator();
+        return new Iterator<String>() {
+            private String last;
+
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            public String next() {
+                last = it.next();
+                return last;
+            }
+
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                ConfigurationSet.this.remove(last);
+                last = null;
+            }
+        };
+    }
+}
@@ -0,0 +1,417 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.resolve;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.ivy.core.IvyContext;
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.plugins.resolver.DependencyResolver;
+import org.apache.ivy.util.Message;
+import org.apache.ivy.util.MessageLogger;
+
+/**
+ * Resolves in background threads the direct dependencies of the module descriptors loaded during a
+ * resolve, so that the depth first traversal of the dependency graph mostly finds their metadata
+ * already resolved.
+ * <p>
+ * Only dependencies on static revisions are prefetched. A prefetched module is only used when it is
+ * what a call to the resolver from the resolve thread would have returned: in any other case
+ * (module not found, default descriptor, blacklisted revision, ...) the resolver is called again
+ * from the resolve thread. Messages logged while prefetching are buffered, and replayed in the
+ * resolve thread when the prefetched module is used, so that the resolve report is the same as
+ * with a sequential resolve.
+ * </p>
+ * <p>
+ * The resolvers and the caches they use can be called concurrently for distinct modules, as they
+ * are when artifacts are downloaded concurrently. The calls for a given module are serialized,
+ * whether they are made by a prefetch or by the resolve thread, and whatever the revision asked:
+ * they would write the same files in cache, a dynamic revision being possibly resolved to a
+ * revision being prefetched.
+ * </p>
+ */
+class DependencyPrefetcher {
+    private final ResolveEngine engine;
+
+    private final ResolveOptions options;
+
+    private final IvyContext context;
+
+    private final ExecutorService executor;
+
+    private final ConcurrentMap<ModuleRevisionId, Prefetch> prefetches = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<ModuleId, Object> moduleLocks = new ConcurrentHashMap<>();
+
+    /**
+     * @param engine
+     *            the engine of the resolve
+     * @param options
+     *            the options of the resolve
+     * @param threads
+     *            the number of threads prefetching in the background
+     */
+    DependencyPrefetcher(ResolveEngine engine, ResolveOptions options, int threads) {
+        this.engine = engine;
+        this.options = options;
+        this.context = IvyContext.getContext();
+        this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int count = 0;
+
+            public synchronized Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "ivy-prefetch-" + (++count));
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Starts resolving the dependencies of the given module descriptor, unless they are already
+     * being resolved.
+     *
+     * @param md
+     *            the module descriptor which dependencies should be prefetched
+     * @param data
+     *            the data of the current resolve
+     */
+    void prefetch(ModuleDescriptor md, ResolveData data) {
+        ResolveEngineSettings settings = engine.getSettings();
+        for (DependencyDescriptor dd : md.getDependencies()) {
+            ModuleRevisionId mrid = dd.getDependencyRevisionId();
+            if (settings.getVersionMatcher().isDynamic(mrid) || prefetches.containsKey(mrid)) {
+                continue;
+            }
+            IvyNode node = data.getNode(mrid);
+            if (node != null && (node.getModuleRevision() != null || node.hasProblem())) {
+                // already resolved
+                continue;
+            }
+            DependencyResolver resolver = settings.getResolver(mrid);
+            if (resolver == null) {
+                continue;
+            }
+            Prefetch prefetch = new Prefetch(resolver, dd);
+            if (prefetches.putIfAbsent(mrid, prefetch) == null) {
+                executor.execute(prefetch);
+            }
+        }
+    }
+
+    /**
+     * Returns the module the given resolver finds for the given dependency descriptor, using the
+     * prefetched one when possible.
+     *
+     * @param resolver
+     *            the resolver to use
+     * @param dd
+     *            the dependency to resolve
+     * @param data
+     *            the data of the current resolve
+     * @return the resolved module revision, may be <code>null</code>
+     * @throws ParseException
+     *             if the resolver raised it
+     */
+    ResolvedModuleRevision getDependency(DependencyResolver resolver, DependencyDescriptor dd,
+            ResolveData data) throws ParseException {
+        Prefetch prefetch = prefetches.remove(dd.getDependencyRevisionId());
+        // the task may be running: make sure it's done before calling the resolver ourselves,
+        // they may both write the same files in cache
+        if (prefetch != null && !prefetch.preventRun()) {
+            ResolvedModuleRevision rmr = engine.waitFor(prefetch);
+            if (rmr != null && prefetch.isUsableFor(resolver, dd, data, rmr)) {
+                prefetch.logger.replay();
+                return rmr;
+            }
+        }
+        synchronized (getLock(dd)) {
+            return resolver.getDependency(dd, data);
+        }
+    }
+
+    /**
+     * @param dd
+     *            a dependency descriptor
+     * @return the object to synchronize on to call a resolver for the module of the dependency
+     */
+    private Object getLock(DependencyDescriptor dd) {
+        ModuleId mid = dd.getDependencyId();
+        Object lock = moduleLocks.get(mid);
+        if (lock == null) {
+            lock = new Object();
+            Object existing = moduleLocks.putIfAbsent(mid, lock);
+            if (existing != null) {
+                lock = existing;
+            }
+        }
+        return lock;
+    }
+
+    /**
+     * Stops prefetching, and waits for the prefetches which are running to be done.
+     */
+    void shutdown() {
+        executor.shutdown();
+        for (Prefetch prefetch : prefetches.values()) {
+            if (!prefetch.preventRun()) {
+                engine.waitFor(prefetch);
+            }
+        }
+        prefetches.clear();
+    }
+
+    private class Prefetch extends FutureTask<ResolvedModuleRevision> {
+        private final DependencyResolver resolver;
+
+        private final DependencyDescriptor dd;
+
+        private final BufferedMessageLogger logger;
+
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        Prefetch(DependencyResolver resolver, DependencyDescriptor dd) {
+            // the context is copied here, in the resolve thread which may be updating it
+            this(resolver, dd, new BufferedMessageLogger(), new IvyContext(context));
+        }
+
+        private Prefetch(final DependencyResolver resolver, final DependencyDescriptor dd,
+                final BufferedMessageLogger logger, final IvyContext prefetchContext) {
+            super(new Callable<ResolvedModuleRevision>() {
+                public ResolvedModuleRevision call() {
+                    IvyContext.pushContext(prefetchContext);
+                    prefetchContext.setMessageLogger(logger);
+                    // use resolve data independent from the graph being visited
+                    ResolveData prefetchData = new ResolveData(engine, options);
+                    if (prefetchContext.getResolveData() != null) {
+                        prefetchData.shareWith(prefetchContext.getResolveData());
+                    }
+                    prefetchContext.setResolveData(prefetchData);
+                    try {
+                        synchronized (getLock(dd)) {
+                            return resolver.getDependency(dd, prefetchData);
+                        }
+                    } catch (Exception e) {
+                        // the dependency will be resolved again by the resolve thread, which
+                        // will report the problem if any
+                        return null;
+                    } finally {
+                        IvyContext.popContext();
+                    }
+                }
+            });
+            this.resolver = resolver;
+            this.dd = dd;
+            this.logger = logger;
+        }
+
+        @Override
+        public void run() {
+            if (started.compareAndSet(false, true)) {
+                super.run();
+            }
+        }
+
+        /**
+         * Makes sure this prefetch won't run. Unlike {@link #cancel(boolean)}, which succeeds
+         * while the task is running, this tells whether the resolver may still be in use by the
+         * prefetch.
+         *
+         * @return <code>false</code> if the prefetch is running or done
+         */
+        boolean preventRun() {
+            if (started.compareAndSet(false, true)) {
+                cancel(false);
+                return true;
+            }
+            return false;
+        }
+
+        boolean isUsableFor(DependencyResolver resolver, DependencyDescriptor dd,
+                ResolveData data, ResolvedModuleRevision rmr) {
+            return this.resolver == resolver
+                    && this.dd.getDependencyRevisionId().equals(dd.getDependencyRevisionId())
+                    && this.dd.isChanging() == dd.isChanging()
+                    && this.dd.isForce() == dd.isForce()
+                    && data.getCurrentResolvedModuleRevision() == null
+                    && !rmr.getDescriptor().isDefault()
+                    && (data.getReport() == null || !data.isBlacklisted(data.getReport()
+                            .getConfiguration(), rmr.getId()));
+        }
+    }
+
+    /**
+     * A {@link MessageLogger} keeping messages in memory, until they are replayed on the logger of
+     * the current context.
+     */
+    private static class BufferedMessageLogger implements MessageLogger {
+        private static final int LOG = 0;
+
+        private static final int RAWLOG = 1;
+
+        private static final int DEPRECATED = 2;
+
+        private static final int WARN = 3;
+
+        private static final int ERROR = 4;
+
+        private static final int PROGRESS = 5;
+
+        private static final int END_PROGRESS = 6;
+
+        private final List<LoggedMessage> messages = new ArrayList<>();
+
+        private boolean showProgress = true;
+
+        private synchronized void add(int type, String msg, int level) {
+            messages.add(new LoggedMessage(type, msg, level));
+        }
+
+        synchronized void replay() {
+            MessageLogger logger = IvyContext.getContext().getMessageLogger();
+            for (LoggedMessage message : messages) {
+                String msg = message.msg;
+                int level = message.level;
+                switch (message.type) {
+                    case LOG:
+                        logger.log(msg, level);
+                        break;
+                    case RAWLOG:
+                        logger.rawlog(msg, level);
+                        break;
+                    case DEPRECATED:
+                        logger.deprecated(msg);
+                        break;
+                    case WARN:
+                        logger.warn(msg);
+                        break;
+                    case ERROR:
+                        logger.error(msg);
+                        break;
+                    case PROGRESS:
+                        logger.progress();
+                        break;
+                    default:
+                        logger.endProgress(msg);
+                        break;
+                }
+            }
+            messages.clear();
+        }
+
+        public void log(String msg, int level) {
+            add(LOG, msg, level);
+        }
+
+        public void rawlog(String msg, int level) {
+            add(RAWLOG, msg, level);
+        }
+
+        public void debug(String msg) {
+            log(msg, Message.MSG_DEBUG);
+        }
+
+        public void verbose(String msg) {
+            log(msg, Message.MSG_VERBOSE);
+        }
+
+        public void deprecated(String msg) {
+            add(DEPRECATED, msg, Message.MSG_WARN);
+        }
+
+        public void info(String msg) {
+            log(msg, Message.MSG_INFO);
+        }
+
+        public void rawinfo(String msg) {
+            rawlog(msg, Message.MSG_INFO);
+        }
+
+        public void warn(String msg) {
+            add(WARN, msg, Message.MSG_WARN);
+        }
+
+        public void error(String msg) {
+            add(ERROR, msg, Message.MSG_ERR);
+        }
+
+        public List<String> getProblems() {
+            return new ArrayList<>();
+        }
+
+        public List<String> getWarns() {
+            return new ArrayList<>();
+        }
+
+        public List<String> getErrors() {
+            return new ArrayList<>();
+        }
+
+        public void clearProblems() {
+        }
+
+        public void sumupProblems() {
+        }
+
+        public void progress() {
+            add(PROGRESS, null, Message.MSG_INFO);
+        }
+
+        public void endProgress() {
+            endProgress("");
+        }
+
+        public void endProgress(String msg) {
+            add(END_PROGRESS, msg, Message.MSG_INFO);
+        }
+
+        public boolean isShowProgress() {
+            return showProgress;
+        }
+
+        public void setShowProgress(boolean progress) {
+            showProgress = progress;
+        }
+
+        private static class LoggedMessage {
+            private final int type;
+
+            private final String msg;
+
+            private final int level;
+
+            LoggedMessage(int type, String msg, int level) {
+                this.type = type;
+                this.msg = msg;
+                this.level = level;
+            }
+        }
+    }
+}
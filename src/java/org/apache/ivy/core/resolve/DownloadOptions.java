@@ -21,7 +21,22 @@ import org.apache.ivy.core.LogOptions;
 
 public class DownloadOptions extends LogOptions {
 
+    /**
+     * The maximum number of artifact downloads to run concurrently, or 0 to use the value
+     * configured in the settings.
+     */
+    private int threads = 0;
+
     public DownloadOptions() {
     }
 
+    public int getThreads() {
+        return threads;
+    }
+
+    public DownloadOptions setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
 }
@@ -21,7 +21,6 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -42,6 +41,7 @@ import org.apache.ivy.core.event.resolve.EndResolveDependencyEvent;
 import org.apache.ivy.core.event.resolve.StartResolveDependencyEvent;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.Configuration;
+import org.apache.ivy.core.module.descriptor.ConfigurationIndex;
 import org.apache.ivy.core.module.descriptor.DefaultArtifact;
 import org.apache.ivy.core.module.descriptor.DependencyArtifactDescriptor;
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
@@ -101,11 +101,14 @@ public class IvyNode implements Comparable<IvyNode> {
 
     private boolean searched = false;
 
-    private Collection<String> confsToFetch = new HashSet<>();
+    // the index of the configurations of the module, null until its descriptor is loaded
+    private ConfigurationIndex confIndex;
 
-    private Collection<String> fetchedConfigurations = new HashSet<>();
+    private ConfigurationSet confsToFetch = new ConfigurationSet(null);
 
-    private Collection<String> loadedRootModuleConfs = new HashSet<>();
+    private ConfigurationSet fetchedConfigurations = new ConfigurationSet(null);
+
+    private ConfigurationSet loadedRootModuleConfs;
 
     // //////// USAGE DATA
 
@@ -123,13 +126,14 @@ public class IvyNode implements Comparable<IvyNode> {
 
     public IvyNode(ResolveData data, ModuleDescriptor md) {
         id = md.getModuleRevisionId();
-        this.md = md;
         root = this;
+        setDescriptor(md);
         init(data);
     }
 
     private void init(ResolveData data) {
         this.data = data;
+        loadedRootModuleConfs = new ConfigurationSet(root.confIndex);
         settings = data.getSettings();
         eviction = new IvyNodeEviction(this);
         callers = new IvyNodeCallers(this);
@@ -182,7 +186,7 @@ public class IvyNode implements Comparable<IvyNode> {
                     data.getEventManager().fireIvyEvent(
                         new StartResolveDependencyEvent(resolver, dependencyDescriptor,
                                 requestedRevisionId));
-                    module = resolver.getDependency(dependencyDescriptor, data);
+                    module = data.getDependency(resolver, dependencyDescriptor);
                     data.getEventManager().fireIvyEvent(
                         new EndResolveDependencyEvent(resolver, dependencyDescriptor,
                                 requestedRevisionId, module, System.currentTimeMillis() - start));
@@ -215,7 +219,8 @@ public class IvyNode implements Comparable<IvyNode> {
                             if (resolved != null) {
                                 // found revision has already been resolved
                                 // => update it and discard this node
-                                md = module.getDescriptor(); // needed for handleConfiguration
+                                // needed for handleConfiguration
+                                setDescriptor(module.getDescriptor());
                                 if (!handleConfiguration(loaded, rootModuleConf, parent,
                                     parentConf, conf, shouldBePublic, usage)) {
                                     return false;
@@ -242,7 +247,10 @@ public class IvyNode implements Comparable<IvyNode> {
                         searched = module.getReport().isSearched();
                         loaded = true;
 
-                        md = module.getDescriptor();
+                        setDescriptor(module.getDescriptor());
+                        if (data.isTransitive() && dependencyDescriptor.isTransitive()) {
+                            data.prefetchDependencies(md);
+                        }
                         confsToFetch.remove("*");
                         updateConfsToFetch(Arrays
                                 .asList(resolveSpecialConfigurations(getRequiredConfigurations(
@@ -279,7 +287,7 @@ public class IvyNode implements Comparable<IvyNode> {
     private void moveToRealNode(String rootModuleConf, IvyNode parent, String parentConf,
             String conf, boolean shouldBePublic, IvyNode resolved) {
         if (resolved.md == null) {
-            resolved.md = md;
+            resolved.setDescriptor(md);
         }
         if (resolved.module == null) {
             resolved.module = module;
@@ -377,9 +385,12 @@ public class IvyNode implements Comparable<IvyNode> {
 
             }
             String[] confsArray = depNode.resolveSpecialConfigurations(dependencyConfigurations);
-            Collection<String> confs = Arrays.asList(confsArray);
+            // the names are looked up in the index of the dependency once, the configuration sets
+            // of the dependency being then updated with bit operations
+            ConfigurationSet confs = new ConfigurationSet(depNode.confIndex,
+                    Arrays.asList(confsArray));
             depNode.updateConfsToFetch(confs);
-            depNode.addRootModuleConfigurations(depNode.usage, rootModuleConf, confsArray);
+            depNode.addRootModuleConfigurations(depNode.usage, rootModuleConf, confs);
             depNode.usage.setRequiredConfs(this, conf, confs);
 
             depNode.addCaller(rootModuleConf, this, conf, requestedConf, dependencyConfigurations,
@@ -449,7 +460,7 @@ public class IvyNode implements Comparable<IvyNode> {
             String parentConf, String conf, boolean shouldBePublic, IvyNodeUsage usage) {
         if (md != null) {
             String[] confs = getRealConfs(conf);
-            addRootModuleConfigurations(usage, rootModuleConf, confs);
+            addRootModuleConfigurations(usage, rootModuleConf, Arrays.asList(confs));
             for (String realConf : confs) {
                 Configuration c = md.getConfiguration(realConf);
                 if (c == null) {
@@ -489,16 +500,45 @@ public class IvyNode implements Comparable<IvyNode> {
         return true;
     }
 
+    private void setDescriptor(ModuleDescriptor md) {
+        this.md = md;
+        confIndex = ConfigurationIndex.of(md);
+        confsToFetch.setIndex(confIndex);
+        fetchedConfigurations.setIndex(confIndex);
+        usage.setConfigurationIndex(confIndex);
+    }
+
+    /**
+     * Returns the index of the configurations of this node's module.
+     *
+     * @return the index of the configurations, <code>null</code> if the descriptor of the module
+     *         is not loaded yet
+     */
+    ConfigurationIndex getConfigurationIndex() {
+        return confIndex;
+    }
+
     private String getDefaultConf(String conf) {
+        if (!isFallbackConf(conf)) {
+            return conf;
+        }
         Matcher m = FALLBACK_CONF_PATTERN.matcher(conf);
         return m.matches() ? m.group(2) : conf;
     }
 
     private String getMainConf(String conf) {
+        if (!isFallbackConf(conf)) {
+            return null;
+        }
         Matcher m = FALLBACK_CONF_PATTERN.matcher(conf);
         return m.matches() ? m.group(1) : null;
     }
 
+    private static boolean isFallbackConf(String conf) {
+        // avoids matching the pattern for the usual configuration names
+        return conf.endsWith(")");
+    }
+
     public void updateConfsToFetch(Collection<String> confs) {
         confsToFetch.addAll(confs);
         confsToFetch.removeAll(fetchedConfigurations);
@@ -617,18 +657,9 @@ public class IvyNode implements Comparable<IvyNode> {
     }
 
     private void addRootModuleConfigurations(IvyNodeUsage usage, String rootModuleConf,
-            String[] dependencyConfs) {
-        if (md != null) {
-            // add all given dependency configurations to the set + extended ones
-            for (String dependencyConf : dependencyConfs) {
-                Configuration conf = md.getConfiguration(dependencyConf);
-                if (conf != null) {
-                    // recursive add of extended
-                    addRootModuleConfigurations(usage, rootModuleConf, conf.getExtends());
-                }
-            }
-        }
-        Collections.addAll(usage.addAndGetConfigurations(rootModuleConf), dependencyConfs);
+            Collection<String> dependencyConfs) {
+        // add all given dependency configurations to the set + extended ones
+        usage.addAndGetConfigurationSet(rootModuleConf).addAllExtended(confIndex, dependencyConfs);
     }
 
     /**
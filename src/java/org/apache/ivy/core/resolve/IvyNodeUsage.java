@@ -24,6 +24,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.ivy.core.module.descriptor.ConfigurationIndex;
 import org.apache.ivy.core.module.descriptor.DependencyArtifactDescriptor;
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.IncludeRule;
@@ -123,9 +124,9 @@ public class IvyNodeUsage {
     // used to know which configurations of the dependency are required
     // for each root module configuration
     // rootConfName -> confNames
-    private Map<String, Set<String>> rootModuleConfs = new HashMap<>();
+    private Map<String, ConfigurationSet> rootModuleConfs = new HashMap<>();
 
-    private Map<NodeConf, Set<String>> requiredConfs = new HashMap<>();
+    private Map<NodeConf, ConfigurationSet> requiredConfs = new HashMap<>();
 
     private Map<String, Set<Depender>> dependers = new HashMap<>();
 
@@ -141,7 +142,23 @@ public class IvyNodeUsage {
     }
 
     protected void setRequiredConfs(IvyNode parent, String parentConf, Collection<String> confs) {
-        requiredConfs.put(new NodeConf(parent, parentConf), new HashSet<>(confs));
+        requiredConfs.put(new NodeConf(parent, parentConf),
+            new ConfigurationSet(node.getConfigurationIndex(), confs));
+    }
+
+    /**
+     * Sets the index of the configurations of the node, once its descriptor is loaded.
+     *
+     * @param index
+     *            the index of the configurations of the node
+     */
+    void setConfigurationIndex(ConfigurationIndex index) {
+        for (ConfigurationSet confs : rootModuleConfs.values()) {
+            confs.setIndex(index);
+        }
+        for (ConfigurationSet confs : requiredConfs.values()) {
+            confs.setIndex(index);
+        }
     }
 
     /**
@@ -155,9 +172,13 @@ public class IvyNodeUsage {
     }
 
     protected Set<String> addAndGetConfigurations(String rootModuleConf) {
-        Set<String> depConfs = rootModuleConfs.get(rootModuleConf);
+        return addAndGetConfigurationSet(rootModuleConf);
+    }
+
+    ConfigurationSet addAndGetConfigurationSet(String rootModuleConf) {
+        ConfigurationSet depConfs = rootModuleConfs.get(rootModuleConf);
         if (depConfs == null) {
-            depConfs = new HashSet<>();
+            depConfs = new ConfigurationSet(node.getConfigurationIndex());
             rootModuleConfs.put(rootModuleConf, depConfs);
         }
         return depConfs;
@@ -175,18 +196,27 @@ public class IvyNodeUsage {
 
     private void updateDataFrom(IvyNodeUsage usage, String rootModuleConf) {
         // update requiredConfs
-        updateMapOfSet(usage.requiredConfs, requiredConfs);
+        for (Map.Entry<NodeConf, ConfigurationSet> entry : usage.requiredConfs.entrySet()) {
+            updateConfigurationsForKey(entry.getValue(), requiredConfs, entry.getKey());
+        }
 
         // update rootModuleConfs
-        updateMapOfSetForKey(usage.rootModuleConfs, rootModuleConfs, rootModuleConf);
+        updateConfigurationsForKey(usage.rootModuleConfs.get(rootModuleConf), rootModuleConfs,
+            rootModuleConf);
 
         // update dependencyArtifacts
         updateMapOfSetForKey(usage.dependers, dependers, rootModuleConf);
     }
 
-    private <K, V> void updateMapOfSet(Map<K, Set<V>> from, Map<K, Set<V>> to) {
-        for (K key : from.keySet()) {
-            updateMapOfSetForKey(from, to, key);
+    private <K> void updateConfigurationsForKey(ConfigurationSet confs,
+            Map<K, ConfigurationSet> to, K key) {
+        if (confs != null) {
+            ConfigurationSet toupdate = to.get(key);
+            if (toupdate != null) {
+                toupdate.addAll(confs);
+            } else {
+                to.put(key, new ConfigurationSet(node.getConfigurationIndex(), confs));
+            }
         }
     }
 
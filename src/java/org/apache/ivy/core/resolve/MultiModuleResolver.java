@@ -0,0 +1,252 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.resolve;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.core.IvyContext;
+import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
+import org.apache.ivy.core.cache.RepositoryCacheManager;
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.lock.NoLockStrategy;
+import org.apache.ivy.util.Message;
+import org.apache.ivy.util.MessageLogger;
+
+/**
+ * Resolves the modules of a multi-module build concurrently, each module being resolved once the
+ * modules of the build it depends on have been resolved.
+ * <p>
+ * The modules and the dependencies between them are given as returned by
+ * {@link org.apache.ivy.core.sort.SortEngine#getSortedDependencies}. All the modules are resolved
+ * with the same Ivy instance and thus share its caches, each one with its default resolve id so
+ * that their reports are kept apart in the resolution cache.
+ * </p>
+ * <p>
+ * Concurrent resolves write to the same repository caches, so the modules are only resolved
+ * concurrently when every repository cache is guarded by a lock strategy. Otherwise they are
+ * resolved one at a time, still in the build order.
+ * </p>
+ */
+public class MultiModuleResolver {
+    /**
+     * Delay in milliseconds between two interruption checks while waiting for the resolves.
+     */
+    private static final long CHECK_INTERRUPTED_PERIOD = 200;
+
+    private final ResolveEngine engine;
+
+    private final int threads;
+
+    /**
+     * @param engine
+     *            the engine resolving each module
+     * @param threads
+     *            the maximum number of modules resolved at the same time
+     */
+    public MultiModuleResolver(ResolveEngine engine, int threads) {
+        this.engine = engine;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Resolves the given modules, each one as soon as the modules it depends on are resolved.
+     *
+     * @param dependencies
+     *            the modules to resolve, in the build order, mapped to the modules of the build
+     *            they depend on
+     * @param options
+     *            the options of the resolves, whose resolve id is replaced by the default resolve
+     *            id of each module
+     * @return the resolve reports of the modules, in the build order
+     * @throws ParseException
+     *             if a module descriptor can't be parsed
+     * @throws IOException
+     *             if an IO problem occurs
+     */
+    public Map<ModuleDescriptor, ResolveReport> resolve(
+            Map<ModuleDescriptor, List<ModuleDescriptor>> dependencies, ResolveOptions options)
+            throws ParseException, IOException {
+        Map<ModuleDescriptor, Integer> waiting = new HashMap<>();
+        Map<ModuleDescriptor, List<ModuleDescriptor>> dependents = new HashMap<>();
+        List<ModuleDescriptor> ready = new ArrayList<>();
+        for (Map.Entry<ModuleDescriptor, List<ModuleDescriptor>> entry : dependencies.entrySet()) {
+            ModuleDescriptor md = entry.getKey();
+            for (ModuleDescriptor dependency : entry.getValue()) {
+                List<ModuleDescriptor> mdDependents = dependents.get(dependency);
+                if (mdDependents == null) {
+                    mdDependents = new ArrayList<>();
+                    dependents.put(dependency, mdDependents);
+                }
+                mdDependents.add(md);
+            }
+            waiting.put(md, entry.getValue().size());
+            if (entry.getValue().isEmpty()) {
+                ready.add(md);
+            }
+        }
+
+        IvyContext context = IvyContext.getContext();
+        int poolSize = Math.min(threads, Math.max(1, dependencies.size()));
+        if (poolSize > 1 && !isCacheLocked(context.getSettings())) {
+            Message.verbose("no lock strategy guards the repository caches:"
+                    + " resolving the modules one at a time");
+            poolSize = 1;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+            private int count = 0;
+
+            public synchronized Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "ivy-resolve-" + (++count));
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        CompletionService<ResolveReport> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<ResolveReport>, ModuleDescriptor> running = new HashMap<>();
+        Map<ModuleDescriptor, ResolveReport> reports = new HashMap<>();
+        MessageLogger logger = context.getIvy().getLoggerEngine().peekLogger();
+        Throwable failure = null;
+        try {
+            for (ModuleDescriptor md : ready) {
+                running.put(completion.submit(new ModuleResolve(md, options, context, logger)), md);
+            }
+            while (!running.isEmpty()) {
+                Future<ResolveReport> done = completion.poll(CHECK_INTERRUPTED_PERIOD,
+                    TimeUnit.MILLISECONDS);
+                if (done == null) {
+                    context.checkInterrupted();
+                    continue;
+                }
+                ModuleDescriptor md = running.remove(done);
+                try {
+                    reports.put(md, done.get());
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                }
+                if (failure != null || !dependents.containsKey(md)) {
+                    // no new resolve once one has failed
+                    continue;
+                }
+                for (ModuleDescriptor dependent : dependents.get(md)) {
+                    int count = waiting.get(dependent) - 1;
+                    waiting.put(dependent, count);
+                    if (count == 0) {
+                        running.put(completion.submit(new ModuleResolve(dependent, options,
+                                context, logger)), dependent);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while resolving the modules", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (failure instanceof ParseException) {
+            throw (ParseException) failure;
+        } else if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+
+        Map<ModuleDescriptor, ResolveReport> orderedReports = new LinkedHashMap<>();
+        for (ModuleDescriptor md : dependencies.keySet()) {
+            orderedReports.put(md, reports.get(md));
+        }
+        return orderedReports;
+    }
+
+    /**
+     * Tells whether all the repository caches of the settings are guarded by a lock strategy, so
+     * that concurrent resolves don't corrupt them.
+     */
+    private static boolean isCacheLocked(IvySettings settings) {
+        List<RepositoryCacheManager> caches = new ArrayList<>(Arrays.asList(settings
+                .getRepositoryCacheManagers()));
+        caches.add(settings.getDefaultRepositoryCacheManager());
+        for (RepositoryCacheManager cache : caches) {
+            // the locking of other cache managers is unknown
+            if (!(cache instanceof DefaultRepositoryCacheManager)
+                    || ((DefaultRepositoryCacheManager) cache).getLockStrategy()
+                        instanceof NoLockStrategy) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The resolve of one module, run with a copy of the context and the logger of the thread
+     * which started the resolves.
+     */
+    private final class ModuleResolve implements Callable<ResolveReport> {
+        private final ModuleDescriptor md;
+
+        private final ResolveOptions options;
+
+        private final IvyContext context;
+
+        private final MessageLogger logger;
+
+        private ModuleResolve(ModuleDescriptor md, ResolveOptions options, IvyContext context,
+                MessageLogger logger) {
+            this.md = md;
+            this.options = new ResolveOptions(options)
+                    .setResolveId(ResolveOptions.getDefaultResolveId(md));
+            this.context = context;
+            this.logger = logger;
+        }
+
+        public ResolveReport call() throws ParseException, IOException {
+            IvyContext.pushContext(new IvyContext(context));
+            context.getIvy().getLoggerEngine().pushLogger(logger);
+            try {
+                return engine.resolve(md, options);
+            } finally {
+                context.getIvy().getLoggerEngine().popLogger();
+                IvyContext.popContext();
+            }
+        }
+    }
+}
@@ -17,6 +17,7 @@
  */
 package org.apache.ivy.core.resolve;
 
+import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -25,12 +26,16 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.ivy.core.event.EventManager;
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.report.ConfigurationResolveReport;
+import org.apache.ivy.plugins.resolver.DependencyResolver;
 import org.apache.ivy.util.Message;
 
 public class ResolveData {
@@ -47,9 +52,19 @@ public class ResolveData {
 
     private ResolvedModuleRevision currentResolvedModuleRevision;
 
+    private DependencyPrefetcher prefetcher;
+
+    // shared by all the resolve data of a resolve
+    private AtomicInteger avoidedRequests = new AtomicInteger();
+
+    // shared by all the resolve data of a resolve
+    private ConcurrentMap<ModuleRevisionId, ResolvedModuleRevision> referencedModules =
+            new ConcurrentHashMap<>();
+
     public ResolveData(ResolveData data, boolean validate) {
         this(data.engine, new ResolveOptions(data.options).setValidate(validate), data.report,
                 data.visitData);
+        shareWith(data);
         setCurrentVisitNode(data.currentVisitNode);
         setCurrentResolvedModuleRevision(data.currentResolvedModuleRevision);
     }
@@ -304,6 +319,98 @@ public class ResolveData {
         return dd;
     }
 
+    DependencyPrefetcher getPrefetcher() {
+        return prefetcher;
+    }
+
+    void setPrefetcher(DependencyPrefetcher prefetcher) {
+        this.prefetcher = prefetcher;
+    }
+
+    /**
+     * Counts a request to a repository which a resolver didn't need to send, because its cache
+     * told that the requested resource was not found.
+     */
+    public void countAvoidedRequest() {
+        avoidedRequests.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of requests to repositories avoided during this resolve.
+     *
+     * @return int
+     */
+    public int getAvoidedRequests() {
+        return avoidedRequests.get();
+    }
+
+    /**
+     * Returns a module loaded during this resolve because the descriptor of another module refers
+     * to it, like a parent pom or an imported bom.
+     *
+     * @param mrid
+     *            the module revision id the descriptor refers to
+     * @return the module, or <code>null</code> if it hasn't been loaded yet
+     */
+    public ResolvedModuleRevision getReferencedModule(ModuleRevisionId mrid) {
+        return referencedModules.get(mrid);
+    }
+
+    /**
+     * Keeps a module loaded because the descriptor of another module refers to it, so that the
+     * descriptors referring to it during the rest of this resolve don't load it again.
+     *
+     * @param mrid
+     *            the module revision id the descriptor refers to
+     * @param rmr
+     *            the loaded module
+     */
+    public void addReferencedModule(ModuleRevisionId mrid, ResolvedModuleRevision rmr) {
+        referencedModules.putIfAbsent(mrid, rmr);
+    }
+
+    /**
+     * Makes this resolve data share with the given one, used for the same resolve, the avoided
+     * requests count and the referenced modules.
+     */
+    void shareWith(ResolveData data) {
+        avoidedRequests = data.avoidedRequests;
+        referencedModules = data.referencedModules;
+    }
+
+    /**
+     * Starts prefetching the dependencies of the given module descriptor, if prefetching is enabled
+     * for this resolve.
+     *
+     * @param md
+     *            the module descriptor which has just been loaded
+     */
+    void prefetchDependencies(ModuleDescriptor md) {
+        if (prefetcher != null) {
+            prefetcher.prefetch(md, this);
+        }
+    }
+
+    /**
+     * Asks the given resolver for the module matching the given dependency descriptor, using the
+     * result of a prefetch when available.
+     *
+     * @param resolver
+     *            the resolver to use
+     * @param dd
+     *            the dependency to resolve
+     * @return the resolved module revision, may be <code>null</code>
+     * @throws ParseException
+     *             if the resolver raised it
+     */
+    ResolvedModuleRevision getDependency(DependencyResolver resolver, DependencyDescriptor dd)
+            throws ParseException {
+        if (prefetcher == null) {
+            return resolver.getDependency(dd, this);
+        }
+        return prefetcher.getDependency(resolver, dd, this);
+    }
+
     /**
      * Sets the last {@link ResolvedModuleRevision} which has been currently resolved.
      * <p>
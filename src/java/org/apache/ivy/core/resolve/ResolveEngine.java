@@ -34,6 +34,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.ivy.Ivy;
 import org.apache.ivy.core.IvyContext;
@@ -41,6 +49,7 @@ import org.apache.ivy.core.LogOptions;
 import org.apache.ivy.core.cache.ArtifactOrigin;
 import org.apache.ivy.core.cache.ResolutionCacheManager;
 import org.apache.ivy.core.event.EventManager;
+import org.apache.ivy.core.event.IvyEvent;
 import org.apache.ivy.core.event.download.PrepareDownloadEvent;
 import org.apache.ivy.core.event.resolve.EndResolveEvent;
 import org.apache.ivy.core.event.resolve.StartResolveEvent;
@@ -80,6 +89,11 @@ import org.apache.ivy.util.filter.Filter;
  * @see ResolveOptions
  */
 public class ResolveEngine {
+    /**
+     * Delay in milliseconds between two interruption checks while waiting for concurrent tasks.
+     */
+    private static final long CHECK_INTERRUPTED_PERIOD = 200;
+
     private ResolveEngineSettings settings;
 
     private EventManager eventManager;
@@ -241,6 +255,22 @@ public class ResolveEngine {
             Message.verbose("\tvalidate = " + options.isValidate());
             Message.verbose("\trefresh = " + options.isRefresh());
 
+            ResolveSnapshot snapshot = null;
+            if (settings.isUseResolveSnapshots() && ResolveSnapshot.isSupported(options)
+                    && getDictatorResolver() == null) {
+                snapshot = new ResolveSnapshot(this, md, options);
+                ResolveReport report = options.isRefresh() || !options.isUseResolveSnapshot() ? null
+                        : snapshot.load();
+                if (report != null) {
+                    report.setResolveTime(System.currentTimeMillis() - start);
+                    Message.verbose("\tresolve snapshot used (" + report.getResolveTime()
+                            + "ms)");
+                    eventManager.fireIvyEvent(new EndResolveEvent(md, confs, report));
+                    return report;
+                }
+                snapshot.invalidate();
+            }
+
             ResolveReport report = new ResolveReport(md, options.getResolveId());
 
             ResolveData data = new ResolveData(this, options);
@@ -348,6 +378,7 @@ public class ResolveEngine {
 
                 DownloadOptions downloadOptions = new DownloadOptions();
                 downloadOptions.setLog(options.getLog());
+                downloadOptions.setThreads(options.getDownloadThreads());
                 downloadArtifacts(report, options.getArtifactFilter(), downloadOptions);
             }
 
@@ -355,8 +386,14 @@ public class ResolveEngine {
                 outputReport(report, cacheManager, options);
             }
 
+            if (snapshot != null) {
+                snapshot.save(report, dependencies, data);
+            }
+
+            report.setAvoidedRequests(data.getAvoidedRequests());
             Message.verbose("\tresolve done (" + report.getResolveTime() + "ms resolve - "
-                    + report.getDownloadTime() + "ms download)");
+                    + report.getDownloadTime() + "ms download - " + report.getAvoidedRequests()
+                    + " requests avoided)");
             Message.sumupProblems();
 
             eventManager.fireIvyEvent(new EndResolveEvent(md, confs, report));
@@ -393,47 +430,171 @@ public class ResolveEngine {
         eventManager.fireIvyEvent(new PrepareDownloadEvent(report.getArtifacts().toArray(
             new Artifact[report.getArtifacts().size()])));
 
-        long totalSize = 0;
+        // download artifacts required in all asked configurations
+        List<IvyNode> toDownload = new ArrayList<>();
         for (IvyNode dependency : report.getDependencies()) {
-            checkInterrupted();
-            // download artifacts required in all asked configurations
             if (!dependency.isCompletelyEvicted() && !dependency.hasProblem()
                     && dependency.getModuleRevision() != null) {
+                toDownload.add(dependency);
+            }
+        }
+
+        int threads = options.getThreads() > 0 ? options.getThreads() : settings
+                .getDownloadThreads();
+        threads = Math.min(threads, toDownload.size());
+
+        long totalSize = 0;
+        if (threads > 1) {
+            totalSize = downloadConcurrently(report, toDownload, artifactFilter, options, threads);
+        } else {
+            for (IvyNode dependency : toDownload) {
+                checkInterrupted();
                 DependencyResolver resolver = dependency.getModuleRevision()
                         .getArtifactResolver();
-                Artifact[] selectedArtifacts = dependency.getSelectedArtifacts(artifactFilter);
-                DownloadReport dReport = resolver.download(selectedArtifacts, options);
-                for (ArtifactDownloadReport adr : dReport.getArtifactsReports()) {
-                    if (adr.getDownloadStatus() == DownloadStatus.FAILED) {
-                        if (adr.getArtifact().getExtraAttribute("ivy:merged") != null) {
-                            Message.warn("\tmerged artifact not found: " + adr.getArtifact()
-                                    + ". It was required in "
-                                    + adr.getArtifact().getExtraAttribute("ivy:merged"));
-                        } else {
-                            Message.warn("\t" + adr);
-                            resolver.reportFailure(adr.getArtifact());
+                DownloadReport dReport = resolver.download(
+                    dependency.getSelectedArtifacts(artifactFilter), options);
+                totalSize += handleDownloadReport(report, dependency, resolver, dReport);
+            }
+        }
+        report.setDownloadTime(System.currentTimeMillis() - start);
+        report.setDownloadSize(totalSize);
+    }
+
+    /**
+     * Downloads the artifacts of the given dependencies using a pool of at most
+     * <code>threads</code> threads. Download reports are handled in the order of the given
+     * dependencies, so the resulting resolve report is the same as with a sequential download.
+     * The events fired by the downloads are deferred, and fired by the calling thread in the same
+     * order, when their download report is handled.
+     */
+    private long downloadConcurrently(ResolveReport report, List<IvyNode> toDownload,
+            final Filter<Artifact> artifactFilter, final DownloadOptions options, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int count = 0;
+
+            public synchronized Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "ivy-download-" + (++count));
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        final IvyContext context = IvyContext.getContext();
+        try {
+            List<Future<DeferredDownload>> downloads = new ArrayList<>(toDownload.size());
+            for (final IvyNode dependency : toDownload) {
+                downloads.add(executor.submit(new Callable<DeferredDownload>() {
+                    public DeferredDownload call() {
+                        // each download gets its own copy of the context of the resolve thread
+                        IvyContext.pushContext(new IvyContext(context));
+                        eventManager.startDeferringIvyEvents();
+                        DownloadReport dReport;
+                        List<IvyEvent> events;
+                        try {
+                            checkInterrupted();
+                            dReport = dependency.getModuleRevision().getArtifactResolver()
+                                    .download(dependency.getSelectedArtifacts(artifactFilter),
+                                        options);
+                        } finally {
+                            events = eventManager.stopDeferringIvyEvents();
+                            IvyContext.popContext();
                         }
-                    } else if (adr.getDownloadStatus() == DownloadStatus.SUCCESSFUL) {
-                        totalSize += adr.getSize();
+                        return new DeferredDownload(dReport, events);
                     }
+                }));
+            }
+            long totalSize = 0;
+            for (int i = 0; i < toDownload.size(); i++) {
+                IvyNode dependency = toDownload.get(i);
+                DeferredDownload download = waitFor(downloads.get(i));
+                for (IvyEvent event : download.events) {
+                    eventManager.fireIvyEvent(event);
                 }
-                // update concerned reports
-                for (String dconf : dependency.getRootModuleConfigurations()) {
-                    // the report itself is responsible to take into account only
-                    // artifacts required in its corresponding configuration
-                    // (as described by the Dependency object)
-                    if (dependency.isEvicted(dconf)
-                            || dependency.isBlacklisted(dconf)) {
-                        report.getConfigurationReport(dconf).addDependency(dependency);
-                    } else {
-                        report.getConfigurationReport(dconf).addDependency(dependency,
-                                dReport);
-                    }
+                totalSize += handleDownloadReport(report, dependency, dependency
+                        .getModuleRevision().getArtifactResolver(), download.report);
+            }
+            return totalSize;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The report of a download done by another thread, with the events it fired.
+     */
+    private static final class DeferredDownload {
+        private final DownloadReport report;
+
+        private final List<IvyEvent> events;
+
+        private DeferredDownload(DownloadReport report, List<IvyEvent> events) {
+            this.report = report;
+            this.events = events;
+        }
+    }
+
+    /**
+     * Waits for the given task to be done, checking regularly if the resolve has been interrupted.
+     */
+    <T> T waitFor(Future<T> future) {
+        while (true) {
+            checkInterrupted();
+            try {
+                return future.get(CHECK_INTERRUPTED_PERIOD, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // check interruption and wait again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("operation interrupted", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
                 }
+                throw new RuntimeException(cause);
             }
         }
-        report.setDownloadTime(System.currentTimeMillis() - start);
-        report.setDownloadSize(totalSize);
+    }
+
+    /**
+     * Reports failures found in the given download report and adds it to the concerned
+     * configuration reports.
+     *
+     * @return the total size of the successfully downloaded artifacts
+     */
+    private long handleDownloadReport(ResolveReport report, IvyNode dependency,
+            DependencyResolver resolver, DownloadReport dReport) {
+        long size = 0;
+        for (ArtifactDownloadReport adr : dReport.getArtifactsReports()) {
+            if (adr.getDownloadStatus() == DownloadStatus.FAILED) {
+                if (adr.getArtifact().getExtraAttribute("ivy:merged") != null) {
+                    Message.warn("\tmerged artifact not found: " + adr.getArtifact()
+                            + ". It was required in "
+                            + adr.getArtifact().getExtraAttribute("ivy:merged"));
+                } else {
+                    Message.warn("\t" + adr);
+                    resolver.reportFailure(adr.getArtifact());
+                }
+            } else if (adr.getDownloadStatus() == DownloadStatus.SUCCESSFUL) {
+                size += adr.getSize();
+            }
+        }
+        // update concerned reports
+        for (String dconf : dependency.getRootModuleConfigurations()) {
+            // the report itself is responsible to take into account only
+            // artifacts required in its corresponding configuration
+            // (as described by the Dependency object)
+            if (dependency.isEvicted(dconf)
+                    || dependency.isBlacklisted(dconf)) {
+                report.getConfigurationReport(dconf).addDependency(dependency);
+            } else {
+                report.getConfigurationReport(dconf).addDependency(dependency,
+                    dReport);
+            }
+        }
+        return size;
     }
 
     /**
@@ -566,6 +727,7 @@ public class ResolveEngine {
         }
 
         IvyContext context = IvyContext.pushNewCopyContext();
+        DependencyPrefetcher prefetcher = null;
         try {
             options.setConfs(confs);
 
@@ -575,6 +737,14 @@ public class ResolveEngine {
                 data = new ResolveData(this, options);
                 context.setResolveData(data);
             }
+            int prefetchThreads = options.getPrefetchThreads() > 0 ? options
+                    .getPrefetchThreads() : settings.getPrefetchThreads();
+            if (prefetchThreads > 1 && data.getPrefetcher() == null) {
+                // the resolve thread is one of them
+                prefetcher = new DependencyPrefetcher(this, options, prefetchThreads - 1);
+                data.setPrefetcher(prefetcher);
+                prefetcher.prefetch(md, data);
+            }
             IvyNode rootNode = new IvyNode(data, md);
 
             for (String conf : confs) {
@@ -634,6 +804,10 @@ public class ResolveEngine {
 
             return dependencies.toArray(new IvyNode[dependencies.size()]);
         } finally {
+            if (prefetcher != null) {
+                prefetcher.shutdown();
+                context.getResolveData().setPrefetcher(null);
+            }
             IvyContext.popContext();
         }
     }
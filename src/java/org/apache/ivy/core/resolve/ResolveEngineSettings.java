@@ -42,4 +42,10 @@ public interface ResolveEngineSettings extends ResolverSettings {
 
     boolean logResolvedRevision();
 
+    int getDownloadThreads();
+
+    int getPrefetchThreads();
+
+    boolean isUseResolveSnapshots();
+
 }
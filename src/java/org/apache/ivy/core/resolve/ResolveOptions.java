@@ -121,6 +121,25 @@ public class ResolveOptions extends LogOptions {
      **/
     private boolean checkIfChanged = false;
 
+    /**
+     * The maximum number of artifact downloads to run concurrently, or 0 to use the value
+     * configured in the settings.
+     */
+    private int downloadThreads = 0;
+
+    /**
+     * The maximum number of modules which metadata are resolved concurrently while traversing the
+     * dependency graph, the resolve thread comprised, or 0 to use the value configured in the
+     * settings.
+     */
+    private int prefetchThreads = 0;
+
+    /**
+     * False if a snapshot of a previous resolve must not be reused, even if the settings enable
+     * resolve snapshots: the report of such a resolve doesn't give the dependency graph.
+     */
+    private boolean useResolveSnapshot = true;
+
     public ResolveOptions() {
     }
 
@@ -139,6 +158,9 @@ public class ResolveOptions extends LogOptions {
         artifactFilter = options.artifactFilter;
         resolveId = options.resolveId;
         checkIfChanged = options.checkIfChanged;
+        downloadThreads = options.downloadThreads;
+        prefetchThreads = options.prefetchThreads;
+        useResolveSnapshot = options.useResolveSnapshot;
     }
 
     public Filter<Artifact> getArtifactFilter() {
@@ -299,6 +321,33 @@ public class ResolveOptions extends LogOptions {
         return checkIfChanged;
     }
 
+    public int getDownloadThreads() {
+        return downloadThreads;
+    }
+
+    public ResolveOptions setDownloadThreads(int downloadThreads) {
+        this.downloadThreads = downloadThreads;
+        return this;
+    }
+
+    public int getPrefetchThreads() {
+        return prefetchThreads;
+    }
+
+    public ResolveOptions setPrefetchThreads(int prefetchThreads) {
+        this.prefetchThreads = prefetchThreads;
+        return this;
+    }
+
+    public boolean isUseResolveSnapshot() {
+        return useResolveSnapshot;
+    }
+
+    public ResolveOptions setUseResolveSnapshot(boolean useResolveSnapshot) {
+        this.useResolveSnapshot = useResolveSnapshot;
+        return this;
+    }
+
     public static String getDefaultResolveId(ModuleDescriptor md) {
         ModuleId module = md.getModuleRevisionId().getModuleId();
         return getDefaultResolveId(module);
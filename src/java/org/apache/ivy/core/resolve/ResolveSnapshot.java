@@ -0,0 +1,354 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.resolve;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ivy.core.cache.ResolutionCacheManager;
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ArtifactDownloadReport;
+import org.apache.ivy.core.report.DownloadStatus;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.report.SnapshotConfigurationResolveReport;
+import org.apache.ivy.core.resolve.IvyNodeCallers.Caller;
+import org.apache.ivy.plugins.conflict.ConflictManager;
+import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorWriter;
+import org.apache.ivy.plugins.report.XmlReportParser;
+import org.apache.ivy.plugins.resolver.AbstractPatternsBasedResolver;
+import org.apache.ivy.plugins.resolver.AbstractResolver;
+import org.apache.ivy.plugins.resolver.ChainResolver;
+import org.apache.ivy.plugins.resolver.DependencyResolver;
+import org.apache.ivy.plugins.resolver.DualResolver;
+import org.apache.ivy.util.FileUtil;
+import org.apache.ivy.util.HexEncoder;
+import org.apache.ivy.util.Message;
+import org.apache.ivy.util.PropertiesFile;
+import org.apache.ivy.util.filter.FilterHelper;
+
+/**
+ * The snapshot of a resolve, stored in the resolution cache so that a later resolve of the same
+ * module descriptor with the same options can reuse its reports instead of walking the dependency
+ * graph again.
+ * <p>
+ * A snapshot is used as long as:
+ * </p>
+ * <ul>
+ * <li>the module descriptor and the resolve options are the same,</li>
+ * <li>the resolvers, conflict managers and resolve modes the settings give for the modules of the
+ * graph are the same,</li>
+ * <li>the cached metadata of the modules of the graph would still be used without checking the
+ * repositories, which excludes changing modules and resolvers checking for modified metadata, and
+ * which limits the snapshot to the time to live of the cached dynamic revisions,</li>
+ * <li>the reports of the resolve, and the artifacts they reference, are still in the cache.</li>
+ * </ul>
+ */
+class ResolveSnapshot {
+    private static final String FINGERPRINT = "fingerprint";
+
+    private static final String SETTINGS = "settings";
+
+    private static final String EXPIRATION = "expiration";
+
+    private static final String MODULE_PREFIX = "module.";
+
+    private static final String REPORT_PREFIX = "report.";
+
+    private final ResolveEngine engine;
+
+    private final ResolutionCacheManager cacheManager;
+
+    private final ModuleDescriptor md;
+
+    private final ResolveOptions options;
+
+    private final File file;
+
+    private String fingerprint;
+
+    ResolveSnapshot(ResolveEngine engine, ModuleDescriptor md, ResolveOptions options) {
+        this.engine = engine;
+        this.cacheManager = engine.getSettings().getResolutionCacheManager();
+        this.md = md;
+        this.options = options;
+        this.file = cacheManager.getResolveSnapshotInCache(options.getResolveId());
+    }
+
+    /**
+     * Indicates if a resolve with the given options can be stored as a snapshot: only resolves
+     * downloading all the artifacts and producing reports in the cache can be.
+     *
+     * @param options
+     *            the options of the resolve
+     * @return boolean
+     */
+    static boolean isSupported(ResolveOptions options) {
+        return options.isDownload() && options.isOutputReport()
+                && options.getArtifactFilter() == FilterHelper.NO_FILTER;
+    }
+
+    /**
+     * Returns the report of the previous resolve if the snapshot can be used, and removes the
+     * snapshot otherwise.
+     *
+     * @return the report, or <code>null</code> if the snapshot can't be used
+     */
+    ResolveReport load() {
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            ResolveReport report = doLoad();
+            if (report != null) {
+                return report;
+            }
+        } catch (Exception e) {
+            Message.debug("impossible to use resolve snapshot " + file, e);
+        }
+        invalidate();
+        return null;
+    }
+
+    private ResolveReport doLoad() throws Exception {
+        PropertiesFile snapshot = new PropertiesFile(file, null);
+        String expiration = snapshot.getProperty(EXPIRATION);
+        if (expiration == null || Long.parseLong(expiration) <= System.currentTimeMillis()) {
+            Message.verbose("\tresolve snapshot expired");
+            return null;
+        }
+        if (!getFingerprint().equals(snapshot.getProperty(FINGERPRINT))) {
+            Message.verbose("\tresolve snapshot outdated: module descriptor or options changed");
+            return null;
+        }
+        List<ModuleRevisionId> mrids = new ArrayList<>();
+        for (int i = 0; snapshot.getProperty(MODULE_PREFIX + i) != null; i++) {
+            mrids.add(ModuleRevisionId.decode(snapshot.getProperty(MODULE_PREFIX + i)));
+        }
+        if (!getSettingsFingerprint(mrids).equals(snapshot.getProperty(SETTINGS))) {
+            Message.verbose("\tresolve snapshot outdated: settings changed");
+            return null;
+        }
+        ModuleRevisionId mrid = md.getResolvedModuleRevisionId();
+        if (!cacheManager.getResolvedIvyFileInCache(mrid).exists()
+                || !cacheManager.getResolvedIvyPropertiesInCache(mrid).exists()) {
+            return null;
+        }
+
+        ResolveReport report = new ResolveReport(md, options.getResolveId());
+        for (String conf : options.getConfs()) {
+            File reportFile = cacheManager.getConfigurationResolveReportInCache(
+                options.getResolveId(), conf);
+            if (!getFileStamp(reportFile).equals(snapshot.getProperty(REPORT_PREFIX + conf))) {
+                Message.verbose("\tresolve snapshot outdated: report changed for " + conf);
+                return null;
+            }
+            XmlReportParser parser = new XmlReportParser();
+            parser.parse(reportFile);
+            for (ArtifactDownloadReport adr : parser.getArtifactReports()) {
+                if (adr.getDownloadStatus() == DownloadStatus.FAILED
+                        || adr.getLocalFile() != null && !adr.getLocalFile().exists()) {
+                    Message.verbose("\tresolve snapshot outdated: missing " + adr.getArtifact());
+                    return null;
+                }
+            }
+            report.addReport(conf, new SnapshotConfigurationResolveReport(engine, md, conf,
+                    options.getDate(), options, parser));
+        }
+        return report;
+    }
+
+    /**
+     * Stores the snapshot of the given resolve, if it can be reused later.
+     *
+     * @param report
+     *            the report of the resolve, already written in the cache
+     * @param dependencies
+     *            the nodes of the resolved graph
+     * @param data
+     *            the data of the resolve
+     */
+    void save(ResolveReport report, IvyNode[] dependencies, ResolveData data) {
+        if (report.hasError()) {
+            return;
+        }
+        try {
+            long expiration = Long.MAX_VALUE;
+            List<ModuleRevisionId> mrids = new ArrayList<>();
+            for (IvyNode node : dependencies) {
+                if (node.getModuleRevision() == null) {
+                    // not loaded: it has been evicted before being resolved
+                    continue;
+                }
+                mrids.add(node.getId());
+                DependencyResolver resolver = engine.getSettings().getResolver(node.getId());
+                for (Caller caller : node.getAllCallers()) {
+                    DependencyDescriptor dd = caller.getDependencyDescriptor();
+                    if (dd != null) {
+                        expiration = Math.min(expiration,
+                            getCachedMetadataExpiration(resolver, dd, data));
+                    }
+                }
+            }
+            if (expiration <= System.currentTimeMillis()) {
+                Message.verbose("\tno resolve snapshot stored: repositories will be checked"
+                        + " again by next resolve");
+                return;
+            }
+
+            PropertiesFile snapshot = new PropertiesFile(file, "resolve snapshot of "
+                    + md.getResolvedModuleRevisionId());
+            snapshot.setProperty(FINGERPRINT, getFingerprint());
+            snapshot.setProperty(SETTINGS, getSettingsFingerprint(mrids));
+            snapshot.setProperty(EXPIRATION, String.valueOf(expiration));
+            for (int i = 0; i < mrids.size(); i++) {
+                snapshot.setProperty(MODULE_PREFIX + i, mrids.get(i).encodeToString());
+            }
+            for (String conf : report.getConfigurations()) {
+                snapshot.setProperty(REPORT_PREFIX + conf, getFileStamp(cacheManager
+                        .getConfigurationResolveReportInCache(options.getResolveId(), conf)));
+            }
+            snapshot.save();
+        } catch (Exception e) {
+            Message.verbose("impossible to store resolve snapshot " + file + ": " + e);
+            invalidate();
+        }
+    }
+
+    /**
+     * Removes the stored snapshot, if any.
+     */
+    void invalidate() {
+        if (file.exists() && !file.delete()) {
+            Message.warn("impossible to delete resolve snapshot " + file);
+        }
+    }
+
+    private static long getCachedMetadataExpiration(DependencyResolver resolver,
+            DependencyDescriptor dd, ResolveData data) {
+        if (resolver instanceof AbstractResolver) {
+            return ((AbstractResolver) resolver).getCachedMetadataExpiration(dd, data);
+        }
+        return 0;
+    }
+
+    private static String getFileStamp(File file) {
+        return file.exists() ? file.length() + "@" + file.lastModified() : "";
+    }
+
+    private String getFingerprint() throws IOException {
+        if (fingerprint == null) {
+            final MessageDigest digest = newDigest();
+            OutputStream out = new OutputStream() {
+                @Override
+                public void write(int b) {
+                    digest.update((byte) b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    digest.update(b, off, len);
+                }
+            };
+            // the module descriptor as it has been parsed, its parents included, and the source it
+            // was parsed from, which may hold more than what is written
+            XmlModuleDescriptorWriter.write(md, null, out);
+            if (md.getResource() != null) {
+                FileUtil.copy(md.getResource().openStream(), out, null);
+            }
+            update(digest, Arrays.toString(options.getConfs()), options.getResolveId(),
+                options.getResolveMode(), options.getRevision(),
+                String.valueOf(options.getDate() == null ? null : options.getDate().getTime()),
+                String.valueOf(options.isTransitive()), String.valueOf(options.isValidate()),
+                String.valueOf(options.isUseCacheOnly()));
+            fingerprint = HexEncoder.encode(digest.digest());
+        }
+        return fingerprint;
+    }
+
+    private String getSettingsFingerprint(List<ModuleRevisionId> mrids) {
+        ResolveEngineSettings settings = engine.getSettings();
+        MessageDigest digest = newDigest();
+        update(digest, settings.getVersionMatcher().getName());
+        for (ModuleRevisionId mrid : mrids) {
+            StringBuilder description = new StringBuilder(mrid.encodeToString());
+            describe(settings.getResolver(mrid), description);
+            ConflictManager conflictManager = settings.getConflictManager(mrid.getModuleId());
+            description.append(conflictManager == null ? null : conflictManager.getName());
+            description.append(settings.getResolveMode(mrid.getModuleId()));
+            update(digest, description.toString());
+        }
+        return HexEncoder.encode(digest.digest());
+    }
+
+    private static void describe(DependencyResolver resolver, StringBuilder description) {
+        if (resolver == null) {
+            description.append("[]");
+            return;
+        }
+        description.append(resolver.getClass().getName()).append('[').append(resolver.getName());
+        if (resolver instanceof AbstractResolver) {
+            AbstractResolver abstractResolver = (AbstractResolver) resolver;
+            description.append('|').append(abstractResolver.getLatest()).append('|')
+                    .append(abstractResolver.getNamespace().getName()).append('|')
+                    .append(abstractResolver.getRepositoryCacheManager().getName());
+        }
+        if (resolver instanceof AbstractPatternsBasedResolver) {
+            AbstractPatternsBasedResolver patternsResolver = (AbstractPatternsBasedResolver) resolver;
+            description.append('|').append(patternsResolver.getIvyPatterns()).append('|')
+                    .append(patternsResolver.getArtifactPatterns()).append('|')
+                    .append(patternsResolver.isM2compatible());
+        }
+        if (resolver instanceof ChainResolver) {
+            ChainResolver chain = (ChainResolver) resolver;
+            description.append('|').append(chain.isReturnFirst()).append('|')
+                    .append(chain.isDual());
+            for (DependencyResolver child : chain.getResolvers()) {
+                describe(child, description);
+            }
+        }
+        if (resolver instanceof DualResolver) {
+            describe(((DualResolver) resolver).getIvyResolver(), description);
+            describe(((DualResolver) resolver).getArtifactResolver(), description);
+        }
+        description.append(']');
+    }
+
+    private static void update(MessageDigest digest, String... values) {
+        for (String value : values) {
+            digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA1 digest not available", e);
+        }
+    }
+}
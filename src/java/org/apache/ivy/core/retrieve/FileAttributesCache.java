@@ -0,0 +1,62 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.retrieve;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The attributes of the sources and destinations of a retrieve, so that each file is read once
+ * however many times the retrieve compares it. The attributes of a destination must be forgotten
+ * once it has been retrieved.
+ */
+final class FileAttributesCache {
+    private final Map<File, BasicFileAttributes> attributes = new HashMap<>();
+
+    /**
+     * @param file
+     *            the file to read the attributes of
+     * @return the attributes of the file, <code>null</code> if it doesn't exist or can't be read
+     */
+    BasicFileAttributes get(File file) {
+        if (attributes.containsKey(file)) {
+            return attributes.get(file);
+        }
+        BasicFileAttributes fileAttributes;
+        try {
+            fileAttributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        } catch (IOException e) {
+            fileAttributes = null;
+        }
+        attributes.put(file, fileAttributes);
+        return fileAttributes;
+    }
+
+    long lastModified(File file) {
+        BasicFileAttributes fileAttributes = get(file);
+        return fileAttributes == null ? 0 : fileAttributes.lastModifiedTime().toMillis();
+    }
+
+    void forget(File file) {
+        attributes.remove(file);
+    }
+}
@@ -19,6 +19,7 @@ package org.apache.ivy.core.retrieve;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -30,6 +31,14 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.IvyPatternHelper;
@@ -55,6 +64,11 @@ import org.apache.ivy.util.Message;
 public class RetrieveEngine {
     private static final int KILO = 1024;
 
+    /**
+     * Delay in milliseconds between two interruption checks while waiting for the copies.
+     */
+    private static final long CHECK_INTERRUPTED_PERIOD = 200;
+
     private RetrieveEngineSettings settings;
 
     private EventManager eventManager;
@@ -131,74 +145,101 @@ public class RetrieveEngine {
             // for sync)
             Collection<File> targetIvysStructure = new HashSet<>(); // same for ivy files
 
+            // the attributes of each source and destination are read once
+            FileAttributesCache attributes = new FileAttributesCache();
+            RetrieveManifest manifest = null;
+            boolean unchanged = false;
+            if (options.isIncremental() && settings.isCheckUpToDate()
+                    && !RetrieveOptions.OVERWRITEMODE_ALWAYS.equals(options.getOverwriteMode())) {
+                manifest = new RetrieveManifest(fileRetrieveRoot, ivyRetrieveRoot, options,
+                        attributes);
+                for (Map.Entry<ArtifactDownloadReport, Set<String>> artifactAndPaths : artifactsToCopy
+                        .entrySet()) {
+                    File archive = getArchive(artifactAndPaths.getKey());
+                    if (archive != null) {
+                        manifest.add(archive, artifactAndPaths.getValue());
+                    }
+                }
+                unchanged = manifest.isUnchanged();
+                if (unchanged) {
+                    Message.verbose("\tretrieve manifest unchanged: nothing to retrieve");
+                }
+            }
+
             // do retrieve
-            long totalCopiedSize = 0;
+            List<FileRetrieval> retrievals = new ArrayList<>();
+            List<FileRetrieval> toCopy = new ArrayList<>();
             for (Map.Entry<ArtifactDownloadReport, Set<String>> artifactAndPaths : artifactsToCopy
                     .entrySet()) {
                 ArtifactDownloadReport artifact = artifactAndPaths.getKey();
-                File archive = artifact.getLocalFile();
-                if (artifact.getUnpackedLocalFile() != null) {
-                    archive = artifact.getUnpackedLocalFile();
-                }
+                File archive = getArchive(artifact);
                 if (archive == null) {
                     Message.verbose("\tno local file available for " + artifact + ": skipping");
                     continue;
                 }
+                if (unchanged) {
+                    // the manifest has already checked every destination
+                    for (String path : artifactAndPaths.getValue()) {
+                        File destFile = settings.resolveFile(path);
+                        retrievals.add(new FileRetrieval(artifact, archive, destFile));
+                        report.addUpToDateFile(destFile, artifact);
+                    }
+                    continue;
+                }
                 Message.verbose("\tretrieving " + archive);
                 for (String path : artifactAndPaths.getValue()) {
                     IvyContext.getContext().checkInterrupted();
                     File destFile = settings.resolveFile(path);
-                    if (!settings.isCheckUpToDate() || !upToDate(archive, destFile, options)) {
+                    FileRetrieval retrieval = new FileRetrieval(artifact, archive, destFile);
+                    retrievals.add(retrieval);
+                    if (manifest != null && manifest.isRetrieved(path)) {
+                        Message.verbose("\t\tto " + destFile + " [UNCHANGED]");
+                        report.addUpToDateFile(destFile, artifact);
+                    } else if (!settings.isCheckUpToDate()
+                            || !upToDate(archive, destFile, options, attributes)) {
                         Message.verbose("\t\tto " + destFile);
-                        if (this.eventManager != null) {
-                            this.eventManager.fireIvyEvent(new StartRetrieveArtifactEvent(artifact, destFile));
-                        }
-                        if (options.isMakeSymlinks()) {
-                            boolean symlinkCreated;
-                            try {
-                                symlinkCreated = FileUtil.symlink(archive, destFile,  true);
-                            } catch (IOException ioe) {
-                                symlinkCreated = false;
-                                // warn about the inability to create a symlink
-                                Message.warn("symlink creation failed at path " + destFile, ioe);
-                            }
-                            if (!symlinkCreated) {
-                                // since symlink creation failed, let's attempt to an actual copy instead
-                                Message.info("Attempting a copy operation (since symlink creation failed) at path " + destFile);
-                                FileUtil.copy(archive, destFile, null, true);
-                            }
-                        } else {
-                            FileUtil.copy(archive, destFile, null, true);
-                        }
-                        if (this.eventManager != null) {
-                            this.eventManager.fireIvyEvent(new EndRetrieveArtifactEvent(artifact, destFile));
-                        }
-                        totalCopiedSize += FileUtil.getFileLength(destFile);
-                        report.addCopiedFile(destFile, artifact);
+                        toCopy.add(retrieval);
                     } else {
                         Message.verbose("\t\tto " + destFile + " [NOT REQUIRED]");
                         report.addUpToDateFile(destFile, artifact);
                     }
+                }
+            }
+            long totalCopiedSize = retrieveFiles(toCopy, options, report);
+            for (FileRetrieval retrieval : toCopy) {
+                attributes.forget(retrieval.destFile);
+            }
 
-                    if ("ivy".equals(artifact.getType())) {
-                        targetIvysStructure
-                                .addAll(FileUtil.getPathFiles(ivyRetrieveRoot, destFile));
-                    } else {
-                        Collection<File> files = FileUtil.listAll(destFile,
+            String[] ignorableFilenames = settings.getIgnorableFilenames();
+            Collection<String> ignoreList = Arrays.asList(ignorableFilenames);
+            boolean synced = false;
+            if (options.isSync() && unchanged && manifest.isTreeUnchanged()) {
+                Message.verbose("\tretrieve directories unchanged: nothing to sync");
+            } else if (options.isSync()) {
+                // an unchanged manifest says nothing of the files added since to the directory
+                Message.verbose("\tsyncing...");
+                synced = true;
+                for (FileRetrieval retrieval : retrievals) {
+                    if ("ivy".equals(retrieval.artifact.getType())) {
+                        targetIvysStructure.addAll(FileUtil.getPathFiles(ivyRetrieveRoot,
+                            retrieval.destFile));
+                    } else if (isDirectory(retrieval.archive, attributes)) {
+                        // the files of the unpacked artifacts are kept too
+                        Collection<File> files = FileUtil.listAll(retrieval.destFile,
                             Collections.<String> emptyList());
                         for (File file : files) {
                             targetArtifactsStructure.addAll(FileUtil.getPathFiles(fileRetrieveRoot,
                                 file));
                         }
+                    } else {
+                        targetArtifactsStructure.addAll(FileUtil.getPathFiles(fileRetrieveRoot,
+                            retrieval.destFile));
                     }
                 }
-            }
-
-            if (options.isSync()) {
-                Message.verbose("\tsyncing...");
-
-                String[] ignorableFilenames = settings.getIgnorableFilenames();
-                Collection<String> ignoreList = Arrays.asList(ignorableFilenames);
+                if (manifest != null) {
+                    targetArtifactsStructure.addAll(FileUtil.getPathFiles(fileRetrieveRoot,
+                        manifest.getFile()));
+                }
 
                 Collection<File> existingArtifacts = FileUtil.listAll(fileRetrieveRoot, ignoreList);
                 Collection<File> existingIvys = (ivyRetrieveRoot == null) ? null : FileUtil.listAll(
@@ -215,6 +256,10 @@ public class RetrieveEngine {
                     }
                 }
             }
+            // the directories modified by the sync are stored again
+            if (manifest != null && (!unchanged || synced)) {
+                manifest.save(ignoreList);
+            }
             long elapsedTime = System.currentTimeMillis() - start;
             String msg = "\t"
                     + report.getNbrArtifactsCopied()
@@ -239,6 +284,162 @@ public class RetrieveEngine {
         }
     }
 
+    /**
+     * Copies or links the given files, concurrently when more than one thread is allowed. The
+     * retrieve events are fired and the files are added to the report by the calling thread, in
+     * the order of the given files.
+     *
+     * @return the total size of the retrieved files
+     */
+    private long retrieveFiles(List<FileRetrieval> toCopy, final RetrieveOptions options,
+            RetrieveReport report) throws IOException {
+        int threads = options.getThreads() > 0 ? options.getThreads() : settings
+                .getRetrieveThreads();
+        threads = Math.min(threads, toCopy.size());
+
+        long totalCopiedSize = 0;
+        if (threads <= 1) {
+            for (FileRetrieval retrieval : toCopy) {
+                IvyContext.getContext().checkInterrupted();
+                fireStartRetrieveArtifact(retrieval);
+                retrieveFile(retrieval, options);
+                totalCopiedSize += endRetrieveFile(retrieval, report);
+            }
+            return totalCopiedSize;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int count = 0;
+
+            public synchronized Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "ivy-retrieve-" + (++count));
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        final IvyContext context = IvyContext.getContext();
+        try {
+            List<Future<Void>> copies = new ArrayList<>(toCopy.size());
+            for (final FileRetrieval retrieval : toCopy) {
+                fireStartRetrieveArtifact(retrieval);
+                copies.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws IOException {
+                        // each copy gets its own copy of the context of the retrieve thread
+                        IvyContext.pushContext(new IvyContext(context));
+                        try {
+                            retrieveFile(retrieval, options);
+                            return null;
+                        } finally {
+                            IvyContext.popContext();
+                        }
+                    }
+                }));
+            }
+            for (int i = 0; i < toCopy.size(); i++) {
+                waitFor(copies.get(i));
+                totalCopiedSize += endRetrieveFile(toCopy.get(i), report);
+            }
+            return totalCopiedSize;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void retrieveFile(FileRetrieval retrieval, RetrieveOptions options)
+            throws IOException {
+        File archive = retrieval.archive;
+        File destFile = retrieval.destFile;
+        if (options.isMakeSymlinks()) {
+            boolean symlinkCreated;
+            try {
+                symlinkCreated = FileUtil.symlink(archive, destFile,  true);
+            } catch (IOException ioe) {
+                symlinkCreated = false;
+                // warn about the inability to create a symlink
+                Message.warn("symlink creation failed at path " + destFile, ioe);
+            }
+            if (!symlinkCreated) {
+                // since symlink creation failed, let's attempt to an actual copy instead
+                Message.info("Attempting a copy operation (since symlink creation failed) at path " + destFile);
+                FileUtil.copy(archive, destFile, null, true);
+            }
+        } else if (options.isMakeHardlinks()) {
+            boolean hardlinkCreated;
+            try {
+                hardlinkCreated = FileUtil.hardlink(archive, destFile, true);
+            } catch (IOException | UnsupportedOperationException e) {
+                // typically when the cache is on another filesystem
+                hardlinkCreated = false;
+                Message.verbose("\t\thard link creation failed at path " + destFile + ": " + e);
+            }
+            if (!hardlinkCreated) {
+                // unpacked directories and files which can't be linked are copied
+                FileUtil.copy(archive, destFile, null, true);
+            }
+        } else {
+            FileUtil.copy(archive, destFile, null, true);
+        }
+    }
+
+    private void fireStartRetrieveArtifact(FileRetrieval retrieval) {
+        if (this.eventManager != null) {
+            this.eventManager.fireIvyEvent(new StartRetrieveArtifactEvent(retrieval.artifact,
+                    retrieval.destFile));
+        }
+    }
+
+    private long endRetrieveFile(FileRetrieval retrieval, RetrieveReport report) {
+        if (this.eventManager != null) {
+            this.eventManager.fireIvyEvent(new EndRetrieveArtifactEvent(retrieval.artifact,
+                    retrieval.destFile));
+        }
+        report.addCopiedFile(retrieval.destFile, retrieval.artifact);
+        return FileUtil.getFileLength(retrieval.destFile);
+    }
+
+    /**
+     * Waits for the given task to be done, checking regularly if the retrieve has been
+     * interrupted.
+     */
+    private void waitFor(Future<?> future) throws IOException {
+        while (true) {
+            IvyContext.getContext().checkInterrupted();
+            try {
+                future.get(CHECK_INTERRUPTED_PERIOD, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                // check interruption and wait again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("operation interrupted", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+
+    private static boolean isDirectory(File file, FileAttributesCache attributes) {
+        BasicFileAttributes fileAttributes = attributes.get(file);
+        return fileAttributes != null && fileAttributes.isDirectory();
+    }
+
+    private File getArchive(ArtifactDownloadReport artifact) {
+        if (artifact.getUnpackedLocalFile() != null) {
+            return artifact.getUnpackedLocalFile();
+        }
+        return artifact.getLocalFile();
+    }
+
     private String[] getConfs(ModuleRevisionId mrid, RetrieveOptions options) throws IOException {
         String[] confs = options.getConfs();
         if (confs == null || (confs.length == 1 && "*".equals(confs[0]))) {
@@ -438,8 +639,9 @@ public class RetrieveEngine {
         return artifactsToCopy;
     }
 
-    private boolean upToDate(File source, File target, RetrieveOptions options) {
-        if (!target.exists()) {
+    private boolean upToDate(File source, File target, RetrieveOptions options,
+            FileAttributesCache attributes) {
+        if (attributes.get(target) == null) {
             return false;
         }
 
@@ -453,11 +655,11 @@ public class RetrieveEngine {
         }
 
         if (RetrieveOptions.OVERWRITEMODE_NEWER.equals(overwriteMode)) {
-            return source.lastModified() <= target.lastModified();
+            return attributes.lastModified(source) <= attributes.lastModified(target);
         }
 
         if (RetrieveOptions.OVERWRITEMODE_DIFFERENT.equals(overwriteMode)) {
-            return source.lastModified() == target.lastModified();
+            return attributes.lastModified(source) == attributes.lastModified(target);
         }
 
         // unknown, so just to be sure
@@ -489,4 +691,21 @@ public class RetrieveEngine {
         };
     }
 
+    /**
+     * A file to retrieve, from the cache to its destination.
+     */
+    private static final class FileRetrieval {
+        private final ArtifactDownloadReport artifact;
+
+        private final File archive;
+
+        private final File destFile;
+
+        private FileRetrieval(ArtifactDownloadReport artifact, File archive, File destFile) {
+            this.artifact = artifact;
+            this.archive = archive;
+            this.destFile = destFile;
+        }
+    }
+
 }
@@ -0,0 +1,359 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.retrieve;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.util.ChecksumHelper;
+import org.apache.ivy.util.Message;
+
+/**
+ * The state of a retrieve directory, as left by the last incremental retrieve: the file from which
+ * each destination has been retrieved, with the size and the last modification date this file had
+ * then, and the size and the last modification date of the destination once retrieved.
+ * <p>
+ * The manifest is stored in the root directory of the retrieve, with a checksum of its content.
+ * When the files to retrieve and the retrieve options match the stored manifest, and the
+ * destinations haven't been deleted or modified since, the retrieve has nothing to copy;
+ * otherwise only the destinations whose state differs have to be checked and copied.
+ * </p>
+ * <p>
+ * With the sync option, the manifest also stores the last modification date of the directories of
+ * the retrieve: while they are unchanged, no file has been added to or removed from them, and the
+ * sync has nothing to delete.
+ * </p>
+ * <p>
+ * The files are compared by size and last modification date, as the up to date check of the
+ * retrieve does, rather than by checksums of their contents: computing these would read every
+ * source and destination at each retrieve, which costs about as much as the copies the manifest
+ * saves.
+ * </p>
+ */
+class RetrieveManifest {
+    static final String FILE_NAME = ".ivy-retrieve.properties";
+
+    // the keys of the destinations are absolute paths, they can't clash with these ones
+    private static final String CHECKSUM_KEY = "checksum";
+
+    private static final String OPTIONS_KEY = "options";
+
+    private static final String DIRECTORIES_KEY = "directories";
+
+    // separates the state of the source of a destination from the state of the destination
+    private static final char STATE_SEPARATOR = '|';
+
+    private final File file;
+
+    private final File retrieveRoot;
+
+    private final File ivyRetrieveRoot;
+
+    private final boolean sync;
+
+    private final String options;
+
+    private final FileAttributesCache attributes;
+
+    private final Map<String, String> entries = new TreeMap<>();
+
+    private boolean loaded = false;
+
+    private Map<String, String> previousEntries;
+
+    private Map<String, String> previousDestinations;
+
+    private String previousOptions;
+
+    private Map<String, String> previousDirectories;
+
+    /**
+     * @param retrieveRoot
+     *            the root directory of the retrieved artifacts, where the manifest is stored
+     * @param ivyRetrieveRoot
+     *            the root directory of the retrieved module descriptors, <code>null</code> if they
+     *            are not retrieved
+     * @param options
+     *            the options of the retrieve
+     * @param attributes
+     *            the attributes of the files of the retrieve
+     */
+    RetrieveManifest(File retrieveRoot, File ivyRetrieveRoot, RetrieveOptions options,
+            FileAttributesCache attributes) {
+        this.file = new File(retrieveRoot, FILE_NAME);
+        this.retrieveRoot = retrieveRoot;
+        this.ivyRetrieveRoot = ivyRetrieveRoot;
+        this.sync = options.isSync();
+        this.attributes = attributes;
+        this.options = "sync=" + options.isSync() + ",symlinks=" + options.isMakeSymlinks()
+                + ",overwriteMode=" + options.getOverwriteMode() + ",ivyRoot="
+                + (ivyRetrieveRoot == null ? "" : ivyRetrieveRoot.getAbsolutePath());
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Records that the given source has to be retrieved to the given destinations.
+     *
+     * @param source
+     *            the file to retrieve
+     * @param destinations
+     *            the absolute paths to which the file is retrieved
+     */
+    void add(File source, Collection<String> destinations) {
+        String state = getState(source);
+        if (state == null) {
+            // the retrieve itself will tell what is wrong with this file
+            return;
+        }
+        state += ":" + source.getAbsolutePath();
+        for (String destination : destinations) {
+            entries.put(destination, state);
+        }
+    }
+
+    private String getState(File file) {
+        BasicFileAttributes fileAttributes = attributes.get(file);
+        if (fileAttributes == null) {
+            return null;
+        }
+        return fileAttributes.size() + ":" + fileAttributes.lastModifiedTime().toMillis();
+    }
+
+    /**
+     * @return <code>true</code> if the stored manifest is the same as this one, i.e. if all the
+     *         destinations have already been retrieved from the same files with the same options,
+     *         and are still as they were retrieved
+     */
+    boolean isUnchanged() {
+        load();
+        if (previousEntries == null || !options.equals(previousOptions)
+                || !entries.equals(previousEntries)) {
+            return false;
+        }
+        for (String destination : entries.keySet()) {
+            if (!isIntact(destination)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param destination
+     *            the absolute path of a destination added to this manifest
+     * @return <code>true</code> if the stored manifest tells that this destination has already been
+     *         retrieved from the same file with the same options, and it is still as it was
+     *         retrieved
+     */
+    boolean isRetrieved(String destination) {
+        load();
+        return previousEntries != null && options.equals(previousOptions)
+                && previousEntries.containsKey(destination)
+                && previousEntries.get(destination).equals(entries.get(destination))
+                && isIntact(destination);
+    }
+
+    private boolean isIntact(String destination) {
+        String state = previousDestinations.get(destination);
+        return state != null && state.equals(getState(new File(destination)));
+    }
+
+    /**
+     * @return <code>true</code> if the directories of the retrieve haven't been modified since the
+     *         stored manifest has been saved by a sync retrieve, i.e. if no file has been added to
+     *         or removed from them
+     */
+    boolean isTreeUnchanged() {
+        load();
+        if (previousDirectories == null || previousDirectories.isEmpty()) {
+            return false;
+        }
+        for (Map.Entry<String, String> directory : previousDirectories.entrySet()) {
+            if (!directory.getValue().equals(getDirectoryState(Paths.get(directory.getKey())))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getDirectoryState(Path directory) {
+        try {
+            return String.valueOf(Files.getLastModifiedTime(directory).to(TimeUnit.NANOSECONDS));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores this manifest in the retrieve root directory, to be compared by the next retrieve.
+     *
+     * @param ignoredNames
+     *            the names of the files the sync ignores
+     * @throws IOException
+     *             if the manifest can't be written
+     */
+    void save(Collection<String> ignoredNames) throws IOException {
+        Map<String, String> values = new TreeMap<>();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            String destinationState = getState(new File(entry.getKey()));
+            if (destinationState != null) {
+                values.put(entry.getKey(), entry.getValue() + STATE_SEPARATOR
+                        + destinationState);
+            }
+        }
+        file.getParentFile().mkdirs();
+        if (sync) {
+            // the manifest is created before the directories are read, writing it then doesn't
+            // modify the retrieve root
+            file.createNewFile();
+            values.put(DIRECTORIES_KEY, getDirectories(ignoredNames));
+        }
+        Properties props = new Properties();
+        props.putAll(values);
+        props.setProperty(OPTIONS_KEY, options);
+        props.setProperty(CHECKSUM_KEY, computeChecksum(options, values));
+        try (OutputStream out = new FileOutputStream(file)) {
+            props.store(out, "ivy retrieve manifest - do not edit");
+        }
+    }
+
+    /**
+     * @return the states of the directories of the retrieve, one per line
+     */
+    private String getDirectories(final Collection<String> ignoredNames) throws IOException {
+        final Map<String, String> directories = new TreeMap<>();
+        for (File root : Arrays.asList(retrieveRoot, ivyRetrieveRoot)) {
+            if (root == null || !root.isDirectory()) {
+                continue;
+            }
+            Files.walkFileTree(root.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (ignoredNames.contains(dir.getFileName().toString())) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    directories.put(dir.toAbsolutePath().toString(),
+                        String.valueOf(attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS)));
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        StringBuilder value = new StringBuilder();
+        for (Map.Entry<String, String> directory : directories.entrySet()) {
+            value.append(directory.getKey()).append(STATE_SEPARATOR).append(directory.getValue())
+                    .append('\n');
+        }
+        return value.toString();
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.exists()) {
+            return;
+        }
+        Properties props = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            props.load(in);
+        } catch (IOException e) {
+            Message.verbose("\tunreadable retrieve manifest " + file + ": " + e);
+            return;
+        }
+        String checksum = (String) props.remove(CHECKSUM_KEY);
+        String storedOptions = (String) props.remove(OPTIONS_KEY);
+        Map<String, String> storedValues = new TreeMap<>();
+        for (String key : props.stringPropertyNames()) {
+            storedValues.put(key, props.getProperty(key));
+        }
+        if (checksum == null || storedOptions == null
+                || !checksum.equals(computeChecksum(storedOptions, storedValues))) {
+            // a manifest partially written or modified by hand can't be trusted
+            Message.verbose("\tignoring corrupted retrieve manifest " + file);
+            return;
+        }
+        Map<String, String> storedDirectories = new TreeMap<>();
+        String directories = storedValues.remove(DIRECTORIES_KEY);
+        if (directories != null) {
+            for (String directory : directories.split("\n")) {
+                int separator = directory.lastIndexOf(STATE_SEPARATOR);
+                if (separator > 0) {
+                    storedDirectories.put(directory.substring(0, separator),
+                        directory.substring(separator + 1));
+                }
+            }
+        }
+        Map<String, String> storedEntries = new TreeMap<>();
+        Map<String, String> storedDestinations = new TreeMap<>();
+        for (Map.Entry<String, String> value : storedValues.entrySet()) {
+            int separator = value.getValue().lastIndexOf(STATE_SEPARATOR);
+            if (separator < 0) {
+                // written by a previous version, without the state of the destinations
+                Message.verbose("\tignoring outdated retrieve manifest " + file);
+                return;
+            }
+            storedEntries.put(value.getKey(), value.getValue().substring(0, separator));
+            storedDestinations.put(value.getKey(), value.getValue().substring(separator + 1));
+        }
+        previousOptions = storedOptions;
+        previousEntries = storedEntries;
+        previousDestinations = storedDestinations;
+        previousDirectories = storedDirectories;
+    }
+
+    private static String computeChecksum(String options, Map<String, String> entries) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+        md.update(options.getBytes(StandardCharsets.UTF_8));
+        // the entries are sorted, the same entries always give the same checksum
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            md.update((byte) '\n');
+            md.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            md.update((byte) '=');
+            md.update(entry.getValue().getBytes(StandardCharsets.UTF_8));
+        }
+        return ChecksumHelper.byteArrayToHexString(md.digest());
+    }
+}
@@ -83,6 +83,25 @@ public class RetrieveOptions extends LogOptions {
     @Deprecated
     private boolean makeSymlinksInMass = false;
 
+    /**
+     * True if hard links should be created instead of plain copy, when symbolic links are not
+     * asked for. Works only on filesystems supporting hard links, and for files of the same
+     * filesystem as the cache.
+     */
+    private boolean makeHardlinks = false;
+
+    /**
+     * The maximum number of files to copy concurrently, or 0 to use the value configured in the
+     * settings.
+     */
+    private int threads = 0;
+
+    /**
+     * True if a manifest of the retrieved files should be kept in the destination directory, so
+     * that only the files which have changed since the previous retrieve are checked and copied.
+     */
+    private boolean incremental = false;
+
     /**
      * The id used to store the resolve information.
      */
@@ -104,6 +123,9 @@ public class RetrieveOptions extends LogOptions {
         this.useOrigin = options.useOrigin;
         this.makeSymlinks = options.makeSymlinks;
         this.makeSymlinksInMass = options.makeSymlinksInMass;
+        this.incremental = options.incremental;
+        this.makeHardlinks = options.makeHardlinks;
+        this.threads = options.threads;
         this.resolveId = options.resolveId;
         this.mapper = options.mapper;
     }
@@ -196,6 +218,33 @@ public class RetrieveOptions extends LogOptions {
         return this;
     }
 
+    public boolean isMakeHardlinks() {
+        return makeHardlinks;
+    }
+
+    public RetrieveOptions setMakeHardlinks(boolean makeHardlinks) {
+        this.makeHardlinks = makeHardlinks;
+        return this;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public RetrieveOptions setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public RetrieveOptions setIncremental(boolean incremental) {
+        this.incremental = incremental;
+        return this;
+    }
+
     public boolean isUseOrigin() {
         return useOrigin;
     }
@@ -182,12 +182,31 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
 
     private boolean useRemoteConfig = false;
 
+    private int downloadThreads = 1;
+
+    private int prefetchThreads = 1;
+
+    private int retrieveThreads = 1;
+
+    private boolean useResolveSnapshots = false;
+
+    private String defaultCacheMetadataStore;
+
     private File defaultUserDir;
 
     private File baseDir = new File(".").getAbsoluteFile();
 
     private List<URL> classpathURLs = new ArrayList<>();
 
+    private final List<URL> loadedURLs = new ArrayList<>();
+
+    // guards loadingCount rather than the settings, so that the end of the loading can be waited
+    // for while the settings are locked by the loading
+    private final Object loadingLock = new Object();
+
+    // the number of settings files being loaded
+    private int loadingCount = 0;
+
     private ClassLoader classloader;
 
     private Boolean debugConflictResolution;
@@ -389,11 +408,14 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
         }
 
         loadDefaultProperties();
+        startLoading();
         try {
             new XmlSettingsParser(this).parse(settingsFile.toURI().toURL());
         } catch (MalformedURLException e) {
             throw new IllegalArgumentException(
                     "given file cannot be transformed to url: " + settingsFile, e);
+        } finally {
+            endLoading();
         }
         setVariable("ivy.default.ivy.user.dir", getDefaultIvyUserDir().getAbsolutePath(), false);
         Message.verbose("settings loaded (" + (System.currentTimeMillis() - start) + "ms)");
@@ -412,7 +434,12 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
         }
 
         loadDefaultProperties();
-        new XmlSettingsParser(this).parse(settingsURL);
+        startLoading();
+        try {
+            new XmlSettingsParser(this).parse(settingsURL);
+        } finally {
+            endLoading();
+        }
         setVariable("ivy.default.ivy.user.dir", getDefaultIvyUserDir().getAbsolutePath(), false);
         Message.verbose("settings loaded (" + (System.currentTimeMillis() - start) + "ms)");
         dumpSettings();
@@ -439,6 +466,39 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
         dumpSettings();
     }
 
+    private void startLoading() {
+        synchronized (loadingLock) {
+            loadingCount++;
+        }
+    }
+
+    private void endLoading() {
+        synchronized (loadingLock) {
+            if (--loadingCount == 0) {
+                loadingLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits for the settings files being loaded, if any, to be completely loaded, included files
+     * and properties comprised. Returns immediately when no settings file is being loaded.
+     * <p>
+     * This doesn't lock the settings, so it can be called from another thread while a settings
+     * file is being loaded.
+     * </p>
+     *
+     * @throws InterruptedException
+     *             if the current thread is interrupted while waiting
+     */
+    public void awaitLoaded() throws InterruptedException {
+        synchronized (loadingLock) {
+            while (loadingCount > 0) {
+                loadingLock.wait();
+            }
+        }
+    }
+
     public synchronized void loadDefault() throws ParseException, IOException {
         load(getDefaultSettingsURL());
     }
@@ -546,6 +606,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
 
     public synchronized void loadProperties(URL url, boolean overwrite) throws IOException {
         loadProperties(url.openStream(), overwrite);
+        addLoadedURL(url);
     }
 
     public synchronized void loadProperties(File file) throws IOException {
@@ -554,6 +615,23 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
 
     public synchronized void loadProperties(File file, boolean overwrite) throws IOException {
         loadProperties(new FileInputStream(file), overwrite);
+        addLoadedURL(file.toURI().toURL());
+    }
+
+    synchronized void addLoadedURL(URL url) {
+        if (!loadedURLs.contains(url)) {
+            loadedURLs.add(url);
+        }
+    }
+
+    /**
+     * Returns the settings and properties files loaded into these settings, including the ones
+     * included by other settings files, so that a change to any of them can be detected.
+     *
+     * @return the URLs of the loaded files, in their loading order
+     */
+    public synchronized List<URL> getLoadedURLs() {
+        return new ArrayList<>(loadedURLs);
     }
 
     private void loadProperties(InputStream stream, boolean overwrite) throws IOException {
@@ -1357,6 +1435,92 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
         this.useRemoteConfig = useRemoteConfig;
     }
 
+    /**
+     * Returns the maximum number of artifact downloads which can be run concurrently during a
+     * resolve, when not overridden by the {@link org.apache.ivy.core.resolve.DownloadOptions}.
+     *
+     * @return the number of download threads, 1 meaning artifacts are downloaded sequentially
+     */
+    public synchronized int getDownloadThreads() {
+        return downloadThreads;
+    }
+
+    public synchronized void setDownloadThreads(int downloadThreads) {
+        if (downloadThreads < 1) {
+            throw new IllegalArgumentException("downloadThreads must be strictly positive: "
+                    + downloadThreads);
+        }
+        this.downloadThreads = downloadThreads;
+    }
+
+    /**
+     * Returns the maximum number of modules which metadata are resolved concurrently while
+     * traversing the dependency graph during a resolve, the resolve thread comprised, when not
+     * overridden by the {@link org.apache.ivy.core.resolve.ResolveOptions}.
+     *
+     * @return the number of prefetch threads, 1 meaning prefetching is disabled
+     */
+    public synchronized int getPrefetchThreads() {
+        return prefetchThreads;
+    }
+
+    public synchronized void setPrefetchThreads(int prefetchThreads) {
+        if (prefetchThreads < 1) {
+            throw new IllegalArgumentException("prefetchThreads must be strictly positive: "
+                    + prefetchThreads);
+        }
+        this.prefetchThreads = prefetchThreads;
+    }
+
+    /**
+     * Returns the maximum number of files which can be copied concurrently during a retrieve, when
+     * not overridden by the {@link org.apache.ivy.core.retrieve.RetrieveOptions}.
+     *
+     * @return the number of retrieve threads, 1 meaning files are copied sequentially
+     */
+    public synchronized int getRetrieveThreads() {
+        return retrieveThreads;
+    }
+
+    public synchronized void setRetrieveThreads(int retrieveThreads) {
+        if (retrieveThreads < 1) {
+            throw new IllegalArgumentException("retrieveThreads must be strictly positive: "
+                    + retrieveThreads);
+        }
+        this.retrieveThreads = retrieveThreads;
+    }
+
+    /**
+     * Indicates if a resolve can reuse the result of a previous resolve of the same module
+     * descriptor with the same settings, stored in the resolution cache, instead of walking the
+     * dependency graph again.
+     *
+     * @return <code>true</code> if resolve snapshots are used
+     */
+    public synchronized boolean isUseResolveSnapshots() {
+        return useResolveSnapshots;
+    }
+
+    public synchronized void setUseResolveSnapshots(boolean useResolveSnapshots) {
+        this.useResolveSnapshots = useResolveSnapshots;
+    }
+
+    /**
+     * Returns the name of the metadata store used by the repository caches which don't define
+     * their own one.
+     *
+     * @return the name of the default cache metadata store, <code>null</code> to use properties
+     *         files
+     * @see org.apache.ivy.core.cache.CacheMetadataStore
+     */
+    public synchronized String getDefaultCacheMetadataStore() {
+        return defaultCacheMetadataStore;
+    }
+
+    public synchronized void setDefaultCacheMetadataStore(String defaultCacheMetadataStore) {
+        this.defaultCacheMetadataStore = defaultCacheMetadataStore;
+    }
+
     public synchronized boolean logModulesInUse() {
         return getVariableAsBoolean("ivy.log.modules.in.use", true);
     }
@@ -152,6 +152,7 @@ public class XmlSettingsParser extends DefaultHandler {
     private void doParse(URL settingsUrl) throws IOException, ParseException {
         this.settings = settingsUrl;
         try (InputStream stream = URLHandlerRegistry.getDefault().openStream(settingsUrl)) {
+            ivy.addLoadedURL(settingsUrl);
             InputSource inSrc = new InputSource(stream);
             inSrc.setSystemId(settingsUrl.toExternalForm());
             SAXParserFactory.newInstance().newSAXParser().parse(settingsUrl.toExternalForm(), this);
@@ -308,6 +309,14 @@ public class XmlSettingsParser extends DefaultHandler {
         if (repositoryDir != null) {
             ivy.setDefaultRepositoryCacheBasedir(repositoryDir);
         }
+        String useResolveSnapshots = attributes.get("useResolveSnapshots");
+        if (useResolveSnapshots != null) {
+            ivy.setUseResolveSnapshots(Boolean.valueOf(useResolveSnapshots));
+        }
+        String metadataStore = attributes.get("metadataStore");
+        if (metadataStore != null) {
+            ivy.setDefaultCacheMetadataStore(metadataStore);
+        }
     }
 
     @SuppressWarnings("deprecation")
@@ -344,6 +353,18 @@ public class XmlSettingsParser extends DefaultHandler {
         if (useRemoteConfig != null) {
             ivy.setUseRemoteConfig(Boolean.valueOf(useRemoteConfig));
         }
+        String downloadThreads = attributes.get("downloadThreads");
+        if (downloadThreads != null) {
+            ivy.setDownloadThreads(Integer.parseInt(downloadThreads));
+        }
+        String prefetchThreads = attributes.get("prefetchThreads");
+        if (prefetchThreads != null) {
+            ivy.setPrefetchThreads(Integer.parseInt(prefetchThreads));
+        }
+        String retrieveThreads = attributes.get("retrieveThreads");
+        if (retrieveThreads != null) {
+            ivy.setRetrieveThreads(Integer.parseInt(retrieveThreads));
+        }
         String cacheIvyPattern = attributes.get("cacheIvyPattern");
         if (cacheIvyPattern != null) {
             Message.deprecated("'cacheIvyPattern' is deprecated, use 'caches[@ivyPattern]' instead"
@@ -17,9 +17,13 @@
  */
 package org.apache.ivy.core.sort;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
@@ -96,6 +100,7 @@ public class ModuleDescriptorSorter {
         for (DependencyDescriptor descriptor : descriptors) {
             ModuleInSort child = moduleDescriptors.getModuleDescriptorDependency(descriptor);
             if (child != null) {
+                current.addDependency(child);
                 sortModuleDescriptorsHelp(child, current);
             }
         }
@@ -104,4 +109,41 @@ public class ModuleDescriptorSorter {
         current.addToSortedListIfRequired(sorted);
     }
 
+    /**
+     * Returns the dependencies between the modules sorted by {@link #sortModuleDescriptors()},
+     * which must have been called before.
+     * <p>
+     * Each module descriptor, in the sort order, is mapped to the module descriptors of the
+     * collection it directly depends on and which come before it in the sort order. The
+     * dependencies closing a circular dependency are thus left out, and the modules can be
+     * processed each one as soon as the modules it is mapped to are done.
+     * </p>
+     *
+     * @return a map of the sorted module descriptors to the module descriptors they depend on
+     */
+    public Map<ModuleDescriptor, List<ModuleDescriptor>> getSortedDependencies() {
+        Map<ModuleDescriptor, Integer> positions = new HashMap<>();
+        for (ModuleDescriptor md : sorted) {
+            positions.put(md, positions.size());
+        }
+        Map<ModuleDescriptor, ModuleInSort> modules = new HashMap<>();
+        for (ModuleInSort m : moduleDescriptors) {
+            modules.put(m.getSortedModuleDescriptor(), m);
+        }
+
+        Map<ModuleDescriptor, List<ModuleDescriptor>> dependencies = new LinkedHashMap<>();
+        for (ModuleDescriptor md : sorted) {
+            int position = positions.get(md);
+            List<ModuleDescriptor> mdDependencies = new ArrayList<>();
+            for (ModuleInSort dependency : modules.get(md).getDependenciesInSort()) {
+                ModuleDescriptor dependencyMd = dependency.getSortedModuleDescriptor();
+                if (positions.get(dependencyMd) < position) {
+                    mdDependencies.add(dependencyMd);
+                }
+            }
+            dependencies.put(md, mdDependencies);
+        }
+        return dependencies;
+    }
+
 }
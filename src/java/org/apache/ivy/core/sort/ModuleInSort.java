@@ -59,6 +59,8 @@ class ModuleInSort {
 
     private ModuleInSort caller;
 
+    private final List<ModuleInSort> dependencies = new LinkedList<>();
+
     public ModuleInSort(ModuleDescriptor moduleToSort) {
         module = moduleToSort;
     }
@@ -167,6 +169,18 @@ class ModuleInSort {
         return module.getDependencies();
     }
 
+    /** Records a module of the collection to sort on which this module directly depends */
+    public void addDependency(ModuleInSort dependency) {
+        if (!dependencies.contains(dependency)) {
+            dependencies.add(dependency);
+        }
+    }
+
+    /** The modules of the collection to sort on which this module directly depends */
+    public List<ModuleInSort> getDependenciesInSort() {
+        return dependencies;
+    }
+
     /** Log a warning saying that a loop is detected */
     public static void logLoopWarning(List<ModuleDescriptor> loopElement) {
         Message.warn("circular dependency detected during sort: "
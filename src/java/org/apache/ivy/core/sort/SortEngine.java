@@ -115,6 +115,35 @@ public class SortEngine {
         return sorter.sortModuleDescriptors();
     }
 
+    /**
+     * Sorts the given ModuleDescriptors like
+     * {@link #sortModuleDescriptors(Collection, SortOptions)} and returns the dependencies between
+     * them.
+     *
+     * @param moduleDescriptors
+     *            a Collection of ModuleDescriptor to sort
+     * @param options
+     *            Options to use to sort the descriptors.
+     * @return a map of the sorted ModuleDescriptors, in the sort order, to the ModuleDescriptors
+     *         of the collection they directly depend on, which always come before them in the
+     *         sort order
+     * @throws CircularDependencyException
+     *             if a circular dependency exists and circular dependency strategy decide to throw
+     *             an exception
+     * @see ModuleDescriptorSorter#getSortedDependencies()
+     */
+    public Map<ModuleDescriptor, List<ModuleDescriptor>> getSortedDependencies(
+            Collection<ModuleDescriptor> moduleDescriptors, SortOptions options)
+            throws CircularDependencyException {
+        Checks.checkNotNull(options, "options");
+        ModuleDescriptorSorter sorter = new ModuleDescriptorSorter(moduleDescriptors,
+                getVersionMatcher(), options.getNonMatchingVersionReporter(),
+                options.isUseCircularDependencyStrategy() ? getCircularStrategy()
+                        : IgnoreCircularDependencyStrategy.getInstance());
+        sorter.sortModuleDescriptors();
+        return sorter.getSortedDependencies();
+    }
+
     protected CircularDependencyStrategy getCircularStrategy() {
         return settings.getCircularDependencyStrategy();
     }
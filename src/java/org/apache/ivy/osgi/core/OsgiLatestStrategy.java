@@ -18,7 +18,10 @@
 package org.apache.ivy.osgi.core;
 
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 
 import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
@@ -30,14 +33,15 @@ import org.apache.ivy.plugins.latest.ArtifactInfo;
 import org.apache.ivy.plugins.latest.ComparatorLatestStrategy;
 import org.apache.ivy.plugins.resolver.util.MDResolvedResource;
 import org.apache.ivy.plugins.version.VersionMatcher;
+import org.apache.ivy.util.BoundedCache;
 
 public class OsgiLatestStrategy extends ComparatorLatestStrategy {
 
     final class MridComparator implements Comparator<ModuleRevisionId> {
 
         public int compare(ModuleRevisionId o1, ModuleRevisionId o2) {
-            Version v1 = new Version(o1.getRevision());
-            Version v2 = new Version(o2.getRevision());
+            Version v1 = versions.get(o1.getRevision());
+            Version v2 = versions.get(o2.getRevision());
             try {
                 return v1.compareTo(v2);
             } catch (RuntimeException e) {
@@ -51,12 +55,32 @@ public class OsgiLatestStrategy extends ComparatorLatestStrategy {
 
     }
 
+    /**
+     * The revision of an ArtifactInfo, with what is needed to compare it.
+     */
+    private static final class Revision {
+        private final ArtifactInfo info;
+
+        private final ModuleRevisionId mrid;
+
+        private final boolean dynamic;
+
+        private Revision(ArtifactInfo info, VersionMatcher vmatcher) {
+            this.info = info;
+            this.mrid = ModuleRevisionId.newInstance("", "", info.getRevision());
+            this.dynamic = vmatcher.isDynamic(mrid);
+        }
+    }
+
     final class ArtifactInfoComparator implements Comparator<ArtifactInfo> {
 
         public int compare(ArtifactInfo o1, ArtifactInfo o2) {
-            String rev1 = o1.getRevision();
-            String rev2 = o2.getRevision();
+            VersionMatcher vmatcher = IvyContext.getContext().getSettings().getVersionMatcher();
+            return compareRevisions(new Revision(o1, vmatcher), new Revision(o2, vmatcher),
+                vmatcher);
+        }
 
+        private int compareRevisions(Revision r1, Revision r2, VersionMatcher vmatcher) {
             /*
              * The revisions can still be not resolved, so we use the current version matcher to
              * know if one revision is dynamic, and in this case if it should be considered greater
@@ -65,19 +89,17 @@ public class OsgiLatestStrategy extends ComparatorLatestStrategy {
              * consider the dynamic one to be greater, because most of the time it will then be
              * actually resolved and a real comparison will occur.
              */
-            VersionMatcher vmatcher = IvyContext.getContext().getSettings().getVersionMatcher();
-            ModuleRevisionId mrid1 = ModuleRevisionId.newInstance("", "", rev1);
-            ModuleRevisionId mrid2 = ModuleRevisionId.newInstance("", "", rev2);
-
-            if (vmatcher.isDynamic(mrid1)) {
-                int c = vmatcher.compare(mrid1, mrid2, mridComparator);
+            if (r1.dynamic) {
+                int c = vmatcher.compare(r1.mrid, r2.mrid, mridComparator);
                 return c >= 0 ? 1 : -1;
-            } else if (vmatcher.isDynamic(mrid2)) {
-                int c = vmatcher.compare(mrid2, mrid1, mridComparator);
+            } else if (r2.dynamic) {
+                int c = vmatcher.compare(r2.mrid, r1.mrid, mridComparator);
                 return c >= 0 ? -1 : 1;
             }
 
-            int res = mridComparator.compare(mrid1, mrid2);
+            ArtifactInfo o1 = r1.info;
+            ArtifactInfo o2 = r2.info;
+            int res = mridComparator.compare(r1.mrid, r2.mrid);
 
             if (res == 0) {
                 // if same requirements, maybe we can make a difference on the implementation ?
@@ -128,13 +150,53 @@ public class OsgiLatestStrategy extends ComparatorLatestStrategy {
         }
     }
 
+    /**
+     * Maximum number of revisions whose parsed version is kept.
+     */
+    private static final int MAX_CACHED_VERSIONS = 10000;
+
+    // the versions are parsed on their first comparison, and then only once per revision
+    private final BoundedCache<String, Version> versions = new BoundedCache<String, Version>(
+            MAX_CACHED_VERSIONS) {
+        protected Version compute(String revision) {
+            return new Version(revision);
+        }
+    };
+
     private final Comparator<ModuleRevisionId> mridComparator = new MridComparator();
 
-    private final Comparator<ArtifactInfo> artifactInfoComparator = new ArtifactInfoComparator();
+    private final ArtifactInfoComparator artifactInfoComparator = new ArtifactInfoComparator();
 
     public OsgiLatestStrategy() {
         setComparator(artifactInfoComparator);
         setName("latest-osgi");
     }
 
+    /**
+     * Sorts the given infos by revision, the revisions being checked for being dynamic once each
+     * rather than at each comparison.
+     */
+    @Override
+    public List<ArtifactInfo> sort(ArtifactInfo[] infos) {
+        if (getComparator() != artifactInfoComparator) {
+            return super.sort(infos);
+        }
+        final VersionMatcher vmatcher = IvyContext.getContext().getSettings()
+                .getVersionMatcher();
+        List<Revision> revisions = new ArrayList<>(infos.length);
+        for (ArtifactInfo info : infos) {
+            revisions.add(new Revision(info, vmatcher));
+        }
+        Collections.sort(revisions, new Comparator<Revision>() {
+            public int compare(Revision r1, Revision r2) {
+                return artifactInfoComparator.compareRevisions(r1, r2, vmatcher);
+            }
+        });
+        List<ArtifactInfo> ret = new ArrayList<>(revisions.size());
+        for (Revision revision : revisions) {
+            ret.add(revision.info);
+        }
+        return ret;
+    }
+
 }
@@ -30,7 +30,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.IvyPatternHelper;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.Configuration;
@@ -44,6 +46,7 @@ import org.apache.ivy.core.report.MetadataArtifactDownloadReport;
 import org.apache.ivy.core.resolve.IvyNode;
 import org.apache.ivy.core.resolve.ResolveData;
 import org.apache.ivy.core.resolve.ResolvedModuleRevision;
+import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.osgi.core.BundleInfo;
 import org.apache.ivy.osgi.core.BundleInfoAdapter;
 import org.apache.ivy.osgi.util.Version;
@@ -51,6 +54,7 @@ import org.apache.ivy.plugins.repository.Resource;
 import org.apache.ivy.plugins.repository.url.URLRepository;
 import org.apache.ivy.plugins.repository.url.URLResource;
 import org.apache.ivy.plugins.resolver.BasicResolver;
+import org.apache.ivy.plugins.resolver.ResolverSettings;
 import org.apache.ivy.plugins.resolver.util.MDResolvedResource;
 import org.apache.ivy.plugins.resolver.util.ResolvedResource;
 import org.apache.ivy.plugins.resolver.util.ResourceMDParser;
@@ -65,7 +69,15 @@ public abstract class AbstractOSGiResolver extends BasicResolver {
     protected static final RepoDescriptor FAILING_REPO_DESCRIPTOR = new EditableRepoDescriptor(
             null, null);
 
-    private RepoDescriptor repoDescriptor = null;
+    private volatile RepoDescriptor repoDescriptor = null;
+
+    private final Object initLock = new Object();
+
+    private boolean backgroundInit = false;
+
+    // set without locking, as it is set by validate, which holds the lock of the settings, while
+    // init is called with the initLock held and may call synchronized methods of the settings
+    private final AtomicBoolean backgroundInitStarted = new AtomicBoolean();
 
     private URLRepository repository = new URLRepository();
 
@@ -105,17 +117,81 @@ public abstract class AbstractOSGiResolver extends BasicResolver {
         return repository;
     }
 
+    public boolean isBackgroundInit() {
+        return backgroundInit;
+    }
+
+    /**
+     * Sets whether the repo descriptor should be loaded in the background as soon as the settings
+     * are loaded, rather than when the resolver is first used.
+     *
+     * @param backgroundInit
+     *            <code>true</code> to load the repo descriptor in the background
+     */
+    public void setBackgroundInit(boolean backgroundInit) {
+        this.backgroundInit = backgroundInit;
+    }
+
+    @Override
+    public void validate() {
+        super.validate();
+        if (backgroundInit) {
+            startBackgroundInit();
+        }
+    }
+
+    private void startBackgroundInit() {
+        if (repoDescriptor != null || !backgroundInitStarted.compareAndSet(false, true)) {
+            return;
+        }
+        final IvyContext context = new IvyContext(IvyContext.getContext());
+        final ResolverSettings settings = getSettings();
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                IvyContext.pushContext(context);
+                try {
+                    if (settings instanceof IvySettings) {
+                        // validate is also called at the end of each included settings file: wait
+                        // for the settings to be completely loaded, the caches to use included
+                        ((IvySettings) settings).awaitLoaded();
+                    }
+                    Message.debug("\tloading " + getName() + " in the background");
+                    ensureInit();
+                } catch (InterruptedException e) {
+                    // the repo descriptor will be loaded when the resolver is used
+                } catch (RuntimeException e) {
+                    // reported again when the resolver is used
+                    Message.warn("\t" + getName() + ": " + e.getMessage());
+                } finally {
+                    IvyContext.popContext();
+                }
+            }
+        }, "ivy-init-" + getName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Loads the repo descriptor if it is not loaded yet, waiting for its loading when it is
+     * already being loaded by another thread.
+     */
     protected void ensureInit() {
-        if (repoDescriptor == null) {
-            try {
-                init();
-            } catch (Exception e) {
-                repoDescriptor = FAILING_REPO_DESCRIPTOR;
-                throw new RuntimeException("Error while loading the OSGi repo descriptor"
-                        + e.getMessage() + " (" + e.getClass().getName() + ")", e);
+        if (repoDescriptor != null && repoDescriptor != FAILING_REPO_DESCRIPTOR) {
+            return;
+        }
+        synchronized (initLock) {
+            if (repoDescriptor == null) {
+                try {
+                    init();
+                } catch (Exception e) {
+                    repoDescriptor = FAILING_REPO_DESCRIPTOR;
+                    throw new RuntimeException("Error while loading the OSGi repo descriptor"
+                            + e.getMessage() + " (" + e.getClass().getName() + ")", e);
+                }
+            } else if (repoDescriptor == FAILING_REPO_DESCRIPTOR) {
+                throw new RuntimeException("The repository " + getName()
+                        + " already failed to load");
             }
-        } else if (repoDescriptor == FAILING_REPO_DESCRIPTOR) {
-            throw new RuntimeException("The repository " + getName() + " already failed to load");
         }
     }
 
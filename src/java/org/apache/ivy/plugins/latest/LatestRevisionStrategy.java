@@ -17,40 +17,75 @@
  */
 package org.apache.ivy.plugins.latest;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
 import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.plugins.version.VersionMatcher;
+import org.apache.ivy.util.BoundedCache;
 
 public class LatestRevisionStrategy extends ComparatorLatestStrategy {
     /**
-     * Compares two ModuleRevisionId by their revision. Revisions are compared using an algorithm
-     * inspired by PHP version_compare one.
+     * Maximum number of revisions whose key is kept.
      */
-    final class MridComparator implements Comparator<ModuleRevisionId> {
-        public int compare(ModuleRevisionId o1, ModuleRevisionId o2) {
-            String rev1 = o1.getRevision();
-            String rev2 = o2.getRevision();
+    private static final int MAX_CACHED_KEYS = 10000;
+
+    /**
+     * A revision split into the parts compared one by one, with the number or the special meaning
+     * of each part, so that a revision is only parsed once however many times it is compared.
+     */
+    private static final class RevisionKey {
+        private final String[] parts;
+
+        private final BigInteger[] numbers;
 
-            rev1 = rev1.replaceAll("([a-zA-Z])(\\d)", "$1.$2");
-            rev1 = rev1.replaceAll("(\\d)([a-zA-Z])", "$1.$2");
-            rev2 = rev2.replaceAll("([a-zA-Z])(\\d)", "$1.$2");
-            rev2 = rev2.replaceAll("(\\d)([a-zA-Z])", "$1.$2");
+        private final Integer[] specialMeanings;
 
-            String[] parts1 = rev1.split("[\\._\\-\\+]");
-            String[] parts2 = rev2.split("[\\._\\-\\+]");
+        private RevisionKey(String revision, Map<String, Integer> specialMeanings) {
+            revision = revision.replaceAll("([a-zA-Z])(\\d)", "$1.$2");
+            revision = revision.replaceAll("(\\d)([a-zA-Z])", "$1.$2");
+            parts = revision.split("[\\._\\-\\+]");
+            numbers = new BigInteger[parts.length];
+            this.specialMeanings = new Integer[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                if (isNumber(parts[i])) {
+                    numbers[i] = new BigInteger(parts[i]);
+                } else {
+                    this.specialMeanings[i] = specialMeanings.get(parts[i].toLowerCase(Locale.US));
+                }
+            }
+        }
 
+        private static boolean isNumber(String str) {
+            if (str.isEmpty()) {
+                return false;
+            }
+            for (int i = 0; i < str.length(); i++) {
+                char c = str.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int compareTo(RevisionKey other) {
+            String[] parts1 = parts;
+            String[] parts2 = other.parts;
             int i = 0;
             for (; i < parts1.length && i < parts2.length; i++) {
                 if (parts1[i].equals(parts2[i])) {
                     continue;
                 }
-                boolean is1Number = isNumber(parts1[i]);
-                boolean is2Number = isNumber(parts2[i]);
+                boolean is1Number = numbers[i] != null;
+                boolean is2Number = other.numbers[i] != null;
                 if (is1Number && !is2Number) {
                     return 1;
                 }
@@ -58,34 +93,53 @@ public class LatestRevisionStrategy extends ComparatorLatestStrategy {
                     return -1;
                 }
                 if (is1Number && is2Number) {
-                    return Long.valueOf(parts1[i]).compareTo(Long.valueOf(parts2[i]));
+                    return numbers[i].compareTo(other.numbers[i]);
                 }
                 // both are strings, we compare them taking into account special meaning
-                Map<String, Integer> specialMeanings = getSpecialMeanings();
-                Integer sm1 = specialMeanings.get(parts1[i].toLowerCase(Locale.US));
-                Integer sm2 = specialMeanings.get(parts2[i].toLowerCase(Locale.US));
+                Integer sm1 = specialMeanings[i];
+                Integer sm2 = other.specialMeanings[i];
                 if (sm1 != null) {
-                    if (sm2 == null) {
-                        sm2 = new Integer(0);
-                    }
-                    return sm1.compareTo(sm2);
+                    return sm1.compareTo(sm2 == null ? 0 : sm2);
                 }
                 if (sm2 != null) {
-                    return new Integer(0).compareTo(sm2);
+                    return Integer.valueOf(0).compareTo(sm2);
                 }
                 return parts1[i].compareTo(parts2[i]);
             }
             if (i < parts1.length) {
-                return isNumber(parts1[i]) ? 1 : -1;
+                return numbers[i] != null ? 1 : -1;
             }
             if (i < parts2.length) {
-                return isNumber(parts2[i]) ? -1 : 1;
+                return other.numbers[i] != null ? -1 : 1;
             }
             return 0;
         }
+    }
 
-        private boolean isNumber(String str) {
-            return str.matches("\\d+");
+    /**
+     * Compares two ModuleRevisionId by their revision. Revisions are compared using an algorithm
+     * inspired by PHP version_compare one.
+     */
+    final class MridComparator implements Comparator<ModuleRevisionId> {
+        public int compare(ModuleRevisionId o1, ModuleRevisionId o2) {
+            return keys.get(o1.getRevision()).compareTo(keys.get(o2.getRevision()));
+        }
+    }
+
+    /**
+     * The revision of an ArtifactInfo, with what is needed to compare it.
+     */
+    private static final class Revision {
+        private final ArtifactInfo info;
+
+        private final ModuleRevisionId mrid;
+
+        private final boolean dynamic;
+
+        private Revision(ArtifactInfo info, VersionMatcher vmatcher) {
+            this.info = info;
+            this.mrid = ModuleRevisionId.newInstance("", "", info.getRevision());
+            this.dynamic = vmatcher.isDynamic(mrid);
         }
     }
 
@@ -96,31 +150,29 @@ public class LatestRevisionStrategy extends ComparatorLatestStrategy {
      */
     final class ArtifactInfoComparator implements Comparator<ArtifactInfo> {
         public int compare(ArtifactInfo o1, ArtifactInfo o2) {
-            String rev1 = o1.getRevision();
-            String rev2 = o2.getRevision();
-
-            /*
-             * The revisions can still be not resolved, so we use the current version matcher to
-             * know if one revision is dynamic, and in this case if it should be considered greater
-             * or lower than the other one. Note that if the version matcher compare method returns
-             * 0, it's because it's not possible to know which revision is greater. In this case we
-             * consider the dynamic one to be greater, because most of the time it will then be
-             * actually resolved and a real comparison will occur.
-             */
             VersionMatcher vmatcher = IvyContext.getContext().getSettings().getVersionMatcher();
-            ModuleRevisionId mrid1 = ModuleRevisionId.newInstance("", "", rev1);
-            ModuleRevisionId mrid2 = ModuleRevisionId.newInstance("", "", rev2);
-
-            if (vmatcher.isDynamic(mrid1)) {
-                int c = vmatcher.compare(mrid1, mrid2, mridComparator);
-                return c >= 0 ? 1 : -1;
-            } else if (vmatcher.isDynamic(mrid2)) {
-                int c = vmatcher.compare(mrid2, mrid1, mridComparator);
-                return c >= 0 ? -1 : 1;
-            }
+            return compareRevisions(new Revision(o1, vmatcher), new Revision(o2, vmatcher),
+                vmatcher);
+        }
+    }
 
-            return mridComparator.compare(mrid1, mrid2);
+    /*
+     * The revisions can still be not resolved, so we use the current version matcher to know if
+     * one revision is dynamic, and in this case if it should be considered greater or lower than
+     * the other one. Note that if the version matcher compare method returns 0, it's because it's
+     * not possible to know which revision is greater. In this case we consider the dynamic one to
+     * be greater, because most of the time it will then be actually resolved and a real comparison
+     * will occur.
+     */
+    private int compareRevisions(Revision r1, Revision r2, VersionMatcher vmatcher) {
+        if (r1.dynamic) {
+            int c = vmatcher.compare(r1.mrid, r2.mrid, mridComparator);
+            return c >= 0 ? 1 : -1;
+        } else if (r2.dynamic) {
+            int c = vmatcher.compare(r2.mrid, r1.mrid, mridComparator);
+            return c >= 0 ? -1 : 1;
         }
+        return mridComparator.compare(r1.mrid, r2.mrid);
     }
 
     public static class SpecialMeaning {
@@ -162,6 +214,13 @@ public class LatestRevisionStrategy extends ComparatorLatestStrategy {
         DEFAULT_SPECIAL_MEANINGS.put("final", 2);
     }
 
+    private final BoundedCache<String, RevisionKey> keys = new BoundedCache<String, RevisionKey>(
+            MAX_CACHED_KEYS) {
+        protected RevisionKey compute(String revision) {
+            return new RevisionKey(revision, getSpecialMeanings());
+        }
+    };
+
     private final Comparator<ModuleRevisionId> mridComparator = new MridComparator();
 
     private final Comparator<ArtifactInfo> artifactInfoComparator = new ArtifactInfoComparator();
@@ -175,9 +234,38 @@ public class LatestRevisionStrategy extends ComparatorLatestStrategy {
         setName("latest-revision");
     }
 
+    /**
+     * Sorts the given infos by revision, the revisions being parsed and checked for being dynamic
+     * once each rather than at each comparison.
+     */
+    @Override
+    public List<ArtifactInfo> sort(ArtifactInfo[] infos) {
+        if (getComparator() != artifactInfoComparator) {
+            return super.sort(infos);
+        }
+        final VersionMatcher vmatcher = IvyContext.getContext().getSettings()
+                .getVersionMatcher();
+        List<Revision> revisions = new ArrayList<>(infos.length);
+        for (ArtifactInfo info : infos) {
+            revisions.add(new Revision(info, vmatcher));
+        }
+        Collections.sort(revisions, new Comparator<Revision>() {
+            public int compare(Revision r1, Revision r2) {
+                return compareRevisions(r1, r2, vmatcher);
+            }
+        });
+        List<ArtifactInfo> ret = new ArrayList<>(revisions.size());
+        for (Revision revision : revisions) {
+            ret.add(revision.info);
+        }
+        return ret;
+    }
+
     public void addConfiguredSpecialMeaning(SpecialMeaning meaning) {
         meaning.validate();
         getSpecialMeanings().put(meaning.getName().toLowerCase(Locale.US), meaning.getValue());
+        // the special meanings are part of the keys
+        keys.clear();
     }
 
     public synchronized Map<String, Integer> getSpecialMeanings() {
@@ -196,5 +284,6 @@ public class LatestRevisionStrategy extends ComparatorLatestStrategy {
 
     public void setUsedefaultspecialmeanings(boolean usedefaultspecialmeanings) {
         this.usedefaultspecialmeanings = usedefaultspecialmeanings;
+        keys.clear();
     }
 }
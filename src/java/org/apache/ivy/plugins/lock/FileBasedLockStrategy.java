@@ -23,6 +23,9 @@ import java.io.RandomAccessFile;
 import java.nio.channels.FileLock;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.ivy.util.Message;
 
@@ -39,10 +42,20 @@ public abstract class FileBasedLockStrategy extends AbstractLockStrategy {
     private long timeout = DEFAULT_TIMEOUT;
 
     /**
-     * Lock counter list must be static: locks are implicitly shared to the entire process, so the
-     * list too much be.
+     * Lock table must be static: locks are implicitly shared to the entire process, so the table
+     * too must be. Threads of this process wait for each other on the in memory lock of a file,
+     * only the thread holding it tries to acquire the file lock, which is shared with other
+     * processes.
      */
-    private static final ConcurrentMap<File, ConcurrentMap<Thread, Integer>> currentLockHolders = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<File, FileLockHolder> currentLockHolders = new ConcurrentHashMap<>();
+
+    private static final AtomicLong lockCount = new AtomicLong();
+
+    private static final AtomicLong contendedLockCount = new AtomicLong();
+
+    private static final AtomicLong lockWaitTime = new AtomicLong();
+
+    private static final AtomicLong fileLockWaitTime = new AtomicLong();
 
     protected FileBasedLockStrategy() {
         this(new CreateFileLocker(false), false);
@@ -58,65 +71,75 @@ public abstract class FileBasedLockStrategy extends AbstractLockStrategy {
     }
 
     protected boolean acquireLock(File file) throws InterruptedException {
-        Thread currentThread = Thread.currentThread();
         if (isDebugLocking()) {
             debugLocking("acquiring lock on " + file);
         }
         long start = System.currentTimeMillis();
-        do {
-            synchronized (currentLockHolders) {
+        FileLockHolder holder = reference(file);
+        boolean acquired = false;
+        try {
+            if (!holder.tryLock()) {
+                /* Another thread in this process holds the lock; we need to wait */
                 if (isDebugLocking()) {
-                    debugLocking("entered synchronized area (locking)");
+                    debugLocking("waiting for another thread to release the lock: "
+                            + getCurrentLockHolderNames(file));
                 }
-                int lockCount = hasLock(file, currentThread);
+                contendedLockCount.incrementAndGet();
+                boolean locked = holder.tryLock(timeout, TimeUnit.MILLISECONDS);
+                lockWaitTime.addAndGet(System.currentTimeMillis() - start);
+                if (!locked) {
+                    return false;
+                }
+            }
+            if (holder.getHoldCount() > 1) {
+                acquired = true;
                 if (isDebugLocking()) {
-                    debugLocking("current status for " + file + " is " + lockCount
-                            + " held locks: " + getCurrentLockHolderNames(file));
+                    debugLocking("reentrant lock acquired on " + file + " in "
+                            + (System.currentTimeMillis() - start) + "ms" + " - hold locks = "
+                            + holder.getHoldCount());
                 }
-                if (lockCount < 0) {
-                    /* Another thread in this process holds the lock; we need to wait */
-                    if (isDebugLocking()) {
-                        debugLocking("waiting for another thread to release the lock: "
-                                + getCurrentLockHolderNames(file));
-                    }
-                } else if (lockCount > 0) {
-                    int holdLocks = incrementLock(file, currentThread);
+                return true;
+            }
+            /* No other thread of this process holds the lock, but another process may */
+            long fileLockStart = System.currentTimeMillis();
+            do {
+                if (locker.tryLock(file)) {
+                    acquired = true;
+                    lockCount.incrementAndGet();
+                    fileLockWaitTime.addAndGet(System.currentTimeMillis() - fileLockStart);
                     if (isDebugLocking()) {
-                        debugLocking("reentrant lock acquired on " + file + " in "
-                                + (System.currentTimeMillis() - start) + "ms" + " - hold locks = "
-                                + holdLocks);
+                        debugLocking("lock acquired on " + file + " in "
+                                + (System.currentTimeMillis() - start) + "ms");
                     }
                     return true;
-                } else {
-                    /* No prior lock on this file is held at all */
-                    if (locker.tryLock(file)) {
-                        if (isDebugLocking()) {
-                            debugLocking("lock acquired on " + file + " in "
-                                    + (System.currentTimeMillis() - start) + "ms");
-                        }
-                        incrementLock(file, currentThread);
-                        return true;
-                    }
                 }
+                if (isDebugLocking()) {
+                    debugLocking("failed to acquire lock; sleeping for retry...");
+                }
+                Thread.sleep(SLEEP_TIME);
+            } while (System.currentTimeMillis() - start < timeout);
+            fileLockWaitTime.addAndGet(System.currentTimeMillis() - fileLockStart);
+            return false;
+        } finally {
+            if (!acquired) {
+                if (holder.isHeldByCurrentThread()) {
+                    holder.unlock();
+                }
+                dereference(file, holder);
             }
-            if (isDebugLocking()) {
-                debugLocking("failed to acquire lock; sleeping for retry...");
-            }
-            Thread.sleep(SLEEP_TIME);
-        } while (System.currentTimeMillis() - start < timeout);
-        return false;
+        }
     }
 
     protected void releaseLock(File file) {
-        Thread currentThread = Thread.currentThread();
         if (isDebugLocking()) {
             debugLocking("releasing lock on " + file);
         }
-        synchronized (currentLockHolders) {
-            if (isDebugLocking()) {
-                debugLocking("entered synchronized area (unlocking)");
-            }
-            int holdLocks = decrementLock(file, currentThread);
+        FileLockHolder holder = currentLockHolders.get(file);
+        if (holder == null || !holder.isHeldByCurrentThread()) {
+            throw new RuntimeException("Calling releaseLock on a thread which holds no locks");
+        }
+        int holdLocks = holder.getHoldCount() - 1;
+        try {
             if (holdLocks == 0) {
                 locker.unlock(file);
                 if (isDebugLocking()) {
@@ -128,6 +151,9 @@ public abstract class FileBasedLockStrategy extends AbstractLockStrategy {
                             + holdLocks);
                 }
             }
+        } finally {
+            holder.unlock();
+            dereference(file, holder);
         }
     }
 
@@ -136,110 +162,104 @@ public abstract class FileBasedLockStrategy extends AbstractLockStrategy {
     }
 
     /**
-     * Determine the state of the lockfile.
-     *
-     * Must be called from within a synchronized block.
-     *
-     * Three possibilities exist: - The lock is held by the current thread (>0) - The lock is held
-     * by one or more different threads (-1) - The lock is not held at all (0).
-     *
-     * @param file
-     *            file to lock
-     * @param forThread
-     *            thread for which lock status is being queried
+     * Returns the in memory lock of the given file, registering the current thread as one of its
+     * users so that it stays in the lock table until released by
+     * {@link #dereference(File, FileLockHolder)}.
      */
-    private int hasLock(File file, Thread forThread) {
-        ConcurrentMap<Thread, Integer> locksPerThread = currentLockHolders.get(file);
-        if (locksPerThread == null) {
-            return 0;
-        }
-        if (locksPerThread.isEmpty()) {
-            return 0;
+    private static FileLockHolder reference(File file) {
+        while (true) {
+            FileLockHolder holder = currentLockHolders.get(file);
+            if (holder == null) {
+                FileLockHolder newHolder = new FileLockHolder();
+                holder = currentLockHolders.putIfAbsent(file, newHolder);
+                if (holder == null) {
+                    holder = newHolder;
+                }
+            }
+            synchronized (holder) {
+                if (holder.users > 0 || currentLockHolders.get(file) == holder) {
+                    holder.users++;
+                    return holder;
+                }
+            }
+            // the holder has just been removed from the table by its last user: try again
         }
-        Integer counterObj = locksPerThread.get(forThread);
-        int counter = (counterObj == null) ? 0 : counterObj;
-        if (counter > 0) {
-            return counter;
-        } else {
-            return -1;
+    }
+
+    private static void dereference(File file, FileLockHolder holder) {
+        synchronized (holder) {
+            holder.users--;
+            if (holder.users == 0) {
+                currentLockHolders.remove(file, holder);
+            }
         }
     }
 
     /**
-     * Record that this thread holds the lock.
-     *
-     * Asserts that the lock has been previously grabbed by this thread. Must be called from a
-     * synchronized block in which the lock was grabbed.
+     * Return a string naming the threads which currently hold this lock.
      *
-     * @param file
-     *            file which has been locked
-     * @param forThread
-     *            thread for which locking occurred
-     * @return number of times this thread has grabbed the lock
+     * @param file File
+     * @return String
      */
-    private int incrementLock(File file, Thread forThread) {
-        ConcurrentMap<Thread, Integer> locksPerThread = currentLockHolders.get(file);
-        if (locksPerThread == null) {
-            locksPerThread = new ConcurrentHashMap<>();
-            currentLockHolders.put(file, locksPerThread);
-        }
-        Integer c = locksPerThread.get(forThread);
-        int holdLocks = (c == null) ? 1 : c + 1;
-        locksPerThread.put(forThread, holdLocks);
-        return holdLocks;
+    protected String getCurrentLockHolderNames(File file) {
+        FileLockHolder holder = currentLockHolders.get(file);
+        Thread owner = holder == null ? null : holder.getOwner();
+        return owner == null ? "(NULL)" : owner.toString();
     }
 
     /**
-     * Decrease depth of this thread's lock.
+     * Returns the number of locks acquired since the start of the JVM, reentrant acquisitions
+     * excluded.
      *
-     * Must be called within a synchronized block.
+     * @return the number of acquired locks
+     */
+    public static long getLockCount() {
+        return lockCount.get();
+    }
+
+    /**
+     * Returns the number of lock acquisitions which had to wait for another thread of this JVM.
      *
-     * If this returns 0, the caller is responsible for releasing the lock within that same block.
+     * @return the number of contended lock acquisitions
+     */
+    public static long getContendedLockCount() {
+        return contendedLockCount.get();
+    }
+
+    /**
+     * Returns the total time spent by threads waiting for another thread of this JVM to release a
+     * lock.
      *
-     * @param file
-     *            file for which lock depth is being decreased
-     * @param forThread
-     *            thread for which lock depth is being decreased
-     * @return remaining depth of this lock
+     * @return the total wait time in milliseconds
      */
-    private int decrementLock(File file, Thread forThread) {
-        ConcurrentMap<Thread, Integer> locksPerThread = currentLockHolders.get(file);
-        if (locksPerThread == null) {
-            throw new RuntimeException("Calling decrementLock on a thread which holds no locks");
-        }
-        Integer c = locksPerThread.get(forThread);
-        int oldHeldLocks = (c == null) ? 0 : c;
-        if (oldHeldLocks <= 0) {
-            throw new RuntimeException("Calling decrementLock on a thread which holds no locks");
-        }
-        int newHeldLocks = oldHeldLocks - 1;
-        if (newHeldLocks > 0) {
-            locksPerThread.put(forThread, newHeldLocks);
-        } else {
-            locksPerThread.remove(forThread);
-        }
-        return newHeldLocks;
+    public static long getLockWaitTime() {
+        return lockWaitTime.get();
     }
 
     /**
-     * Return a string naming the threads which currently hold this lock.
+     * Returns the total time spent waiting for the file locks, held by other processes, once the
+     * lock was not held by any other thread of this JVM.
      *
-     * @param file File
-     * @return String
+     * @return the total wait time in milliseconds
      */
-    protected String getCurrentLockHolderNames(File file) {
-        StringBuilder sb = new StringBuilder();
-        ConcurrentMap<Thread, Integer> m = currentLockHolders.get(file);
-        if (m == null) {
-            return "(NULL)";
-        }
-        for (Thread t : m.keySet()) {
-            if (sb.length() > 0) {
-                sb.append(", ");
-            }
-            sb.append(t.toString());
+    public static long getFileLockWaitTime() {
+        return fileLockWaitTime.get();
+    }
+
+    /**
+     * The in memory lock of a file, counting the threads using it.
+     */
+    @SuppressWarnings("serial")
+    private static final class FileLockHolder extends ReentrantLock {
+        /**
+         * Number of threads holding or waiting for this lock, guarded by this holder.
+         */
+        private int users;
+
+        @Override
+        protected Thread getOwner() {
+            return super.getOwner();
         }
-        return sb.toString();
     }
 
     public interface FileLocker {
@@ -18,12 +18,25 @@
 
 package org.apache.ivy.plugins.matcher;
 
+import org.apache.ivy.util.BoundedCache;
+
 /**
- * An abstract implementation of the pattern matcher providing base template methods
+ * An abstract implementation of the pattern matcher providing base template methods.
+ * <p>
+ * The matchers are cached by expression, so that the same expressions used over and over during a
+ * resolve, in exclude rules for instance, are compiled once.
+ * </p>
  */
 public abstract class AbstractPatternMatcher implements PatternMatcher {
+    /**
+     * The default maximum number of matchers cached by a pattern matcher.
+     */
+    public static final int DEFAULT_MAX_CACHED_MATCHERS = 1000;
+
     private final String name;
 
+    private final BoundedCache<String, Matcher> matchers;
+
     /**
      * Create a new instance of a pattern matcher
      *
@@ -31,7 +44,30 @@ public abstract class AbstractPatternMatcher implements PatternMatcher {
      *            the name of the pattern matcher. Never null.
      */
     public AbstractPatternMatcher(/* @NotNull */String name) {
+        this(name, DEFAULT_MAX_CACHED_MATCHERS);
+    }
+
+    /**
+     * Create a new instance of a pattern matcher
+     *
+     * @param name
+     *            the name of the pattern matcher. Never null.
+     * @param maxCachedMatchers
+     *            the maximum number of matchers to cache, 0 to create a new matcher each time one
+     *            is asked for
+     */
+    protected AbstractPatternMatcher(/* @NotNull */String name, int maxCachedMatchers) {
         this.name = name;
+        if (maxCachedMatchers > 0) {
+            matchers = new BoundedCache<String, Matcher>(maxCachedMatchers) {
+                @Override
+                protected Matcher compute(String expression) {
+                    return newMatcher(expression);
+                }
+            };
+        } else {
+            matchers = null;
+        }
     }
 
     public/* @NotNull */Matcher getMatcher(/* @NotNull */String expression) {
@@ -41,7 +77,16 @@ public abstract class AbstractPatternMatcher implements PatternMatcher {
         if (ANY_EXPRESSION.equals(expression)) {
             return AnyMatcher.INSTANCE;
         }
-        return newMatcher(expression);
+        return matchers == null ? newMatcher(expression) : matchers.get(expression);
+    }
+
+    /**
+     * Returns the cache of the matchers of this pattern matcher, giving its statistics.
+     *
+     * @return the cache of the matchers, <code>null</code> if the matchers are not cached
+     */
+    public BoundedCache<String, Matcher> getMatcherCache() {
+        return matchers;
     }
 
     public/* @NotNull */String getName() {
@@ -49,7 +94,9 @@ public abstract class AbstractPatternMatcher implements PatternMatcher {
     }
 
     /**
-     * Returns an instance of the implementation specific matcher.
+     * Returns an instance of the implementation specific matcher. Unless the matchers are not
+     * cached, the returned matcher is shared by all the callers asking for the same expression, so
+     * it must be usable by several threads at the same time.
      *
      * @param expression
      *            the string to be matched.
@@ -43,9 +43,9 @@ public/* @Immutable */final class GlobPatternMatcher extends AbstractPatternMatc
     public static final GlobPatternMatcher INSTANCE = new GlobPatternMatcher();
 
     /*
-     * NOTE: GlobCompiler does ~100K compilation/s - If necessary look into using ThreadLocal for
-     * GlobCompiler/Perl5Matcher to cut on useless object creation - If expression are reused over
-     * and over a LRU cache could make sense
+     * NOTE: GlobCompiler does ~100K compilation/s - the compiled matchers are cached by
+     * AbstractPatternMatcher, since the same expressions are reused over and over. If necessary
+     * look into using ThreadLocal for Perl5Matcher to cut on useless object creation
      */
 
     public GlobPatternMatcher() {
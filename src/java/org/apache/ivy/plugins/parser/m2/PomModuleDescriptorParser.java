@@ -448,6 +448,13 @@ public final class PomModuleDescriptorParser implements ModuleDescriptorParser {
                 ResolveOptions options = new ResolveOptions();
                 options.setDownload(false);
                 data = new ResolveData(engine, options);
+            } else {
+                // the parents and imported boms are usually shared by many modules
+                ResolvedModuleRevision rmr = data.getReferencedModule(parentModRevID);
+                if (rmr != null) {
+                    Message.debug("\t" + parentModRevID + " already loaded during this resolve");
+                    return rmr;
+                }
             }
 
             DependencyResolver resolver = ivySettings.getResolver(parentModRevID);
@@ -456,7 +463,11 @@ public final class PomModuleDescriptorParser implements ModuleDescriptorParser {
                 return null;
             }
             dd = toSystem(dd, ivySettings.getContextNamespace());
-            return resolver.getDependency(dd, data);
+            ResolvedModuleRevision rmr = resolver.getDependency(dd, data);
+            if (rmr != null) {
+                data.addReferencedModule(parentModRevID, rmr);
+            }
+            return rmr;
         } finally {
             if (!isParentPom) {
                 // switch back to the previous state of the parent tracking
@@ -24,12 +24,6 @@ import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.plugins.repository.Resource;
 import org.apache.ivy.util.XMLHelper;
 import org.apache.ivy.util.url.URLHandlerRegistry;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.EntityResolver;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
@@ -50,8 +44,20 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 /**
- * Provides the method to read some data out of the DOM tree of a pom file.
+ * Provides the method to read some data out of a pom file.
+ * <p>
+ * The pom is read with a streaming parser, which only keeps the elements needed to build the
+ * module descriptor: the plugin configurations, the reporting, the developers and any other part
+ * of the pom not described in {@link #PROJECT_FILTER} are skipped without being loaded in memory.
+ * </p>
  */
 public class PomReader {
 
@@ -113,36 +119,39 @@ public class PomReader {
 
     private static final String PROFILE = "profile";
 
+    private static final String BUILD = "build";
+
+    private static final ElementFilter PROJECT_FILTER = newProjectFilter();
+
+    private static final XMLInputFactory INPUT_FACTORY = newInputFactory();
+
     private final Map<String, String> properties = new HashMap<>();
 
-    private final Element projectElement;
+    private final PomElement projectElement;
 
-    private final Element parentElement;
+    private final PomElement parentElement;
 
     @SuppressWarnings("deprecation")
     public PomReader(final URL descriptorURL, final Resource res) throws IOException, SAXException {
         InputStream stream = new AddDTDFilterInputStream(
                 URLHandlerRegistry.getDefault().openStream(descriptorURL));
-        InputSource source = new InputSource(stream);
-        source.setSystemId(XMLHelper.toSystemId(descriptorURL));
         try {
-            Document pomDomDoc = XMLHelper.parseToDom(source, new EntityResolver() {
-                public InputSource resolveEntity(String publicId, String systemId)
-                        throws SAXException, IOException {
-                    if (systemId != null && systemId.endsWith("m2-entities.ent")) {
-                        return new InputSource(
-                                PomReader.class.getResourceAsStream("m2-entities.ent"));
-                    }
-                    return null;
-                }
-            });
-            projectElement = pomDomDoc.getDocumentElement();
-            if (!PROJECT.equals(projectElement.getNodeName())
-                    && !MODEL.equals(projectElement.getNodeName())) {
-                throw new SAXParseException("project must be the root tag", res.getName(),
-                        res.getName(), 0, 0);
-            }
-            parentElement = getFirstChildElement(projectElement, PARENT);
+            XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(
+                XMLHelper.toSystemId(descriptorURL), stream);
+            try {
+                projectElement = readProject(reader, res);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            Location location = e.getLocation();
+            SAXParseException spe = location == null
+                    ? new SAXParseException(e.getMessage(), res.getName(), res.getName(), 0, 0)
+                    : new SAXParseException(e.getMessage(), location.getPublicId(),
+                            location.getSystemId(), location.getLineNumber(),
+                            location.getColumnNumber());
+            spe.initCause(e);
+            throw spe;
         } finally {
             try {
                 stream.close();
@@ -150,6 +159,7 @@ public class PomReader {
                 // ignore
             }
         }
+        parentElement = getFirstChildElement(projectElement, PARENT);
         // Both environment and system properties take precedence over properties set in
         // pom.xml. So we pre-populate our properties with the environment and system properties
         // here
@@ -164,6 +174,59 @@ public class PomReader {
         }
     }
 
+    private static ElementFilter newProjectFilter() {
+        ElementFilter gav = new ElementFilter().withLeaves(GROUP_ID, ARTIFACT_ID, VERSION);
+        ElementFilter dependencies = new ElementFilter().with(DEPENDENCY, new ElementFilter()
+                .withLeaves(GROUP_ID, ARTIFACT_ID, VERSION, SCOPE, CLASSIFIER, TYPE, OPTIONAL)
+                .with(EXCLUSIONS, new ElementFilter().with(EXCLUSION,
+                    new ElementFilter().withLeaves(GROUP_ID, ARTIFACT_ID))));
+        ElementFilter dependencyMgt = new ElementFilter().with(DEPENDENCIES, dependencies);
+        ElementFilter build = new ElementFilter().with(PLUGINS,
+            new ElementFilter().with(PLUGIN, gav));
+
+        ElementFilter activation = new ElementFilter()
+                .withLeaves(PomProfileElement.ACTIVE_BY_DEFAULT_ELEMENT, PomProfileElement.JDK)
+                .with(PomProfileElement.OS, new ElementFilter().withLeaves(PomProfileElement.NAME,
+                    PomProfileElement.FAMILY, PomProfileElement.ARCH, PomProfileElement.VERSION))
+                .with(PomProfileElement.FILE, new ElementFilter()
+                        .withLeaves(PomProfileElement.MISSING, PomProfileElement.EXISTS))
+                .with(PomProfileElement.PROPERTY, new ElementFilter()
+                        .withLeaves(PomProfileElement.NAME, PomProfileElement.VALUE));
+        ElementFilter profile = new ElementFilter().withLeaves(PomProfileElement.ID_ELEMENT)
+                .with(PomProfileElement.ACTIVATION_ELEMENT, activation)
+                .with(DEPENDENCIES, dependencies).with(DEPENDENCY_MGT, dependencyMgt)
+                .with(BUILD, build).with(PROPERTIES, ElementFilter.ANY_LEAF);
+
+        return new ElementFilter()
+                .withLeaves(GROUP_ID, ARTIFACT_ID, VERSION, PACKAGING, DESCRIPTION, HOMEPAGE)
+                .with(PARENT, gav)
+                .with(LICENSES, new ElementFilter().with(LICENSE,
+                    new ElementFilter().withLeaves(LICENSE_NAME, LICENSE_URL)))
+                .with(DISTRIBUTION_MGT, new ElementFilter().with(RELOCATION, gav))
+                .with(DEPENDENCIES, dependencies).with(DEPENDENCY_MGT, dependencyMgt)
+                .with(BUILD, build).with(PROPERTIES, ElementFilter.ANY_LEAF)
+                .with(PROFILES_ELEMENT, new ElementFilter().with(PROFILE, profile));
+    }
+
+    private static XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // element names are matched with their prefix, if any, namespaces are ignored
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+        factory.setXMLResolver(new XMLResolver() {
+            public Object resolveEntity(String publicID, String systemID, String baseURI,
+                    String namespace) throws XMLStreamException {
+                if (systemID != null && systemID.endsWith("m2-entities.ent")) {
+                    return PomReader.class.getResourceAsStream("m2-entities.ent");
+                }
+                return null;
+            }
+        });
+        return factory;
+    }
+
     public boolean hasParent() {
         return parentElement != null;
     }
@@ -256,14 +319,13 @@ public class PomReader {
     }
 
     public License[] getLicenses() {
-        Element licenses = getFirstChildElement(projectElement, LICENSES);
+        PomElement licenses = getFirstChildElement(projectElement, LICENSES);
         if (licenses == null) {
             return new License[0];
         }
-        licenses.normalize();
         List<License> lics = new ArrayList<>();
-        for (Element license : getAllChilds(licenses)) {
-            if (LICENSE.equals(license.getNodeName())) {
+        for (PomElement license : getAllChilds(licenses)) {
+            if (LICENSE.equals(license.getName())) {
                 String name = getFirstChildText(license, LICENSE_NAME);
                 String url = getFirstChildText(license, LICENSE_URL);
 
@@ -284,8 +346,8 @@ public class PomReader {
     }
 
     public ModuleRevisionId getRelocation() {
-        Element distrMgt = getFirstChildElement(projectElement, DISTRIBUTION_MGT);
-        Element relocation = getFirstChildElement(distrMgt, RELOCATION);
+        PomElement distrMgt = getFirstChildElement(projectElement, DISTRIBUTION_MGT);
+        PomElement relocation = getFirstChildElement(distrMgt, RELOCATION);
         if (relocation == null) {
             return null;
         } else {
@@ -309,17 +371,15 @@ public class PomReader {
         return getDependencies(projectElement);
     }
 
-    private List<PomDependencyData> getDependencies(Element parent) {
-        Element dependenciesElement = getFirstChildElement(parent, DEPENDENCIES);
+    private List<PomDependencyData> getDependencies(PomElement parent) {
+        PomElement dependenciesElement = getFirstChildElement(parent, DEPENDENCIES);
         if (dependenciesElement == null) {
             return Collections.emptyList();
         }
         List<PomDependencyData> dependencies = new LinkedList<>();
-        NodeList children = dependenciesElement.getChildNodes();
-        for (int i = 0, sz = children.getLength(); i < sz; i++) {
-            Node node = children.item(i);
-            if (node instanceof Element && DEPENDENCY.equals(node.getNodeName())) {
-                dependencies.add(new PomDependencyData((Element) node));
+        for (PomElement child : getAllChilds(dependenciesElement)) {
+            if (DEPENDENCY.equals(child.getName())) {
+                dependencies.add(new PomDependencyData(child));
             }
         }
         return dependencies;
@@ -329,47 +389,43 @@ public class PomReader {
         return getDependencyMgt(projectElement);
     }
 
-    private List<PomDependencyMgt> getDependencyMgt(Element parent) {
-        Element dependenciesElement = getFirstChildElement(
+    private List<PomDependencyMgt> getDependencyMgt(PomElement parent) {
+        PomElement dependenciesElement = getFirstChildElement(
                 getFirstChildElement(parent, DEPENDENCY_MGT), DEPENDENCIES);
         if (dependenciesElement == null) {
             return Collections.emptyList();
         }
         List<PomDependencyMgt> dependencies = new LinkedList<>();
-        NodeList children = dependenciesElement.getChildNodes();
-        for (int i = 0, sz = children.getLength(); i < sz; i++) {
-            Node node = children.item(i);
-            if (node instanceof Element && DEPENDENCY.equals(node.getNodeName())) {
-                dependencies.add(new PomDependencyMgtElement((Element) node));
+        for (PomElement child : getAllChilds(dependenciesElement)) {
+            if (DEPENDENCY.equals(child.getName())) {
+                dependencies.add(new PomDependencyMgtElement(child));
             }
         }
         return dependencies;
     }
 
     public List<PomProfileElement> getProfiles() {
-        Element profilesElement = getFirstChildElement(projectElement, PROFILES_ELEMENT);
+        PomElement profilesElement = getFirstChildElement(projectElement, PROFILES_ELEMENT);
         if (profilesElement == null) {
             return Collections.emptyList();
         }
         List<PomProfileElement> result = new LinkedList<>();
-        NodeList children = profilesElement.getChildNodes();
-        for (int i = 0, sz = children.getLength(); i < sz; i++) {
-            Node node = children.item(i);
-            if (node instanceof Element && PROFILE.equals(node.getNodeName())) {
-                result.add(new PomProfileElement((Element) node));
+        for (PomElement child : getAllChilds(profilesElement)) {
+            if (PROFILE.equals(child.getName())) {
+                result.add(new PomProfileElement(child));
             }
         }
         return result;
     }
 
     public class PomDependencyMgtElement implements PomDependencyMgt {
-        private final Element depElement;
+        private final PomElement depElement;
 
         public PomDependencyMgtElement(PomDependencyMgtElement copyFrom) {
             this(copyFrom.depElement);
         }
 
-        PomDependencyMgtElement(Element depElement) {
+        PomDependencyMgtElement(PomElement depElement) {
             this.depElement = depElement;
         }
 
@@ -409,17 +465,15 @@ public class PomReader {
         }
 
         public List<ModuleId> getExcludedModules() {
-            Element exclusionsElement = getFirstChildElement(depElement, EXCLUSIONS);
+            PomElement exclusionsElement = getFirstChildElement(depElement, EXCLUSIONS);
             if (exclusionsElement == null) {
                 return Collections.emptyList();
             }
             List<ModuleId> exclusions = new LinkedList<>();
-            NodeList children = exclusionsElement.getChildNodes();
-            for (int i = 0, sz = children.getLength(); i < sz; i++) {
-                Node node = children.item(i);
-                if (node instanceof Element && EXCLUSION.equals(node.getNodeName())) {
-                    String groupId = getFirstChildText((Element) node, GROUP_ID);
-                    String artifactId = getFirstChildText((Element) node, ARTIFACT_ID);
+            for (PomElement exclusion : getAllChilds(exclusionsElement)) {
+                if (EXCLUSION.equals(exclusion.getName())) {
+                    String groupId = getFirstChildText(exclusion, GROUP_ID);
+                    String artifactId = getFirstChildText(exclusion, ARTIFACT_ID);
                     if (groupId != null && artifactId != null) {
                         exclusions.add(ModuleId.newInstance(groupId, artifactId));
                     }
@@ -433,41 +487,38 @@ public class PomReader {
         return getPlugins(projectElement);
     }
 
-    private List<PomPluginElement> getPlugins(Element parent) {
-        Element buildElement = getFirstChildElement(parent, "build");
-        Element pluginsElement = getFirstChildElement(buildElement, PLUGINS);
+    private List<PomPluginElement> getPlugins(PomElement parent) {
+        PomElement buildElement = getFirstChildElement(parent, BUILD);
+        PomElement pluginsElement = getFirstChildElement(buildElement, PLUGINS);
 
         if (pluginsElement == null) {
             return Collections.emptyList();
         }
-        NodeList children = pluginsElement.getChildNodes();
         List<PomPluginElement> plugins = new LinkedList<>();
-        for (int i = 0; i < children.getLength(); i++) {
-            Node node = children.item(i);
-            if (node instanceof Element && PLUGIN.equals(node.getNodeName())) {
-                plugins.add(new PomPluginElement((Element) node));
+        for (PomElement child : getAllChilds(pluginsElement)) {
+            if (PLUGIN.equals(child.getName())) {
+                plugins.add(new PomPluginElement(child));
             }
         }
         return plugins;
     }
 
-    private static Map<String, String> getProperties(final Element parent) {
-        final Element propsEl = getFirstChildElement(parent, PROPERTIES);
+    private static Map<String, String> getProperties(final PomElement parent) {
+        final PomElement propsEl = getFirstChildElement(parent, PROPERTIES);
         if (propsEl == null) {
             return Collections.emptyMap();
         }
-        propsEl.normalize();
         final Map<String, String> props = new HashMap<>();
-        for (final Element prop : getAllChilds(propsEl)) {
-            props.put(prop.getNodeName(), getTextContent(prop));
+        for (final PomElement prop : getAllChilds(propsEl)) {
+            props.put(prop.getName(), getTextContent(prop));
         }
         return props;
     }
 
     public class PomPluginElement implements PomDependencyMgt {
-        private Element pluginElement;
+        private PomElement pluginElement;
 
-        PomPluginElement(Element pluginElement) {
+        PomPluginElement(PomElement pluginElement) {
             this.pluginElement = pluginElement;
         }
 
@@ -496,13 +547,13 @@ public class PomReader {
     }
 
     public class PomDependencyData extends PomDependencyMgtElement {
-        private final Element depElement;
+        private final PomElement depElement;
 
         public PomDependencyData(PomDependencyData copyFrom) {
             this(copyFrom.depElement);
         }
 
-        PomDependencyData(Element depElement) {
+        PomDependencyData(PomElement depElement) {
             super(depElement);
             this.depElement = depElement;
         }
@@ -559,9 +610,9 @@ public class PomReader {
 
         private static final String JDK = "jdk";
 
-        private final Element profileElement;
+        private final PomElement profileElement;
 
-        PomProfileElement(Element profileElement) {
+        PomProfileElement(PomElement profileElement) {
             this.profileElement = profileElement;
         }
 
@@ -575,16 +626,16 @@ public class PomReader {
         }
 
         public boolean isActiveByDefault() {
-            Element activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
+            PomElement activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
             return Boolean.parseBoolean(getFirstChildText(activation, ACTIVE_BY_DEFAULT_ELEMENT));
         }
 
         public boolean isActiveByOS() {
-            final Element activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
+            final PomElement activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
             if (activation == null) {
                 return false;
             }
-            final Element osActivation = getFirstChildElement(activation, OS);
+            final PomElement osActivation = getFirstChildElement(activation, OS);
             if (osActivation == null) {
                 return false;
             }
@@ -617,7 +668,7 @@ public class PomReader {
         }
 
         public boolean isActiveByJDK() {
-            final Element activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
+            final PomElement activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
             if (activation == null) {
                 return false;
             }
@@ -632,11 +683,11 @@ public class PomReader {
         }
 
         public boolean isActiveByFile() {
-            final Element activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
+            final PomElement activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
             if (activation == null) {
                 return false;
             }
-            final Element fileActivation = getFirstChildElement(activation, FILE);
+            final PomElement fileActivation = getFirstChildElement(activation, FILE);
             if (fileActivation == null) {
                 return false;
             }
@@ -658,8 +709,8 @@ public class PomReader {
         }
 
         public boolean isActivatedByProperty() {
-            Element activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
-            Element propertyActivation = getFirstChildElement(activation, PROPERTY);
+            PomElement activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
+            PomElement propertyActivation = getFirstChildElement(activation, PROPERTY);
             String propertyName = getFirstChildText(propertyActivation, NAME);
             if (propertyName == null || "".equals(propertyName)) {
                 return false;
@@ -714,28 +765,12 @@ public class PomReader {
         }
     }
 
-    private static String getTextContent(Element element) {
-        StringBuilder result = new StringBuilder();
-
-        NodeList childNodes = element.getChildNodes();
-        for (int i = 0; i < childNodes.getLength(); i++) {
-            Node child = childNodes.item(i);
-
-            switch (child.getNodeType()) {
-                case Node.CDATA_SECTION_NODE:
-                case Node.TEXT_NODE:
-                    result.append(child.getNodeValue());
-                    break;
-                default:
-                    break;
-            }
-        }
-
-        return result.toString();
+    private static String getTextContent(PomElement element) {
+        return element.getText();
     }
 
-    private static String getFirstChildText(Element parentElem, String name) {
-        Element node = getFirstChildElement(parentElem, name);
+    private static String getFirstChildText(PomElement parentElem, String name) {
+        PomElement node = getFirstChildElement(parentElem, name);
         if (node != null) {
             return getTextContent(node);
         } else {
@@ -743,32 +778,172 @@ public class PomReader {
         }
     }
 
-    private static Element getFirstChildElement(Element parentElem, String name) {
+    private static PomElement getFirstChildElement(PomElement parentElem, String name) {
         if (parentElem == null) {
             return null;
         }
-        NodeList childs = parentElem.getChildNodes();
-        for (int i = 0; i < childs.getLength(); i++) {
-            Node node = childs.item(i);
-            if (node instanceof Element && name.equals(node.getNodeName())) {
-                return (Element) node;
+        for (PomElement child : parentElem.getChildren()) {
+            if (name.equals(child.getName())) {
+                return child;
             }
         }
         return null;
     }
 
-    private static List<Element> getAllChilds(Element parent) {
-        List<Element> r = new LinkedList<>();
-        if (parent != null) {
-            NodeList childs = parent.getChildNodes();
-            for (int i = 0; i < childs.getLength(); i++) {
-                Node node = childs.item(i);
-                if (node instanceof Element) {
-                    r.add((Element) node);
-                }
+    private static List<PomElement> getAllChilds(PomElement parent) {
+        if (parent == null) {
+            return Collections.emptyList();
+        }
+        return parent.getChildren();
+    }
+
+    private static PomElement readProject(XMLStreamReader reader, Resource res)
+            throws XMLStreamException, SAXException {
+        while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+            // skip the prolog
+        }
+        PomElement project = new PomElement(reader.getLocalName());
+        if (!PROJECT.equals(project.getName()) && !MODEL.equals(project.getName())) {
+            throw new SAXParseException("project must be the root tag", res.getName(),
+                    res.getName(), 0, 0);
+        }
+        readElement(reader, project, PROJECT_FILTER);
+        while (reader.hasNext()) {
+            // make sure the end of the document is well formed
+            reader.next();
+        }
+        return project;
+    }
+
+    /**
+     * Reads the content of the current element of the reader, up to its end tag. Only the child
+     * elements accepted by the filter are kept, the text is only kept for the elements without
+     * children in the filter.
+     */
+    private static void readElement(XMLStreamReader reader, PomElement element,
+            ElementFilter filter) throws XMLStreamException {
+        StringBuilder text = filter.isLeaf() ? new StringBuilder() : null;
+        int event;
+        while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    ElementFilter childFilter = filter.getChild(reader.getLocalName());
+                    if (childFilter == null) {
+                        skipElement(reader);
+                    } else {
+                        PomElement child = new PomElement(reader.getLocalName());
+                        readElement(reader, child, childFilter);
+                        element.addChild(child);
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (text != null) {
+                        text.append(reader.getTextCharacters(), reader.getTextStart(),
+                            reader.getTextLength());
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (text != null) {
+            element.setText(text.toString());
+        }
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * An element of the pom, with its child elements, and its text when it has no children.
+     * Unlike a DOM element it has no link to its parent, so the dependencies kept by the module
+     * descriptors don't retain the rest of the pom.
+     */
+    private static final class PomElement {
+        private final String name;
+
+        private String text = "";
+
+        private List<PomElement> children = Collections.emptyList();
+
+        private PomElement(String name) {
+            this.name = name;
+        }
+
+        private String getName() {
+            return name;
+        }
+
+        private String getText() {
+            return text;
+        }
+
+        private void setText(String text) {
+            this.text = text;
+        }
+
+        private List<PomElement> getChildren() {
+            return children;
+        }
+
+        private void addChild(PomElement child) {
+            if (children.isEmpty()) {
+                children = new ArrayList<>(4);
             }
+            children.add(child);
+        }
+    }
+
+    /**
+     * Describes which child elements of an element are read.
+     */
+    private static final class ElementFilter {
+        private static final ElementFilter LEAF = new ElementFilter(false);
+
+        private static final ElementFilter ANY_LEAF = new ElementFilter(true);
+
+        private final Map<String, ElementFilter> children = new HashMap<>();
+
+        private final boolean anyChild;
+
+        private ElementFilter() {
+            this(false);
+        }
+
+        private ElementFilter(boolean anyChild) {
+            this.anyChild = anyChild;
+        }
+
+        private ElementFilter with(String name, ElementFilter child) {
+            children.put(name, child);
+            return this;
+        }
+
+        private ElementFilter withLeaves(String... names) {
+            for (String name : names) {
+                children.put(name, LEAF);
+            }
+            return this;
+        }
+
+        private ElementFilter getChild(String name) {
+            return anyChild ? LEAF : children.get(name);
+        }
+
+        private boolean isLeaf() {
+            return !anyChild && children.isEmpty();
         }
-        return r;
     }
 
     private static final class AddDTDFilterInputStream extends FilterInputStream {
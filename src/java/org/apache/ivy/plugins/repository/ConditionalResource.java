@@ -0,0 +1,53 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.repository;
+
+import java.io.IOException;
+
+/**
+ * Resource which can be revalidated against the validators of a previously downloaded copy.
+ * <p>
+ * When the resource has been modified, {@link #fetchIfModified(String, long)} may fetch its new
+ * content at the same time, in which case the next download of this resource from its repository
+ * doesn't involve another request. Content which isn't downloaded soon after is discarded, the
+ * next download requesting it again.
+ * </p>
+ */
+public interface ConditionalResource extends Resource {
+
+    /**
+     * Returns the entity tag of this resource, identifying its current content.
+     *
+     * @return the entity tag, or <code>null</code> if it is unknown
+     */
+    String getETag();
+
+    /**
+     * Checks if this resource has been modified since a copy described by the given validators
+     * was downloaded.
+     *
+     * @param etag
+     *            the entity tag of the downloaded copy, may be <code>null</code>
+     * @param lastModified
+     *            the last modified timestamp of the downloaded copy, 0 if unknown
+     * @return <code>false</code> if the resource has not been modified
+     * @throws IOException
+     *             if the resource can't be checked
+     */
+    boolean fetchIfModified(String etag, long lastModified) throws IOException;
+}
@@ -19,6 +19,7 @@ package org.apache.ivy.plugins.repository;
 
 import org.apache.ivy.util.CopyProgressEvent;
 import org.apache.ivy.util.CopyProgressListener;
+import org.apache.ivy.util.TransferDigests;
 
 public class RepositoryCopyProgressListener implements CopyProgressListener {
     private final AbstractRepository repository;
@@ -27,9 +28,14 @@ public class RepositoryCopyProgressListener implements CopyProgressListener {
         this.repository = repository;
     }
 
-    private Long totalLength = null;
+    private final ThreadLocal<Long> totalLength = new ThreadLocal<>();
 
     public void start(CopyProgressEvent evt) {
+        TransferDigests digests = TransferDigests.current();
+        if (digests != null) {
+            digests.start();
+        }
+        Long totalLength = getTotalLength();
         if (totalLength == null) {
             repository.fireTransferStarted();
         } else {
@@ -38,19 +44,27 @@ public class RepositoryCopyProgressListener implements CopyProgressListener {
     }
 
     public void progress(CopyProgressEvent evt) {
+        TransferDigests digests = TransferDigests.current();
+        if (digests != null) {
+            digests.update(evt.getBuffer(), 0, evt.getReadBytes());
+        }
         repository.fireTransferProgress(evt.getReadBytes());
     }
 
     public void end(CopyProgressEvent evt) {
+        TransferDigests digests = TransferDigests.current();
+        if (digests != null) {
+            digests.end();
+        }
         repository.fireTransferProgress(evt.getReadBytes());
         repository.fireTransferCompleted();
     }
 
     public Long getTotalLength() {
-        return totalLength;
+        return totalLength.get();
     }
 
     public void setTotalLength(Long totalLength) {
-        this.totalLength = totalLength;
+        this.totalLength.set(totalLength);
     }
 }
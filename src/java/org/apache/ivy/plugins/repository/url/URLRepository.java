@@ -24,9 +24,9 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.ivy.core.settings.TimeoutConstraint;
 import org.apache.ivy.plugins.repository.AbstractRepository;
@@ -39,7 +39,8 @@ import org.apache.ivy.util.url.ApacheURLLister;
 public class URLRepository extends AbstractRepository {
     private RepositoryCopyProgressListener progress = new RepositoryCopyProgressListener(this);
 
-    private final Map<String, Resource> resourcesCache = new HashMap<>();
+    // shared by the threads downloading artifacts concurrently
+    private final ConcurrentMap<String, Resource> resourcesCache = new ConcurrentHashMap<>();
 
     public URLRepository() {
     }
@@ -52,7 +53,10 @@ public class URLRepository extends AbstractRepository {
         Resource res = resourcesCache.get(source);
         if (res == null) {
             res = new URLResource(new URL(source), this.getTimeoutConstraint());
-            resourcesCache.put(source, res);
+            Resource cached = resourcesCache.putIfAbsent(source, res);
+            if (cached != null) {
+                res = cached;
+            }
         }
         return res;
     }
@@ -65,7 +69,18 @@ public class URLRepository extends AbstractRepository {
             if (totalLength > 0) {
                 progress.setTotalLength(totalLength);
             }
-            FileUtil.copy(new URL(source), destination, progress, getTimeoutConstraint());
+            File fetched = res instanceof URLResource ? ((URLResource) res).takeFetchedContent()
+                    : null;
+            if (fetched != null) {
+                // already fetched when the resource was revalidated
+                try {
+                    FileUtil.copy(fetched, destination, progress, true);
+                } finally {
+                    fetched.delete();
+                }
+            } else {
+                FileUtil.copy(new URL(source), destination, progress, getTimeoutConstraint());
+            }
         } catch (IOException | RuntimeException ex) {
             fireTransferError(ex);
             throw ex;
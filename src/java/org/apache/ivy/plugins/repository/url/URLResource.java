@@ -23,16 +23,26 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Timer;
+import java.util.TimerTask;
 
 import org.apache.ivy.core.settings.TimeoutConstraint;
+import org.apache.ivy.plugins.repository.ConditionalResource;
 import org.apache.ivy.plugins.repository.LocalizableResource;
 import org.apache.ivy.plugins.repository.Resource;
+import org.apache.ivy.util.url.ConditionalURLHandler;
 import org.apache.ivy.util.url.TimeoutConstrainedURLHandler;
 import org.apache.ivy.util.url.URLHandler;
 import org.apache.ivy.util.url.URLHandler.URLInfo;
 import org.apache.ivy.util.url.URLHandlerRegistry;
 
-public class URLResource implements LocalizableResource {
+public class URLResource implements LocalizableResource, ConditionalResource {
+    /**
+     * How long the content fetched by a revalidation is kept for the download which usually
+     * follows it, in milliseconds.
+     */
+    private static final long FETCHED_CONTENT_TTL = 60 * 1000;
+
     private final URL url;
 
     private final TimeoutConstraint timeoutConstraint;
@@ -45,6 +55,13 @@ public class URLResource implements LocalizableResource {
 
     private boolean exists;
 
+    private String etag;
+
+    // content fetched by a revalidation, not yet downloaded from the repository
+    private File fetchedContent;
+
+    private long fetchedTime;
+
     public URLResource(final URL url) {
         this(url, null);
     }
@@ -86,7 +103,111 @@ public class URLResource implements LocalizableResource {
         contentLength = info.getContentLength();
         lastModified = info.getLastModified();
         exists = info.isReachable();
+        etag = info.getETag();
+        init = true;
+    }
+
+    public String getETag() {
+        if (!init) {
+            init();
+        }
+        return etag;
+    }
+
+    @SuppressWarnings("deprecation")
+    public synchronized boolean fetchIfModified(final String etag, final long lastModified)
+            throws IOException {
+        final URLHandler handler = URLHandlerRegistry.getDefault();
+        if (!(handler instanceof ConditionalURLHandler)) {
+            // compare the validators with the current information about the resource
+            init();
+            if (etag != null && this.etag != null) {
+                return !etag.equals(this.etag);
+            }
+            return !exists || lastModified <= 0 || this.lastModified > lastModified;
+        }
+        final File content = File.createTempFile("ivy-fetched", ".tmp");
+        content.deleteOnExit();
+        final URLInfo info;
+        try {
+            info = ((ConditionalURLHandler) handler).downloadIfModified(this.url, content, null,
+                this.timeoutConstraint, etag, lastModified);
+        } catch (IOException | RuntimeException e) {
+            content.delete();
+            throw e;
+        }
+        final boolean modified = info != null && isModified(info, etag, lastModified);
+        if (modified) {
+            setFetchedContent(content);
+            contentLength = info.getContentLength();
+            this.lastModified = info.getLastModified();
+            this.etag = info.getETag();
+        } else {
+            // the downloaded copy is still the current content
+            content.delete();
+            if (info != null) {
+                contentLength = info.getContentLength();
+            } else if (!init) {
+                contentLength = -1;
+            }
+            this.lastModified = lastModified;
+            this.etag = etag;
+        }
+        exists = true;
         init = true;
+        return modified;
+    }
+
+    /**
+     * Compares the validators of a full response to a conditional request with the ones of the
+     * downloaded copy: servers ignoring the conditions send the content even if it is unchanged.
+     */
+    private static boolean isModified(URLInfo info, String etag, long lastModified) {
+        if (etag != null && info.getETag() != null) {
+            return !etag.equals(info.getETag());
+        }
+        return lastModified <= 0 || info.getLastModified() <= 0
+                || info.getLastModified() > lastModified;
+    }
+
+    private void setFetchedContent(final File content) {
+        discardFetchedContent();
+        fetchedContent = content;
+        fetchedTime = System.currentTimeMillis();
+        // this resource may be kept by its repository: the content is deleted if it isn't used
+        // soon, rather than when the JVM exits
+        FetchedContentCleaner.TIMER.schedule(new TimerTask() {
+            public void run() {
+                synchronized (URLResource.this) {
+                    if (fetchedContent == content) {
+                        discardFetchedContent();
+                    }
+                }
+            }
+        }, FETCHED_CONTENT_TTL);
+    }
+
+    private void discardFetchedContent() {
+        if (fetchedContent != null) {
+            fetchedContent.delete();
+            fetchedContent = null;
+        }
+    }
+
+    /**
+     * Returns the content fetched by the last revalidation of this resource, if it has not been
+     * taken yet and is still recent. The caller is responsible for deleting the returned file.
+     *
+     * @return the fetched content, or <code>null</code>
+     */
+    synchronized File takeFetchedContent() {
+        if (fetchedContent != null
+                && System.currentTimeMillis() - fetchedTime > FETCHED_CONTENT_TTL) {
+            discardFetchedContent();
+        }
+        File content = fetchedContent;
+        fetchedContent = null;
+        return content;
     }
 
     public long getContentLength() {
@@ -124,6 +245,13 @@ public class URLResource implements LocalizableResource {
         return handler.openStream(this.url);
     }
 
+    /**
+     * The timer deleting the fetched contents which haven't been used, created on first use.
+     */
+    private static final class FetchedContentCleaner {
+        private static final Timer TIMER = new Timer("ivy-fetched-content-cleaner", true);
+    }
+
     public File getFile() {
         if (!isLocal()) {
             throw new IllegalStateException("Cannot get the local file for the not local resource "
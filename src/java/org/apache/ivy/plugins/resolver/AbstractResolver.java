@@ -380,6 +380,25 @@ public abstract class AbstractResolver implements DependencyResolver, HasLatestS
         return rmr;
     }
 
+    /**
+     * Returns until when this resolver can resolve the given dependency from its cache, without
+     * checking its repository.
+     * <p>
+     * This default implementation returns 0, meaning that the repository may be checked on each
+     * resolve.
+     * </p>
+     *
+     * @param dd
+     *            the dependency to resolve
+     * @param data
+     *            the data of the current resolve
+     * @return the time in milliseconds until which the cache can be used, 0 if the repository
+     *         may always be checked, {@link Long#MAX_VALUE} if the cache doesn't expire
+     */
+    public long getCachedMetadataExpiration(DependencyDescriptor dd, ResolveData data) {
+        return 0;
+    }
+
     public void setChangingMatcher(String changingMatcherName) {
         this.changingMatcherName = changingMatcherName;
     }
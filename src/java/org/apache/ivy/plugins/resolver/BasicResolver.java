@@ -34,11 +34,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.IvyPatternHelper;
 import org.apache.ivy.core.LogOptions;
 import org.apache.ivy.core.cache.ArtifactOrigin;
+import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
 import org.apache.ivy.core.cache.ModuleDescriptorWriter;
 import org.apache.ivy.core.cache.RepositoryCacheManager;
 import org.apache.ivy.core.module.descriptor.Artifact;
@@ -80,6 +84,7 @@ import org.apache.ivy.util.ChecksumHelper;
 import org.apache.ivy.util.DateUtil;
 import org.apache.ivy.util.HostUtil;
 import org.apache.ivy.util.Message;
+import org.apache.ivy.util.TransferDigests;
 
 import static org.apache.ivy.util.StringUtils.splitToArray;
 
@@ -144,9 +149,9 @@ public abstract class BasicResolver extends AbstractResolver {
      */
     private boolean envDependent = true;
 
-    private List<String> ivyattempts = new ArrayList<>();
+    private List<String> ivyattempts = new CopyOnWriteArrayList<>();
 
-    private Map<Artifact, List<String>> artattempts = new HashMap<>();
+    private ConcurrentMap<Artifact, List<String>> artattempts = new ConcurrentHashMap<>();
 
     private boolean checkconsistency = true;
 
@@ -180,6 +185,16 @@ public abstract class BasicResolver extends AbstractResolver {
         this.envDependent = envDependent;
     }
 
+    @Override
+    public long getCachedMetadataExpiration(DependencyDescriptor dd, ResolveData data) {
+        RepositoryCacheManager cacheManager = getRepositoryCacheManager();
+        if (isForce() || !(cacheManager instanceof DefaultRepositoryCacheManager)) {
+            return 0;
+        }
+        return ((DefaultRepositoryCacheManager) cacheManager).getMetadataExpiration(dd,
+            dd.getDependencyRevisionId(), getCacheOptions(data), getName());
+    }
+
     public ResolvedModuleRevision getDependency(DependencyDescriptor dd, ResolveData data)
             throws ParseException {
         IvyContext context = IvyContext.pushNewCopyContext();
@@ -779,8 +794,11 @@ public abstract class BasicResolver extends AbstractResolver {
     protected void logArtifactAttempt(Artifact art, String attempt) {
         List<String> attempts = artattempts.get(art);
         if (attempts == null) {
-            attempts = new ArrayList<>();
-            artattempts.put(art, attempts);
+            attempts = new CopyOnWriteArrayList<>();
+            List<String> existing = artattempts.putIfAbsent(art, attempts);
+            if (existing != null) {
+                attempts = existing;
+            }
         }
         attempts.add(attempt);
         Message.verbose("\t\ttried " + attempt);
@@ -830,7 +848,11 @@ public abstract class BasicResolver extends AbstractResolver {
     public DownloadReport download(Artifact[] artifacts, DownloadOptions options) {
         RepositoryCacheManager cacheManager = getRepositoryCacheManager();
 
-        clearArtifactAttempts();
+        // only forget attempts of the artifacts we are about to download: downloads of other
+        // artifacts may be running concurrently with this one
+        for (Artifact artifact : artifacts) {
+            artattempts.remove(artifact);
+        }
         DownloadReport dr = new DownloadReport();
         for (Artifact artifact : artifacts) {
             ArtifactDownloadReport adr = cacheManager.download(artifact, artifactResourceResolver,
@@ -973,9 +995,32 @@ public abstract class BasicResolver extends AbstractResolver {
     }
 
     protected long getAndCheck(Resource resource, File dest) throws IOException {
-        long size = get(resource, dest);
-        for (String checksum : getChecksumAlgorithms()) {
-            if (check(resource, dest, checksum)) {
+        String[] checksums = getChecksumAlgorithms();
+        if (checksums.length == 0) {
+            return get(resource, dest);
+        }
+        // the checksums are computed while downloading, rather than by reading the file again
+        TransferDigests digests = TransferDigests.current();
+        boolean installed = digests == null;
+        if (installed) {
+            digests = new TransferDigests();
+            digests.install();
+        }
+        long size;
+        try {
+            for (String checksum : checksums) {
+                digests.addAlgorithm(checksum);
+            }
+            size = get(resource, dest);
+            // the checksum files must not be digested
+            digests.end();
+        } finally {
+            if (installed) {
+                digests.uninstall();
+            }
+        }
+        for (String checksum : checksums) {
+            if (check(resource, dest, checksum, digests)) {
                 break;
             }
         }
@@ -991,12 +1036,15 @@ public abstract class BasicResolver extends AbstractResolver {
      *            the file where the resource has been downloaded
      * @param algorithm
      *            the checksum algorithm to use
+     * @param digests
+     *            the digests computed while downloading the resource
      * @return true if the checksum has been successfully checked, false if the checksum wasn't
      *         available
      * @throws IOException
      *             if a checksum exist but do not match the downloaded file checksum
      */
-    private boolean check(Resource resource, File dest, String algorithm) throws IOException {
+    private boolean check(Resource resource, File dest, String algorithm,
+            TransferDigests digests) throws IOException {
         if (!ChecksumHelper.isKnownAlgorithm(algorithm)) {
             throw new IllegalArgumentException("Unknown checksum algorithm: " + algorithm);
         }
@@ -1008,7 +1056,7 @@ public abstract class BasicResolver extends AbstractResolver {
             try {
                 get(csRes, csFile);
                 try {
-                    ChecksumHelper.check(dest, csFile, algorithm);
+                    ChecksumHelper.check(digests.getDigest(algorithm, dest), csFile, algorithm);
                     Message.verbose(algorithm + " OK for " + resource);
                     return true;
                 } catch (IOException ex) {
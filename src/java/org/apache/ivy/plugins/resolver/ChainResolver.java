@@ -75,6 +75,20 @@ public class ChainResolver extends AbstractResolver {
         chain.add(resolver);
     }
 
+    @Override
+    public long getCachedMetadataExpiration(DependencyDescriptor dd, ResolveData data) {
+        // all resolvers of the chain may be asked for the dependency
+        long expiration = Long.MAX_VALUE;
+        for (DependencyResolver resolver : chain) {
+            if (!(resolver instanceof AbstractResolver)) {
+                return 0;
+            }
+            expiration = Math.min(expiration,
+                ((AbstractResolver) resolver).getCachedMetadataExpiration(dd, data));
+        }
+        return expiration;
+    }
+
     public ResolvedModuleRevision getDependency(DependencyDescriptor dd, ResolveData data)
             throws ParseException {
         data = new ResolveData(data, doValidate(data));
@@ -66,6 +66,14 @@ public class DualResolver extends AbstractResolver {
         }
     }
 
+    @Override
+    public long getCachedMetadataExpiration(DependencyDescriptor dd, ResolveData data) {
+        if (!(ivyResolver instanceof AbstractResolver)) {
+            return 0;
+        }
+        return ((AbstractResolver) ivyResolver).getCachedMetadataExpiration(dd, data);
+    }
+
     public ResolvedModuleRevision getDependency(DependencyDescriptor dd, ResolveData data)
             throws ParseException {
         if (ivyResolver == null || artifactResolver == null) {
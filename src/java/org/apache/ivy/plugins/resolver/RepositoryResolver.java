@@ -30,7 +30,11 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.IvyPatternHelper;
+import org.apache.ivy.core.cache.CacheMetadataOptions;
+import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
+import org.apache.ivy.core.cache.RepositoryCacheManager;
 import org.apache.ivy.core.event.EventManager;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.DefaultArtifact;
@@ -38,6 +42,7 @@ import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.report.DownloadReport;
 import org.apache.ivy.core.resolve.DownloadOptions;
+import org.apache.ivy.core.resolve.ResolveData;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParser;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParserRegistry;
 import org.apache.ivy.plugins.repository.AbstractRepository;
@@ -99,7 +104,7 @@ public class RepositoryResolver extends AbstractPatternsBasedResolver {
                 Message.debug("\t trying " + resourceName);
                 logAttempt(resourceName);
                 Resource res = repository.getResource(resourceName);
-                boolean reachable = res.exists();
+                boolean reachable = exists(res, mrid);
                 if (reachable) {
                     String revision;
                     if (pattern.contains(IvyPatternHelper.REVISION_KEY)) {
@@ -140,6 +145,35 @@ public class RepositoryResolver extends AbstractPatternsBasedResolver {
         }
     }
 
+    /**
+     * Checks if the given resource exists, unless the repository cache knows that it was not
+     * found by this resolver recently.
+     */
+    private boolean exists(Resource res, ModuleRevisionId mrid) {
+        RepositoryCacheManager cacheManager = getRepositoryCacheManager();
+        if (res.isLocal() || !(cacheManager instanceof DefaultRepositoryCacheManager)
+                || ((DefaultRepositoryCacheManager) cacheManager).getNotFoundTTL() <= 0) {
+            return res.exists();
+        }
+        DefaultRepositoryCacheManager cache = (DefaultRepositoryCacheManager) cacheManager;
+        if (isM2compatible()) {
+            mrid = convertM2ResourceSearchIdToNormal(mrid);
+        }
+        ResolveData data = IvyContext.getContext().getResolveData();
+        CacheMetadataOptions options = data == null ? new CacheMetadataOptions()
+                : getCacheOptions(data);
+        if (cache.isNotFound(getName(), mrid, res.getName(), options)) {
+            Message.debug("\t" + getName() + ": resource recently not found: " + res);
+            if (data != null) {
+                data.countAvoidedRequest();
+            }
+            return false;
+        }
+        boolean exists = res.exists();
+        cache.saveNotFound(getName(), mrid, res.getName(), exists);
+        return exists;
+    }
+
     private ResolvedResource findDynamicResourceUsingPattern(ResourceMDParser rmdparser,
             ModuleRevisionId mrid, String pattern, Artifact artifact, Date date) {
         String name = getName();
@@ -217,6 +251,11 @@ public class RepositoryResolver extends AbstractPatternsBasedResolver {
         String dest = getDestination(destPattern, artifact, mrid);
 
         put(artifact, src, dest, overwrite);
+        RepositoryCacheManager cacheManager = getRepositoryCacheManager();
+        if (cacheManager instanceof DefaultRepositoryCacheManager) {
+            ((DefaultRepositoryCacheManager) cacheManager).saveNotFound(getName(),
+                artifact.getModuleRevisionId(), dest, true);
+        }
         Message.info("\tpublished " + artifact.getName() + " to "
                 + hidePassword(repository.standardize(dest)));
     }
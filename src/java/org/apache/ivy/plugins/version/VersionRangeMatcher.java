@@ -24,6 +24,7 @@ import java.util.regex.Pattern;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.plugins.latest.ArtifactInfo;
 import org.apache.ivy.plugins.latest.LatestStrategy;
+import org.apache.ivy.util.BoundedCache;
 
 /**
  * Matches version ranges: [1.0,2.0] matches all versions greater or equal to 1.0 and lower or equal
@@ -95,8 +96,55 @@ public class VersionRangeMatcher extends AbstractVersionMatcher {
 
     private static final Pattern UPPER_INFINITE_RANGE = Pattern.compile(UPPER_INFINITE_PATTERN);
 
-    private static final Pattern ALL_RANGE = Pattern.compile(FINITE_PATTERN + "|"
-            + LOWER_INFINITE_PATTERN + "|" + UPPER_INFINITE_PATTERN);
+    /**
+     * Maximum number of revisions whose parsed range is kept.
+     */
+    private static final int MAX_CACHED_RANGES = 10000;
+
+    /**
+     * The limits of a range, <code>null</code> when infinite.
+     */
+    private static final class Range {
+        private final String lower;
+
+        private final boolean lowerInclusive;
+
+        private final String upper;
+
+        private final boolean upperInclusive;
+
+        private Range(String lower, boolean lowerInclusive, String upper,
+                boolean upperInclusive) {
+            this.lower = lower;
+            this.lowerInclusive = lowerInclusive;
+            this.upper = upper;
+            this.upperInclusive = upperInclusive;
+        }
+    }
+
+    private static final Range NOT_A_RANGE = new Range(null, false, null, false);
+
+    // the revisions are matched against the range patterns once each, not at each use
+    private static final BoundedCache<String, Range> RANGES = new BoundedCache<String, Range>(
+            MAX_CACHED_RANGES) {
+        protected Range compute(String revision) {
+            Matcher m;
+            m = FINITE_RANGE.matcher(revision);
+            if (m.matches()) {
+                return new Range(m.group(1), revision.startsWith(OPEN_INC), m.group(2),
+                        revision.endsWith(CLOSE_INC));
+            }
+            m = LOWER_INFINITE_RANGE.matcher(revision);
+            if (m.matches()) {
+                return new Range(null, false, m.group(1), revision.endsWith(CLOSE_INC));
+            }
+            m = UPPER_INFINITE_RANGE.matcher(revision);
+            if (m.matches()) {
+                return new Range(m.group(1), revision.startsWith(OPEN_INC), null, false);
+            }
+            return NOT_A_RANGE;
+        }
+    };
 
     private final class MRIDArtifactInfo implements ArtifactInfo {
         private ModuleRevisionId mrid;
@@ -145,31 +193,18 @@ public class VersionRangeMatcher extends AbstractVersionMatcher {
     }
 
     public boolean isDynamic(ModuleRevisionId askedMrid) {
-        String revision = askedMrid.getRevision();
-        return ALL_RANGE.matcher(revision).matches();
+        return RANGES.get(askedMrid.getRevision()) != NOT_A_RANGE;
     }
 
     public boolean accept(ModuleRevisionId askedMrid, ModuleRevisionId foundMrid) {
-        String revision = askedMrid.getRevision();
-        Matcher m;
-        m = FINITE_RANGE.matcher(revision);
-        if (m.matches()) {
-            String lower = m.group(1);
-            String upper = m.group(2);
-            return isUpper(askedMrid, lower, foundMrid, revision.startsWith(OPEN_INC))
-                    && isLower(askedMrid, upper, foundMrid, revision.endsWith(CLOSE_INC));
-        }
-        m = LOWER_INFINITE_RANGE.matcher(revision);
-        if (m.matches()) {
-            String upper = m.group(1);
-            return isLower(askedMrid, upper, foundMrid, revision.endsWith(CLOSE_INC));
+        Range range = RANGES.get(askedMrid.getRevision());
+        if (range == NOT_A_RANGE) {
+            return false;
         }
-        m = UPPER_INFINITE_RANGE.matcher(revision);
-        if (m.matches()) {
-            String lower = m.group(1);
-            return isUpper(askedMrid, lower, foundMrid, revision.startsWith(OPEN_INC));
-        }
-        return false;
+        return (range.lower == null
+                || isUpper(askedMrid, range.lower, foundMrid, range.lowerInclusive))
+                && (range.upper == null
+                || isLower(askedMrid, range.upper, foundMrid, range.upperInclusive));
     }
 
     private boolean isLower(ModuleRevisionId askedMrid, String revision,
@@ -188,27 +223,17 @@ public class VersionRangeMatcher extends AbstractVersionMatcher {
 
     public int compare(ModuleRevisionId askedMrid, ModuleRevisionId foundMrid,
             Comparator<ModuleRevisionId> staticComparator) {
-        String revision = askedMrid.getRevision();
-        Matcher m;
-        m = UPPER_INFINITE_RANGE.matcher(revision);
-        if (m.matches()) {
+        Range range = RANGES.get(askedMrid.getRevision());
+        if (range == NOT_A_RANGE) {
+            throw new IllegalArgumentException(
+                    "impossible to compare: askedMrid is not a dynamic revision: " + askedMrid);
+        }
+        if (range.upper == null) {
             // no upper limit, the dynamic revision can always be considered greater
             return 1;
         }
-        String upper;
-        m = FINITE_RANGE.matcher(revision);
-        if (m.matches()) {
-            upper = m.group(2);
-        } else {
-            m = LOWER_INFINITE_RANGE.matcher(revision);
-            if (m.matches()) {
-                upper = m.group(1);
-            } else {
-                throw new IllegalArgumentException(
-                        "impossible to compare: askedMrid is not a dynamic revision: " + askedMrid);
-            }
-        }
-        int c = staticComparator.compare(ModuleRevisionId.newInstance(askedMrid, upper), foundMrid);
+        int c = staticComparator.compare(ModuleRevisionId.newInstance(askedMrid, range.upper),
+            foundMrid);
         // if the comparison consider them equal, we must return -1, because we can't consider the
         // dynamic revision to be greater. Otherwise we can safely return the result of the static
         // comparison
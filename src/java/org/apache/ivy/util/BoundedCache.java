@@ -0,0 +1,121 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of values computed from keys, such as parsed versions, which can be used by many threads
+ * without contention.
+ * <p>
+ * The number of cached values is bounded: the cache is emptied when it is full, which keeps it
+ * cheap for the usual case where all the values fit, while a long running process going through
+ * more keys doesn't keep them all.
+ * </p>
+ *
+ * @param <K>
+ *            the type of the keys
+ * @param <V>
+ *            the type of the values, which must be immutable
+ */
+public abstract class BoundedCache<K, V> {
+
+    private final ConcurrentMap<K, V> values = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * @param maxSize
+     *            the maximum number of cached values
+     */
+    protected BoundedCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the value of the given key, computing it if it is not cached. The value may be
+     * computed more than once when several threads ask for it at the same time.
+     *
+     * @param key
+     *            the key of the value, never <code>null</code>
+     * @return the value of the key
+     */
+    public V get(K key) {
+        V value = values.get(key);
+        if (value != null) {
+            hitCount.incrementAndGet();
+            return value;
+        }
+        missCount.incrementAndGet();
+        value = compute(key);
+        int size = values.size();
+        if (size >= maxSize) {
+            values.clear();
+            evictionCount.addAndGet(size);
+        }
+        values.put(key, value);
+        return value;
+    }
+
+    public void clear() {
+        values.clear();
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedCache[size=" + size() + ", hits=" + getHitCount()
+                + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+    }
+
+    /**
+     * Computes the value of a key which is not cached.
+     *
+     * @param key
+     *            the key of the value
+     * @return the value of the key, never <code>null</code>
+     */
+    protected abstract V compute(K key);
+}
@@ -289,27 +289,24 @@ public class Configurator {
         }
     }
 
-    private static class ObjectDescriptor {
-        private Object obj;
-
-        private String objName;
-
-        private Map<String, Method> createMethods = new HashMap<>();
+    /**
+     * The methods of a class used to configure its instances, looked up once per class.
+     */
+    private static final class ClassDescriptor {
+        private final Map<String, Method> createMethods = new HashMap<>();
 
-        private Map<String, Method> addMethods = new HashMap<>();
+        private final Map<String, Method> addMethods = new HashMap<>();
 
-        private Map<String, Method> addConfiguredMethods = new HashMap<>();
+        private final Map<String, Method> addConfiguredMethods = new HashMap<>();
 
-        private Map<String, Method> setMethods = new HashMap<>();
+        private final Map<String, Method> setMethods = new HashMap<>();
 
-        private Map<Class<?>, Method> typeAddMethods = new HashMap<>();
+        private final Map<Class<?>, Method> typeAddMethods = new HashMap<>();
 
-        private Map<Class<?>, Method> typeAddConfiguredMethods = new HashMap<>();
+        private final Map<Class<?>, Method> typeAddConfiguredMethods = new HashMap<>();
 
-        public ObjectDescriptor(Object object, String objName) {
-            obj = object;
-            this.objName = objName;
-            for (Method m : object.getClass().getMethods()) {
+        private ClassDescriptor(Class<?> clazz) {
+            for (Method m : clazz.getMethods()) {
                 if (m.getName().startsWith("create") && m.getParameterTypes().length == 0
                         && !Void.TYPE.equals(m.getReturnType())) {
                     String name = StringUtils
@@ -317,23 +314,23 @@ public class Configurator {
                     if (name.length() == 0) {
                         continue;
                     }
-                    addCreateMethod(name, m);
+                    createMethods.put(name, m);
                 } else if (m.getName().startsWith("addConfigured")
                         && m.getParameterTypes().length == 1 && Void.TYPE.equals(m.getReturnType())) {
                     String name = StringUtils.uncapitalize(m.getName().substring(
                             "addConfigured".length()));
                     if (name.length() == 0) {
-                        addAddConfiguredMethod(m);
+                        typeAddConfiguredMethods.put(m.getParameterTypes()[0], m);
                     }
-                    addAddConfiguredMethod(name, m);
+                    addConfiguredMethods.put(name, m);
                 } else if (m.getName().startsWith("add")
                         && !m.getName().startsWith("addConfigured")
                         && m.getParameterTypes().length == 1 && Void.TYPE.equals(m.getReturnType())) {
                     String name = StringUtils.uncapitalize(m.getName().substring("add".length()));
                     if (name.length() == 0) {
-                        addAddMethod(m);
+                        typeAddMethods.put(m.getParameterTypes()[0], m);
                     }
-                    addAddMethod(name, m);
+                    addMethods.put(name, m);
                 } else if (m.getName().startsWith("set") && m.getParameterTypes().length == 1
                         && Void.TYPE.equals(m.getReturnType())) {
                     String name = StringUtils.uncapitalize(m.getName().substring("set".length()));
@@ -345,33 +342,50 @@ public class Configurator {
             }
         }
 
-        public void addCreateMethod(String name, Method m) {
-            createMethods.put(name, m);
+        private void addSetMethod(String name, Method m) {
+            Method current = setMethods.get(name);
+            if (current != null && current.getParameterTypes()[0] == String.class) {
+                // setter methods with String attribute take precedence
+                return;
+            }
+            setMethods.put(name, m);
         }
 
-        public void addAddMethod(String name, Method m) {
-            addMethods.put(name, m);
+        private static Method getTypeMatchingMethod(Class<?> type,
+                Map<Class<?>, Method> typeMethods) {
+            Method m = typeMethods.get(type);
+            if (m != null) {
+                return m;
+            }
+            for (Map.Entry<Class<?>, Method> method : typeMethods.entrySet()) {
+                if (method.getKey().isAssignableFrom(type)) {
+                    return method.getValue();
+                }
+            }
+            return null;
         }
+    }
 
-        public void addAddConfiguredMethod(String name, Method m) {
-            addConfiguredMethods.put(name, m);
-        }
+    // a ClassValue doesn't prevent the classes from being unloaded
+    private static final ClassValue<ClassDescriptor> CLASS_DESCRIPTORS =
+            new ClassValue<ClassDescriptor>() {
+                @Override
+                protected ClassDescriptor computeValue(Class<?> type) {
+                    return new ClassDescriptor(type);
+                }
+            };
 
-        private void addAddMethod(Method m) {
-            typeAddMethods.put(m.getParameterTypes()[0], m);
-        }
+    private static class ObjectDescriptor {
+        private Object obj;
 
-        private void addAddConfiguredMethod(Method m) {
-            typeAddConfiguredMethods.put(m.getParameterTypes()[0], m);
-        }
+        private String objName;
 
-        public void addSetMethod(String name, Method m) {
-            Method current = setMethods.get(name);
-            if (current != null && current.getParameterTypes()[0] == String.class) {
-                // setter methods with String attribute take precedence
-                return;
-            }
-            setMethods.put(name, m);
+        private ClassDescriptor classDescriptor;
+
+        public ObjectDescriptor(Object object, String objName) {
+            obj = object;
+            this.objName = objName;
+            classDescriptor = CLASS_DESCRIPTORS.get(object.getClass());
         }
 
         public Object getObject() {
@@ -379,40 +393,28 @@ public class Configurator {
         }
 
         public Method getCreateMethod(String name) {
-            return createMethods.get(name);
+            return classDescriptor.createMethods.get(name);
         }
 
         public Method getAddMethod(String name) {
-            return addMethods.get(name);
+            return classDescriptor.addMethods.get(name);
         }
 
         public Method getAddConfiguredMethod(String name) {
-            return addConfiguredMethods.get(name);
+            return classDescriptor.addConfiguredMethods.get(name);
         }
 
         public Method getAddMethod(Class<?> type) {
-            return getTypeMatchingMethod(type, typeAddMethods);
+            return ClassDescriptor.getTypeMatchingMethod(type, classDescriptor.typeAddMethods);
         }
 
         public Method getAddConfiguredMethod(Class<?> type) {
-            return getTypeMatchingMethod(type, typeAddConfiguredMethods);
-        }
-
-        private Method getTypeMatchingMethod(Class<?> type, Map<Class<?>, Method> typeMethods) {
-            Method m = typeMethods.get(type);
-            if (m != null) {
-                return m;
-            }
-            for (Map.Entry<Class<?>, Method> method : typeMethods.entrySet()) {
-                if (method.getKey().isAssignableFrom(type)) {
-                    return method.getValue();
-                }
-            }
-            return null;
+            return ClassDescriptor.getTypeMatchingMethod(type,
+                classDescriptor.typeAddConfiguredMethods);
         }
 
         public Method getSetMethod(String name) {
-            return setMethods.get(name);
+            return classDescriptor.setMethods.get(name);
         }
 
         public String getObjectName() {
@@ -34,6 +34,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URL;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -56,8 +57,8 @@ public final class FileUtil {
         // Utility class
     }
 
-    // according to tests by users, 64kB seems to be a good value for the buffer used during copy;
-    // further improvements could be obtained using NIO API
+    // according to tests by users, 64kB seems to be a good value for the buffer used during copy
+    // when the progress of the copy has to be reported
     private static final int BUFFER_SIZE = 64 * 1024;
 
     private static final byte[] EMPTY_BUFFER = new byte[0];
@@ -96,6 +97,29 @@ public final class FileUtil {
         return true;
     }
 
+    /**
+     * Creates a hard link at {@code link} to the file {@code target}. Hard links can only be
+     * created to files, on the same filesystem as the link, and on filesystems supporting them.
+     *
+     * @param target    The file to link to
+     * @param link      The path to the hard link that needs to be created
+     * @param overwrite {@code true} if any existing file at {@code link} has to be overwritten.
+     *                  False otherwise
+     * @return Returns true if the hard link was successfully created. Returns false if the target
+     * is not a file, or if a file exists at {@code link} and {@code overwrite} is false
+     * @throws IOException if {@link Files#createLink} fails
+     */
+    public static boolean hardlink(final File target, final File link, final boolean overwrite)
+            throws IOException {
+        if (!target.isFile() || !prepareCopy(target, link, overwrite)) {
+            return false;
+        }
+        // the existing file is replaced and not written to, since it may be a link to another file
+        Files.deleteIfExists(link.toPath());
+        Files.createLink(link.toPath(), target.getAbsoluteFile().toPath());
+        return true;
+    }
+
     public static boolean copy(File src, File dest, CopyProgressListener l) throws IOException {
         return copy(src, dest, l, false);
     }
@@ -155,7 +179,13 @@ public final class FileUtil {
             return deepCopy(src, dest, l, overwrite);
         }
         // else it is a file copy
-        copy(new FileInputStream(src), dest, l);
+        if (l == null) {
+            // no progress to report, let the JDK copy the file within the kernel when it can. The
+            // existing file is replaced and not written to, since it may be a link to another file
+            Files.copy(src.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            copy(new FileInputStream(src), dest, l);
+        }
         long srcLen = src.length();
         long destLen = dest.length();
         if (srcLen != destLen) {
@@ -0,0 +1,154 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The digests of a file downloaded by the current thread, computed from the bytes going through
+ * the {@link CopyProgressListener} of the download, so that the file doesn't have to be read again
+ * to compute its checksums.
+ * <p>
+ * The digests are installed for the current thread around a download with {@link #install()} and
+ * {@link #uninstall()}, and fed by the listeners of the repositories: they digest the first copy
+ * which ends while they are installed, the copies which fail before being restarted. When the file
+ * didn't go through such a listener, its digests are computed from the file.
+ * </p>
+ */
+public final class TransferDigests {
+    private static final ThreadLocal<TransferDigests> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, MessageDigest> digests = new LinkedHashMap<>();
+
+    private final Map<String, String> values = new LinkedHashMap<>();
+
+    private long length = 0;
+
+    private boolean ended = false;
+
+    /**
+     * @return the digests installed for the current thread, <code>null</code> if none
+     */
+    public static TransferDigests current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Adds an algorithm to the digests to compute. Unknown algorithms are ignored, they are
+     * reported when the checksums are checked.
+     *
+     * @param algorithm
+     *            the checksum algorithm, as known by {@link ChecksumHelper}
+     */
+    public void addAlgorithm(String algorithm) {
+        if (!ended && ChecksumHelper.isKnownAlgorithm(algorithm)
+                && !digests.containsKey(algorithm)) {
+            digests.put(algorithm, ChecksumHelper.getMessageDigest(algorithm));
+        }
+    }
+
+    public void install() {
+        CURRENT.set(this);
+    }
+
+    public void uninstall() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Called when a copy starts: the bytes of a previous copy which didn't end are forgotten.
+     */
+    public void start() {
+        if (ended) {
+            return;
+        }
+        for (MessageDigest md : digests.values()) {
+            md.reset();
+        }
+        length = 0;
+    }
+
+    public void update(byte[] buffer, int offset, int len) {
+        if (ended || len <= 0) {
+            return;
+        }
+        for (MessageDigest md : digests.values()) {
+            md.update(buffer, offset, len);
+        }
+        length += len;
+    }
+
+    /**
+     * Called when a copy ends: the next copies are not digested.
+     */
+    public void end() {
+        ended = true;
+    }
+
+    /**
+     * Returns the digest of the given file, computed from the downloaded bytes when they are the
+     * content of the file, or by reading the file otherwise.
+     *
+     * @param algorithm
+     *            the checksum algorithm
+     * @param file
+     *            the downloaded file
+     * @return the digest of the file, as an hexadecimal string
+     * @throws IOException
+     *             if the file has to be read and can't be
+     */
+    public String getDigest(String algorithm, File file) throws IOException {
+        String value = getTransferredDigest(algorithm, file);
+        if (value == null) {
+            value = ChecksumHelper.computeAsString(file, algorithm);
+            values.put(algorithm, value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the digests of the given file which are known without reading it.
+     *
+     * @param file
+     *            the downloaded file
+     * @return the digests of the file, as hexadecimal strings, by algorithm
+     */
+    public Map<String, String> getTransferredDigests(File file) {
+        for (String algorithm : digests.keySet()) {
+            getTransferredDigest(algorithm, file);
+        }
+        return new LinkedHashMap<>(values);
+    }
+
+    private String getTransferredDigest(String algorithm, File file) {
+        String value = values.get(algorithm);
+        MessageDigest md = digests.get(algorithm);
+        if (value == null && md != null && ended && length == file.length()) {
+            // digest() resets the message digest, the value is kept for the next calls
+            value = ChecksumHelper.byteArrayToHexString(md.digest());
+            values.put(algorithm, value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A pool of intern instances, which are only weakly referenced so that the instances no longer
+ * used elsewhere can be garbage collected.
+ * <p>
+ * Unlike a synchronized WeakHashMap, it can be used by many threads without contention: the
+ * instances are kept in a ConcurrentHashMap, and the entries of the garbage collected instances
+ * are removed by the threads interning new instances.
+ * </p>
+ *
+ * @param <T>
+ *            the type of the interned instances, which must be immutable as far as equals and
+ *            hashCode are concerned
+ */
+public final class WeakInterner<T> {
+
+    private final ConcurrentMap<Key<T>, Key<T>> instances = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<T> queue = new ReferenceQueue<>();
+
+    /**
+     * Returns the intern instance equal to the given instance if any, or adds the given instance
+     * to the intern instances and returns it.
+     *
+     * @param instance
+     *            the instance to intern, may be <code>null</code>
+     * @return the intern instance equal to the given one, <code>null</code> if the given instance
+     *         is <code>null</code>
+     */
+    public T intern(T instance) {
+        if (instance == null) {
+            return null;
+        }
+        expungeStaleEntries();
+        Key<T> lookup = new Key<>(instance, null);
+        Key<T> key = instances.get(lookup);
+        while (true) {
+            if (key != null) {
+                T intern = key.get();
+                if (intern != null) {
+                    return intern;
+                }
+                // garbage collected since the lookup, its entry is about to be removed
+                instances.remove(key, key);
+            }
+            Key<T> newKey = new Key<>(instance, queue);
+            key = instances.putIfAbsent(newKey, newKey);
+            if (key == null) {
+                return instance;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of intern instances, including the ones which have been garbage
+     * collected but whose entry has not been removed yet.
+     *
+     * @return the number of intern instances
+     */
+    public int size() {
+        expungeStaleEntries();
+        return instances.size();
+    }
+
+    private void expungeStaleEntries() {
+        Reference<? extends T> ref;
+        while ((ref = queue.poll()) != null) {
+            instances.remove(ref, ref);
+        }
+    }
+
+    /**
+     * The key of an intern instance, equal to the keys of the instances equal to it. Once its
+     * instance has been garbage collected, it is only equal to itself, so that it can still be
+     * removed from the map.
+     */
+    private static final class Key<T> extends WeakReference<T> {
+        private final int hash;
+
+        Key(T instance, ReferenceQueue<T> queue) {
+            super(instance, queue);
+            hash = instance.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key) || ((Key<?>) obj).hash != hash) {
+                return false;
+            }
+            Object instance = get();
+            return instance != null && instance.equals(((Key<?>) obj).get());
+        }
+    }
+}
@@ -25,6 +25,10 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
 import java.util.regex.Pattern;
 import java.util.zip.DataFormatException;
 import java.util.zip.GZIPInputStream;
@@ -198,4 +202,16 @@ public abstract class AbstractURLHandler implements URLHandler {
             }
         };
     }
+
+    /**
+     * Formats a timestamp as an HTTP date, as used in the If-Modified-Since header.
+     *
+     * @param time the timestamp to format
+     * @return the date in the RFC 1123 format
+     */
+    protected static String formatHttpDate(long time) {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format.format(new Date(time));
+    }
 }
@@ -37,13 +37,15 @@ import java.net.UnknownHostException;
 /**
  *
  */
-public class BasicURLHandler extends AbstractURLHandler implements TimeoutConstrainedURLHandler {
+public class BasicURLHandler extends AbstractURLHandler implements ConditionalURLHandler {
 
     private static final int BUFFER_SIZE = 64 * 1024;
 
     private static final class HttpStatus {
         static final int SC_OK = 200;
 
+        static final int SC_NOT_MODIFIED = 304;
+
         static final int SC_PROXY_AUTHENTICATION_REQUIRED = 407;
 
         private HttpStatus() {
@@ -104,7 +106,7 @@ public class BasicURLHandler extends AbstractURLHandler implements TimeoutConstr
                 if (checkStatusCode(normalizedURL, httpCon)) {
                     String bodyCharset = getCharSetFromContentType(con.getContentType());
                     return new URLInfo(true, httpCon.getContentLength(), con.getLastModified(),
-                            bodyCharset);
+                            bodyCharset, con.getHeaderField("ETag"));
                 }
             } else {
                 int contentLength = con.getContentLength();
@@ -230,6 +232,13 @@ public class BasicURLHandler extends AbstractURLHandler implements TimeoutConstr
     @Override
     public void download(final URL src, final File dest, final CopyProgressListener listener,
                          final TimeoutConstraint timeoutConstraint) throws IOException {
+        downloadIfModified(src, dest, listener, timeoutConstraint, null, 0);
+    }
+
+    @Override
+    public URLInfo downloadIfModified(final URL src, final File dest,
+            final CopyProgressListener listener, final TimeoutConstraint timeoutConstraint,
+            final String etag, final long lastModified) throws IOException {
 
         // Install the IvyAuthenticator
         if ("http".equals(src.getProtocol()) || "https".equals(src.getProtocol())) {
@@ -248,6 +257,16 @@ public class BasicURLHandler extends AbstractURLHandler implements TimeoutConstr
             srcConn.setRequestProperty("Accept-Encoding", "gzip,deflate");
             if (srcConn instanceof HttpURLConnection) {
                 HttpURLConnection httpCon = (HttpURLConnection) srcConn;
+                if (etag != null) {
+                    httpCon.setRequestProperty("If-None-Match", etag);
+                }
+                if (lastModified > 0) {
+                    httpCon.setIfModifiedSince(lastModified);
+                }
+                if (httpCon.getResponseCode() == HttpStatus.SC_NOT_MODIFIED
+                        && (etag != null || lastModified > 0)) {
+                    return null;
+                }
                 if (!checkStatusCode(normalizedURL, httpCon)) {
                     throw new IOException("The HTTP response code for " + normalizedURL
                             + " did not indicate a success." + " See log for more detail.");
@@ -271,10 +290,13 @@ public class BasicURLHandler extends AbstractURLHandler implements TimeoutConstr
             }
 
             // update modification date
-            long lastModified = srcConn.getLastModified();
-            if (lastModified > 0) {
-                dest.setLastModified(lastModified);
+            long srcLastModified = srcConn.getLastModified();
+            if (srcLastModified > 0) {
+                dest.setLastModified(srcLastModified);
             }
+            return new URLInfo(true, dest.length(), srcLastModified,
+                    getCharSetFromContentType(srcConn.getContentType()),
+                    srcConn.getHeaderField("ETag"));
         } finally {
             disconnect(srcConn);
         }
@@ -0,0 +1,57 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util.url;
+
+import org.apache.ivy.core.settings.TimeoutConstraint;
+import org.apache.ivy.util.CopyProgressListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * A {@link TimeoutConstrainedURLHandler} able to revalidate a resource previously downloaded: a
+ * single conditional request either tells that the resource has not been modified, or downloads
+ * its new content.
+ *
+ * @since 2.5
+ */
+public interface ConditionalURLHandler extends TimeoutConstrainedURLHandler {
+
+    /**
+     * Downloads the resource available at <code>src</code> to the target <code>dest</code>,
+     * unless it has not been modified since it was described by the given validators. For http
+     * URLs, the validators are sent in If-None-Match and If-Modified-Since headers, and a 304
+     * (Not Modified) response means the resource has not been modified.
+     *
+     * @param src               The source URL to download the resource from
+     * @param dest              The destination {@link File} to download the resource to
+     * @param listener          The listener that will be notified of the download progress
+     * @param timeoutConstraint The connectivity timeout constraints. Can be null, in which case
+     *                          the timeouts are implementation specific
+     * @param etag              The entity tag of the previously downloaded resource. Can be null
+     * @param lastModified      The last modified timestamp of the previously downloaded resource,
+     *                          0 if unknown
+     * @return the information about the downloaded resource, or <code>null</code> if it has not
+     *         been modified, in which case <code>dest</code> is left untouched
+     * @throws IOException if something goes wrong
+     */
+    URLInfo downloadIfModified(URL src, File dest, CopyProgressListener listener,
+            TimeoutConstraint timeoutConstraint, String etag, long lastModified)
+            throws IOException;
+}
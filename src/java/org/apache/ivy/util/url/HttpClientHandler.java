@@ -67,7 +67,7 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  *
  */
-public class HttpClientHandler extends AbstractURLHandler implements TimeoutConstrainedURLHandler, AutoCloseable {
+public class HttpClientHandler extends AbstractURLHandler implements ConditionalURLHandler, AutoCloseable {
     private static final SimpleDateFormat LAST_MODIFIED_FORMAT = new SimpleDateFormat(
             "EEE, d MMM yyyy HH:mm:ss z", Locale.US);
 
@@ -152,10 +152,21 @@ public class HttpClientHandler extends AbstractURLHandler implements TimeoutCons
     @Override
     public void download(final URL src, final File dest, final CopyProgressListener listener,
                          final TimeoutConstraint timeoutConstraint) throws IOException {
+        downloadIfModified(src, dest, listener, timeoutConstraint, null, 0);
+    }
+
+    @Override
+    public URLInfo downloadIfModified(final URL src, final File dest, final CopyProgressListener listener,
+                                      final TimeoutConstraint timeoutConstraint, final String etag,
+                                      final long lastModified) throws IOException {
 
         final int connectionTimeout = (timeoutConstraint == null || timeoutConstraint.getConnectionTimeout() < 0) ? 0 : timeoutConstraint.getConnectionTimeout();
         final int readTimeout = (timeoutConstraint == null || timeoutConstraint.getReadTimeout() < 0) ? 0 : timeoutConstraint.getReadTimeout();
-        try (final CloseableHttpResponse response = doGet(src, connectionTimeout, readTimeout)) {
+        try (final CloseableHttpResponse response = doGet(src, connectionTimeout, readTimeout, etag, lastModified)) {
+            if (response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED
+                    && (etag != null || lastModified > 0)) {
+                return null;
+            }
             // We can only figure the content we got is want we want if the status is success.
             this.requireSuccessStatus(HttpGet.METHOD_NAME, src, response);
             final Header encoding = this.getContentEncoding(response);
@@ -163,7 +174,12 @@ public class HttpClientHandler extends AbstractURLHandler implements TimeoutCons
                     response.getEntity().getContent())) {
                 FileUtil.copy(is, dest, listener);
             }
-            dest.setLastModified(getLastModified(response));
+            final long srcLastModified = getLastModified(response);
+            dest.setLastModified(srcLastModified);
+            final Header etagHeader = response.getFirstHeader("ETag");
+            return new URLInfo(true, dest.length(), srcLastModified,
+                    ContentType.getOrDefault(response.getEntity()).getCharset().name(),
+                    etagHeader == null ? null : etagHeader.getValue());
         }
     }
 
@@ -239,8 +255,10 @@ public class HttpClientHandler extends AbstractURLHandler implements TimeoutCons
             if (checkStatusCode(httpMethod, url, response)) {
                 final HttpEntity responseEntity = response.getEntity();
                 final Charset charSet = ContentType.getOrDefault(responseEntity).getCharset();
+                final Header etagHeader = response.getFirstHeader("ETag");
                 return new URLInfo(true, responseEntity == null ? 0 : responseEntity.getContentLength(),
-                        getLastModified(response), charSet.name());
+                        getLastModified(response), charSet.name(),
+                        etagHeader == null ? null : etagHeader.getValue());
             }
         } catch (IOException | IllegalArgumentException e) {
             // IllegalArgumentException is thrown by HttpClient library to indicate the URL is not valid,
@@ -323,6 +341,11 @@ public class HttpClientHandler extends AbstractURLHandler implements TimeoutCons
     }
 
     private CloseableHttpResponse doGet(final URL url, final int connectionTimeout, final int readTimeout) throws IOException {
+        return doGet(url, connectionTimeout, readTimeout, null, 0);
+    }
+
+    private CloseableHttpResponse doGet(final URL url, final int connectionTimeout, final int readTimeout,
+                                        final String etag, final long lastModified) throws IOException {
         final RequestConfig requestConfig = RequestConfig.custom().setSocketTimeout(readTimeout)
                 .setConnectTimeout(connectionTimeout)
                 .setAuthenticationEnabled(hasCredentialsConfigured(url))
@@ -332,6 +355,12 @@ public class HttpClientHandler extends AbstractURLHandler implements TimeoutCons
         final HttpGet httpGet = new HttpGet(normalizeToString(url));
         httpGet.setConfig(requestConfig);
         httpGet.addHeader("Accept-Encoding", "gzip,deflate");
+        if (etag != null) {
+            httpGet.addHeader("If-None-Match", etag);
+        }
+        if (lastModified > 0) {
+            httpGet.addHeader("If-Modified-Since", formatHttpDate(lastModified));
+        }
         return this.httpClient.execute(httpGet);
     }
 
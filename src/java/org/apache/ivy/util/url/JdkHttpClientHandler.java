@@ -0,0 +1,746 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util.url;
+
+import org.apache.ivy.core.settings.TimeoutConstraint;
+import org.apache.ivy.util.CopyProgressEvent;
+import org.apache.ivy.util.CopyProgressListener;
+import org.apache.ivy.util.FileUtil;
+import org.apache.ivy.util.Message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.Authenticator;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link TimeoutConstrainedURLHandler} based on the HTTP client of the JDK
+ * (<code>java.net.http.HttpClient</code>), available since Java 11.
+ * <p>
+ * A single client is used by each handler, which negotiates HTTP/2 when the server supports it:
+ * concurrent requests to the same server are then multiplexed on a single connection instead of
+ * using one connection each. Besides the blocking methods of {@link TimeoutConstrainedURLHandler},
+ * {@link #getURLInfoAsync(URL, TimeoutConstraint)} and
+ * {@link #downloadAsync(URL, File, CopyProgressListener, TimeoutConstraint)} send a request without
+ * waiting for its response.
+ * </p>
+ * <p>
+ * Since Ivy still runs on older JVMs, the client is used through reflection: use
+ * {@link #isSupported()} to know if this handler can be used. URLs which are neither http nor
+ * https are handled by a {@link BasicURLHandler}.
+ * </p>
+ */
+public class JdkHttpClientHandler extends AbstractURLHandler implements ConditionalURLHandler {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final HttpClientApi API = HttpClientApi.load();
+
+    private final BasicURLHandler fallback = new BasicURLHandler();
+
+    private volatile Object client;
+
+    /**
+     * Indicates if the HTTP client of the JDK is available in this JVM.
+     *
+     * @return <code>true</code> if this handler can be used
+     */
+    public static boolean isSupported() {
+        return API != null;
+    }
+
+    public JdkHttpClientHandler() {
+        if (API == null) {
+            throw new UnsupportedOperationException(
+                    "java.net.http.HttpClient is not available, it requires Java 11 or later");
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public URLInfo getURLInfo(final URL url) {
+        return this.getURLInfo(url, null);
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public URLInfo getURLInfo(final URL url, final int timeout) {
+        return this.getURLInfo(url, createTimeoutConstraints(timeout));
+    }
+
+    @Override
+    public boolean isReachable(final URL url, final TimeoutConstraint timeoutConstraint) {
+        return this.getURLInfo(url, timeoutConstraint).isReachable();
+    }
+
+    @Override
+    public long getContentLength(final URL url, final TimeoutConstraint timeoutConstraint) {
+        return this.getURLInfo(url, timeoutConstraint).getContentLength();
+    }
+
+    @Override
+    public long getLastModified(final URL url, final TimeoutConstraint timeoutConstraint) {
+        return this.getURLInfo(url, timeoutConstraint).getLastModified();
+    }
+
+    @Override
+    public URLInfo getURLInfo(final URL url, final TimeoutConstraint timeoutConstraint) {
+        if (!isHttp(url)) {
+            return fallback.getURLInfo(url, timeoutConstraint);
+        }
+        try {
+            return getURLInfoAsync(url, timeoutConstraint).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // reset interrupt status
+            Message.verbose("interrupted while accessing " + url);
+            return UNAVAILABLE;
+        } catch (ExecutionException e) {
+            // never thrown, failures make the URL unavailable
+            return UNAVAILABLE;
+        }
+    }
+
+    /**
+     * Sends a request to get the information about the given http or https URL, without waiting
+     * for the response.
+     *
+     * @param url
+     *            the http or https URL
+     * @param timeoutConstraint
+     *            the timeouts to apply, may be <code>null</code>
+     * @return the information about the URL, {@link #UNAVAILABLE} if it can't be reached
+     */
+    public Future<URLInfo> getURLInfoAsync(final URL url,
+            final TimeoutConstraint timeoutConstraint) {
+        final String method = getRequestMethod() == TimeoutConstrainedURLHandler.REQUEST_METHOD_HEAD
+                ? "HEAD"
+                : "GET";
+        final Future<?> response;
+        try {
+            response = sendAsync(newRequest(url, method, API.noBody(), timeoutConstraint),
+                API.discarding());
+        } catch (IOException e) {
+            Message.error("Server access error at url " + url, e);
+            return new ResponseFuture<URLInfo>(null) {
+                @Override
+                protected URLInfo convert(Object response) {
+                    return UNAVAILABLE;
+                }
+            };
+        }
+        return new ResponseFuture<URLInfo>(response) {
+            @Override
+            protected URLInfo convert(Object response) throws IOException {
+                if (response == null) {
+                    return UNAVAILABLE;
+                }
+                if (!checkStatusCode(url, method, response)) {
+                    return UNAVAILABLE;
+                }
+                String contentLength = API.header(response, "Content-Length");
+                return new URLInfo(true, contentLength == null ? -1
+                        : Long.parseLong(contentLength), getLastModified(response),
+                        BasicURLHandler.getCharSetFromContentType(API.header(response,
+                            "Content-Type")), API.header(response, "ETag"));
+            }
+
+            @Override
+            protected URLInfo failed(Throwable cause) {
+                if (cause instanceof UnknownHostException) {
+                    Message.warn("Host " + cause.getMessage() + " not found. url=" + url);
+                    Message.info("You probably access the destination server through "
+                            + "a proxy server that is not well configured.");
+                } else {
+                    Message.error("Server access error at url " + url, cause);
+                }
+                return UNAVAILABLE;
+            }
+        };
+    }
+
+    @Override
+    public InputStream openStream(final URL url) throws IOException {
+        return this.openStream(url, null);
+    }
+
+    @Override
+    public InputStream openStream(final URL url, final TimeoutConstraint timeoutConstraint)
+            throws IOException {
+        if (!isHttp(url)) {
+            return fallback.openStream(url, timeoutConstraint);
+        }
+        Object response = get(sendAsync(
+            newRequest(url, "GET", API.noBody(), timeoutConstraint, "Accept-Encoding",
+                "gzip,deflate"), API.ofInputStream()));
+        try (InputStream inStream = getDecodingInputStream(API.header(response,
+            "Content-Encoding"), (InputStream) API.body(response))) {
+            if (!checkStatusCode(url, "GET", response)) {
+                throw new IOException("The HTTP response code for " + url
+                        + " did not indicate a success." + " See log for more detail.");
+            }
+            ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int len;
+            while ((len = inStream.read(buffer)) > 0) {
+                outStream.write(buffer, 0, len);
+            }
+            return new ByteArrayInputStream(outStream.toByteArray());
+        }
+    }
+
+    @Override
+    public void download(final URL src, final File dest, final CopyProgressListener l)
+            throws IOException {
+        this.download(src, dest, l, null);
+    }
+
+    @Override
+    public void download(final URL src, final File dest, final CopyProgressListener listener,
+            final TimeoutConstraint timeoutConstraint) throws IOException {
+        if (!isHttp(src)) {
+            fallback.download(src, dest, listener, timeoutConstraint);
+            return;
+        }
+        get(downloadAsync(src, dest, listener, timeoutConstraint));
+    }
+
+    /**
+     * Sends a request to download the given http or https URL, without waiting for the response.
+     * The content is written to the destination file by the thread getting the result of the
+     * returned future.
+     *
+     * @param src
+     *            the http or https URL to download
+     * @param dest
+     *            the destination file
+     * @param listener
+     *            the listener of the copy, may be <code>null</code>
+     * @param timeoutConstraint
+     *            the timeouts to apply, may be <code>null</code>
+     * @return the destination file, once downloaded
+     * @throws IOException
+     *             if the request can't be sent
+     */
+    public Future<File> downloadAsync(final URL src, final File dest,
+            final CopyProgressListener listener, final TimeoutConstraint timeoutConstraint)
+            throws IOException {
+        return new ResponseFuture<File>(sendDownloadRequest(src, timeoutConstraint, null, 0)) {
+            @Override
+            protected File convert(Object response) throws IOException {
+                receive(src, dest, listener, response);
+                return dest;
+            }
+        };
+    }
+
+    @Override
+    public URLInfo downloadIfModified(final URL src, final File dest,
+            final CopyProgressListener listener, final TimeoutConstraint timeoutConstraint,
+            final String etag, final long lastModified) throws IOException {
+        if (!isHttp(src)) {
+            return fallback.downloadIfModified(src, dest, listener, timeoutConstraint, etag,
+                lastModified);
+        }
+        return get(downloadIfModifiedAsync(src, dest, listener, timeoutConstraint, etag,
+            lastModified));
+    }
+
+    /**
+     * Sends a conditional request to download the given http or https URL unless it has not been
+     * modified, without waiting for the response.
+     *
+     * @param src
+     *            the http or https URL to download
+     * @param dest
+     *            the destination file
+     * @param listener
+     *            the listener of the copy, may be <code>null</code>
+     * @param timeoutConstraint
+     *            the timeouts to apply, may be <code>null</code>
+     * @param etag
+     *            the entity tag of the previously downloaded resource, may be <code>null</code>
+     * @param lastModified
+     *            the last modified timestamp of the previously downloaded resource, 0 if unknown
+     * @return the information about the downloaded resource, <code>null</code> if it has not
+     *         been modified
+     * @throws IOException
+     *             if the request can't be sent
+     * @see ConditionalURLHandler#downloadIfModified(URL, File, CopyProgressListener,
+     *      TimeoutConstraint, String, long)
+     */
+    public Future<URLInfo> downloadIfModifiedAsync(final URL src, final File dest,
+            final CopyProgressListener listener, final TimeoutConstraint timeoutConstraint,
+            final String etag, final long lastModified) throws IOException {
+        return new ResponseFuture<URLInfo>(sendDownloadRequest(src, timeoutConstraint, etag,
+            lastModified)) {
+            @Override
+            protected URLInfo convert(Object response) throws IOException {
+                if (API.statusCode(response) == 304 && (etag != null || lastModified > 0)) {
+                    ((InputStream) API.body(response)).close();
+                    return null;
+                }
+                return receive(src, dest, listener, response);
+            }
+        };
+    }
+
+    private Future<?> sendDownloadRequest(URL src, TimeoutConstraint timeoutConstraint,
+            String etag, long lastModified) throws IOException {
+        List<String> headers = new ArrayList<>();
+        headers.add("Accept-Encoding");
+        headers.add("gzip,deflate");
+        if (etag != null) {
+            headers.add("If-None-Match");
+            headers.add(etag);
+        }
+        if (lastModified > 0) {
+            headers.add("If-Modified-Since");
+            headers.add(formatHttpDate(lastModified));
+        }
+        return sendAsync(newRequest(src, "GET", API.noBody(), timeoutConstraint,
+            headers.toArray(new String[headers.size()])), API.ofInputStream());
+    }
+
+    private URLInfo receive(URL src, File dest, CopyProgressListener listener, Object response)
+            throws IOException {
+        String contentEncoding = API.header(response, "Content-Encoding");
+        InputStream body = (InputStream) API.body(response);
+        if (!checkStatusCode(src, "GET", response)) {
+            body.close();
+            throw new IOException("The HTTP response code for " + src
+                    + " did not indicate a success." + " See log for more detail.");
+        }
+        FileUtil.copy(getDecodingInputStream(contentEncoding, body), dest, listener);
+
+        // check content length only if content was not encoded
+        String contentLength = API.header(response, "Content-Length");
+        if (contentEncoding == null && contentLength != null
+                && dest.length() != Long.parseLong(contentLength)) {
+            dest.delete();
+            throw new IOException(
+                    "Downloaded file size doesn't match expected Content Length for " + src
+                            + ". Please retry.");
+        }
+
+        // update modification date
+        long lastModified = getLastModified(response);
+        if (lastModified > 0) {
+            dest.setLastModified(lastModified);
+        }
+        return new URLInfo(true, dest.length(), lastModified,
+                BasicURLHandler.getCharSetFromContentType(API.header(response, "Content-Type")),
+                API.header(response, "ETag"));
+    }
+
+    @Override
+    public void upload(final File source, final URL dest, final CopyProgressListener l)
+            throws IOException {
+        this.upload(source, dest, l, null);
+    }
+
+    @Override
+    public void upload(final File src, final URL dest, final CopyProgressListener listener,
+            final TimeoutConstraint timeoutConstraint) throws IOException {
+        if (!isHttp(dest)) {
+            throw new UnsupportedOperationException(
+                    "URL repository only support HTTP PUT at the moment");
+        }
+        CopyProgressEvent evt = new CopyProgressEvent();
+        if (listener != null) {
+            listener.start(evt);
+        }
+        Object request = newRequest(dest, "PUT", API.ofFile(src), timeoutConstraint);
+        Object response = get(sendAsync(request, API.discarding()));
+        validatePutStatusCode(dest, API.statusCode(response), null);
+        if (listener != null) {
+            listener.end(new CopyProgressEvent(new byte[0], src.length()));
+        }
+    }
+
+    private static boolean isHttp(URL url) {
+        return "http".equals(url.getProtocol()) || "https".equals(url.getProtocol());
+    }
+
+    private Object getClient() throws IOException {
+        Object httpClient = client;
+        if (httpClient == null) {
+            synchronized (this) {
+                httpClient = client;
+                if (httpClient == null) {
+                    // the client asks the default authenticator for credentials
+                    IvyAuthenticator.install();
+                    httpClient = API.newClient();
+                    client = httpClient;
+                }
+            }
+        }
+        return httpClient;
+    }
+
+    private Object newRequest(URL url, String method, Object bodyPublisher,
+            TimeoutConstraint timeoutConstraint, String... headers) throws IOException {
+        long timeout = 0;
+        if (timeoutConstraint != null) {
+            // the client only supports a timeout for the whole request
+            timeout = Math.max(timeoutConstraint.getConnectionTimeout(), 0)
+                    + Math.max(timeoutConstraint.getReadTimeout(), 0);
+        }
+        return API.newRequest(URI.create(normalizeToString(url)), method, bodyPublisher, timeout,
+            getUserAgent(), headers);
+    }
+
+    private Future<?> sendAsync(Object request, Object bodyHandler) throws IOException {
+        return API.sendAsync(getClient(), request, bodyHandler);
+    }
+
+    private static <T> T get(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // reset interrupt status
+            throw new InterruptedIOException("operation interrupted");
+        } catch (ExecutionException e) {
+            throw toIOException(e.getCause());
+        }
+    }
+
+    private static IOException toIOException(Throwable cause) {
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IOException(cause);
+    }
+
+    private boolean checkStatusCode(URL url, String method, Object response) throws IOException {
+        int status = API.statusCode(response);
+        if (status == 200) {
+            return true;
+        }
+
+        // IVY-1328: some servers return a 204 on a HEAD request
+        if ("HEAD".equals(method) && status == 204) {
+            return true;
+        }
+
+        Message.debug("HTTP response status: " + status + " url=" + url);
+        if (status == 407) {
+            Message.warn("Your proxy requires authentication.");
+        } else if (String.valueOf(status).startsWith("4")) {
+            Message.verbose("CLIENT ERROR: " + status + " url=" + url);
+        } else if (String.valueOf(status).startsWith("5")) {
+            Message.error("SERVER ERROR: " + status + " url=" + url);
+        }
+        return false;
+    }
+
+    private static long getLastModified(Object response) throws IOException {
+        String lastModified = API.header(response, "Last-Modified");
+        if (lastModified == null) {
+            return 0;
+        }
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz",
+                Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            return format.parse(lastModified).getTime();
+        } catch (ParseException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * The result of a request sent asynchronously, converted when it is asked for.
+     */
+    private abstract static class ResponseFuture<T> implements Future<T> {
+        private final Future<?> response;
+
+        ResponseFuture(Future<?> response) {
+            this.response = response;
+        }
+
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return response != null && response.cancel(mayInterruptIfRunning);
+        }
+
+        public boolean isCancelled() {
+            return response != null && response.isCancelled();
+        }
+
+        public boolean isDone() {
+            return response == null || response.isDone();
+        }
+
+        public T get() throws InterruptedException, ExecutionException {
+            try {
+                return convert(response == null ? null : response.get());
+            } catch (ExecutionException e) {
+                return failed(e.getCause());
+            } catch (IOException e) {
+                return failed(e);
+            }
+        }
+
+        public T get(long timeout, TimeUnit unit) throws InterruptedException,
+                ExecutionException, TimeoutException {
+            try {
+                return convert(response == null ? null : response.get(timeout, unit));
+            } catch (ExecutionException e) {
+                return failed(e.getCause());
+            } catch (IOException e) {
+                return failed(e);
+            }
+        }
+
+        protected abstract T convert(Object response) throws IOException;
+
+        protected T failed(Throwable cause) throws ExecutionException {
+            throw new ExecutionException(cause);
+        }
+    }
+
+    /**
+     * The methods of <code>java.net.http</code> used by this handler, looked up by reflection.
+     */
+    private static final class HttpClientApi {
+        private Method newClientBuilder;
+
+        private Method clientVersion;
+
+        private Method clientFollowRedirects;
+
+        private Method clientProxy;
+
+        private Method clientAuthenticator;
+
+        private Method clientBuild;
+
+        private Object http2;
+
+        private Object redirectNormal;
+
+        private Method getDefaultAuthenticator;
+
+        private Method newRequestBuilder;
+
+        private Method requestHeader;
+
+        private Method requestTimeout;
+
+        private Method requestMethod;
+
+        private Method requestBuild;
+
+        private Method durationOfMillis;
+
+        private Method noBody;
+
+        private Method ofFile;
+
+        private Method discarding;
+
+        private Method ofInputStream;
+
+        private Method sendAsync;
+
+        private Method statusCode;
+
+        private Method headers;
+
+        private Method firstValue;
+
+        private Method optionalOrElse;
+
+        private Method body;
+
+        static HttpClientApi load() {
+            try {
+                HttpClientApi api = new HttpClientApi();
+                ClassLoader loader = ClassLoader.getSystemClassLoader();
+                Class<?> clientClass = Class.forName("java.net.http.HttpClient", false, loader);
+                Class<?> clientBuilderClass = Class.forName("java.net.http.HttpClient$Builder",
+                    false, loader);
+                Class<?> versionClass = Class.forName("java.net.http.HttpClient$Version", false,
+                    loader);
+                Class<?> redirectClass = Class.forName("java.net.http.HttpClient$Redirect",
+                    false, loader);
+                Class<?> requestClass = Class.forName("java.net.http.HttpRequest", false, loader);
+                Class<?> requestBuilderClass = Class.forName("java.net.http.HttpRequest$Builder",
+                    false, loader);
+                Class<?> bodyPublisherClass = Class.forName(
+                    "java.net.http.HttpRequest$BodyPublisher", false, loader);
+                Class<?> bodyPublishersClass = Class.forName(
+                    "java.net.http.HttpRequest$BodyPublishers", false, loader);
+                Class<?> bodyHandlerClass = Class.forName(
+                    "java.net.http.HttpResponse$BodyHandler", false, loader);
+                Class<?> bodyHandlersClass = Class.forName(
+                    "java.net.http.HttpResponse$BodyHandlers", false, loader);
+                Class<?> responseClass = Class.forName("java.net.http.HttpResponse", false,
+                    loader);
+                Class<?> headersClass = Class.forName("java.net.http.HttpHeaders", false, loader);
+                Class<?> durationClass = Class.forName("java.time.Duration", false, loader);
+                Class<?> optionalClass = Class.forName("java.util.Optional", false, loader);
+
+                api.newClientBuilder = clientClass.getMethod("newBuilder");
+                api.clientVersion = clientBuilderClass.getMethod("version", versionClass);
+                api.clientFollowRedirects = clientBuilderClass.getMethod("followRedirects",
+                    redirectClass);
+                api.clientProxy = clientBuilderClass.getMethod("proxy", ProxySelector.class);
+                api.clientAuthenticator = clientBuilderClass.getMethod("authenticator",
+                    Authenticator.class);
+                api.clientBuild = clientBuilderClass.getMethod("build");
+                api.http2 = enumConstant(versionClass, "HTTP_2");
+                api.redirectNormal = enumConstant(redirectClass, "NORMAL");
+                api.getDefaultAuthenticator = Authenticator.class.getMethod("getDefault");
+
+                api.newRequestBuilder = requestClass.getMethod("newBuilder", URI.class);
+                api.requestHeader = requestBuilderClass.getMethod("header", String.class,
+                    String.class);
+                api.requestTimeout = requestBuilderClass.getMethod("timeout", durationClass);
+                api.requestMethod = requestBuilderClass.getMethod("method", String.class,
+                    bodyPublisherClass);
+                api.requestBuild = requestBuilderClass.getMethod("build");
+                api.durationOfMillis = durationClass.getMethod("ofMillis", long.class);
+                api.noBody = bodyPublishersClass.getMethod("noBody");
+                api.ofFile = bodyPublishersClass.getMethod("ofFile",
+                    Class.forName("java.nio.file.Path", false, loader));
+                api.discarding = bodyHandlersClass.getMethod("discarding");
+                api.ofInputStream = bodyHandlersClass.getMethod("ofInputStream");
+
+                api.sendAsync = clientClass.getMethod("sendAsync", requestClass,
+                    bodyHandlerClass);
+                api.statusCode = responseClass.getMethod("statusCode");
+                api.headers = responseClass.getMethod("headers");
+                api.firstValue = headersClass.getMethod("firstValue", String.class);
+                api.optionalOrElse = optionalClass.getMethod("orElse", Object.class);
+                api.body = responseClass.getMethod("body");
+                return api;
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                Message.debug("java.net.http.HttpClient is not available: " + e);
+                return null;
+            }
+        }
+
+        private static Object enumConstant(Class<?> enumClass, String name) {
+            for (Object constant : enumClass.getEnumConstants()) {
+                if (((Enum<?>) constant).name().equals(name)) {
+                    return constant;
+                }
+            }
+            throw new IllegalArgumentException("no " + name + " in " + enumClass);
+        }
+
+        Object newClient() throws IOException {
+            Object builder = invoke(newClientBuilder, null);
+            invoke(clientVersion, builder, http2);
+            invoke(clientFollowRedirects, builder, redirectNormal);
+            ProxySelector proxySelector = ProxySelector.getDefault();
+            if (proxySelector != null) {
+                invoke(clientProxy, builder, proxySelector);
+            }
+            Object authenticator = invoke(getDefaultAuthenticator, null);
+            if (authenticator != null) {
+                invoke(clientAuthenticator, builder, authenticator);
+            }
+            return invoke(clientBuild, builder);
+        }
+
+        Object newRequest(URI uri, String method, Object bodyPublisher, long timeout,
+                String userAgent, String... headers) throws IOException {
+            Object builder = invoke(newRequestBuilder, null, uri);
+            invoke(requestHeader, builder, "User-Agent", userAgent);
+            for (int i = 0; i + 1 < headers.length; i += 2) {
+                invoke(requestHeader, builder, headers[i], headers[i + 1]);
+            }
+            if (timeout > 0) {
+                invoke(requestTimeout, builder, invoke(durationOfMillis, null, timeout));
+            }
+            invoke(requestMethod, builder, method, bodyPublisher);
+            return invoke(requestBuild, builder);
+        }
+
+        Object noBody() throws IOException {
+            return invoke(noBody, null);
+        }
+
+        Object ofFile(File file) throws IOException {
+            return invoke(ofFile, null, file.toPath());
+        }
+
+        Object discarding() throws IOException {
+            return invoke(discarding, null);
+        }
+
+        Object ofInputStream() throws IOException {
+            return invoke(ofInputStream, null);
+        }
+
+        Future<?> sendAsync(Object client, Object request, Object bodyHandler)
+                throws IOException {
+            return (Future<?>) invoke(sendAsync, client, request, bodyHandler);
+        }
+
+        int statusCode(Object response) throws IOException {
+            return (Integer) invoke(statusCode, response);
+        }
+
+        String header(Object response, String name) throws IOException {
+            Object value = invoke(firstValue, invoke(headers, response), name);
+            return (String) invoke(optionalOrElse, value, (Object) null);
+        }
+
+        Object body(Object response) throws IOException {
+            return invoke(body, response);
+        }
+
+        private static Object invoke(Method method, Object target, Object... args)
+                throws IOException {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw toIOException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
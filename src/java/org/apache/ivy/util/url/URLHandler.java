@@ -55,16 +55,24 @@ public interface URLHandler {
 
         private String bodyCharset;
 
+        private String etag;
+
         protected URLInfo(boolean available, long contentLength, long lastModified) {
             this(available, contentLength, lastModified, null);
         }
 
         protected URLInfo(boolean available, long contentLength, long lastModified,
                           String bodyCharset) {
+            this(available, contentLength, lastModified, bodyCharset, null);
+        }
+
+        protected URLInfo(boolean available, long contentLength, long lastModified,
+                          String bodyCharset, String etag) {
             this.available = available;
             this.contentLength = contentLength;
             this.lastModified = lastModified;
             this.bodyCharset = bodyCharset;
+            this.etag = etag;
         }
 
         public boolean isReachable() {
@@ -82,6 +90,16 @@ public interface URLHandler {
         public String getBodyCharset() {
             return bodyCharset;
         }
+
+        /**
+         * Returns the entity tag of the resource, as sent by the server in the ETag header.
+         *
+         * @return the entity tag, or <code>null</code> if the server didn't send any
+         * @since 2.5
+         */
+        public String getETag() {
+            return etag;
+        }
     }
 
     URLInfo UNAVAILABLE = new URLInfo(false, 0, 0);
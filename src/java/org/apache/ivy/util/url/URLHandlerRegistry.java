@@ -25,6 +25,20 @@ import java.lang.reflect.Field;
  *
  */
 public final class URLHandlerRegistry {
+    /**
+     * The system property selecting the http downloader returned by {@link #getHttp()}: when set
+     * to {@value #JDK_HTTP_HANDLER}, the HTTP/2 capable client of the JDK is used if available.
+     * Suffixed by a protocol, like <code>ivy.http.handler.https</code>, it selects the downloader
+     * returned by {@link #getHttp(String)} for this protocol only.
+     */
+    public static final String HTTP_HANDLER_PROPERTY = "ivy.http.handler";
+
+    public static final String JDK_HTTP_HANDLER = "jdk";
+
+    public static final String HTTPCLIENT_HTTP_HANDLER = "httpclient";
+
+    public static final String BASIC_HTTP_HANDLER = "basic";
+
     private URLHandlerRegistry() {
     }
 
@@ -48,6 +62,36 @@ public final class URLHandlerRegistry {
      * @return most accurate http downloader
      */
     public static TimeoutConstrainedURLHandler getHttp() {
+        return getHttp(null);
+    }
+
+    /**
+     * Returns the http downloader to use for the given protocol, as selected by the
+     * <code>ivy.http.handler.&lt;protocol&gt;</code> system property, or else by the
+     * {@value #HTTP_HANDLER_PROPERTY} system property. When none is selected, the most accurate
+     * one is returned, like {@link #getHttp()}.
+     *
+     * @param protocol
+     *            the protocol of the URLs to handle, like http or https, may be <code>null</code>
+     * @return the http downloader of the protocol
+     */
+    public static TimeoutConstrainedURLHandler getHttp(String protocol) {
+        String name = protocol == null ? null
+                : System.getProperty(HTTP_HANDLER_PROPERTY + "." + protocol);
+        if (name == null) {
+            name = System.getProperty(HTTP_HANDLER_PROPERTY);
+        }
+        if (JDK_HTTP_HANDLER.equals(name)) {
+            if (JdkHttpClientHandler.isSupported()) {
+                return JdkHttpHolder.INSTANCE;
+            }
+            Message.verbose("The JDK HTTP client requires Java 11 or later, it can't be used as "
+                    + "http downloader");
+        } else if (BASIC_HTTP_HANDLER.equals(name)) {
+            return new BasicURLHandler();
+        } else if (name != null && !HTTPCLIENT_HTTP_HANDLER.equals(name)) {
+            Message.warn("unknown http downloader '" + name + "', the default one is used");
+        }
         try {
             // check for the presence of HttpComponents HttpClient
             Class.forName("org.apache.http.client.HttpClient");
@@ -65,4 +109,8 @@ public final class URLHandlerRegistry {
         }
     }
 
+    // a single client is shared so that concurrent requests are multiplexed on its connections
+    private static final class JdkHttpHolder {
+        private static final JdkHttpClientHandler INSTANCE = new JdkHttpClientHandler();
+    }
 }
@@ -0,0 +1,69 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.core.module.descriptor.Artifact;
+import org.apache.ivy.core.module.descriptor.DefaultArtifact;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Substitutes the tokens of the default cache pattern and of a Maven 2 repository pattern.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IvyPatternHelperBenchmark {
+
+    private static final String CACHE_PATTERN =
+            "[organisation]/[module](/[branch])/[type]s/[artifact]-[revision](-[classifier]).[ext]";
+
+    private static final String M2_PATTERN =
+            "[organisation]/[module]/[revision]/[artifact]-[revision](-[classifier]).[ext]";
+
+    private final ModuleRevisionId mrid = ModuleRevisionId.newInstance("org.apache.ivy", "ivy",
+        "2.5.0");
+
+    private final Artifact artifact = new DefaultArtifact(mrid, null, "ivy", "source", "jar",
+            Collections.singletonMap("m:classifier", "sources"));
+
+    @Benchmark
+    public String substituteCachePattern() {
+        return IvyPatternHelper.substitute(CACHE_PATTERN, mrid, artifact);
+    }
+
+    @Benchmark
+    public String substituteM2Pattern() {
+        return IvyPatternHelper.substitute(M2_PATTERN, "org/apache/ivy", "ivy", "2.5.0", "ivy",
+            "jar", "jar");
+    }
+}
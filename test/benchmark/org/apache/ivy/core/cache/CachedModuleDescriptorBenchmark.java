@@ -0,0 +1,144 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.cache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorParser;
+import org.apache.ivy.util.FileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loads the module descriptor of a cached Ivy file, by parsing the Ivy file and from its binary
+ * file. Run with "-prof gc" to compare the allocations per module descriptor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CachedModuleDescriptorBenchmark {
+
+    private static final int DEPENDENCIES = 40;
+
+    private IvySettings settings;
+
+    private File dir;
+
+    private File ivyFile;
+
+    private URL ivyURL;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, ParseException {
+        settings = new IvySettings();
+        dir = File.createTempFile("ivy-benchmark", ".dir");
+        dir.delete();
+        ivyFile = new File(dir, "ivy-1.0.xml");
+        ivyURL = ivyFile.toURI().toURL();
+        writeIvyFile();
+        ModuleDescriptor md = XmlModuleDescriptorParser.getInstance().parseDescriptor(settings,
+            ivyURL, false);
+        BinaryModuleDescriptorStore.store(ivyFile, md, settings, false);
+        if (!BinaryModuleDescriptorStore.getBinaryFile(ivyFile).exists()) {
+            throw new IllegalStateException("binary module descriptor not stored");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FileUtil.forceDelete(dir);
+    }
+
+    @Benchmark
+    public ModuleDescriptor parseIvyFile() throws IOException, ParseException {
+        return XmlModuleDescriptorParser.getInstance().parseDescriptor(settings, ivyURL, false);
+    }
+
+    @Benchmark
+    public ModuleDescriptor loadBinaryFile() {
+        return BinaryModuleDescriptorStore.load(ivyFile, XmlModuleDescriptorParser.getInstance(),
+            settings, false);
+    }
+
+    /**
+     * Writes an Ivy file like the ones of the cache, with a few configurations and artifacts, and
+     * dependencies with configuration mappings and exclusions.
+     */
+    private void writeIvyFile() throws IOException {
+        dir.mkdirs();
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(
+                ivyFile), "UTF-8"))) {
+            out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            out.println("<ivy-module version=\"2.0\" xmlns:e=\"http://ant.apache.org/ivy/extra\">");
+            out.println("    <info organisation=\"org.example\" module=\"benchmark\""
+                    + " revision=\"1.0\" status=\"release\" publication=\"20181017120000\">");
+            out.println("        <license name=\"Apache License, Version 2.0\""
+                    + " url=\"http://www.apache.org/licenses/LICENSE-2.0\"/>");
+            out.println("        <description homepage=\"http://example.org/\">"
+                    + "A module of the benchmark</description>");
+            out.println("    </info>");
+            out.println("    <configurations>");
+            out.println("        <conf name=\"default\" extends=\"runtime,master\"/>");
+            out.println("        <conf name=\"master\"/>");
+            out.println("        <conf name=\"compile\"/>");
+            out.println("        <conf name=\"runtime\" extends=\"compile\"/>");
+            out.println("        <conf name=\"test\" extends=\"runtime\" visibility=\"private\"/>");
+            out.println("        <conf name=\"sources\"/>");
+            out.println("    </configurations>");
+            out.println("    <publications>");
+            out.println("        <artifact name=\"benchmark\" type=\"jar\" ext=\"jar\""
+                    + " conf=\"master\"/>");
+            out.println("        <artifact name=\"benchmark\" type=\"source\" ext=\"jar\""
+                    + " conf=\"sources\" e:classifier=\"sources\"/>");
+            out.println("    </publications>");
+            out.println("    <dependencies>");
+            for (int i = 0; i < DEPENDENCIES; i++) {
+                out.println("        <dependency org=\"org.example.dep" + i % 5 + "\" name=\"dep"
+                        + i + "\" rev=\"1." + i + "\" force=\"true\""
+                        + " conf=\"compile->compile(*),master(*);runtime->runtime(*)\">");
+                out.println("            <exclude org=\"org.example.excluded\" module=\"excluded"
+                        + i + "\" name=\"*\" type=\"*\" ext=\"*\" conf=\"\" matcher=\"exact\"/>");
+                out.println("        </dependency>");
+            }
+            out.println("    </dependencies>");
+            out.println("</ivy-module>");
+        }
+    }
+}
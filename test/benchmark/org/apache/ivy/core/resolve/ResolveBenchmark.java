@@ -0,0 +1,170 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.resolve;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.LogOptions;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.util.DefaultMessageLogger;
+import org.apache.ivy.util.FileUtil;
+import org.apache.ivy.util.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resolves the dependency graph of a module over a {@link SyntheticRepository}, with each conflict
+ * manager given in the <code>conflictManager</code> parameter.
+ * <p>
+ * With a warm cache, the module descriptors are read from the repository cache; with a cold one,
+ * every resolve starts with an empty cache and copies them from the repository.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResolveBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Repository {
+
+        @Param({"6"})
+        int levels;
+
+        @Param({"40"})
+        int width;
+
+        @Param({"5"})
+        int fanout;
+
+        @Param({"3"})
+        int revisions;
+
+        File dir;
+
+        SyntheticRepository repository;
+
+        File rootModule;
+
+        @Setup(Level.Trial)
+        public void generate() throws IOException {
+            dir = Files.createTempDirectory("ivy-benchmark").toFile();
+            repository = new SyntheticRepository(new File(dir, "repository"), levels, width,
+                    fanout, revisions);
+            rootModule = repository.generate();
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() {
+            FileUtil.forceDelete(dir);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class WarmCache {
+
+        @Param({"latest-revision", "all"})
+        String conflictManager;
+
+        Ivy ivy;
+
+        @Setup(Level.Trial)
+        public void setUp(Repository repository) throws IOException, ParseException {
+            ivy = newIvy(repository, conflictManager, new File(repository.dir, "warm-cache"));
+            // fill the cache
+            resolve(ivy, repository);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ColdCache {
+
+        @Param({"latest-revision", "all"})
+        String conflictManager;
+
+        Ivy ivy;
+
+        File cache;
+
+        @Setup(Level.Invocation)
+        public void setUp(Repository repository) {
+            cache = new File(repository.dir, "cold-cache");
+            ivy = newIvy(repository, conflictManager, cache);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            FileUtil.forceDelete(cache);
+        }
+    }
+
+    @Benchmark
+    public ResolveReport resolveWithWarmCache(Repository repository, WarmCache cache)
+            throws IOException, ParseException {
+        return resolve(cache.ivy, repository);
+    }
+
+    @Benchmark
+    public ResolveReport resolveWithColdCache(Repository repository, ColdCache cache)
+            throws IOException, ParseException {
+        return resolve(cache.ivy, repository);
+    }
+
+    private static Ivy newIvy(Repository repository, String conflictManager, File cache) {
+        IvySettings settings = new IvySettings();
+        settings.setDefaultCache(cache);
+        repository.repository.configure(settings);
+        settings.setDefaultConflictManager(settings.getConflictManager(conflictManager));
+        Ivy ivy = Ivy.newInstance(settings);
+        ivy.getLoggerEngine().setDefaultLogger(new DefaultMessageLogger(Message.MSG_ERR));
+        return ivy;
+    }
+
+    private static ResolveReport resolve(Ivy ivy, Repository repository) throws IOException,
+            ParseException {
+        ResolveOptions options = new ResolveOptions();
+        options.setDownload(false);
+        options.setOutputReport(false);
+        options.setValidate(false);
+        options.setLog(LogOptions.LOG_QUIET);
+        ResolveReport report = ivy.resolve(repository.rootModule, options);
+        if (report.hasError()) {
+            throw new IllegalStateException("resolve failed: " + report.getAllProblemMessages());
+        }
+        return report;
+    }
+}
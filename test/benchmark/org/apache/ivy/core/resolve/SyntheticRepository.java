@@ -0,0 +1,173 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.resolve;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Random;
+
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.resolver.FileSystemResolver;
+
+/**
+ * A file system repository of generated modules, laid out like the repositories in
+ * test/repositories.
+ * <p>
+ * The modules are organized in levels, each module depending on modules of the next level. Each
+ * module is published in several revisions, and the revisions of the dependencies are picked
+ * randomly, so that the graph has conflicts. The random generator is seeded, so a repository
+ * generated with the same parameters is always the same.
+ * </p>
+ */
+public class SyntheticRepository {
+
+    private static final String IVY_PATTERN = "[organisation]/[module]/ivys/ivy-[revision].xml";
+
+    private static final String ARTIFACT_PATTERN =
+            "[organisation]/[module]/[type]s/[artifact]-[revision].[ext]";
+
+    private static final long SEED = 20181017L;
+
+    private final File root;
+
+    private final int levels;
+
+    private final int width;
+
+    private final int fanout;
+
+    private final int revisions;
+
+    /**
+     * @param root
+     *            the directory in which the repository is generated
+     * @param levels
+     *            the number of levels of modules
+     * @param width
+     *            the number of modules in each level
+     * @param fanout
+     *            the number of dependencies of each module, on modules of the next level
+     * @param revisions
+     *            the number of revisions of each module
+     */
+    public SyntheticRepository(File root, int levels, int width, int fanout, int revisions) {
+        this.root = root;
+        this.levels = levels;
+        this.width = width;
+        this.fanout = fanout;
+        this.revisions = revisions;
+    }
+
+    /**
+     * Generates the repository, and the module descriptor of a module depending on every module
+     * of the first level.
+     *
+     * @return the module descriptor of the root module, out of the repository
+     * @throws IOException
+     *             if the repository can't be written
+     */
+    public File generate() throws IOException {
+        Random random = new Random(SEED);
+        for (int level = 0; level < levels; level++) {
+            for (int module = 0; module < width; module++) {
+                for (int revision = 0; revision < revisions; revision++) {
+                    File ivyFile = new File(root, "org" + level + "/mod" + level + "." + module
+                            + "/ivys/ivy-" + getRevision(revision) + ".xml");
+                    writeModule(ivyFile, "org" + level, "mod" + level + "." + module,
+                        getRevision(revision), level + 1 < levels ? level + 1 : -1, random);
+                    File jar = new File(root, "org" + level + "/mod" + level + "." + module
+                            + "/jars/mod" + level + "." + module + "-" + getRevision(revision)
+                            + ".jar");
+                    jar.getParentFile().mkdirs();
+                    jar.createNewFile();
+                }
+            }
+        }
+        File rootFile = new File(root.getParentFile(), root.getName() + "-root.xml");
+        try (PrintWriter out = newWriter(rootFile)) {
+            out.println("<ivy-module version=\"2.0\">");
+            out.println("    <info organisation=\"synthetic\" module=\"root\"/>");
+            out.println("    <dependencies>");
+            for (int module = 0; module < width; module++) {
+                out.println("        <dependency org=\"org0\" name=\"mod0." + module
+                        + "\" rev=\"" + getRevision(revisions - 1) + "\"/>");
+            }
+            out.println("    </dependencies>");
+            out.println("</ivy-module>");
+        }
+        return rootFile;
+    }
+
+    /**
+     * Adds to the given settings a file system resolver on this repository, and makes it the
+     * default resolver.
+     *
+     * @param settings
+     *            the settings to configure
+     */
+    public void configure(IvySettings settings) {
+        FileSystemResolver resolver = new FileSystemResolver();
+        resolver.setName("synthetic");
+        resolver.addIvyPattern(root.getAbsolutePath() + "/" + IVY_PATTERN);
+        resolver.addArtifactPattern(root.getAbsolutePath() + "/" + ARTIFACT_PATTERN);
+        settings.addResolver(resolver);
+        settings.setDefaultResolver(resolver.getName());
+    }
+
+    private void writeModule(File ivyFile, String org, String module, String revision,
+            int dependencyLevel, Random random) throws IOException {
+        ivyFile.getParentFile().mkdirs();
+        try (PrintWriter out = newWriter(ivyFile)) {
+            out.println("<ivy-module version=\"2.0\">");
+            out.println("    <info organisation=\"" + org + "\" module=\"" + module
+                    + "\" revision=\"" + revision + "\" status=\"release\""
+                    + " publication=\"20181017120000\"/>");
+            out.println("    <configurations>");
+            out.println("        <conf name=\"default\"/>");
+            out.println("        <conf name=\"test\" visibility=\"private\"/>");
+            out.println("    </configurations>");
+            out.println("    <publications>");
+            out.println("        <artifact name=\"" + module + "\" type=\"jar\" conf=\"default\"/>");
+            out.println("    </publications>");
+            out.println("    <dependencies>");
+            if (dependencyLevel >= 0) {
+                // distinct modules, starting from a random one
+                int first = random.nextInt(width);
+                for (int i = 0; i < Math.min(fanout, width); i++) {
+                    out.println("        <dependency org=\"org" + dependencyLevel + "\" name=\"mod"
+                            + dependencyLevel + "." + (first + i) % width + "\" rev=\""
+                            + getRevision(random.nextInt(revisions))
+                            + "\" conf=\"default->default\"/>");
+                }
+            }
+            out.println("    </dependencies>");
+            out.println("</ivy-module>");
+        }
+    }
+
+    private static String getRevision(int index) {
+        return "1." + index;
+    }
+
+    private static PrintWriter newWriter(File file) throws IOException {
+        return new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+    }
+}
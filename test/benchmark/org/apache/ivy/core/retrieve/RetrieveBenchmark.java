@@ -0,0 +1,124 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.retrieve;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.LogOptions;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.core.resolve.SyntheticRepository;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.util.DefaultMessageLogger;
+import org.apache.ivy.util.FileUtil;
+import org.apache.ivy.util.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Retrieves again the artifacts of a resolved module, to a directory where they have already
+ * been retrieved: nothing has to be copied, the retrieve only checks the destinations, and
+ * deletes nothing when <code>sync</code> is set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RetrieveBenchmark {
+
+    @Param({"500"})
+    int width;
+
+    @Param({"false", "true"})
+    boolean incremental;
+
+    @Param({"false", "true"})
+    boolean sync;
+
+    private File dir;
+
+    private Ivy ivy;
+
+    private ModuleRevisionId mrid;
+
+    private RetrieveOptions options;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, ParseException {
+        dir = Files.createTempDirectory("ivy-benchmark").toFile();
+        // two levels of modules, each module of the first level depending on one of the second
+        // one, giving about a thousand artifacts
+        SyntheticRepository repository = new SyntheticRepository(new File(dir, "repository"), 2,
+                width, 1, 1);
+        File rootModule = repository.generate();
+
+        IvySettings settings = new IvySettings();
+        settings.setDefaultCache(new File(dir, "cache"));
+        repository.configure(settings);
+        ivy = Ivy.newInstance(settings);
+        ivy.getLoggerEngine().setDefaultLogger(new DefaultMessageLogger(Message.MSG_ERR));
+
+        ResolveOptions resolveOptions = new ResolveOptions();
+        resolveOptions.setLog(LogOptions.LOG_QUIET);
+        ResolveReport report = ivy.resolve(rootModule, resolveOptions);
+        if (report.hasError()) {
+            throw new IllegalStateException("resolve failed: " + report.getAllProblemMessages());
+        }
+        mrid = report.getModuleDescriptor().getModuleRevisionId();
+
+        options = new RetrieveOptions();
+        options.setLog(LogOptions.LOG_QUIET);
+        options.setDestArtifactPattern(new File(dir, "lib").getAbsolutePath()
+                + "/[organisation]/[artifact]-[revision].[ext]");
+        options.setIncremental(incremental).setSync(sync);
+        ivy.retrieve(mrid, options);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FileUtil.forceDelete(dir);
+    }
+
+    @Benchmark
+    public RetrieveReport retrieve() throws IOException {
+        RetrieveReport report = ivy.retrieve(mrid, options);
+        if (report.getNbrArtifactsCopied() > 0) {
+            throw new IllegalStateException(report.getNbrArtifactsCopied() + " artifacts copied");
+        }
+        return report;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.latest;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.osgi.core.OsgiLatestStrategy;
+import org.apache.ivy.plugins.version.VersionRangeMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Finds the latest of a large list of revisions, as done for each dynamic revision of a module
+ * with many published revisions, and matches the revisions against a version range. The version
+ * matcher telling which revisions are dynamic is the one of the default settings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LatestRevisionStrategyBenchmark {
+
+    private static final String[] QUALIFIERS = {"", "-dev", "-rc1", "-rc2", "-final", "-SNAPSHOT",
+            "-beta2"};
+
+    @Param({"100", "5000"})
+    private int revisions;
+
+    private ArtifactInfo[] infos;
+
+    private ArtifactInfo[] osgiInfos;
+
+    private ModuleRevisionId[] mrids;
+
+    private LatestRevisionStrategy latestRevision;
+
+    private OsgiLatestStrategy latestOsgi;
+
+    private VersionRangeMatcher rangeMatcher;
+
+    private ModuleRevisionId range;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        latestRevision = new LatestRevisionStrategy();
+        latestOsgi = new OsgiLatestStrategy();
+        rangeMatcher = new VersionRangeMatcher("range", latestRevision);
+        range = ModuleRevisionId.newInstance("org", "mod", "[2.0,4.5[");
+
+        Random random = new Random(42);
+        infos = new ArtifactInfo[revisions];
+        osgiInfos = new ArtifactInfo[revisions];
+        mrids = new ModuleRevisionId[revisions];
+        for (int i = 0; i < revisions; i++) {
+            String version = random.nextInt(10) + "." + random.nextInt(20) + "."
+                    + random.nextInt(50);
+            String revision = version + QUALIFIERS[random.nextInt(QUALIFIERS.length)];
+            infos[i] = new Info(revision);
+            osgiInfos[i] = new Info(version + ".v" + random.nextInt(1000));
+            mrids[i] = ModuleRevisionId.newInstance("org", "mod", revision);
+        }
+    }
+
+    @Benchmark
+    public ArtifactInfo findLatestRevision() {
+        return latestRevision.findLatest(infos, null);
+    }
+
+    @Benchmark
+    public List<ArtifactInfo> sortRevisions() {
+        return latestRevision.sort(infos);
+    }
+
+    @Benchmark
+    public ArtifactInfo findLatestOsgi() {
+        return latestOsgi.findLatest(osgiInfos, null);
+    }
+
+    @Benchmark
+    public int acceptRange() {
+        int accepted = 0;
+        for (ModuleRevisionId mrid : mrids) {
+            if (rangeMatcher.accept(range, mrid)) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    private static final class Info implements ArtifactInfo {
+        private final String revision;
+
+        private Info(String revision) {
+            this.revision = revision;
+        }
+
+        public String getRevision() {
+            return revision;
+        }
+
+        public long getLastModified() {
+            return 0;
+        }
+    }
+}
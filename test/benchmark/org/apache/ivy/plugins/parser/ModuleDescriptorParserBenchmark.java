@@ -0,0 +1,77 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.parser.m2.PomModuleDescriptorParser;
+import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses module descriptors used by the unit tests, with the Ivy and the Maven parsers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModuleDescriptorParserBenchmark {
+
+    private static final String TEST_DIR = "test/java/org/apache/ivy/plugins/parser";
+
+    private IvySettings settings;
+
+    private URL ivyFile;
+
+    private URL pomFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        settings = new IvySettings();
+        ivyFile = new File(TEST_DIR, "xml/test.xml").toURI().toURL();
+        pomFile = new File(TEST_DIR, "m2/mule-1.3.3.pom").toURI().toURL();
+    }
+
+    @Benchmark
+    public ModuleDescriptor parseIvyFile() throws IOException, ParseException {
+        return XmlModuleDescriptorParser.getInstance().parseDescriptor(settings, ivyFile, false);
+    }
+
+    @Benchmark
+    public ModuleDescriptor parsePom() throws IOException, ParseException {
+        return PomModuleDescriptorParser.getInstance().parseDescriptor(settings, pomFile, false);
+    }
+}
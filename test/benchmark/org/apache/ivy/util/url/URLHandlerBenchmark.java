@@ -0,0 +1,150 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util.url;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Downloads a file from a local HTTP/1.1 server with each http downloader given in the
+ * <code>handler</code> parameter, from several threads at once, like the concurrent downloads of a
+ * resolve. The JDK HTTP client requires Java 11 or later.
+ * <p>
+ * The server of the JDK doesn't support HTTP/2: this compares the handlers over HTTP/1.1
+ * connections, the multiplexing of the JDK HTTP client requires an HTTP/2 repository.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+// without TCP_NODELAY, the server delays the small responses to wait for the acks of the client
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@Threads(4)
+public class URLHandlerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({"basic", "httpclient", "jdk"})
+        String handler;
+
+        @Param({"4096", "1048576"})
+        int size;
+
+        HttpServer server;
+
+        ExecutorService executor;
+
+        TimeoutConstrainedURLHandler urlHandler;
+
+        URL url;
+
+        @Setup(Level.Trial)
+        public void start() throws IOException {
+            final byte[] content = new byte[size];
+            Arrays.fill(content, (byte) 'x');
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                0);
+            server.createContext("/", new HttpHandler() {
+                public void handle(HttpExchange exchange) throws IOException {
+                    exchange.sendResponseHeaders(200, content.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(content);
+                    }
+                }
+            });
+            executor = Executors.newCachedThreadPool();
+            server.setExecutor(executor);
+            server.start();
+            url = new URL("http://localhost:" + server.getAddress().getPort() + "/file.jar");
+
+            switch (handler) {
+                case "basic":
+                    urlHandler = new BasicURLHandler();
+                    break;
+                case "httpclient":
+                    urlHandler = new HttpClientHandler();
+                    break;
+                case "jdk":
+                    urlHandler = new JdkHttpClientHandler();
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown handler " + handler);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws Exception {
+            if (urlHandler instanceof HttpClientHandler) {
+                ((HttpClientHandler) urlHandler).close();
+            }
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Destination {
+
+        File file;
+
+        @Setup(Level.Trial)
+        public void create() throws IOException {
+            file = File.createTempFile("ivy-benchmark", ".jar");
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() {
+            file.delete();
+        }
+    }
+
+    @Benchmark
+    public File download(Server server, Destination destination) throws IOException {
+        server.urlHandler.download(server.url, destination.file, null);
+        return destination.file;
+    }
+}
@@ -28,6 +28,11 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
 
 /**
  * A {@link HttpHandler} that can be used in tests to serve local file system based resources over
@@ -64,6 +69,7 @@ final class LocalFileRepoOverHttp implements HttpHandler {
             if (!available) {
                 httpExchange.sendResponseHeaders(404, -1);
             } else {
+                this.addValidators(httpExchange, localFilePath);
                 httpExchange.sendResponseHeaders(200, -1);
             }
             return;
@@ -86,9 +92,49 @@ final class LocalFileRepoOverHttp implements HttpHandler {
             throw new IOException("No such file at path " + localFile);
         }
         Message.debug("Serving contents of " + localFile + " for request " + httpExchange.getRequestURI());
+        this.addValidators(httpExchange, localFile);
+        if (this.isNotModified(httpExchange, localFile)) {
+            httpExchange.sendResponseHeaders(304, -1);
+            return 0;
+        }
         final byte[] data = Files.readAllBytes(localFile);
         httpExchange.sendResponseHeaders(200, data.length);
         os.write(data);
         return data.length;
     }
+
+    private static String getETag(final Path localFile) throws IOException {
+        return "\"" + Long.toHexString(Files.size(localFile)) + "-"
+                + Long.toHexString(Files.getLastModifiedTime(localFile).toMillis()) + "\"";
+    }
+
+    private static SimpleDateFormat getHttpDateFormat() {
+        final SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format;
+    }
+
+    private void addValidators(final HttpExchange httpExchange, final Path localFile) throws IOException {
+        httpExchange.getResponseHeaders().add("ETag", getETag(localFile));
+        httpExchange.getResponseHeaders().add("Last-Modified",
+                getHttpDateFormat().format(new Date(Files.getLastModifiedTime(localFile).toMillis())));
+    }
+
+    private boolean isNotModified(final HttpExchange httpExchange, final Path localFile) throws IOException {
+        final String ifNoneMatch = httpExchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            return ifNoneMatch.equals(getETag(localFile));
+        }
+        final String ifModifiedSince = httpExchange.getRequestHeaders().getFirst("If-Modified-Since");
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        try {
+            // HTTP dates have a precision of one second
+            return Files.getLastModifiedTime(localFile).toMillis() / 1000
+                    <= getHttpDateFormat().parse(ifModifiedSince).getTime() / 1000;
+        } catch (ParseException e) {
+            return false;
+        }
+    }
 }
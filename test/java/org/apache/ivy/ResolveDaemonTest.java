@@ -0,0 +1,215 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy;
+
+import org.apache.ivy.util.CacheCleaner;
+import org.apache.ivy.util.FileUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ResolveDaemonTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private File cache;
+
+    private File tokenDir;
+
+    private File baseDir;
+
+    private ResolveDaemon daemon;
+
+    private ByteArrayOutputStream out;
+
+    private ByteArrayOutputStream err;
+
+    private String cacheDirProperty;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new File("build/cache");
+        cacheDirProperty = System.getProperty("ivy.cache.dir");
+        System.setProperty("ivy.cache.dir", cache.getAbsolutePath());
+        tokenDir = tempDir.newFolder("daemon");
+        baseDir = tempDir.newFolder("module");
+        FileUtil.copy(new File("test/repositories/1/org1/mod1.1/ivys/ivy-1.0.xml"), new File(
+                baseDir, "ivy.xml"), null);
+
+        daemon = new ResolveDaemon(0, tokenDir);
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                daemon.serve();
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @After
+    public void tearDown() {
+        daemon.close();
+        CacheCleaner.deleteDir(cache);
+        if (cacheDirProperty == null) {
+            System.clearProperty("ivy.cache.dir");
+        } else {
+            System.setProperty("ivy.cache.dir", cacheDirProperty);
+        }
+    }
+
+    @Test
+    public void testResolveRetrieveCachePath() throws Exception {
+        assertEquals(0, delegate("-settings",
+            new File("test/repositories/ivysettings.xml").getAbsolutePath(), "-retrieve",
+            "lib/[artifact]-[revision].[ext]", "-cachepath", "cachepath.txt"));
+
+        // the relative paths are resolved against the directory of the client
+        assertTrue(new File(baseDir, "lib/mod1.2-2.0.jar").exists());
+        assertTrue(new File(baseDir, "cachepath.txt").exists());
+        assertTrue(new File(cache, "org1/mod1.2/ivy-2.0.xml").exists());
+        assertTrue(getOut(), getOut().contains("cachepath output to"));
+    }
+
+    @Test
+    public void testSettingsKeptWarm() throws Exception {
+        String[] args = {"-settings", new File("test/repositories/ivysettings.xml").getAbsolutePath()};
+        assertEquals(0, delegate(args));
+        assertTrue(getOut(), getOut().contains(":: loading settings ::"));
+
+        assertEquals(0, delegate(args));
+        assertFalse(getOut(), getOut().contains(":: loading settings ::"));
+        assertTrue(getOut(), getOut().contains(":: resolving dependencies ::"));
+    }
+
+    @Test
+    public void testIncludedSettingsChanged() throws Exception {
+        File settingsDir = tempDir.newFolder("settings");
+        File settings = new File(settingsDir, "ivysettings.xml");
+        Files.write(settings.toPath(), ("<ivysettings><include file=\"${ivy.settings.dir}/"
+                + "included.xml\"/></ivysettings>").getBytes(StandardCharsets.UTF_8));
+        File included = new File(settingsDir, "included.xml");
+        String includedContent = "<ivysettings><include file=\""
+                + new File("test/repositories/ivysettings.xml").getAbsolutePath()
+                + "\"/></ivysettings>";
+        Files.write(included.toPath(), includedContent.getBytes(StandardCharsets.UTF_8));
+
+        String[] args = {"-settings", settings.getAbsolutePath()};
+        assertEquals(0, delegate(args));
+        assertTrue(getOut(), getOut().contains(":: loading settings ::"));
+        assertEquals(0, delegate(args));
+        assertFalse(getOut(), getOut().contains(":: loading settings ::"));
+
+        Files.write(included.toPath(), (includedContent + "\n").getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, delegate(args));
+        assertTrue(getOut(), getOut().contains(":: loading settings ::"));
+    }
+
+    @Test
+    public void testClientProperties() throws Exception {
+        File settings = tempDir.newFile("ivysettings.xml");
+        Files.write(settings.toPath(),
+            "<ivysettings><include file=\"${test.settings}\"/></ivysettings>"
+                    .getBytes(StandardCharsets.UTF_8));
+        String[] args = {"-settings", settings.getAbsolutePath()};
+
+        // the properties of the client are used as variables, not the ones of the daemon
+        assertEquals(0, delegate(Collections.singletonMap("test.settings",
+            new File("test/repositories/ivysettings.xml").getAbsolutePath()), args));
+        assertTrue(getOut(), getOut().contains(":: resolving dependencies ::"));
+
+        // other properties don't use the same settings
+        assertEquals(1, delegate(Collections.singletonMap("test.settings",
+            new File("test/repositories/missing.xml").getAbsolutePath()), args));
+        assertTrue(getOut(), getOut().contains(":: loading settings ::"));
+        assertEquals(1, delegate(args));
+    }
+
+    @Test
+    public void testResolveFailure() throws Exception {
+        assertEquals(1, delegate("-settings",
+            new File("test/repositories/ivysettings.xml").getAbsolutePath(), "-ivy",
+            "missing.xml"));
+        assertTrue(getErr(), getErr().contains("ivy file not found"));
+
+        assertEquals(1, delegate("-settings",
+            new File("test/repositories/ivysettings.xml").getAbsolutePath(), "-makepom",
+            "pom.xml"));
+        assertTrue(getErr(), getErr().contains("only serves"));
+    }
+
+    @Test
+    public void testNotRunning() throws Exception {
+        assertEquals(ResolveDaemon.NOT_RUNNING, ResolveDaemon.delegate(daemon.getPort(),
+            tempDir.newFolder("other"), baseDir, Collections.<String, String> emptyMap(),
+            new String[0], System.out, System.err));
+
+        daemon.close();
+        assertFalse(new File(tokenDir, daemon.getPort() + ".token").exists());
+        assertEquals(ResolveDaemon.NOT_RUNNING, delegate());
+    }
+
+    @Test
+    public void testWrongToken() throws Exception {
+        File otherTokenDir = tempDir.newFolder("other");
+        Files.write(new File(otherTokenDir, daemon.getPort() + ".token").toPath(),
+            "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+        out = new ByteArrayOutputStream();
+        err = new ByteArrayOutputStream();
+        int exitCode = ResolveDaemon.delegate(daemon.getPort(), otherTokenDir, baseDir,
+            Collections.<String, String> emptyMap(), new String[0], new PrintStream(out, true),
+            new PrintStream(err, true));
+        assertNotEquals(0, exitCode);
+        assertNotEquals(ResolveDaemon.NOT_RUNNING, exitCode);
+        assertFalse(new File(cache, "org1/mod1.2/ivy-2.0.xml").exists());
+    }
+
+    private int delegate(String... args) {
+        return delegate(Collections.<String, String> emptyMap(), args);
+    }
+
+    private int delegate(Map<String, String> properties, String... args) {
+        out = new ByteArrayOutputStream();
+        err = new ByteArrayOutputStream();
+        return ResolveDaemon.delegate(daemon.getPort(), tokenDir, baseDir, properties, args,
+            new PrintStream(out, true), new PrintStream(err, true));
+    }
+
+    private String getOut() {
+        return out.toString();
+    }
+
+    private String getErr() {
+        return err.toString();
+    }
+}
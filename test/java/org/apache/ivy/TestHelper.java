@@ -54,6 +54,7 @@ import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.LinkedHashSet;
@@ -367,15 +368,18 @@ public class TestHelper {
      *                                the requests to the server
      * @param localFilesystemRepoRoot The path to the root directory containing the module
      *                                descriptors and artifacts
+     * @param filters                 The filters the requests go through, to inspect them
      * @return AutoCloseable
      * @throws IOException if something goes wrong
      */
     public static AutoCloseable createHttpServerBackedRepository(final InetSocketAddress serverAddress, final String webAppContext,
-                                                                 final Path localFilesystemRepoRoot) throws IOException {
+                                                                 final Path localFilesystemRepoRoot,
+                                                                 final Filter... filters) throws IOException {
         final LocalFileRepoOverHttp handler = new LocalFileRepoOverHttp(webAppContext, localFilesystemRepoRoot);
         final HttpServer server = HttpServer.create(serverAddress, -1);
         // setup the handler
-        server.createContext(webAppContext, handler);
+        final HttpContext context = server.createContext(webAppContext, handler);
+        context.getFilters().addAll(Arrays.asList(filters));
         // start the server
         server.start();
         return new AutoCloseable() {
@@ -22,10 +22,25 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.ivy.Ivy;
 import org.apache.ivy.TestHelper;
+import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
+import org.apache.ivy.core.event.IvyEvent;
+import org.apache.ivy.core.event.IvyListener;
+import org.apache.ivy.core.event.resolve.EndResolveEvent;
+import org.apache.ivy.core.event.resolve.ResolveEvent;
+import org.apache.ivy.core.event.resolve.StartResolveEvent;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.util.FileUtil;
+import org.apache.ivy.util.filter.Filter;
 
+import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.types.FileSet;
 import org.apache.tools.ant.types.Path;
@@ -35,8 +50,10 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 // CheckStyle:MagicNumber| OFF
 // The test very often use MagicNumber. Using a constant is less expressive.
@@ -102,6 +119,171 @@ public class IvyBuildListTest {
      * C B has no dependency C -> B D -> A , B E has no dependency F -> G G -> F
      */
 
+    /**
+     * The modules are resolved with the default settings, where only B and E, which have no
+     * dependency, can be resolved.
+     */
+    @Test
+    public void testResolve() {
+        FileSet fs = new FileSet();
+        fs.setDir(new File("test/buildlist"));
+        fs.setIncludes("**/build.xml");
+        fs.setExcludes("E2/build.xml,F/build.xml,G/build.xml");
+
+        buildlist.addFileset(fs);
+        buildlist.setOnMissingDescriptor("skip");
+        buildlist.setResolve(true);
+        buildlist.setResolveThreads(3);
+        buildlist.setHaltonerror(false);
+
+        String[] files = getFiles(buildlist);
+        assertListOfFiles("test/buildlist/", new String[] {"B", "C", "A", "D", "E"}, files);
+
+        for (String module : new String[] {"A", "B", "C", "D", "E"}) {
+            ResolveReport report = project.getReference("ivy.resolved.report.apache-" + module);
+            assertNotNull(module, report);
+            assertEquals(module, report.getModuleDescriptor().getModuleRevisionId().getName());
+            assertEquals(module, !"B".equals(module) && !"E".equals(module), report.hasError());
+        }
+        // as well as under the organisation and name of the module
+        assertNotNull(project.getReference("ivy.resolved.report.apache.A"));
+    }
+
+    /**
+     * With a lock strategy, the modules without dependencies are resolved at the same time, and
+     * each other module once the modules it depends on are resolved.
+     */
+    @Test
+    public void testResolveConcurrently() {
+        Ivy ivy = configureIvy();
+        IvySettings settings = ivy.getSettings();
+        ((DefaultRepositoryCacheManager) settings.getDefaultRepositoryCacheManager())
+                .setLockStrategy(settings.getLockStrategy("artifact-lock"));
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch independentStarted = new CountDownLatch(2);
+        final AtomicBoolean concurrent = new AtomicBoolean(true);
+        ivy.getEventManager().addIvyListener(new IvyListener() {
+            public void progress(IvyEvent event) {
+                String module = ((ResolveEvent) event).getModuleDescriptor()
+                        .getModuleRevisionId().getName();
+                if (event instanceof StartResolveEvent) {
+                    events.add("start " + module);
+                    if ("B".equals(module) || "E".equals(module)) {
+                        independentStarted.countDown();
+                        try {
+                            // B and E wait for each other
+                            concurrent.compareAndSet(true,
+                                independentStarted.await(10, TimeUnit.SECONDS));
+                        } catch (InterruptedException e) {
+                            concurrent.set(false);
+                        }
+                    }
+                } else {
+                    events.add("end " + module);
+                }
+            }
+        }, new ResolveEventFilter());
+
+        resolveBuildList(2);
+
+        assertTrue("B and E weren't resolved at the same time: " + events, concurrent.get());
+        assertResolvedAfter(events, "C", "B");
+        assertResolvedAfter(events, "A", "C");
+        assertResolvedAfter(events, "D", "A");
+        assertResolvedAfter(events, "D", "B");
+    }
+
+    /**
+     * Without a lock strategy, the modules are resolved one at a time.
+     */
+    @Test
+    public void testResolveWithoutLockStrategy() {
+        Ivy ivy = configureIvy();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        ivy.getEventManager().addIvyListener(new IvyListener() {
+            public void progress(IvyEvent event) {
+                if (event instanceof StartResolveEvent) {
+                    int count = running.incrementAndGet();
+                    synchronized (maxRunning) {
+                        maxRunning.set(Math.max(maxRunning.get(), count));
+                    }
+                    try {
+                        // leaves time to the other threads to start another resolve
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                } else {
+                    running.decrementAndGet();
+                }
+            }
+        }, new ResolveEventFilter());
+
+        resolveBuildList(3);
+
+        assertEquals(1, maxRunning.get());
+        for (String module : new String[] {"A", "B", "C", "D", "E"}) {
+            assertNotNull(module, project.getReference("ivy.resolved.report.apache-" + module));
+        }
+    }
+
+    private Ivy configureIvy() {
+        IvyConfigure configure = new IvyConfigure();
+        configure.setProject(project);
+        configure.execute();
+        return IvyAntSettings.getDefaultInstance(configure).getConfiguredIvyInstance(configure);
+    }
+
+    private void resolveBuildList(int threads) {
+        FileSet fs = new FileSet();
+        fs.setDir(new File("test/buildlist"));
+        fs.setIncludes("**/build.xml");
+        fs.setExcludes("E2/build.xml,F/build.xml,G/build.xml");
+
+        buildlist.addFileset(fs);
+        buildlist.setOnMissingDescriptor("skip");
+        buildlist.setResolve(true);
+        buildlist.setResolveThreads(threads);
+        buildlist.setHaltonerror(false);
+        getFiles(buildlist);
+    }
+
+    private static void assertResolvedAfter(List<String> events, String module,
+            String dependency) {
+        int end = events.indexOf("end " + dependency);
+        assertTrue(module + " was resolved before " + dependency + ": " + events,
+            end >= 0 && events.indexOf("start " + module) > end);
+    }
+
+    private static final class ResolveEventFilter implements Filter<IvyEvent> {
+        public boolean accept(IvyEvent event) {
+            return event instanceof StartResolveEvent || event instanceof EndResolveEvent;
+        }
+    }
+
+    @Test
+    public void testResolveHaltOnError() {
+        FileSet fs = new FileSet();
+        fs.setDir(new File("test/buildlist"));
+        fs.setIncludes("**/build.xml");
+        fs.setExcludes("E2/build.xml,F/build.xml,G/build.xml");
+
+        buildlist.addFileset(fs);
+        buildlist.setOnMissingDescriptor("skip");
+        buildlist.setResolve(true);
+
+        try {
+            getFiles(buildlist);
+            fail("the failed resolves should halt the build");
+        } catch (BuildException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("apache#A"));
+            assertFalse(e.getMessage(), e.getMessage().contains("apache#B"));
+        }
+        // the reports of the modules are kept all the same
+        assertNotNull(project.getReference("ivy.resolved.report.apache-B"));
+    }
+
     @Test
     public void testSimple() {
         FileSet fs = new FileSet();
@@ -17,12 +17,16 @@
  */
 package org.apache.ivy.ant;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import org.apache.ivy.TestHelper;
+import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
 import org.junit.Before;
@@ -101,6 +105,32 @@ public class IvyCleanCacheTest {
         assertTrue(repoCache2.exists());
     }
 
+    @Test
+    public void testUnusedBlobsOnly() throws Exception {
+        DefaultRepositoryCacheManager cache2 = (DefaultRepositoryCacheManager) cleanCache
+                .getIvyInstance().getSettings().getRepositoryCacheManager("mycache2");
+        cache2.setUseBlobStore(true);
+        File used = new File(cache2.getBlobStoreDir(), "ab/used");
+        File unused = new File(cache2.getBlobStoreDir(), "cd/unused");
+        File artifact = new File(repoCache2, "org/mod/jars/mod-1.0.jar");
+        used.getParentFile().mkdirs();
+        unused.getParentFile().mkdirs();
+        artifact.getParentFile().mkdirs();
+        Files.write(used.toPath(), "used".getBytes(StandardCharsets.UTF_8));
+        Files.write(unused.toPath(), "unused".getBytes(StandardCharsets.UTF_8));
+        Files.createLink(artifact.toPath(), used.toPath());
+
+        cleanCache.setResolution(false);
+        cleanCache.setCache(IvyCleanCache.NONE);
+        cleanCache.setBlobs(true);
+        cleanCache.perform();
+        assertTrue(used.exists());
+        assertFalse(unused.exists());
+        assertFalse(unused.getParentFile().exists());
+        assertEquals("used", new String(Files.readAllBytes(artifact.toPath()),
+                StandardCharsets.UTF_8));
+    }
+
     /**
      * clean cache must fail with unknown cache
      */
@@ -21,12 +21,16 @@ import java.io.File;
 
 import org.apache.ivy.TestHelper;
 import org.apache.ivy.ant.testutil.AntTaskTestCase;
+import org.apache.ivy.core.report.ResolveReport;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 public class IvyDependencyTreeTest extends AntTaskTestCase {
 
     private IvyDependencyTree dependencyTree;
@@ -84,6 +88,29 @@ public class IvyDependencyTreeTest extends AntTaskTestCase {
         assertLogContaining("\\- org1#mod1.2;latest.integration");
     }
 
+    @Test
+    public void testWithResolveSnapshot() {
+        IvyResolve resolve = new IvyResolve();
+        resolve.setProject(project);
+        resolve.getIvyInstance().getSettings().setUseResolveSnapshots(true);
+        resolve.setFile(new File("test/java/org/apache/ivy/ant/ivy-simple.xml"));
+        resolve.execute();
+
+        // the second resolve reuses the snapshot of the first one
+        resolve = new IvyResolve();
+        resolve.setProject(project);
+        resolve.setFile(new File("test/java/org/apache/ivy/ant/ivy-simple.xml"));
+        resolve.execute();
+        ResolveReport report = project.getReference("ivy.resolved.report");
+        assertFalse(report.hasDependencyGraph());
+
+        dependencyTree.execute();
+        assertLogContaining("Dependency tree for apache-resolve-simple");
+        assertLogContaining("\\- org1#mod1.2;2.0");
+        report = project.getReference("ivy.resolved.report");
+        assertTrue(report.hasDependencyGraph());
+    }
+
     /**
      * Task must fail because no resolve was performed.
      */
@@ -0,0 +1,214 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ivy.TestHelper;
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorParser;
+import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorWriter;
+import org.apache.ivy.plugins.repository.url.URLResource;
+import org.apache.ivy.util.FileUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BinaryModuleDescriptorStoreTest {
+
+    private IvySettings settings;
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        settings = new IvySettings();
+        settings.loadDefault();
+        TestHelper.createCache();
+        dir = new File(TestHelper.cache, "binary");
+    }
+
+    @After
+    public void tearDown() {
+        TestHelper.cleanCache();
+    }
+
+    /**
+     * Checks that the module descriptors loaded from the binary files are the same as the ones
+     * parsed from the Ivy files, over the Ivy files of the tests put in the cache.
+     */
+    @Test
+    public void testSameDescriptorAsXml() throws Exception {
+        List<File> ivyFiles = new ArrayList<>();
+        findIvyFiles(new File("test/repositories"), ivyFiles);
+        findIvyFiles(new File("test/java/org/apache/ivy/plugins/parser/xml"), ivyFiles);
+
+        int stored = 0;
+        for (File file : ivyFiles) {
+            File ivyFile = new File(dir, stored + "/ivy.xml");
+            ModuleDescriptor md;
+            ParserSettingsMonitor monitor = new ParserSettingsMonitor(settings);
+            try {
+                // written as in the cache
+                URL url = file.toURI().toURL();
+                ModuleDescriptor original = XmlModuleDescriptorParser.getInstance()
+                        .parseDescriptor(settings, url, false);
+                try (InputStream is = new FileInputStream(file)) {
+                    XmlModuleDescriptorParser.getInstance().toIvyFile(is, new URLResource(url),
+                        ivyFile, original);
+                }
+                md = XmlModuleDescriptorParser.getInstance().parseDescriptor(
+                    monitor.getMonitoredSettings(), ivyFile.toURI().toURL(), false);
+            } catch (ParseException | IOException e) {
+                continue;
+            }
+            if (!monitor.isSettingsIndependent()) {
+                continue;
+            }
+            BinaryModuleDescriptorStore.store(ivyFile, md, settings, false);
+            if (!BinaryModuleDescriptorStore.getBinaryFile(ivyFile).exists()) {
+                continue;
+            }
+            ModuleDescriptor loaded = BinaryModuleDescriptorStore.load(ivyFile,
+                XmlModuleDescriptorParser.getInstance(), settings, false);
+            assertNotNull(file.toString(), loaded);
+            assertEquals(file.toString(), dump(md), dump(loaded));
+            stored++;
+        }
+        assertTrue("only " + stored + " binary files stored", stored > ivyFiles.size() / 2);
+    }
+
+    @Test
+    public void testStale() throws Exception {
+        File ivyFile = storeIvyFile();
+        assertNotNull(load(ivyFile, false));
+
+        try (FileWriter out = new FileWriter(ivyFile, true)) {
+            out.write("<!-- changed -->");
+        }
+        assertNull(load(ivyFile, false));
+    }
+
+    @Test
+    public void testCorrupted() throws Exception {
+        File ivyFile = storeIvyFile();
+        File binaryFile = BinaryModuleDescriptorStore.getBinaryFile(ivyFile);
+        try (RandomAccessFile raf = new RandomAccessFile(binaryFile, "rw")) {
+            raf.seek(raf.length() - 1);
+            int last = raf.read();
+            raf.seek(raf.length() - 1);
+            raf.write(last ^ 0xff);
+        }
+        assertNull(load(ivyFile, false));
+
+        assertTrue(binaryFile.delete());
+        assertNull(load(ivyFile, false));
+    }
+
+    @Test
+    public void testValidated() throws Exception {
+        File ivyFile = storeIvyFile();
+        assertNull(load(ivyFile, true));
+        assertNotNull(load(ivyFile, false));
+    }
+
+    @Test
+    public void testDelete() throws Exception {
+        File ivyFile = storeIvyFile();
+        BinaryModuleDescriptorStore.delete(ivyFile);
+        assertFalse(BinaryModuleDescriptorStore.getBinaryFile(ivyFile).exists());
+        assertNull(load(ivyFile, false));
+    }
+
+    private File storeIvyFile() throws Exception {
+        File ivyFile = new File(dir, "ivy.xml");
+        FileUtil.copy(new File("test/repositories/1/org1/mod1.1/ivys/ivy-1.0.xml"), ivyFile,
+            null);
+        ModuleDescriptor md = XmlModuleDescriptorParser.getInstance().parseDescriptor(settings,
+            ivyFile.toURI().toURL(), false);
+        BinaryModuleDescriptorStore.store(ivyFile, md, settings, false);
+        assertTrue(BinaryModuleDescriptorStore.getBinaryFile(ivyFile).exists());
+        return ivyFile;
+    }
+
+    private ModuleDescriptor load(File ivyFile, boolean validate) {
+        return BinaryModuleDescriptorStore.load(ivyFile, XmlModuleDescriptorParser.getInstance(),
+            settings, validate);
+    }
+
+    private static void findIvyFiles(File dir, List<File> ivyFiles) {
+        File[] files = dir.listFiles();
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.isDirectory()) {
+                findIvyFiles(file, ivyFiles);
+            } else if (file.getName().endsWith(".xml") && !file.getName().startsWith("ivysettings")) {
+                ivyFiles.add(file);
+            }
+        }
+    }
+
+    /**
+     * Dumps the module descriptor as an Ivy file, with the data which isn't written in Ivy files.
+     */
+    private String dump(ModuleDescriptor md) throws IOException {
+        File file = new File(dir, "dump.xml");
+        XmlModuleDescriptorWriter.write(md, file);
+        StringBuilder sb = new StringBuilder(new String(Files.readAllBytes(file.toPath()),
+                StandardCharsets.UTF_8));
+        sb.append(md.getLastModified()).append('\n');
+        sb.append(md.getResolvedPublicationDate()).append('\n');
+        sb.append(md.getParser()).append(' ').append(md.getResource().getName()).append('\n');
+        sb.append(md.getMetadataArtifact()).append('\n');
+        for (String conf : md.getConfigurationsNames()) {
+            sb.append(conf).append(": ").append(Arrays.toString(md.getArtifacts(conf)))
+                    .append('\n');
+        }
+        sb.append(Arrays.toString(md.getAllExcludeRules())).append('\n');
+        for (DependencyDescriptor dd : md.getDependencies()) {
+            for (String conf : dd.getModuleConfigurations()) {
+                sb.append(dd).append(' ').append(conf).append(": ")
+                        .append(Arrays.toString(dd.getDependencyConfigurations(conf)))
+                        .append(Arrays.toString(dd.getDependencyArtifacts(conf)))
+                        .append(Arrays.toString(dd.getIncludeRules(conf)))
+                        .append(Arrays.toString(dd.getExcludeRules(conf))).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
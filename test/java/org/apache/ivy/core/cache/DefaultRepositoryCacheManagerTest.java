@@ -18,12 +18,16 @@
 package org.apache.ivy.core.cache;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Date;
 
 import org.apache.ivy.Ivy;
@@ -31,18 +35,25 @@ import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.DefaultArtifact;
 import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
+import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ArtifactDownloadReport;
+import org.apache.ivy.core.report.DownloadStatus;
 import org.apache.ivy.core.resolve.ResolvedModuleRevision;
 import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorParser;
 import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorWriter;
+import org.apache.ivy.plugins.repository.ArtifactResourceResolver;
 import org.apache.ivy.plugins.repository.BasicResource;
 import org.apache.ivy.plugins.repository.Resource;
 import org.apache.ivy.plugins.repository.ResourceDownloader;
+import org.apache.ivy.plugins.repository.file.FileRepository;
 import org.apache.ivy.plugins.resolver.MockResolver;
 import org.apache.ivy.plugins.resolver.util.ResolvedResource;
+import org.apache.ivy.util.ChecksumHelper;
 import org.apache.ivy.util.DefaultMessageLogger;
 import org.apache.ivy.util.Message;
 import org.apache.tools.ant.Project;
@@ -109,6 +120,59 @@ public class DefaultRepositoryCacheManagerTest {
         assertTrue(ArtifactOrigin.isUnknown(found));
     }
 
+    @Test
+    public void testArtifactOriginInIndexedStore() {
+        DefaultRepositoryCacheManager indexedCacheManager = new DefaultRepositoryCacheManager();
+        indexedCacheManager.setSettings(ivy.getSettings());
+        indexedCacheManager.setBasedir(cacheManager.getBasedir());
+        indexedCacheManager.setMetadataStore(IndexedMetadataStore.NAME);
+        try {
+            // the origin saved in a properties file is imported in the indexed store
+            assertEquals(origin, indexedCacheManager.getSavedArtifactOrigin(artifact));
+            assertEquals(1, ((IndexedMetadataStore) indexedCacheManager.getMetadataStore()).size());
+
+            Artifact otherArtifact = createArtifact("org", "module", "rev", "name2", "type",
+                "ext");
+            indexedCacheManager.saveArtifactOrigin(otherArtifact, origin);
+            assertEquals(origin, indexedCacheManager.getSavedArtifactOrigin(otherArtifact));
+            assertTrue(ArtifactOrigin.isUnknown(cacheManager.getSavedArtifactOrigin(otherArtifact)));
+        } finally {
+            ((IndexedMetadataStore) indexedCacheManager.getMetadataStore()).close();
+        }
+    }
+
+    @Test
+    public void testNotFound() throws Exception {
+        ModuleRevisionId mrid = ModuleRevisionId.newInstance("org", "module", "rev");
+        String resource = "http://repo/org/module/rev/module-rev.pom";
+        CacheMetadataOptions options = new CacheMetadataOptions();
+
+        // not remembered by default
+        cacheManager.saveNotFound("resolver", mrid, resource, false);
+        assertFalse(cacheManager.isNotFound("resolver", mrid, resource, options));
+
+        cacheManager.setNotFoundTTL("1h");
+        cacheManager.saveNotFound("resolver", mrid, resource, false);
+        assertTrue(cacheManager.isNotFound("resolver", mrid, resource, options));
+        assertFalse(cacheManager.isNotFound("other", mrid, resource, options));
+        // the other metadata of the module is kept
+        assertEquals(origin, cacheManager.getSavedArtifactOrigin(artifact));
+
+        // refresh and checkmodified ask the repository again
+        assertFalse(cacheManager.isNotFound("resolver", mrid, resource,
+            (CacheMetadataOptions) new CacheMetadataOptions().setForce(true)));
+        assertFalse(cacheManager.isNotFound("resolver", mrid, resource,
+            new CacheMetadataOptions().setCheckmodified(true)));
+
+        cacheManager.saveNotFound("resolver", mrid, resource, true);
+        assertFalse(cacheManager.isNotFound("resolver", mrid, resource, options));
+
+        cacheManager.saveNotFound("resolver", mrid, resource, false);
+        cacheManager.setNotFoundTTL(1);
+        Thread.sleep(10);
+        assertFalse(cacheManager.isNotFound("resolver", mrid, resource, options));
+    }
+
     @Test
     public void testUniqueness() {
         cacheManager.saveArtifactOrigin(artifact, origin);
@@ -138,6 +202,177 @@ public class DefaultRepositoryCacheManagerTest {
         assertTrue(ArtifactOrigin.isUnknown(found));
     }
 
+    @Test
+    public void testBinaryDescriptors() throws Exception {
+        cacheManager.setUseBinaryDescriptors(true);
+        MockResolver resolver = new MockResolver();
+        resolver.setName("resolver1");
+        resolver.setSettings(ivy.getSettings());
+        ivy.getSettings().addResolver(resolver);
+
+        ModuleRevisionId mrid = ModuleRevisionId.newInstance("org", "module", "1.0");
+        DefaultModuleDescriptor md = DefaultModuleDescriptor.newDefaultInstance(mrid);
+        File ivyFile = cacheManager.getIvyFileInCache(mrid);
+        XmlModuleDescriptorWriter.write(md, ivyFile);
+        cacheManager.saveResolvers(md, "resolver1", "resolver1");
+        DependencyDescriptor dd = new DefaultDependencyDescriptor(mrid, false);
+        CacheMetadataOptions options = new CacheMetadataOptions().setCheckTTL(false);
+
+        // the binary file is stored when the Ivy file is parsed
+        ResolvedModuleRevision rmr = cacheManager.findModuleInCache(dd, mrid, options, null);
+        ModuleDescriptor parsed = rmr.getDescriptor();
+        assertEquals(mrid, parsed.getModuleRevisionId());
+        File binaryFile = BinaryModuleDescriptorStore.getBinaryFile(ivyFile);
+        assertTrue(binaryFile.exists());
+
+        // and used by a cache without the module descriptor in memory
+        DefaultRepositoryCacheManager otherCacheManager = new DefaultRepositoryCacheManager();
+        otherCacheManager.setSettings(ivy.getSettings());
+        otherCacheManager.setBasedir(cacheManager.getBasedir());
+        otherCacheManager.setUseBinaryDescriptors(true);
+        long lastModified = binaryFile.lastModified();
+        rmr = otherCacheManager.findModuleInCache(dd, mrid, options, null);
+        assertEquals(parsed.getResolvedPublicationDate(),
+            rmr.getDescriptor().getResolvedPublicationDate());
+        assertEquals(Arrays.asList(parsed.getAllArtifacts()),
+            Arrays.asList(rmr.getDescriptor().getAllArtifacts()));
+        assertEquals(lastModified, binaryFile.lastModified());
+
+        // the binary file is deleted when the Ivy file is replaced
+        ModuleDescriptorWriter writer = new ModuleDescriptorWriter() {
+            public void write(ResolvedResource originalMdResource, ModuleDescriptor md, File src,
+                    File dest) throws IOException {
+                XmlModuleDescriptorWriter.write(md, dest);
+            }
+        };
+        cacheManager.originalToCachedModuleDescriptor(resolver, null, md.getMetadataArtifact(),
+            rmr, writer);
+        assertFalse(binaryFile.exists());
+    }
+
+    @Test
+    public void testNoBinaryDescriptorDependingOnSettings() throws Exception {
+        cacheManager.setUseBinaryDescriptors(true);
+        MockResolver resolver = new MockResolver();
+        resolver.setName("resolver1");
+        resolver.setSettings(ivy.getSettings());
+        ivy.getSettings().addResolver(resolver);
+        ivy.getSettings().setVariable("test.status", "release");
+
+        ModuleRevisionId mrid = ModuleRevisionId.newInstance("org", "module", "1.0");
+        File ivyFile = cacheManager.getIvyFileInCache(mrid);
+        ivyFile.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(ivyFile)) {
+            out.println("<ivy-module version=\"2.0\">");
+            out.println("<info organisation=\"org\" module=\"module\" revision=\"1.0\""
+                    + " status=\"${test.status}\"/>");
+            out.println("</ivy-module>");
+        }
+        ModuleDescriptor md = XmlModuleDescriptorParser.getInstance().parseDescriptor(
+            ivy.getSettings(), ivyFile.toURI().toURL(), false);
+        cacheManager.saveResolvers(md, "resolver1", "resolver1");
+
+        ResolvedModuleRevision rmr = cacheManager.findModuleInCache(
+            new DefaultDependencyDescriptor(mrid, false), mrid,
+            new CacheMetadataOptions().setCheckTTL(false), null);
+        assertEquals("release", rmr.getDescriptor().getStatus());
+        assertFalse(BinaryModuleDescriptorStore.getBinaryFile(ivyFile).exists());
+    }
+
+    @Test
+    public void testBlobStore() throws Exception {
+        cacheManager.setUseBlobStore(true);
+        ArtifactResourceResolver resolver = new ArtifactResourceResolver() {
+            public ResolvedResource resolve(Artifact artifact) {
+                return new ResolvedResource(new BasicResource("/" + artifact.getName(), true, 5,
+                        0, false), artifact.getModuleRevisionId().getRevision());
+            }
+        };
+        ResourceDownloader downloader = new ResourceDownloader() {
+            public void download(Artifact artifact, Resource resource, File dest)
+                    throws IOException {
+                dest.getParentFile().mkdirs();
+                String content = artifact.getName().startsWith("other") ? "other" : "same";
+                Files.write(dest.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        File a = download("org1", "a", resolver, downloader);
+        File b = download("org2", "b", resolver, downloader);
+        File other = download("org1", "other", resolver, downloader);
+
+        // the same content is stored once, the artifacts being links to it
+        assertTrue(Files.isSameFile(a.toPath(), b.toPath()));
+        assertFalse(Files.isSameFile(a.toPath(), other.toPath()));
+        assertEquals("same", new String(Files.readAllBytes(b.toPath()), StandardCharsets.UTF_8));
+        assertEquals(2, countFiles(cacheManager.getBlobStoreDir()));
+
+        // only the blobs no longer linked to any artifact are collected
+        assertEquals(0, cacheManager.collectUnusedBlobs());
+        assertTrue(a.delete());
+        assertEquals(0, cacheManager.collectUnusedBlobs());
+        assertTrue(other.delete());
+        assertEquals(1, cacheManager.collectUnusedBlobs());
+        assertEquals(1, countFiles(cacheManager.getBlobStoreDir()));
+        assertEquals("same", new String(Files.readAllBytes(b.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRepositoryResourceRevalidatedWithChecksums() throws Exception {
+        File repoDir = new File(cacheManager.getBasedir(), "repo");
+        File index = new File(repoDir, "index.xml");
+        writeWithChecksum(index, "v1");
+        FileRepository repository = new FileRepository(repoDir);
+        CacheResourceOptions options = new CacheResourceOptions();
+        options.setTtl(0);
+
+        ArtifactDownloadReport adr = cacheManager.downloadRepositoryResource(
+            repository.getResource("index.xml"), "index", "index", "xml", options, repository);
+        assertEquals(DownloadStatus.SUCCESSFUL, adr.getDownloadStatus());
+        ArtifactOrigin savedOrigin = cacheManager.getSavedArtifactOrigin(adr.getArtifact());
+        assertEquals(ChecksumHelper.computeAsString(index, "sha1"),
+            savedOrigin.getChecksum("sha1"));
+        assertEquals(ChecksumHelper.computeAsString(index, "md5"), savedOrigin.getChecksum("md5"));
+
+        // the resource looks newer than the cached copy, but has the same checksums
+        assertTrue(index.setLastModified(adr.getLocalFile().lastModified() + 10000));
+        adr = cacheManager.downloadRepositoryResource(repository.getResource("index.xml"),
+            "index", "index", "xml", options, repository);
+        assertEquals(DownloadStatus.NO, adr.getDownloadStatus());
+
+        // the resource looks older than the cached copy, but its checksums have changed
+        writeWithChecksum(index, "v2");
+        assertTrue(index.setLastModified(adr.getLocalFile().lastModified() - 10000));
+        adr = cacheManager.downloadRepositoryResource(repository.getResource("index.xml"),
+            "index", "index", "xml", options, repository);
+        assertEquals(DownloadStatus.SUCCESSFUL, adr.getDownloadStatus());
+        assertEquals("v2",
+            new String(Files.readAllBytes(adr.getLocalFile().toPath()), StandardCharsets.UTF_8));
+    }
+
+    private static void writeWithChecksum(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(file.getPath() + ".sha1").toPath(),
+            ChecksumHelper.computeAsString(file, "sha1").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private File download(String org, String name, ArtifactResourceResolver resolver,
+            ResourceDownloader downloader) {
+        ArtifactDownloadReport adr = cacheManager.download(
+            createArtifact(org, "module", "1.0", name, "jar", "jar"), resolver, downloader,
+            new CacheDownloadOptions());
+        assertEquals(DownloadStatus.SUCCESSFUL, adr.getDownloadStatus());
+        return adr.getLocalFile();
+    }
+
+    private static int countFiles(File dir) {
+        int count = 0;
+        for (File file : dir.listFiles()) {
+            count += file.isDirectory() ? countFiles(file) : 1;
+        }
+        return count;
+    }
+
     @Test
     @Ignore
     public void testLatestIntegrationIsCachedPerResolver() throws Exception {
@@ -0,0 +1,173 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.apache.ivy.util.FileUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @see IndexedMetadataStore
+ */
+public class IndexedMetadataStoreTest {
+
+    private File root;
+
+    private IndexedMetadataStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        root = File.createTempFile("ivycache", ".dir");
+        root.delete(); // we want to use the file as a directory, so we delete the file itself
+        store = IndexedMetadataStore.getInstance(root);
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+        FileUtil.forceDelete(root);
+    }
+
+    @Test
+    public void testStoreAndLoad() {
+        File dataFile = new File(root, "org/mod/ivydata-1.0.properties");
+        assertTrue(store.load(dataFile).isEmpty());
+
+        store.store(dataFile, newData("resolver", "public", "artifact.resolver", "local"), null);
+        store.store(new File(root, "org/mod/ivydata-2.0.properties"),
+            newData("resolver", "other"), null);
+        assertEquals(newData("resolver", "public", "artifact.resolver", "local"),
+            store.load(dataFile));
+
+        store.store(dataFile, newData("resolver", "local"), null);
+        assertEquals(newData("resolver", "local"), store.load(dataFile));
+        assertEquals(newData("resolver", "other"),
+            store.load(new File(root, "org/mod/ivydata-2.0.properties")));
+
+        assertFalse(dataFile.exists());
+        assertTrue(store.getFile().exists());
+        assertSame(store, IndexedMetadataStore.getInstance(root));
+    }
+
+    @Test
+    public void testReopen() {
+        File dataFile = new File(root, "org/mod/ivydata-1.0.properties");
+        store.store(dataFile, newData("resolved.revision", "1.0", "resolved.time", "12"), null);
+        store.close();
+        assertEquals(0, store.size());
+
+        assertEquals(newData("resolved.revision", "1.0", "resolved.time", "12"),
+            store.load(dataFile));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void testReopenManyRecords() {
+        // more records than the buffer used to read the keys when opening the store
+        char[] chars = new char[1000];
+        Arrays.fill(chars, 'x');
+        String value = new String(chars);
+        for (int i = 0; i < 200; i++) {
+            store.store(new File(root, "org/mod/ivydata-" + i + ".properties"),
+                newData("value", value + i), null);
+        }
+        store.close();
+
+        assertEquals(newData("value", value + 0),
+            store.load(new File(root, "org/mod/ivydata-0.properties")));
+        assertEquals(200, store.size());
+        assertEquals(newData("value", value + 199),
+            store.load(new File(root, "org/mod/ivydata-199.properties")));
+    }
+
+    @Test
+    public void testImportPropertiesFile() {
+        File dataFile = new File(root, "org/mod/ivydata-1.0.properties");
+        new PropertiesFileMetadataStore().store(dataFile, newData("resolver", "public"), null);
+        assertTrue(dataFile.exists());
+
+        assertEquals(newData("resolver", "public"), store.load(dataFile));
+        assertFalse(dataFile.exists());
+        assertEquals(newData("resolver", "public"), store.load(dataFile));
+    }
+
+    @Test
+    public void testCompaction() {
+        char[] chars = new char[10000];
+        Arrays.fill(chars, 'x');
+        String value = new String(chars);
+        for (int i = 0; i < 300; i++) {
+            store.store(new File(root, "org/mod/ivydata-" + (i % 3) + ".properties"),
+                newData("value", value + i), null);
+        }
+        assertTrue(store.getFile().length() < 2 * 1024 * 1024);
+        assertFalse(new File(root, IndexedMetadataStore.FILE_NAME + ".tmp").exists());
+        assertEquals(3, store.size());
+        // the store opens the compacted file rather than reading the replaced one
+        assertEquals(newData("value", value + 298),
+            store.load(new File(root, "org/mod/ivydata-1.properties")));
+
+        store.close();
+        assertEquals(newData("value", value + 297),
+            store.load(new File(root, "org/mod/ivydata-0.properties")));
+        assertEquals(newData("value", value + 299),
+            store.load(new File(root, "org/mod/ivydata-2.properties")));
+        assertNull(store.load(new File(root, "org/mod/ivydata-3.properties")).getProperty("value"));
+    }
+
+    @Test
+    public void testInterruptedCompaction() {
+        // the compacted file can't be written: the compaction fails
+        assertTrue(new File(root, IndexedMetadataStore.FILE_NAME + ".tmp/sub").mkdirs());
+
+        char[] chars = new char[10000];
+        Arrays.fill(chars, 'x');
+        String value = new String(chars);
+        for (int i = 0; i < 300; i++) {
+            store.store(new File(root, "org/mod/ivydata-" + (i % 3) + ".properties"),
+                newData("value", value + i), null);
+        }
+        assertTrue(store.getFile().length() > 2 * 1024 * 1024);
+
+        store.close();
+        assertEquals(newData("value", value + 297),
+            store.load(new File(root, "org/mod/ivydata-0.properties")));
+        assertEquals(newData("value", value + 299),
+            store.load(new File(root, "org/mod/ivydata-2.properties")));
+        assertEquals(3, store.size());
+    }
+
+    private static Properties newData(String... keyValues) {
+        Properties data = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            data.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        return data;
+    }
+}
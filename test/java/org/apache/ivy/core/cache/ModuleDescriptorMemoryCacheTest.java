@@ -28,6 +28,8 @@ import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -172,6 +174,85 @@ public class ModuleDescriptorMemoryCacheTest {
         providerMock2.assertCalled();
     }
 
+    @Test
+    public void testWeightIsLimited() throws ParseException, IOException {
+        cache = new ModuleDescriptorMemoryCache(10,
+                ModuleDescriptorMemoryCache.estimateWeight(url1, md1)
+                        + ModuleDescriptorMemoryCache.estimateWeight(url2, md2));
+        ModuleDescriptorProviderMock providerMock1b = new ModuleDescriptorProviderMock(md1);
+        cache.get(url1, ivySettings, false, new ModuleDescriptorProviderMock(md1));
+        cache.get(url2, ivySettings, false, new ModuleDescriptorProviderMock(md2));
+        assertEquals(2, cache.size());
+        cache.get(url3, ivySettings, false, new ModuleDescriptorProviderMock(md3));
+        assertEquals(2, cache.size());
+        assertTrue(cache.getWeight() <= cache.getMaxWeight());
+        cache.get(url1, ivySettings, false, providerMock1b);
+        providerMock1b.assertCalled();
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testStatistics() throws ParseException, IOException {
+        cache.get(url1, ivySettings, false, new ModuleDescriptorProviderMock(md1));
+        cache.get(url1, ivySettings, false, null);
+        cache.get(url1, ivySettings, false, null);
+        cache.get(url2, ivySettings, false, new ModuleDescriptorProviderMock(md2));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testConcurrentGetParsesOnce() throws Exception {
+        final CountDownLatch parsing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final ModuleDescriptorProvider provider = new ModuleDescriptorProvider() {
+            public ModuleDescriptor provideModule(ParserSettings ivySettings,
+                    File descriptorFile, boolean validate) {
+                calls.incrementAndGet();
+                parsing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return md1;
+            }
+        };
+        final ModuleDescriptor[] results = new ModuleDescriptor[2];
+        Thread first = new Thread() {
+            public void run() {
+                try {
+                    results[0] = cache.get(url1, ivySettings, false, provider);
+                } catch (ParseException | IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        Thread second = new Thread() {
+            public void run() {
+                try {
+                    results[1] = cache.get(url1, ivySettings, false, provider);
+                } catch (ParseException | IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        first.start();
+        parsing.await();
+        second.start();
+        while (second.getState() != Thread.State.WAITING) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        first.join();
+        second.join();
+        assertEquals(1, calls.get());
+        assertEquals(md1, results[0]);
+        assertEquals(md1, results[1]);
+    }
+
     private static class ModuleDescriptorProviderMock implements ModuleDescriptorProvider {
 
         private boolean called = false;
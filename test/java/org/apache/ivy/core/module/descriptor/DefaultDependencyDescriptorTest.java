@@ -18,12 +18,21 @@
 
 package org.apache.ivy.core.module.descriptor;
 
+import org.apache.ivy.core.module.id.ArtifactId;
+import org.apache.ivy.core.module.id.ModuleId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.plugins.matcher.ExactPatternMatcher;
+import org.apache.ivy.plugins.matcher.GlobPatternMatcher;
+import org.apache.ivy.plugins.matcher.PatternMatcher;
+import org.apache.ivy.plugins.matcher.RegexpPatternMatcher;
 import org.junit.Test;
 
 import static org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor.replaceSelfFallbackPattern;
 import static org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor.replaceThisFallbackPattern;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class DefaultDependencyDescriptorTest {
 
@@ -55,4 +64,56 @@ public class DefaultDependencyDescriptorTest {
 
     }
 
+    @Test
+    public void testDoesExclude() {
+        DefaultDependencyDescriptor dd = new DefaultDependencyDescriptor(
+                ModuleRevisionId.newInstance("org", "mod", "1.0"), false);
+        dd.addExcludeRule("compile", excludeRule("org1", "mod1", ExactPatternMatcher.INSTANCE));
+        dd.addExcludeRule("runtime", excludeRule("org2", "*", ExactPatternMatcher.INSTANCE));
+        dd.addExcludeRule("*", excludeRule("*", "mod3", ExactPatternMatcher.INSTANCE));
+        dd.addExcludeRule("test", excludeRule("org4.*", "mod4-.*", RegexpPatternMatcher.INSTANCE));
+        dd.addExcludeRule("test", excludeRule("org1", "mod?", GlobPatternMatcher.INSTANCE));
+        // rules with the same id but not the same matcher
+        dd.addExcludeRule("compile", excludeRule("org6", "mod.", RegexpPatternMatcher.INSTANCE));
+        dd.addExcludeRule("test", excludeRule("org6", "mod.", ExactPatternMatcher.INSTANCE));
+        ExcludeRule both = excludeRule("org5", "mod5", ExactPatternMatcher.INSTANCE);
+        dd.addExcludeRule("compile", both);
+        dd.addExcludeRule("runtime", both);
+
+        assertTrue(dd.doesExclude(new String[] {"compile"}, artifactId("org1", "mod1")));
+        assertFalse(dd.doesExclude(new String[] {"runtime"}, artifactId("org1", "mod1")));
+        assertFalse(dd.doesExclude(new String[] {"compile"}, artifactId("org1", "mod2")));
+
+        assertTrue(dd.doesExclude(new String[] {"runtime"}, artifactId("org2", "any")));
+        assertFalse(dd.doesExclude(new String[] {"compile"}, artifactId("org2", "any")));
+
+        assertTrue(dd.doesExclude(new String[] {"other"}, artifactId("any", "mod3")));
+
+        assertTrue(dd.doesExclude(new String[] {"test"}, artifactId("org4.sub", "mod4-a")));
+        assertFalse(dd.doesExclude(new String[] {"test"}, artifactId("org4.sub", "mod4")));
+        assertTrue(dd.doesExclude(new String[] {"test"}, artifactId("org1", "mod2")));
+        assertFalse(dd.doesExclude(new String[] {"test"}, artifactId("org1", "mod22")));
+
+        assertTrue(dd.doesExclude(new String[] {"compile"}, artifactId("org6", "mod1")));
+        assertFalse(dd.doesExclude(new String[] {"test"}, artifactId("org6", "mod1")));
+        assertTrue(dd.doesExclude(new String[] {"test"}, artifactId("org6", "mod.")));
+
+        assertTrue(dd.doesExclude(new String[] {"compile"}, artifactId("org5", "mod5")));
+        assertTrue(dd.doesExclude(new String[] {"other", "runtime"}, artifactId("org5", "mod5")));
+        assertFalse(dd.doesExclude(new String[] {"test"}, artifactId("org5", "mod5")));
+
+        // rules added after a check are taken into account
+        dd.addExcludeRule("test", excludeRule("org5", "*", ExactPatternMatcher.INSTANCE));
+        assertTrue(dd.doesExclude(new String[] {"test"}, artifactId("org5", "mod5")));
+    }
+
+    private static ExcludeRule excludeRule(String org, String module, PatternMatcher matcher) {
+        return new DefaultExcludeRule(new ArtifactId(ModuleId.newInstance(org, module), "*", "*",
+                "*"), matcher, null);
+    }
+
+    private static ArtifactId artifactId(String org, String module) {
+        return new ArtifactId(ModuleId.newInstance(org, module), module, "jar", "jar");
+    }
+
 }
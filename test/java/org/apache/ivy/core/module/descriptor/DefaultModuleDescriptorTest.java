@@ -0,0 +1,94 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.module.descriptor;
+
+import org.apache.ivy.core.module.id.ArtifactId;
+import org.apache.ivy.core.module.id.ModuleId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.plugins.matcher.ExactPatternMatcher;
+import org.apache.ivy.plugins.matcher.GlobPatternMatcher;
+import org.apache.ivy.plugins.matcher.PatternMatcher;
+import org.apache.ivy.plugins.matcher.RegexpPatternMatcher;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultModuleDescriptorTest {
+
+    @Test
+    public void testDoesExclude() {
+        DefaultModuleDescriptor md = DefaultModuleDescriptor.newDefaultInstance(ModuleRevisionId
+                .newInstance("org", "mod", "1.0"));
+        md.addExcludeRule(excludeRule("org1", "mod1", ExactPatternMatcher.INSTANCE, "compile"));
+        md.addExcludeRule(excludeRule("org2", "*", ExactPatternMatcher.INSTANCE, "runtime"));
+        md.addExcludeRule(excludeRule("*", "mod3", ExactPatternMatcher.INSTANCE, "compile",
+            "runtime"));
+        md.addExcludeRule(excludeRule("org4.*", "mod4-.*", RegexpPatternMatcher.INSTANCE, "test"));
+        md.addExcludeRule(excludeRule("org1", "mod?", GlobPatternMatcher.INSTANCE, "test"));
+
+        assertTrue(md.doesExclude(new String[] {"compile"}, artifactId("org1", "mod1")));
+        assertFalse(md.doesExclude(new String[] {"runtime"}, artifactId("org1", "mod1")));
+        assertFalse(md.doesExclude(new String[] {"compile"}, artifactId("org1", "mod2")));
+
+        assertTrue(md.doesExclude(new String[] {"runtime"}, artifactId("org2", "any")));
+        assertFalse(md.doesExclude(new String[] {"compile"}, artifactId("org2", "any")));
+
+        assertTrue(md.doesExclude(new String[] {"runtime"}, artifactId("any", "mod3")));
+        assertTrue(md.doesExclude(new String[] {"other", "compile"}, artifactId("any", "mod3")));
+        assertFalse(md.doesExclude(new String[] {"test"}, artifactId("any", "mod3")));
+
+        assertTrue(md.doesExclude(new String[] {"test"}, artifactId("org4.sub", "mod4-a")));
+        assertFalse(md.doesExclude(new String[] {"test"}, artifactId("org4.sub", "mod4")));
+        assertTrue(md.doesExclude(new String[] {"test"}, artifactId("org1", "mod2")));
+        assertFalse(md.doesExclude(new String[] {"test"}, artifactId("org1", "mod22")));
+
+        // rules added after a check are taken into account
+        md.addExcludeRule(excludeRule("org5", "*", ExactPatternMatcher.INSTANCE, "test"));
+        assertTrue(md.doesExclude(new String[] {"test"}, artifactId("org5", "mod5")));
+    }
+
+    @Test
+    public void testDoesExcludeWithConfigurationAddedToRule() {
+        DefaultModuleDescriptor md = DefaultModuleDescriptor.newDefaultInstance(ModuleRevisionId
+                .newInstance("org", "mod", "1.0"));
+        DefaultExcludeRule rule = excludeRule("org1", "mod1", ExactPatternMatcher.INSTANCE,
+            "compile");
+        md.addExcludeRule(rule);
+        assertFalse(md.doesExclude(new String[] {"runtime"}, artifactId("org1", "mod1")));
+
+        // the configurations added to a rule which has been used apply too
+        rule.addConfiguration("runtime");
+        assertTrue(md.doesExclude(new String[] {"runtime"}, artifactId("org1", "mod1")));
+    }
+
+    private static DefaultExcludeRule excludeRule(String org, String module,
+            PatternMatcher matcher, String... confs) {
+        DefaultExcludeRule rule = new DefaultExcludeRule(new ArtifactId(ModuleId.newInstance(org,
+            module), "*", "*", "*"), matcher, null);
+        for (String conf : confs) {
+            rule.addConfiguration(conf);
+        }
+        return rule;
+    }
+
+    private static ArtifactId artifactId(String org, String module) {
+        return new ArtifactId(ModuleId.newInstance(org, module), module, "jar", "jar");
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.resolve;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.apache.ivy.core.module.descriptor.Configuration;
+import org.apache.ivy.core.module.descriptor.ConfigurationIndex;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigurationSetTest {
+
+    private final ConfigurationIndex index = new ConfigurationIndex(new String[] {"default",
+            "compile", "runtime", "test"});
+
+    @Test
+    public void testIndexedAndOtherNames() {
+        ConfigurationSet confs = new ConfigurationSet(index);
+        assertTrue(confs.isEmpty());
+        assertTrue(confs.add("test"));
+        assertTrue(confs.add("*"));
+        assertTrue(confs.add("compile"));
+        assertFalse(confs.add("compile"));
+
+        assertEquals(3, confs.size());
+        assertTrue(confs.contains("compile"));
+        assertTrue(confs.contains("*"));
+        assertFalse(confs.contains("runtime"));
+        // the indexed names come first, in their declaration order
+        assertEquals(Arrays.asList("compile", "test", "*"), new ArrayList<>(confs));
+
+        assertTrue(confs.remove("compile"));
+        assertFalse(confs.remove("compile"));
+        assertTrue(confs.remove("*"));
+        assertEquals(Arrays.asList("test"), new ArrayList<>(confs));
+    }
+
+    @Test
+    public void testAddAndRemoveAll() {
+        ConfigurationSet confs = new ConfigurationSet(index, Arrays.asList("default", "other"));
+        ConfigurationSet others = new ConfigurationSet(index, Arrays.asList("runtime", "other",
+            "more"));
+
+        assertTrue(confs.addAll(others));
+        assertFalse(confs.addAll(others));
+        assertEquals(Arrays.asList("default", "runtime", "other", "more"), new ArrayList<>(confs));
+
+        assertTrue(confs.removeAll(others));
+        assertEquals(Arrays.asList("default"), new ArrayList<>(confs));
+
+        // sets over another index are handled name by name
+        confs.addAll(new ConfigurationSet(null, Arrays.asList("test", "other")));
+        assertEquals(Arrays.asList("default", "test", "other"), new ArrayList<>(confs));
+        confs.removeAll(new ConfigurationSet(null, Arrays.asList("default", "other")));
+        assertEquals(Arrays.asList("test"), new ArrayList<>(confs));
+    }
+
+    @Test
+    public void testSetIndex() {
+        ConfigurationSet confs = new ConfigurationSet(null, Arrays.asList("test", "other",
+            "compile"));
+        assertEquals(Arrays.asList("test", "other", "compile"), new ArrayList<>(confs));
+
+        confs.setIndex(index);
+        assertEquals(3, confs.size());
+        assertTrue(confs.contains("test"));
+        assertEquals(Arrays.asList("compile", "test", "other"), new ArrayList<>(confs));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        ConfigurationSet confs = new ConfigurationSet(index, Arrays.asList("compile", "runtime",
+            "other"));
+        for (Iterator<String> it = confs.iterator(); it.hasNext();) {
+            if (!"runtime".equals(it.next())) {
+                it.remove();
+            }
+        }
+        assertEquals(Arrays.asList("runtime"), new ArrayList<>(confs));
+    }
+
+    @Test
+    public void testAddAllExtended() {
+        ConfigurationIndex extendsIndex = new ConfigurationIndex(new Configuration[] {
+                new Configuration("default", Configuration.Visibility.PUBLIC, null,
+                        new String[] {"runtime", "master"}, true, null),
+                new Configuration("compile"),
+                new Configuration("runtime", Configuration.Visibility.PUBLIC, null,
+                        new String[] {"compile"}, true, null),
+                new Configuration("test", Configuration.Visibility.PUBLIC, null,
+                        new String[] {"runtime"}, true, null)});
+
+        ConfigurationSet confs = new ConfigurationSet(extendsIndex);
+        confs.addAllExtended(extendsIndex, Arrays.asList("runtime", "other"));
+        assertEquals(Arrays.asList("compile", "runtime", "other"), new ArrayList<>(confs));
+
+        // the configurations extended which are unknown are added by name
+        confs.addAllExtended(extendsIndex, new ConfigurationSet(extendsIndex,
+                Arrays.asList("default")));
+        assertEquals(Arrays.asList("default", "compile", "runtime", "other", "master"),
+            new ArrayList<>(confs));
+
+        // the configurations extended are added by name to sets over another index
+        confs = new ConfigurationSet(index);
+        confs.addAllExtended(extendsIndex, Arrays.asList("test"));
+        assertEquals(Arrays.asList("compile", "runtime", "test"), new ArrayList<>(confs));
+
+        // no configuration is known to be extended without an index
+        confs = new ConfigurationSet(null);
+        confs.addAllExtended(null, Arrays.asList("test"));
+        assertEquals(Arrays.asList("test"), new ArrayList<>(confs));
+    }
+}
@@ -18,16 +18,38 @@
 package org.apache.ivy.core.resolve;
 
 import java.io.File;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.ivy.Ivy;
 import org.apache.ivy.core.cache.ArtifactOrigin;
+import org.apache.ivy.core.event.IvyEvent;
+import org.apache.ivy.core.event.IvyListener;
+import org.apache.ivy.core.event.download.DownloadEvent;
+import org.apache.ivy.core.event.download.EndArtifactDownloadEvent;
+import org.apache.ivy.core.event.download.StartArtifactDownloadEvent;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.DefaultArtifact;
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
+import org.apache.ivy.core.module.id.ArtifactRevisionId;
+import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.report.ArtifactDownloadReport;
 import org.apache.ivy.core.report.DownloadStatus;
 import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.report.SnapshotConfigurationResolveReport;
+import org.apache.ivy.plugins.resolver.ChainResolver;
+import org.apache.ivy.plugins.resolver.FileSystemResolver;
 import org.apache.ivy.util.CacheCleaner;
 
 import org.junit.After;
@@ -35,7 +57,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class ResolveEngineTest {
@@ -101,6 +125,231 @@ public class ResolveEngineTest {
         assertTrue(r.getLocalFile().exists());
     }
 
+    @Test
+    public void testConcurrentDownload() throws Exception {
+        ResolveEngine engine = new ResolveEngine(ivy.getSettings(), ivy.getEventManager(),
+                ivy.getSortEngine());
+
+        // the download events are fired by the resolve thread, in the order of the artifacts
+        final List<String> events = new ArrayList<>();
+        final Thread resolveThread = Thread.currentThread();
+        ivy.getEventManager().addIvyListener(new IvyListener() {
+            public void progress(IvyEvent event) {
+                if (event instanceof StartArtifactDownloadEvent
+                        || event instanceof EndArtifactDownloadEvent) {
+                    assertSame(event.getName(), resolveThread, Thread.currentThread());
+                    events.add(event.getName() + " " + ((DownloadEvent) event).getArtifact());
+                }
+            }
+        });
+
+        ResolveOptions options = new ResolveOptions();
+        options.setConfs(new String[] {"*"});
+        options.setDownloadThreads(4);
+
+        // mod6.2 depends on mod1.2, mod1.1 (which depends on mod1.2 itself) and mod6.1
+        ResolveReport report = engine.resolve(new File(
+                "test/repositories/1/org6/mod6.2/ivys/ivy-0.5.xml").toURI().toURL(), options);
+        assertFalse(report.hasError());
+        ArtifactDownloadReport[] concurrent = report.getAllArtifactsReports();
+        assertTrue(concurrent.length > 1);
+        List<String> concurrentEvents = new ArrayList<>(events);
+        assertFalse(concurrentEvents.isEmpty());
+        for (ArtifactDownloadReport adr : concurrent) {
+            assertEquals(DownloadStatus.SUCCESSFUL, adr.getDownloadStatus());
+            assertTrue(adr.getLocalFile().exists());
+        }
+
+        // a sequential resolve must produce the same reports, in the same order
+        CacheCleaner.deleteDir(cache);
+        createCache();
+        options.setDownloadThreads(1);
+        events.clear();
+        report = engine.resolve(new File("test/repositories/1/org6/mod6.2/ivys/ivy-0.5.xml")
+                .toURI().toURL(), options);
+        assertEquals(events, concurrentEvents);
+        ArtifactDownloadReport[] sequential = report.getAllArtifactsReports();
+        assertEquals(sequential.length, concurrent.length);
+        for (int i = 0; i < sequential.length; i++) {
+            assertEquals(sequential[i].getArtifact().getId(),
+                concurrent[i].getArtifact().getId());
+            assertEquals(sequential[i].getDownloadStatus(), concurrent[i].getDownloadStatus());
+            assertEquals(sequential[i].getLocalFile(), concurrent[i].getLocalFile());
+        }
+    }
+
+    @Test
+    public void testPrefetchGivesSameReport() throws Exception {
+        ResolveEngine engine = new ResolveEngine(ivy.getSettings(), ivy.getEventManager(),
+                ivy.getSortEngine());
+
+        for (String ivyFile : new String[] {"org6/mod6.2/ivys/ivy-0.5.xml",
+                "org2/mod2.6/ivys/ivy-0.8.xml", "IVY-644/M1/ivys/ivy-1.0.xml"}) {
+            File file = new File("test/repositories/1/" + ivyFile);
+            ResolveOptions options = new ResolveOptions();
+            options.setConfs(new String[] {"*"});
+            options.setPrefetchThreads(1);
+            ResolveReport sequential = engine.resolve(file.toURI().toURL(), options);
+
+            CacheCleaner.deleteDir(cache);
+            createCache();
+            options = new ResolveOptions();
+            options.setConfs(new String[] {"*"});
+            options.setPrefetchThreads(4);
+            ResolveReport prefetched = engine.resolve(file.toURI().toURL(), options);
+
+            assertEquals(ivyFile, sequential.hasError(), prefetched.hasError());
+            assertEquals(ivyFile, sequential.getProblemMessages(),
+                prefetched.getProblemMessages());
+            List<IvyNode> sequentialDeps = sequential.getDependencies();
+            List<IvyNode> prefetchedDeps = prefetched.getDependencies();
+            assertEquals(ivyFile, sequentialDeps.size(), prefetchedDeps.size());
+            for (int i = 0; i < sequentialDeps.size(); i++) {
+                assertEquals(ivyFile, sequentialDeps.get(i).getResolvedId(),
+                    prefetchedDeps.get(i).getResolvedId());
+                assertEquals(ivyFile, sequentialDeps.get(i).isCompletelyEvicted(),
+                    prefetchedDeps.get(i).isCompletelyEvicted());
+            }
+            assertEquals(ivyFile, sequential.getAllArtifactsReports().length,
+                prefetched.getAllArtifactsReports().length);
+
+            CacheCleaner.deleteDir(cache);
+            createCache();
+        }
+    }
+
+    @Test
+    public void testPrefetchResolvesModulesConcurrently() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final Set<ModuleId> runningModules = Collections
+                .newSetFromMap(new ConcurrentHashMap<ModuleId, Boolean>());
+        final AtomicBoolean sameModuleRunning = new AtomicBoolean();
+        FileSystemResolver resolver = new FileSystemResolver() {
+            @Override
+            public ResolvedModuleRevision getDependency(DependencyDescriptor dd,
+                    ResolveData data) throws ParseException {
+                if (!runningModules.add(dd.getDependencyId())) {
+                    sameModuleRunning.set(true);
+                }
+                int count = running.incrementAndGet();
+                try {
+                    synchronized (maxRunning) {
+                        maxRunning.set(Math.max(maxRunning.get(), count));
+                    }
+                    // waits a bit for another module to be resolved at the same time
+                    long timeout = System.currentTimeMillis() + 2000;
+                    while (maxRunning.get() < 2 && System.currentTimeMillis() < timeout) {
+                        Thread.sleep(5);
+                    }
+                    return super.getDependency(dd, data);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    running.decrementAndGet();
+                    runningModules.remove(dd.getDependencyId());
+                }
+            }
+        };
+        resolver.setName("concurrent");
+        resolver.addIvyPattern(new File("test/repositories/1").getAbsolutePath()
+                + "/[organisation]/[module]/ivys/ivy-[revision].xml");
+        resolver.addArtifactPattern(new File("test/repositories/1").getAbsolutePath()
+                + "/[organisation]/[module]/[type]s/[artifact]-[revision].[ext]");
+        ChainResolver chain = new ChainResolver();
+        chain.setName("chain");
+        chain.add(resolver);
+        ivy.getSettings().addResolver(chain);
+        ivy.getSettings().setDefaultResolver("chain");
+        ResolveEngine engine = new ResolveEngine(ivy.getSettings(), ivy.getEventManager(),
+                ivy.getSortEngine());
+
+        ResolveOptions options = new ResolveOptions();
+        options.setConfs(new String[] {"*"});
+        options.setPrefetchThreads(4);
+        ResolveReport report = engine.resolve(new File(
+                "test/repositories/1/org6/mod6.2/ivys/ivy-0.5.xml").toURI().toURL(), options);
+
+        assertFalse(report.hasError());
+        // the modules found by the same resolver are resolved concurrently
+        assertTrue("no metadata resolved concurrently", maxRunning.get() > 1);
+        assertFalse("a module resolved by two threads at the same time",
+            sameModuleRunning.get());
+    }
+
+    @Test
+    public void testResolveSnapshot() throws Exception {
+        ivy.getSettings().setUseResolveSnapshots(true);
+        ResolveEngine engine = new ResolveEngine(ivy.getSettings(), ivy.getEventManager(),
+                ivy.getSortEngine());
+        File ivyFile = new File("test/repositories/1/org6/mod6.2/ivys/ivy-0.5.xml");
+
+        ResolveReport report = engine.resolve(ivyFile.toURI().toURL(), newSnapshotOptions());
+        assertFalse(report.hasError());
+        assertFalse(report.getDependencies().isEmpty());
+        assertTrue(ivy.getResolutionCacheManager()
+                .getResolveSnapshotInCache(report.getResolveId()).exists());
+
+        // nothing changed: the snapshot is used
+        ResolveReport snapshot = engine.resolve(ivyFile.toURI().toURL(), newSnapshotOptions());
+        assertFalse(snapshot.hasError());
+        assertFalse(snapshot.hasDependencyGraph());
+        assertTrue(snapshot.getDependencies().isEmpty());
+        assertEquals(new HashSet<>(report.getModuleIds()), new HashSet<>(snapshot.getModuleIds()));
+        assertEquals(getIds(report.getArtifacts()), getIds(snapshot.getArtifacts()));
+        for (String conf : report.getConfigurations()) {
+            assertTrue(snapshot.getConfigurationReport(conf) instanceof SnapshotConfigurationResolveReport);
+            assertEquals(report.getConfigurationReport(conf).getModuleRevisionIds(), snapshot
+                    .getConfigurationReport(conf).getModuleRevisionIds());
+        }
+        ArtifactDownloadReport[] reports = report.getAllArtifactsReports();
+        ArtifactDownloadReport[] snapshotReports = snapshot.getAllArtifactsReports();
+        assertEquals(reports.length, snapshotReports.length);
+        Map<ArtifactRevisionId, File> localFiles = new HashMap<>();
+        for (ArtifactDownloadReport adr : reports) {
+            localFiles.put(adr.getArtifact().getId(), adr.getLocalFile());
+        }
+        for (ArtifactDownloadReport adr : snapshotReports) {
+            assertEquals(localFiles.get(adr.getArtifact().getId()), adr.getLocalFile());
+            assertEquals(DownloadStatus.NO, adr.getDownloadStatus());
+        }
+
+        // an artifact removed from the cache: the dependencies are resolved again
+        assertTrue(reports[0].getLocalFile().delete());
+        report = engine.resolve(ivyFile.toURI().toURL(), newSnapshotOptions());
+        assertFalse(report.hasError());
+        assertFalse(report.getDependencies().isEmpty());
+        assertTrue(reports[0].getLocalFile().exists());
+
+        // the snapshot is not used when the graph is needed
+        ResolveOptions options = newSnapshotOptions();
+        assertFalse(engine.resolve(ivyFile.toURI().toURL(), options).hasDependencyGraph());
+        options.setUseResolveSnapshot(false);
+        report = engine.resolve(ivyFile.toURI().toURL(), options);
+        assertTrue(report.hasDependencyGraph());
+        assertFalse(report.getDependencies().isEmpty());
+
+        // other options: the dependencies are resolved again
+        options = newSnapshotOptions();
+        options.setTransitive(false);
+        report = engine.resolve(ivyFile.toURI().toURL(), options);
+        assertFalse(report.getDependencies().isEmpty());
+    }
+
+    private static Set<ArtifactRevisionId> getIds(List<Artifact> artifacts) {
+        Set<ArtifactRevisionId> ids = new HashSet<>();
+        for (Artifact artifact : artifacts) {
+            ids.add(artifact.getId());
+        }
+        return ids;
+    }
+
+    private ResolveOptions newSnapshotOptions() {
+        ResolveOptions options = new ResolveOptions();
+        options.setConfs(new String[] {"*"});
+        return options;
+    }
+
     private void createCache() {
         cache.mkdirs();
     }
@@ -32,6 +32,7 @@ import org.apache.ivy.core.report.ArtifactDownloadReport;
 import org.apache.ivy.core.report.ResolveReport;
 import org.apache.ivy.core.resolve.ResolveOptions;
 import org.apache.ivy.util.DefaultMessageLogger;
+import org.apache.ivy.util.FileUtil;
 import org.apache.ivy.util.Message;
 import org.apache.ivy.util.MockMessageLogger;
 import org.apache.tools.ant.Project;
@@ -48,6 +49,7 @@ import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -208,6 +210,81 @@ public class RetrieveTest {
         assertEquals(1, ev.getNbUpToDate());
     }
 
+    @Test
+    public void testRetrieveConcurrently() throws Exception {
+        ResolveReport report = ivy.resolve(new File(
+                "test/repositories/1/org6/mod6.2/ivys/ivy-0.5.xml").toURI().toURL(),
+            getResolveOptions(new String[] {"*"}));
+        assertFalse(report.hasError());
+
+        final List<IvyEvent> events = new ArrayList<>();
+        ivy.getEventManager().addIvyListener(new IvyListener() {
+            public void progress(IvyEvent event) {
+                events.add(event);
+            }
+        });
+        ModuleDescriptor md = report.getModuleDescriptor();
+        String pattern = "build/test/retrieve/[module]/[conf]/[artifact]-[revision].[ext]";
+        RetrieveReport retrieveReport = ivy.retrieve(md.getModuleRevisionId(),
+            getRetrieveOptions().setThreads(4).setDestArtifactPattern(pattern));
+
+        int nbCopied = retrieveReport.getNbrArtifactsCopied();
+        assertTrue("more than one file should be copied: " + nbCopied, nbCopied > 1);
+        for (File file : retrieveReport.getCopiedFiles()) {
+            File cached = retrieveReport.getDownloadReport().get(file).getLocalFile();
+            assertEquals(cached.length(), file.length());
+            assertEquals(cached.lastModified(), file.lastModified());
+        }
+        // each file has its start and end events, and the end events follow the report order
+        assertEquals(2 + 2 * nbCopied, events.size());
+        List<File> started = new ArrayList<>();
+        for (IvyEvent event : events) {
+            if (event instanceof StartRetrieveArtifactEvent) {
+                started.add(((StartRetrieveArtifactEvent) event).getDestFile());
+            } else if (event instanceof EndRetrieveArtifactEvent) {
+                assertTrue(started.contains(((EndRetrieveArtifactEvent) event).getDestFile()));
+            }
+        }
+        EndRetrieveEvent ev = (EndRetrieveEvent) events.get(events.size() - 1);
+        assertEquals(nbCopied, ev.getNbCopied());
+
+        retrieveReport = ivy.retrieve(md.getModuleRevisionId(),
+            getRetrieveOptions().setThreads(4).setDestArtifactPattern(pattern));
+        assertEquals(0, retrieveReport.getNbrArtifactsCopied());
+        assertEquals(nbCopied, retrieveReport.getNbrArtifactsUpToDate());
+    }
+
+    @Test
+    public void testRetrieveWithHardlinks() throws Exception {
+        // mod1.1 depends on mod1.2
+        ResolveReport report = ivy.resolve(new File(
+                "test/repositories/1/org1/mod1.1/ivys/ivy-1.0.xml").toURI().toURL(),
+            getResolveOptions(new String[] {"*"}));
+        assertNotNull(report);
+        ModuleDescriptor md = report.getModuleDescriptor();
+        assertNotNull(md);
+
+        String pattern = "build/test/retrieve/[module]/[conf]/[artifact]-[revision].[ext]";
+        ivy.retrieve(md.getModuleRevisionId(),
+            getRetrieveOptions().setMakeHardlinks(true).setDestArtifactPattern(pattern));
+
+        Path retrieved = new File(IvyPatternHelper.substitute(pattern, "org1", "mod1.2", "2.0",
+            "mod1.2", "jar", "jar", "default")).toPath();
+        Path cached = report.getAllArtifactsReports()[0].getLocalFile().toPath();
+        assertTrue(Files.isRegularFile(retrieved, LinkOption.NOFOLLOW_LINKS));
+        // either linked to the cache, or copied when the filesystem doesn't support hard links
+        assertTrue(Files.isSameFile(cached, retrieved)
+                || Arrays.equals(Files.readAllBytes(cached), Files.readAllBytes(retrieved)));
+
+        // a copy over a hard link replaces it, without modifying the cache
+        byte[] cachedContent = Files.readAllBytes(cached);
+        Files.write(retrieved.resolveSibling("other.jar"), new byte[] {1, 2, 3});
+        FileUtil.copy(retrieved.resolveSibling("other.jar").toFile(), retrieved.toFile(), null,
+            true);
+        assertTrue(Arrays.equals(cachedContent, Files.readAllBytes(cached)));
+        assertEquals(3, Files.size(retrieved));
+    }
+
     @Test
     public void testRetrieveOverwrite() throws Exception {
         // mod1.1 depends on mod1.2
@@ -231,6 +308,79 @@ public class RetrieveTest {
             file.lastModified());
     }
 
+    @Test
+    public void testRetrieveIncremental() throws Exception {
+        // mod1.1 depends on mod1.2
+        ResolveReport report = ivy.resolve(new File(
+                "test/repositories/1/org1/mod1.1/ivys/ivy-1.0.xml").toURI().toURL(),
+            getResolveOptions(new String[] {"*"}));
+        assertNotNull(report);
+        ModuleDescriptor md = report.getModuleDescriptor();
+        assertNotNull(md);
+
+        String pattern = "build/test/retrieve/[module]/[conf]/[artifact]-[revision].[ext]";
+        RetrieveOptions options = getRetrieveOptions().setIncremental(true).setSync(true)
+                .setDestArtifactPattern(pattern);
+        File manifest = new File("build/test/retrieve", RetrieveManifest.FILE_NAME);
+
+        RetrieveReport retrieveReport = ivy.retrieve(md.getModuleRevisionId(), options);
+        assertEquals(1, retrieveReport.getNbrArtifactsCopied());
+        assertTrue(manifest.exists());
+
+        // nothing changed, the retrieve only compares the manifest
+        retrieveReport = ivy.retrieve(md.getModuleRevisionId(), options);
+        assertEquals(0, retrieveReport.getNbrArtifactsCopied());
+        assertEquals(1, retrieveReport.getNbrArtifactsUpToDate());
+        assertTrue("the manifest should be kept by the sync", manifest.exists());
+
+        // the sync still removes the files added to the retrieve directory
+        File stray = new File("build/test/retrieve/mod1.2/default/stray.jar");
+        Files.write(stray.toPath(), "stray".getBytes());
+        retrieveReport = ivy.retrieve(md.getModuleRevisionId(), options);
+        assertEquals(0, retrieveReport.getNbrArtifactsCopied());
+        assertFalse(stray.exists());
+
+        // the sync is skipped while the directories are unchanged: a file added without
+        // modifying its directory is not seen
+        Path dir = stray.getParentFile().toPath();
+        FileTime dirTime = Files.getLastModifiedTime(dir);
+        Files.write(stray.toPath(), "stray".getBytes());
+        Files.setLastModifiedTime(dir, dirTime);
+        ivy.retrieve(md.getModuleRevisionId(), options);
+        assertTrue(stray.exists());
+        Files.setLastModifiedTime(dir, FileTime.fromMillis(dirTime.toMillis() + 1000));
+        ivy.retrieve(md.getModuleRevisionId(), options);
+        assertFalse(stray.exists());
+
+        // a destination deleted since the last retrieve is retrieved again
+        File file = new File(IvyPatternHelper.substitute(pattern, "org1", "mod1.2", "2.0",
+            "mod1.2", "jar", "jar", "default"));
+        assertTrue(file.delete());
+        retrieveReport = ivy.retrieve(md.getModuleRevisionId(), options);
+        assertEquals(1, retrieveReport.getNbrArtifactsCopied());
+        assertTrue(file.exists());
+
+        // the artifact changed in the cache, it is retrieved again
+        File cached = report.getAllArtifactsReports()[0].getLocalFile();
+        assertTrue(cached.setLastModified(cached.lastModified() + 60000));
+        retrieveReport = ivy.retrieve(md.getModuleRevisionId(), options);
+        assertEquals(1, retrieveReport.getNbrArtifactsCopied());
+        assertEquals(cached.lastModified(), file.lastModified());
+
+        // a corrupted manifest is ignored, and the destination files are checked as usual
+        Files.write(manifest.toPath(), "checksum=0".getBytes());
+        retrieveReport = ivy.retrieve(md.getModuleRevisionId(), options);
+        assertEquals(0, retrieveReport.getNbrArtifactsCopied());
+        assertEquals(1, retrieveReport.getNbrArtifactsUpToDate());
+        retrieveReport = ivy.retrieve(md.getModuleRevisionId(), options);
+        assertEquals(0, retrieveReport.getNbrArtifactsCopied());
+
+        // the manifest doesn't apply to another retrieve
+        retrieveReport = ivy.retrieve(md.getModuleRevisionId(),
+            new RetrieveOptions(options).setSync(false).setOverwriteMode("always"));
+        assertEquals(1, retrieveReport.getNbrArtifactsCopied());
+    }
+
     @Test
     public void testRetrieveWithSymlinks() throws Exception {
         // mod1.1 depends on mod1.2
@@ -196,6 +196,28 @@ public class XmlSettingsParserTest {
         assertEquals("default", settings.getResolveMode(new ModuleId("apache", "ant")));
     }
 
+    @Test
+    public void testDownloadThreads() throws Exception {
+        IvySettings settings = new IvySettings();
+        assertEquals(1, settings.getDownloadThreads());
+
+        XmlSettingsParser parser = new XmlSettingsParser(settings);
+        parser.parse(XmlSettingsParserTest.class.getResource("ivysettings-download-threads.xml"));
+
+        assertEquals(4, settings.getDownloadThreads());
+    }
+
+    @Test
+    public void testRetrieveThreads() throws Exception {
+        IvySettings settings = new IvySettings();
+        assertEquals(1, settings.getRetrieveThreads());
+
+        XmlSettingsParser parser = new XmlSettingsParser(settings);
+        parser.parse(XmlSettingsParserTest.class.getResource("ivysettings-retrieve-threads.xml"));
+
+        assertEquals(8, settings.getRetrieveThreads());
+    }
+
     @Test
     public void testExtraModuleAttribute() throws Exception {
         IvySettings settings = new IvySettings();
@@ -20,8 +20,11 @@ package org.apache.ivy.core.sort;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
@@ -38,6 +41,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class SortTest {
@@ -266,6 +270,52 @@ public class SortTest {
         nonMatchingVersionReporterMock.validate();
     }
 
+    @Test
+    public void testSortedDependencies() {
+        addDependency(md2, "md1", "rev1");
+        addDependency(md3, "md1", "rev1");
+        addDependency(md4, "md2", "rev2");
+        addDependency(md4, "md3", "rev3");
+        addDependency(md4, "other", "rev");
+
+        for (List<ModuleDescriptor> toSort : getAllLists(md1, md3, md2, md4)) {
+            Map<ModuleDescriptor, List<ModuleDescriptor>> dependencies = sortEngine
+                    .getSortedDependencies(toSort, SortOptions.SILENT);
+            List<ModuleDescriptor> sorted = new ArrayList<>(dependencies.keySet());
+            assertSorted(new DefaultModuleDescriptor[][] {{md1, md2, md3, md4},
+                    {md1, md3, md2, md4}}, sorted);
+            assertEquals(Collections.emptyList(), dependencies.get(md1));
+            assertEquals(Collections.singletonList(md1), dependencies.get(md2));
+            assertEquals(Collections.singletonList(md1), dependencies.get(md3));
+            assertEquals(new HashSet<>(Arrays.asList(md2, md3)),
+                new HashSet<>(dependencies.get(md4)));
+        }
+    }
+
+    /**
+     * The dependency closing a loop is left out, so that the modules can still be processed
+     * following their dependencies.
+     */
+    @Test
+    public void testSortedDependenciesWithCircularDependency() {
+        addDependency(md1, "md3", "rev3");
+        addDependency(md2, "md1", "rev1");
+        addDependency(md3, "md2", "rev2");
+
+        Map<ModuleDescriptor, List<ModuleDescriptor>> dependencies = sortEngine
+                .getSortedDependencies(Arrays.<ModuleDescriptor> asList(md1, md2, md3),
+                    SortOptions.SILENT);
+        int edges = 0;
+        List<ModuleDescriptor> before = new ArrayList<>();
+        for (Map.Entry<ModuleDescriptor, List<ModuleDescriptor>> entry : dependencies.entrySet()) {
+            assertTrue(before.containsAll(entry.getValue()));
+            before.add(entry.getKey());
+            edges += entry.getValue().size();
+        }
+        assertEquals(3, before.size());
+        assertEquals(2, edges);
+    }
+
     private List<ModuleDescriptor> sortModuleDescriptors(List<ModuleDescriptor> toSort,
             NonMatchingVersionReporter nonMatchingVersionReporter) {
         return sortEngine.sortModuleDescriptors(toSort,
@@ -20,6 +20,7 @@ package org.apache.ivy.osgi.obr;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -27,7 +28,13 @@ import java.io.FileInputStream;
 import java.text.ParseException;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
 
@@ -173,6 +180,65 @@ public class OBRResolverTest {
         genericTestResolveDownload(bundleUrlResolver, mrid);
     }
 
+    @Test
+    public void testBackgroundInit() throws Exception {
+        final CountDownLatch initStarted = new CountDownLatch(1);
+        final CountDownLatch initReleased = new CountDownLatch(1);
+        final List<Thread> initThreads = new CopyOnWriteArrayList<>();
+        final OBRResolver resolver = new OBRResolver() {
+            @Override
+            protected void init() {
+                initThreads.add(Thread.currentThread());
+                initStarted.countDown();
+                try {
+                    initReleased.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                super.init();
+            }
+        };
+        resolver.setRepoXmlURL(new File("test/test-repo/bundlerepo/repo.xml").toURI().toURL()
+                .toExternalForm());
+        resolver.setName("background");
+        resolver.setSettings(settings);
+        settings.addResolver(resolver);
+        resolver.setBackgroundInit(true);
+
+        resolver.validate();
+        assertTrue("the repo descriptor is not loaded",
+            initStarted.await(10, TimeUnit.SECONDS));
+        assertNotSame("the repo descriptor is not loaded in the background",
+            Thread.currentThread(), initThreads.get(0));
+
+        // a resolve meanwhile waits for the background loading rather than loading it again
+        final ModuleRevisionId mrid = ModuleRevisionId.newInstance(BundleInfo.BUNDLE_TYPE,
+            "org.apache.ivy.osgi.testbundle", "1.2.3");
+        FutureTask<ResolvedModuleRevision> resolve = new FutureTask<>(
+                new Callable<ResolvedModuleRevision>() {
+                    public ResolvedModuleRevision call() throws Exception {
+                        return resolver.getDependency(new DefaultDependencyDescriptor(mrid,
+                                false), data);
+                    }
+                });
+        Thread resolveThread = new Thread(resolve);
+        resolveThread.start();
+        long timeout = System.currentTimeMillis() + 10000;
+        while (resolveThread.getState() != Thread.State.BLOCKED
+                && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertEquals("the resolve doesn't wait for the background loading",
+            Thread.State.BLOCKED, resolveThread.getState());
+        assertFalse(resolve.isDone());
+
+        initReleased.countDown();
+        ResolvedModuleRevision rmr = resolve.get(10, TimeUnit.SECONDS);
+        assertNotNull(rmr);
+        assertEquals(mrid, rmr.getId());
+        assertEquals("the repo descriptor is loaded more than once", 1, initThreads.size());
+    }
+
     @Test
     public void testResolveDual() throws Exception {
         ModuleRevisionId mrid = ModuleRevisionId.newInstance(BundleInfo.BUNDLE_TYPE,
@@ -90,6 +90,32 @@ public class LatestRevisionStrategyTest {
         assertEquals(Arrays.asList(revs), shuffled);
     }
 
+    @Test
+    public void testSpecialMeaningAddedAfterComparison() {
+        LatestRevisionStrategy latestRevisionStrategy = new LatestRevisionStrategy();
+        ArtifactInfo[] revs = toMockAI(new String[] {"1.0-pre", "1.0-dev"});
+        assertEquals("1.0-pre", latestRevisionStrategy.findLatest(revs, null).getRevision());
+
+        // the revisions already compared take the new special meaning into account
+        LatestRevisionStrategy.SpecialMeaning specialMeaning = new LatestRevisionStrategy.SpecialMeaning();
+        specialMeaning.setName("pre");
+        specialMeaning.setValue(-2);
+        latestRevisionStrategy.addConfiguredSpecialMeaning(specialMeaning);
+        assertEquals("1.0-dev", latestRevisionStrategy.findLatest(revs, null).getRevision());
+    }
+
+    @Test
+    public void testLargeNumbers() {
+        ArtifactInfo[] revs = toMockAI(new String[] {"1.99", "1.123456789012345678901",
+                "1.123456789012345678902"});
+
+        List<ArtifactInfo> shuffled = new ArrayList<>(Arrays.asList(revs));
+        Collections.shuffle(shuffled);
+        List<ArtifactInfo> sorted = new LatestRevisionStrategy().sort(shuffled
+                .toArray(new ArtifactInfo[revs.length]));
+        assertEquals(Arrays.asList(revs), sorted);
+    }
+
     private static class MockArtifactInfo implements ArtifactInfo {
 
         private long lastModified;
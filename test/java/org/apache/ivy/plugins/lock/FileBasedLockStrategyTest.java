@@ -0,0 +1,109 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.lock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.util.FileUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileBasedLockStrategyTest {
+
+    private File lockFile;
+
+    private CreateFileLockStrategy strategy;
+
+    @Before
+    public void setUp() {
+        lockFile = new File("build/test/lock/file.lck");
+        FileUtil.forceDelete(lockFile.getParentFile());
+        strategy = new CreateFileLockStrategy(false);
+    }
+
+    @After
+    public void tearDown() {
+        FileUtil.forceDelete(lockFile.getParentFile());
+    }
+
+    @Test
+    public void testReentrantLock() throws Exception {
+        assertTrue(strategy.acquireLock(lockFile));
+        assertTrue(lockFile.exists());
+        assertTrue(strategy.acquireLock(lockFile));
+
+        strategy.releaseLock(lockFile);
+        assertTrue(lockFile.exists());
+        strategy.releaseLock(lockFile);
+        assertFalse(lockFile.exists());
+        assertEquals("(NULL)", strategy.getCurrentLockHolderNames(lockFile));
+    }
+
+    @Test
+    public void testWaitForOtherThread() throws Exception {
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread() {
+            public void run() {
+                try {
+                    strategy.acquireLock(lockFile);
+                    locked.countDown();
+                    release.await();
+                    strategy.releaseLock(lockFile);
+                } catch (InterruptedException e) {
+                    // the test will fail
+                }
+            }
+        };
+        holder.start();
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+        assertEquals(holder.toString(), strategy.getCurrentLockHolderNames(lockFile));
+
+        long contended = FileBasedLockStrategy.getContendedLockCount();
+        long waitTime = FileBasedLockStrategy.getLockWaitTime();
+        new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    // released sooner
+                }
+                release.countDown();
+            }
+        }.start();
+        assertTrue(strategy.acquireLock(lockFile));
+        assertTrue(lockFile.exists());
+        assertEquals(contended + 1, FileBasedLockStrategy.getContendedLockCount());
+        assertTrue(FileBasedLockStrategy.getLockWaitTime() > waitTime);
+        strategy.releaseLock(lockFile);
+        holder.join();
+        assertFalse(lockFile.exists());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testReleaseNotHeldLock() {
+        strategy.releaseLock(lockFile);
+    }
+}
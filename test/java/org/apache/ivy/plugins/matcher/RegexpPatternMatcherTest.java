@@ -17,10 +17,13 @@
  */
 package org.apache.ivy.plugins.matcher;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.regex.PatternSyntaxException;
 
+import org.apache.ivy.util.BoundedCache;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -52,4 +55,18 @@ public class RegexpPatternMatcherTest extends AbstractPatternMatcherTest {
 
         matcher = patternMatcher.getMatcher("(");
     }
+
+    @Test
+    public void testCachedMatchers() {
+        Matcher matcher = patternMatcher.getMatcher("org\\.apache\\..*");
+        assertSame(matcher, patternMatcher.getMatcher("org\\.apache\\..*"));
+        assertTrue(matcher.matches("org.apache.ivy"));
+
+        patternMatcher.getMatcher("org\\.other\\..*");
+        BoundedCache<String, Matcher> cache = ((AbstractPatternMatcher) patternMatcher)
+                .getMatcherCache();
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
 }
@@ -38,7 +38,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
 import org.apache.ivy.core.module.descriptor.DependencyArtifactDescriptor;
@@ -49,6 +51,7 @@ import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.resolve.ResolveData;
+import org.apache.ivy.core.resolve.ResolveOptions;
 import org.apache.ivy.core.resolve.ResolvedModuleRevision;
 import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.plugins.parser.AbstractModuleDescriptorParserTester;
@@ -824,6 +827,44 @@ public class PomModuleDescriptorParserTest extends AbstractModuleDescriptorParse
         assertEquals("jms", excludes[1].getId().getModuleId().getName());
     }
 
+    @Test
+    public void testParentLoadedOncePerResolve() throws ParseException, IOException {
+        final AtomicInteger parentLoads = new AtomicInteger();
+        settings.setDictatorResolver(new MockResolver() {
+            public ResolvedModuleRevision getDependency(DependencyDescriptor dd, ResolveData data)
+                    throws ParseException {
+                parentLoads.incrementAndGet();
+                try {
+                    ModuleDescriptor moduleDescriptor = PomModuleDescriptorParser.getInstance()
+                            .parseDescriptor(settings,
+                                getClass().getResource("test-dependencyMgt.pom"), false);
+                    return new ResolvedModuleRevision(null, null, moduleDescriptor, null);
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+
+        IvyContext.pushNewCopyContext().setResolveData(new ResolveData(null,
+                new ResolveOptions()));
+        try {
+            for (int i = 0; i < 3; i++) {
+                ModuleDescriptor md = PomModuleDescriptorParser.getInstance().parseDescriptor(
+                    settings, getClass().getResource("test-parentDependencyMgt.pom"), false);
+                assertEquals(2, md.getDependencies().length);
+            }
+            assertEquals(1, parentLoads.get());
+
+            // another resolve loads the parent again
+            IvyContext.getContext().setResolveData(new ResolveData(null, new ResolveOptions()));
+            PomModuleDescriptorParser.getInstance().parseDescriptor(settings,
+                getClass().getResource("test-parentDependencyMgt.pom"), false);
+            assertEquals(2, parentLoads.get());
+        } finally {
+            IvyContext.popContext();
+        }
+    }
+
     @Test
     public void testOverrideParentVersionPropertyDependencyMgt()
             throws ParseException, IOException {
@@ -0,0 +1,176 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.parser.m2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.ivy.core.module.descriptor.License;
+import org.apache.ivy.plugins.repository.url.URLResource;
+import org.junit.Test;
+import org.xml.sax.SAXException;
+
+/**
+ * Checks that the streaming {@link PomReader} reads the same data as the DOM based reader it
+ * replaced, over the poms of the test repositories.
+ */
+public class PomReaderTest {
+
+    @Test
+    public void testSameDataAsDomReader() throws Exception {
+        List<File> poms = new ArrayList<>();
+        findPoms(new File("test/repositories/m2"), poms);
+        findPoms(new File("test/java/org/apache/ivy/plugins/parser/m2"), poms);
+        assertFalse("no pom found", poms.isEmpty());
+
+        for (File pom : poms) {
+            URL url = pom.toURI().toURL();
+            URLResource res = new URLResource(url);
+            DomPomReader domReader;
+            try {
+                domReader = new DomPomReader(url, res);
+            } catch (SAXException e) {
+                try {
+                    new PomReader(url, res);
+                    fail(pom + " is read, while the DOM reader failed with " + e);
+                } catch (SAXException expected) {
+                    // both failed
+                }
+                continue;
+            }
+            PomReader reader = new PomReader(url, res);
+            setProperties(domReader, domReader.getPomProperties(), domReader.getParentVersion(),
+                domReader.getParentGroupId());
+            setProperties(reader, reader.getPomProperties(), reader.getParentVersion(),
+                reader.getParentGroupId());
+            assertEquals(pom.toString(), dump(domReader), dump(reader));
+        }
+    }
+
+    @Test
+    public void testEntities() throws Exception {
+        URL url = getClass().getResource("test-entity.pom");
+        PomReader reader = new PomReader(url, new URLResource(url));
+        assertEquals(dump(new DomPomReader(url, new URLResource(url))), dump(reader));
+    }
+
+    @Test(expected = SAXException.class)
+    public void testNotAPom() throws Exception {
+        URL url = getClass().getResource("test-transitive.xml");
+        new PomReader(url, new URLResource(url));
+    }
+
+    private static void findPoms(File dir, List<File> poms) {
+        File[] files = dir.listFiles();
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.isDirectory()) {
+                findPoms(file, poms);
+            } else if (file.getName().endsWith(".pom")) {
+                poms.add(file);
+            }
+        }
+    }
+
+    /**
+     * Sets the properties the way {@link PomModuleDescriptorParser} does, through the public
+     * methods of the reader, so that the property substitutions are compared too.
+     */
+    private static void setProperties(Object reader, Map<String, String> pomProperties,
+            String parentVersion, String parentGroupId) throws Exception {
+        Method setProperty = reader.getClass().getMethod("setProperty", String.class,
+            String.class);
+        setProperty.invoke(reader, "parent.version", parentVersion);
+        setProperty.invoke(reader, "parent.groupId", parentGroupId);
+        setProperty.invoke(reader, "project.parent.version", parentVersion);
+        setProperty.invoke(reader, "project.parent.groupId", parentGroupId);
+        for (Map.Entry<String, String> prop : pomProperties.entrySet()) {
+            setProperty.invoke(reader, prop.getKey(), prop.getValue());
+        }
+        for (String name : Arrays.asList("GroupId", "ArtifactId", "Version")) {
+            String value = (String) reader.getClass().getMethod("get" + name).invoke(reader);
+            String prop = Character.toLowerCase(name.charAt(0)) + name.substring(1);
+            setProperty.invoke(reader, "project." + prop, value);
+            setProperty.invoke(reader, "pom." + prop, value);
+            setProperty.invoke(reader, prop, value);
+        }
+    }
+
+    /**
+     * Dumps the values returned by all the public getters of the given object, recursively.
+     */
+    private static String dump(Object o) throws Exception {
+        if (o == null || o instanceof String || o instanceof Boolean) {
+            return String.valueOf(o);
+        }
+        if (o instanceof License) {
+            return ((License) o).getName() + " " + ((License) o).getUrl();
+        }
+        if (o instanceof List) {
+            List<String> items = new ArrayList<>();
+            for (Object item : (List<?>) o) {
+                items.add(dump(item));
+            }
+            return items.toString();
+        }
+        if (o instanceof Map) {
+            return new TreeMap<>((Map<?, ?>) o).toString();
+        }
+        if (o.getClass().isArray()) {
+            List<Object> items = new ArrayList<>();
+            for (int i = 0; i < Array.getLength(o); i++) {
+                items.add(Array.get(o, i));
+            }
+            return dump(items);
+        }
+        if (!o.getClass().getName().startsWith(PomReader.class.getPackage().getName())) {
+            return o.toString();
+        }
+        Method[] methods = o.getClass().getMethods();
+        Arrays.sort(methods, new Comparator<Method>() {
+            public int compare(Method m1, Method m2) {
+                return m1.getName().compareTo(m2.getName());
+            }
+        });
+        StringBuilder sb = new StringBuilder("{");
+        for (Method method : methods) {
+            String name = method.getName();
+            if (method.getParameterTypes().length == 0
+                    && !Modifier.isStatic(method.getModifiers())
+                    && !"getClass".equals(name) && !"hashCode".equals(name)
+                    && (name.startsWith("get") || name.startsWith("is")
+                            || name.startsWith("has"))) {
+                sb.append(name).append('=').append(dump(method.invoke(o))).append(' ');
+            }
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.repository.url;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.ivy.util.url.BasicURLHandler;
+import org.apache.ivy.util.url.URLHandler;
+import org.apache.ivy.util.url.URLHandlerRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class URLResourceTest {
+
+    private static final byte[] CONTENT = "content".getBytes(StandardCharsets.UTF_8);
+
+    private URLHandler defaultHandler;
+
+    private HttpServer server;
+
+    private URL url;
+
+    @Before
+    public void setUp() throws IOException {
+        defaultHandler = URLHandlerRegistry.getDefault();
+        URLHandlerRegistry.setDefault(new BasicURLHandler());
+
+        // a server ignoring the conditions of the requests
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), -1);
+        server.createContext("/", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().add("ETag", "\"v1\"");
+                exchange.sendResponseHeaders(200, CONTENT.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(CONTENT);
+                }
+            }
+        });
+        server.start();
+        url = new URL("http://localhost:" + server.getAddress().getPort() + "/test.jar");
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        URLHandlerRegistry.setDefault(defaultHandler);
+    }
+
+    /**
+     * A full response carrying the validators of the downloaded copy doesn't mean the resource
+     * was modified.
+     */
+    @Test
+    public void testFetchIfModifiedWithSameETag() throws IOException {
+        URLResource resource = new URLResource(url);
+        assertFalse(resource.fetchIfModified("\"v1\"", 0));
+        assertNull(resource.takeFetchedContent());
+        assertEquals("\"v1\"", resource.getETag());
+    }
+
+    @Test
+    public void testFetchIfModifiedWithOtherETag() throws IOException {
+        URLResource resource = new URLResource(url);
+        assertTrue(resource.fetchIfModified("\"v0\"", 0));
+        assertEquals("\"v1\"", resource.getETag());
+
+        File content = resource.takeFetchedContent();
+        assertNotNull(content);
+        try {
+            assertEquals(CONTENT.length, content.length());
+            // the content is handed over once
+            assertNull(resource.takeFetchedContent());
+        } finally {
+            content.delete();
+        }
+    }
+}
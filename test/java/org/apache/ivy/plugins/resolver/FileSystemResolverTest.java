@@ -21,6 +21,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Date;
 import java.util.GregorianCalendar;
 
@@ -45,6 +46,9 @@ import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.core.sort.SortEngine;
 import org.apache.ivy.plugins.latest.LatestRevisionStrategy;
 import org.apache.ivy.plugins.latest.LatestTimeStrategy;
+import org.apache.ivy.plugins.repository.Resource;
+import org.apache.ivy.plugins.repository.file.FileRepository;
+import org.apache.ivy.plugins.repository.file.FileResource;
 import org.apache.ivy.plugins.resolver.util.ResolvedResource;
 import org.apache.ivy.util.CacheCleaner;
 import org.apache.ivy.util.FileUtil;
@@ -270,6 +274,38 @@ public class FileSystemResolverTest extends AbstractDependencyResolverTest {
         assertEquals(1, dr.getArtifactsReports(DownloadStatus.SUCCESSFUL).length);
     }
 
+    /**
+     * The checksums are checked against digests computed while downloading the artifact, the
+     * downloaded file isn't read a second time.
+     */
+    @Test
+    public void testChecksumsComputedWhileDownloading() throws Exception {
+        FileSystemResolver resolver = new FileSystemResolver() {
+            @Override
+            protected long get(Resource resource, File dest) throws IOException {
+                long size = super.get(resource, dest);
+                if (dest.getName().endsWith(".jar")) {
+                    // a check reading the downloaded file again would find other checksums
+                    Files.write(dest.toPath(), new byte[(int) size]);
+                }
+                return size;
+            }
+        };
+        resolver.setName("test");
+        resolver.setSettings(settings);
+        resolver.setChecksums("sha1, md5");
+
+        File dest = new File(cache, "allright-1.0.jar");
+        resolver.getAndCheck(new FileResource(new FileRepository(), new File(
+                "test/repositories/checksums/allright/allright-1.0.jar").getAbsoluteFile()), dest);
+
+        // a wrong checksum is still detected
+        expExc.expect(IOException.class);
+        expExc.expectMessage("invalid md5");
+        resolver.getAndCheck(new FileResource(new FileRepository(), new File(
+                "test/repositories/checksums/badartcs/badartcs-1.0.jar").getAbsoluteFile()), dest);
+    }
+
     /**
      * Tests that <code>SHA-256</code> algorithm can be used for checksums on resolvers
      *
@@ -305,6 +305,49 @@ public class URLResolverTest extends AbstractDependencyResolverTest {
         }
     }
 
+    /**
+     * Tests that resources recently not found are not requested again when the cache remembers
+     * them
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Test
+    public void testNotFoundTTL() throws Exception {
+        ((DefaultRepositoryCacheManager) settings.getDefaultRepositoryCacheManager())
+                .setNotFoundTTL("1h");
+        final InetSocketAddress serverBindAddr = new InetSocketAddress("localhost", TestHelper.getMaybeAvailablePort());
+        final String contextRoot = "/testNotFoundTTL";
+        final Path repoRoot = new File("test/repositories/1").toPath();
+        try (final AutoCloseable httpServer = TestHelper.createHttpServerBackedRepository(serverBindAddr, contextRoot, repoRoot)) {
+            final String root = "http://" + serverBindAddr.getHostName() + ":" + serverBindAddr.getPort() + contextRoot;
+            final URLResolver resolver = new URLResolver();
+            resolver.setName("test");
+            resolver.setSettings(settings);
+            resolver.addIvyPattern(root + "/[organisation]/[module]/ivys/ivy-[revision].xml");
+            resolver.addArtifactPattern(root + "/[organisation]/[module]/[type]s/[artifact]-[revision].[type]");
+            resolver.validate();
+
+            final DependencyDescriptor missing = new DefaultDependencyDescriptor(
+                    ModuleRevisionId.newInstance("org1", "mod1.1", "9.9"), false);
+            assertNull(resolver.getDependency(missing, data));
+            assertEquals(0, data.getAvoidedRequests());
+
+            // the ivy file and the artifact are known to be missing
+            assertNull(resolver.getDependency(missing, data));
+            assertEquals(2, data.getAvoidedRequests());
+
+            // refresh asks the repository again
+            final ResolveData refreshData = new ResolveData(engine, new ResolveOptions().setRefresh(true));
+            assertNull(resolver.getDependency(missing, refreshData));
+            assertEquals(0, refreshData.getAvoidedRequests());
+
+            final DependencyDescriptor existing = new DefaultDependencyDescriptor(
+                    ModuleRevisionId.newInstance("org1", "mod1.1", "1.0"), false);
+            assertNotNull(resolver.getDependency(existing, data));
+            assertEquals(2, data.getAvoidedRequests());
+        }
+    }
+
     private final class ServerManager implements Callable<AutoCloseable> {
 
         private final InetSocketAddress serverBindAddress;
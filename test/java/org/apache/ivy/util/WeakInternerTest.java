@@ -0,0 +1,118 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.ivy.core.module.id.ArtifactRevisionId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class WeakInternerTest {
+
+    @Test
+    public void testIntern() {
+        WeakInterner<String> interner = new WeakInterner<>();
+        String s1 = new String("apache");
+        String s2 = new String("apache");
+        assertNotSame(s1, s2);
+
+        assertSame(s1, interner.intern(s1));
+        assertSame(s1, interner.intern(s2));
+        assertSame(s1, interner.intern(s1));
+        assertEquals(1, interner.size());
+
+        assertNull(interner.intern(null));
+        assertEquals(1, interner.size());
+    }
+
+    @Test
+    public void testConcurrentIntern() throws Exception {
+        final WeakInterner<String> interner = new WeakInterner<>();
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(new Callable<List<String>>() {
+                    public List<String> call() throws Exception {
+                        start.await();
+                        List<String> interned = new ArrayList<>();
+                        for (int j = 0; j < 1000; j++) {
+                            interned.add(interner.intern(new String("module" + j)));
+                        }
+                        return interned;
+                    }
+                }));
+            }
+            start.countDown();
+
+            List<String> first = results.get(0).get();
+            for (Future<List<String>> result : results) {
+                List<String> interned = result.get();
+                for (int j = 0; j < interned.size(); j++) {
+                    assertSame(first.get(j), interned.get(j));
+                }
+            }
+            assertEquals(1000, interner.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGarbageCollected() throws Exception {
+        WeakInterner<String> interner = new WeakInterner<>();
+        for (int i = 0; i < 1000; i++) {
+            interner.intern(new String("module" + i));
+        }
+        String kept = interner.intern(new String("kept"));
+        // the instances which are no longer referenced are removed once garbage collected
+        for (int i = 0; i < 50 && interner.size() > 1; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(1, interner.size());
+        assertSame(kept, interner.intern(new String("kept")));
+    }
+
+    @Test
+    public void testInternedIds() {
+        ModuleRevisionId mrid = ModuleRevisionId.newInstance("org", "mod", "1.0");
+        assertSame(mrid, ModuleRevisionId.newInstance("org", "mod", "1.0"));
+        assertSame(mrid.getModuleId(), ModuleRevisionId.newInstance("org", "mod", "2.0")
+                .getModuleId());
+
+        ArtifactRevisionId arid = ArtifactRevisionId.newInstance(mrid, "mod", "jar", "jar");
+        assertSame(arid, ArtifactRevisionId.newInstance(
+            ModuleRevisionId.newInstance("org", "mod", "1.0"), "mod", "jar", "jar"));
+        assertNotSame(arid, ArtifactRevisionId.newInstance(mrid, "mod", "source", "jar"));
+    }
+}
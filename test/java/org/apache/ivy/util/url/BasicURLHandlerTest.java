@@ -18,15 +18,21 @@
 package org.apache.ivy.util.url;
 
 import java.io.File;
+import java.net.InetSocketAddress;
 import java.net.URL;
 
+import org.apache.ivy.TestHelper;
 import org.apache.ivy.util.FileUtil;
+import org.apache.ivy.util.url.URLHandler.URLInfo;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -84,6 +90,38 @@ public class BasicURLHandlerTest {
             new File(testDir, "nh80-deflate.pdf"));
     }
 
+    /**
+     * Tests that a conditional download doesn't download a resource which has not been modified.
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Test
+    public void testDownloadIfModified() throws Exception {
+        final InetSocketAddress serverBindAddr = new InetSocketAddress("localhost",
+                TestHelper.getMaybeAvailablePort());
+        final String contextRoot = "/testBasicURLHandler";
+        try (AutoCloseable server = TestHelper.createHttpServerBackedRepository(serverBindAddr,
+                contextRoot, new File("test/repositories").toPath())) {
+            final URL src = new URL("http://localhost:" + serverBindAddr.getPort() + contextRoot
+                    + "/ivysettings.xml");
+            final File target = new File(testDir, "downloaded.xml");
+            final URLInfo info = handler.downloadIfModified(src, target, null, null, null, 0);
+            assertNotNull(info);
+            assertNotNull("No ETag received", info.getETag());
+            assertEquals(new File("test/repositories/ivysettings.xml").length(), target.length());
+
+            final File other = new File(testDir, "other.xml");
+            assertNull(handler.downloadIfModified(src, other, null, null, info.getETag(), 0));
+            assertNull(handler.downloadIfModified(src, other, null, null, null,
+                info.getLastModified()));
+            assertFalse(other.exists());
+
+            assertNotNull(handler.downloadIfModified(src, other, null, null, "\"outdated\"",
+                info.getLastModified()));
+            assertEquals(target.length(), other.length());
+        }
+    }
+
     private void assertDownloadOK(URL url, File file) throws Exception {
         handler.download(url, file, null);
         assertTrue(file.exists());
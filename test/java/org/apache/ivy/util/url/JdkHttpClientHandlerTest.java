@@ -0,0 +1,455 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util.url;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import org.apache.ivy.TestHelper;
+import org.apache.ivy.core.settings.NamedTimeoutConstraint;
+import org.apache.ivy.core.settings.TimeoutConstraint;
+import org.apache.ivy.util.FileUtil;
+import org.apache.ivy.util.url.URLHandler.URLInfo;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test {@link JdkHttpClientHandler}
+ */
+public class JdkHttpClientHandlerTest {
+    private static final String CONTEXT_ROOT = "/testJdkHttpClientHandler";
+
+    private File testDir;
+
+    private JdkHttpClientHandler handler;
+
+    private AutoCloseable server;
+
+    private String baseUrl;
+
+    private final ConnectionRecorder recorder = new ConnectionRecorder();
+
+    private final TimeoutConstraint defaultTimeoutConstraint;
+
+    {
+        defaultTimeoutConstraint = new NamedTimeoutConstraint("default-jdk-http-client-handler-timeout");
+        ((NamedTimeoutConstraint) defaultTimeoutConstraint).setConnectionTimeout(5000);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeTrue("java.net.http is not available", JdkHttpClientHandler.isSupported());
+        testDir = new File("build/JdkHttpClientHandlerTest");
+        testDir.mkdirs();
+
+        final InetSocketAddress serverBindAddr = new InetSocketAddress("localhost",
+                TestHelper.getMaybeAvailablePort());
+        final Path repoRoot = new File("test/repositories").toPath();
+        assertTrue(repoRoot + " is not a directory", Files.isDirectory(repoRoot));
+        server = TestHelper.createHttpServerBackedRepository(serverBindAddr, CONTEXT_ROOT, repoRoot,
+                recorder);
+        baseUrl = "http://localhost:" + serverBindAddr.getPort() + CONTEXT_ROOT + "/";
+
+        handler = new JdkHttpClientHandler();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (server != null) {
+            server.close();
+        }
+        if (testDir != null) {
+            FileUtil.forceDelete(testDir);
+        }
+    }
+
+    @Test
+    public void testGetURLInfo() throws Exception {
+        URLInfo info = handler.getURLInfo(new URL(baseUrl + "ivysettings.xml"),
+                defaultTimeoutConstraint);
+        assertTrue("URL resource was expected to be reachable", info.isReachable());
+
+        assertEquals(TimeoutConstrainedURLHandler.UNAVAILABLE,
+                handler.getURLInfo(new URL(baseUrl + "unknown.xml"), defaultTimeoutConstraint));
+        assertFalse("URL resource was expected to be unreachable",
+                handler.isReachable(new URL(baseUrl + "unknown.xml"), defaultTimeoutConstraint));
+    }
+
+    @Test
+    public void testDownload() throws Exception {
+        final File target = new File(testDir, "downloaded.xml");
+        handler.download(new URL(baseUrl + "ivysettings.xml"), target, null,
+                defaultTimeoutConstraint);
+        assertTrue("File " + target + " was not downloaded", target.isFile());
+        assertArrayEquals(Files.readAllBytes(new File("test/repositories/ivysettings.xml").toPath()),
+                Files.readAllBytes(target.toPath()));
+
+        try (InputStream stream = handler.openStream(new URL(baseUrl + "ivysettings.xml"),
+                defaultTimeoutConstraint)) {
+            assertEquals(FileUtil.readEntirely(target), FileUtil.readEntirely(stream));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testDownloadUnknown() throws Exception {
+        handler.download(new URL(baseUrl + "unknown.xml"), new File(testDir, "unknown.xml"), null,
+                defaultTimeoutConstraint);
+    }
+
+    /**
+     * Downloads several files with requests sent before waiting for any response.
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Test
+    public void testConcurrentDownloads() throws Exception {
+        final String[] files = {"ivysettings.xml", "1/org1/mod1.1/ivys/ivy-1.0.xml",
+                "1/org1/mod1.1/ivys/ivy-1.1.xml", "1/org1/mod1.4/ivys/ivy-1.0.1.xml",
+                "1/org1/mod1.1/jars/mod1.1-1.0.jar", "1/org1/mod1.2/jars/mod1.2-2.0.jar"};
+        final List<Future<File>> downloads = new ArrayList<>();
+        for (int i = 0; i < files.length; i++) {
+            downloads.add(handler.downloadAsync(new URL(baseUrl + files[i]),
+                new File(testDir, i + ".dl"), null, defaultTimeoutConstraint));
+        }
+        for (int i = 0; i < files.length; i++) {
+            final File downloaded = downloads.get(i).get();
+            assertEquals("Unexpected size of " + files[i],
+                    new File("test/repositories/" + files[i]).length(), downloaded.length());
+        }
+    }
+
+    /**
+     * The handler asks for HTTP/2, and sends its requests over a single connection, like
+     * {@link HttpClientHandler} which keeps the HTTP/1.1 connections alive. The test server only
+     * supports HTTP/1.1, so the upgrade to HTTP/2 is ignored.
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Test
+    public void testHttp2UpgradeAndConnectionReuse() throws Exception {
+        downloadSequentially(handler);
+        assertTrue("HTTP/2 was not asked for: " + recorder.upgrades,
+                recorder.upgrades.contains("h2c"));
+        assertEquals("Connections used: " + recorder.clients, 1, recorder.clients.size());
+
+        recorder.clear();
+        downloadSequentially(new HttpClientHandler());
+        assertTrue(recorder.upgrades.isEmpty());
+        assertEquals("Connections used: " + recorder.clients, 1, recorder.clients.size());
+    }
+
+    /**
+     * Downloads a file over a real HTTP/2 connection: the handler upgrades its first request to
+     * HTTP/2, and then multiplexes the concurrent requests as streams of this connection.
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Test
+    public void testHttp2Connection() throws Exception {
+        final File file = new File("test/repositories/ivysettings.xml");
+        try (H2cServer h2cServer = new H2cServer(Files.readAllBytes(file.toPath()))) {
+            final URL url = new URL("http://localhost:" + h2cServer.getPort()
+                    + "/ivysettings.xml");
+            final File first = new File(testDir, "first.dl");
+            handler.download(url, first, null, defaultTimeoutConstraint);
+            assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(first.toPath()));
+
+            final List<Future<File>> downloads = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                downloads.add(handler.downloadAsync(url, new File(testDir, i + ".dl"), null,
+                    defaultTimeoutConstraint));
+            }
+            for (Future<File> download : downloads) {
+                assertArrayEquals(Files.readAllBytes(file.toPath()),
+                    Files.readAllBytes(download.get().toPath()));
+            }
+            assertEquals(1, h2cServer.connections.get());
+            assertEquals(Arrays.asList(1, 3, 5, 7, 9), new ArrayList<>(h2cServer.streams));
+        }
+    }
+
+    /**
+     * The handler can be selected for the https URLs only, the http URLs of the dispatcher being
+     * handled by the default http downloader.
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Test
+    public void testSelectedPerProtocol() throws Exception {
+        final String property = URLHandlerRegistry.HTTP_HANDLER_PROPERTY + ".https";
+        System.setProperty(property, URLHandlerRegistry.JDK_HTTP_HANDLER);
+        try {
+            final URLHandlerDispatcher dispatcher = new URLHandlerDispatcher();
+            dispatcher.setDownloader("http", URLHandlerRegistry.getHttp("http"));
+            dispatcher.setDownloader("https", URLHandlerRegistry.getHttp("https"));
+            assertTrue(dispatcher.getHandler("https") instanceof JdkHttpClientHandler);
+            assertTrue(dispatcher.getHandler("http") instanceof HttpClientHandler);
+            assertSame(URLHandlerRegistry.getHttp(), dispatcher.getHandler("http"));
+        } finally {
+            System.clearProperty(property);
+        }
+    }
+
+    private void downloadSequentially(TimeoutConstrainedURLHandler urlHandler) throws Exception {
+        final String[] files = {"ivysettings.xml", "1/org1/mod1.1/ivys/ivy-1.0.xml",
+                "1/org1/mod1.1/ivys/ivy-1.1.xml", "1/org1/mod1.1/jars/mod1.1-1.0.jar"};
+        for (int i = 0; i < files.length; i++) {
+            final File target = new File(testDir, i + ".dl");
+            urlHandler.download(new URL(baseUrl + files[i]), target, null,
+                    defaultTimeoutConstraint);
+            assertEquals("Unexpected size of " + files[i],
+                    new File("test/repositories/" + files[i]).length(), target.length());
+        }
+    }
+
+    /**
+     * A minimal HTTP/2 server, only supporting the upgrade of a cleartext HTTP/1.1 connection
+     * (h2c). The request headers are not decoded: every stream gets the same content.
+     */
+    private static final class H2cServer implements AutoCloseable {
+        private static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII);
+
+        private static final int DATA = 0;
+
+        private static final int HEADERS = 1;
+
+        private static final int SETTINGS = 4;
+
+        private static final int PING = 6;
+
+        private static final int GOAWAY = 7;
+
+        private static final int CONTINUATION = 9;
+
+        private static final int END_STREAM = 0x1;
+
+        private static final int ACK = 0x1;
+
+        private static final int END_HEADERS = 0x4;
+
+        private static final int MAX_FRAME_SIZE = 16384;
+
+        private final byte[] content;
+
+        private final ServerSocket serverSocket;
+
+        private final AtomicInteger connections = new AtomicInteger();
+
+        private final Queue<Integer> streams = new ConcurrentLinkedQueue<>();
+
+        H2cServer(final byte[] content) throws IOException {
+            this.content = content;
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            final Thread acceptor = new Thread("h2c-server") {
+                @Override
+                public void run() {
+                    try {
+                        while (true) {
+                            final Socket socket = serverSocket.accept();
+                            connections.incrementAndGet();
+                            final Thread connection = new Thread("h2c-connection") {
+                                @Override
+                                public void run() {
+                                    try (Socket s = socket) {
+                                        serve(s);
+                                    } catch (IOException e) {
+                                        // the connection has been closed
+                                    }
+                                }
+                            };
+                            connection.setDaemon(true);
+                            connection.start();
+                        }
+                    } catch (IOException e) {
+                        // the server has been closed
+                    }
+                }
+            };
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void serve(final Socket socket) throws IOException {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    socket.getInputStream()));
+            final OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            // the HTTP/1.1 request asking for the upgrade, which becomes the stream 1
+            boolean upgrade = false;
+            for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+                upgrade |= line.toLowerCase(Locale.US).matches("upgrade: *h2c");
+            }
+            if (!upgrade) {
+                out.write("HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\n\r\n"
+                        .getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                return;
+            }
+            out.write("HTTP/1.1 101 Switching Protocols\r\nConnection: Upgrade\r\nUpgrade: h2c\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            writeFrame(out, SETTINGS, 0, 0, new byte[0]);
+            respond(out, 1);
+
+            final byte[] preface = new byte[PREFACE.length];
+            in.readFully(preface);
+            assertArrayEquals(PREFACE, preface);
+            while (true) {
+                final int length = in.readUnsignedShort() << 8 | in.readUnsignedByte();
+                final int type = in.readUnsignedByte();
+                final int flags = in.readUnsignedByte();
+                final int stream = in.readInt() & 0x7fffffff;
+                final byte[] payload = new byte[length];
+                in.readFully(payload);
+                if (type == SETTINGS && (flags & ACK) == 0) {
+                    writeFrame(out, SETTINGS, ACK, 0, new byte[0]);
+                } else if (type == PING && (flags & ACK) == 0) {
+                    writeFrame(out, PING, ACK, 0, payload);
+                } else if ((type == HEADERS || type == CONTINUATION)
+                        && (flags & END_HEADERS) != 0) {
+                    respond(out, stream);
+                } else if (type == GOAWAY) {
+                    return;
+                }
+            }
+        }
+
+        private void respond(final OutputStream out, final int stream) throws IOException {
+            streams.add(stream);
+            final ByteArrayOutputStream headers = new ByteArrayOutputStream();
+            // ":status: 200" from the static table of HPACK
+            headers.write(0x88);
+            // "content-length", literal value of the name 28 of the static table, not indexed
+            final byte[] length = String.valueOf(content.length)
+                    .getBytes(StandardCharsets.US_ASCII);
+            headers.write(0x0f);
+            headers.write(28 - 15);
+            headers.write(length.length);
+            headers.write(length);
+            writeFrame(out, HEADERS, END_HEADERS, stream, headers.toByteArray());
+            int offset = 0;
+            do {
+                final int len = Math.min(MAX_FRAME_SIZE, content.length - offset);
+                writeFrame(out, DATA, offset + len == content.length ? END_STREAM : 0, stream,
+                    Arrays.copyOfRange(content, offset, offset + len));
+                offset += len;
+            } while (offset < content.length);
+        }
+
+        private static void writeFrame(final OutputStream out, final int type, final int flags,
+                final int stream, final byte[] payload) throws IOException {
+            out.write(payload.length >>> 16);
+            out.write(payload.length >>> 8);
+            out.write(payload.length);
+            out.write(type);
+            out.write(flags);
+            out.write(new byte[] {(byte) (stream >>> 24), (byte) (stream >>> 16),
+                    (byte) (stream >>> 8), (byte) stream});
+            out.write(payload);
+            out.flush();
+        }
+
+        private static String readLine(final InputStream in) throws IOException {
+            final StringBuilder line = new StringBuilder();
+            for (int c = in.read(); c != '\n'; c = in.read()) {
+                if (c == -1) {
+                    throw new EOFException();
+                }
+                if (c != '\r') {
+                    line.append((char) c);
+                }
+            }
+            return line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+
+    /**
+     * Records the client end of the connections used by the requests, and the protocols they ask
+     * to upgrade to.
+     */
+    private static final class ConnectionRecorder extends Filter {
+        private final Set<InetSocketAddress> clients = Collections
+                .synchronizedSet(new HashSet<InetSocketAddress>());
+
+        private final Set<String> upgrades = Collections.synchronizedSet(new HashSet<String>());
+
+        @Override
+        public void doFilter(final HttpExchange exchange, final Chain chain) throws IOException {
+            clients.add(exchange.getRemoteAddress());
+            final String upgrade = exchange.getRequestHeaders().getFirst("Upgrade");
+            if (upgrade != null) {
+                upgrades.add(upgrade);
+            }
+            chain.doFilter(exchange);
+        }
+
+        @Override
+        public String description() {
+            return "records the connections";
+        }
+
+        void clear() {
+            clients.clear();
+            upgrades.clear();
+        }
+    }
+}